@@ -0,0 +1,126 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.benchmarks.bindings;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.jadira.bindings.core.annotation.typesafe.FromString;
+import org.jadira.bindings.core.annotation.typesafe.ToString;
+import org.jadira.bindings.core.binder.BasicBinder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures single conversions through {@link BasicBinder}, both for the built in JDK bindings and for a class
+ * bound by {@link ToString} and {@link FromString} annotated methods.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinderBenchmark {
+
+	private BasicBinder binder;
+
+	private Integer integerValue;
+	private BigDecimal bigDecimalValue;
+	private Code codeValue;
+
+	private String integerString;
+	private String bigDecimalString;
+	private String codeString;
+
+	@Setup
+	public void setUp() {
+
+		binder = new BasicBinder();
+
+		integerValue = Integer.valueOf(123456);
+		bigDecimalValue = new BigDecimal("12345.6789");
+		codeValue = new Code("JDR");
+
+		integerString = "123456";
+		bigDecimalString = "12345.6789";
+		codeString = "JDR";
+
+		// Resolve each converter once so that the first measured call is not a cache miss
+		binder.convertToString(integerValue);
+		binder.convertToString(codeValue);
+	}
+
+	@Benchmark
+	public String convertToStringInteger() {
+		return binder.convertTo(String.class, integerValue);
+	}
+
+	@Benchmark
+	public String convertToStringBigDecimal() {
+		return binder.convertTo(String.class, bigDecimalValue);
+	}
+
+	@Benchmark
+	public String convertToStringAnnotated() {
+		return binder.convertTo(String.class, codeValue);
+	}
+
+	@Benchmark
+	public Integer convertFromStringInteger() {
+		return binder.convertFromString(Integer.class, integerString);
+	}
+
+	@Benchmark
+	public BigDecimal convertFromStringBigDecimal() {
+		return binder.convertFromString(BigDecimal.class, bigDecimalString);
+	}
+
+	@Benchmark
+	public Code convertFromStringAnnotated() {
+		return binder.convertFromString(Code.class, codeString);
+	}
+
+	/**
+	 * A value type bound using annotated methods
+	 */
+	public static class Code {
+
+		private final String value;
+
+		public Code(String value) {
+			this.value = value;
+		}
+
+		@FromString
+		public static Code parse(String value) {
+			return new Code(value);
+		}
+
+		@ToString
+		public String getValue() {
+			return value;
+		}
+	}
+}
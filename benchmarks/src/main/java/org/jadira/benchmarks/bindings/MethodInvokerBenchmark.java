@@ -0,0 +1,91 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.benchmarks.bindings;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.jadira.bindings.core.utils.reflection.MethodInvoker;
+import org.jadira.bindings.core.utils.reflection.MethodInvokers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the ways the marshallers and unmarshallers can call a bound method: the spun {@link MethodInvoker}
+ * created by {@link MethodInvokers#forMethod(Method)}, the {@link MethodHandle} fallback, plain reflection and a
+ * direct call as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodInvokerBenchmark {
+
+	private String argument;
+
+	private Method method;
+	private MethodHandle handle;
+	private MethodInvoker spunInvoker;
+	private MethodInvoker handleInvoker;
+
+	@Setup
+	public void setUp() throws NoSuchMethodException, IllegalAccessException {
+
+		argument = "123456";
+
+		method = Integer.class.getMethod("valueOf", String.class);
+		handle = MethodHandles.lookup().unreflect(method);
+		spunInvoker = MethodInvokers.forMethod(method);
+		handleInvoker = MethodInvokers.handleInvoker(handle);
+	}
+
+	@Benchmark
+	public Object direct() {
+		return Integer.valueOf(argument);
+	}
+
+	@Benchmark
+	public Object spunInvoker() throws Throwable {
+		return spunInvoker.invoke(argument);
+	}
+
+	@Benchmark
+	public Object handleInvoker() throws Throwable {
+		return handleInvoker.invoke(argument);
+	}
+
+	@Benchmark
+	public Object methodHandleInvoke() throws Throwable {
+		return handle.invoke(argument);
+	}
+
+	@Benchmark
+	public Object reflection() throws Exception {
+		return method.invoke(null, argument);
+	}
+}
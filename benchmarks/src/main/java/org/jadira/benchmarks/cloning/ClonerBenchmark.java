@@ -0,0 +1,98 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.benchmarks.cloning;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jadira.reflection.cloning.BasicCloner;
+import org.jadira.reflection.cloning.api.CloneStrategy;
+import org.jadira.reflection.cloning.implementor.AsmCloneStrategy;
+import org.jadira.reflection.cloning.implementor.CompiledCloneStrategy;
+import org.jadira.reflection.cloning.implementor.InvokeDynamicCloneStrategy;
+import org.jadira.reflection.cloning.implementor.MethodHandleCloneStrategy;
+import org.jadira.reflection.cloning.implementor.PortableCloneStrategy;
+import org.jadira.reflection.cloning.implementor.UnsafeCloneStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link BasicCloner#clone(Object)} of a {@link SampleGraph} under each {@link CloneStrategy}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClonerBenchmark {
+
+	@Param({ "UNSAFE", "ASM", "INVOKE_DYNAMIC", "PORTABLE", "COMPILED", "METHOD_HANDLE" })
+	public String strategy;
+
+	@Param({ "10", "1000" })
+	public int size;
+
+	private BasicCloner cloner;
+
+	private SampleGraph graph;
+
+	private SampleGraph.Item item;
+
+	@Setup
+	public void setUp() {
+
+		cloner = new BasicCloner(strategyFor(strategy));
+		graph = SampleGraph.create(size);
+		item = graph.items[0];
+	}
+
+	@Benchmark
+	public SampleGraph cloneGraph() {
+		return cloner.clone(graph);
+	}
+
+	@Benchmark
+	public SampleGraph.Item cloneFlatObject() {
+		return cloner.clone(item);
+	}
+
+	private static CloneStrategy strategyFor(String name) {
+
+		if ("UNSAFE".equals(name)) {
+			return UnsafeCloneStrategy.getInstance();
+		} else if ("ASM".equals(name)) {
+			return AsmCloneStrategy.getInstance();
+		} else if ("INVOKE_DYNAMIC".equals(name)) {
+			return InvokeDynamicCloneStrategy.getInstance();
+		} else if ("PORTABLE".equals(name)) {
+			return PortableCloneStrategy.getInstance();
+		} else if ("COMPILED".equals(name)) {
+			return CompiledCloneStrategy.getInstance();
+		} else if ("METHOD_HANDLE".equals(name)) {
+			return MethodHandleCloneStrategy.getInstance();
+		}
+		throw new IllegalStateException("Unknown clone strategy: " + name);
+	}
+}
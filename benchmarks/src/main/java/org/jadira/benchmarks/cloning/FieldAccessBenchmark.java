@@ -0,0 +1,113 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.benchmarks.cloning;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jadira.reflection.access.api.ClassAccess;
+import org.jadira.reflection.access.api.ClassAccessFactory;
+import org.jadira.reflection.access.api.FieldAccess;
+import org.jadira.reflection.access.asm.AsmClassAccessFactory;
+import org.jadira.reflection.access.invokedynamic.InvokeDynamicClassAccessFactory;
+import org.jadira.reflection.access.methodhandle.MethodHandleClassAccessFactory;
+import org.jadira.reflection.access.unsafe.UnsafeClassAccessFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures reading and writing a field through the {@link FieldAccess} of each {@link ClassAccessFactory}.
+ * The portable factory is not included as its FieldAccess does not support typed primitive access.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldAccessBenchmark {
+
+	@Param({ "UNSAFE", "ASM", "INVOKE_DYNAMIC", "METHOD_HANDLE" })
+	public String factory;
+
+	private FieldAccess<Quote> priceAccess;
+
+	private FieldAccess<Quote> symbolAccess;
+
+	private Quote source;
+
+	private Quote target;
+
+	@Setup
+	public void setUp() throws NoSuchFieldException {
+
+		final ClassAccess<Quote> classAccess = factoryFor(factory).getClassAccess(Quote.class);
+		priceAccess = classAccess.getDeclaredFieldAccess(Quote.class.getDeclaredField("price"));
+		symbolAccess = classAccess.getDeclaredFieldAccess(Quote.class.getDeclaredField("symbol"));
+
+		source = new Quote();
+		source.price = 108420L;
+		source.symbol = "EURUSD";
+		target = new Quote();
+	}
+
+	@Benchmark
+	public long getLongField() {
+		return priceAccess.getLongValue(source);
+	}
+
+	@Benchmark
+	public Object getObjectField() {
+		return symbolAccess.getValue(source);
+	}
+
+	@Benchmark
+	public Quote copyFields() {
+		priceAccess.putLongValue(target, priceAccess.getLongValue(source));
+		symbolAccess.putValue(target, symbolAccess.getValue(source));
+		return target;
+	}
+
+	private static ClassAccessFactory factoryFor(String name) {
+
+		if ("UNSAFE".equals(name)) {
+			return UnsafeClassAccessFactory.get();
+		} else if ("ASM".equals(name)) {
+			return AsmClassAccessFactory.get();
+		} else if ("INVOKE_DYNAMIC".equals(name)) {
+			return InvokeDynamicClassAccessFactory.get();
+		} else if ("METHOD_HANDLE".equals(name)) {
+			return MethodHandleClassAccessFactory.get();
+		}
+		throw new IllegalStateException("Unknown class access factory: " + name);
+	}
+
+	/**
+	 * The fields are public so that every factory, including ASM, can access them directly
+	 */
+	public static class Quote {
+		public long price;
+		public String symbol;
+	}
+}
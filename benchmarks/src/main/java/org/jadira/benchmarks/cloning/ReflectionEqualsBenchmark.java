@@ -0,0 +1,108 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.benchmarks.cloning;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.jadira.reflection.cloning.BasicCloner;
+import org.jadira.reflection.equals.EqualsBuilder;
+import org.jadira.reflection.hashcode.HashCodeBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link EqualsBuilder#reflectionEquals(Object, Object)} and {@link HashCodeBuilder#reflectionHashCode(Object)}.
+ * The builders compare referenced objects using their own equals method, so the graph is compared with a copy that
+ * has its own arrays and collections but shares their elements. This means every field is compared.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReflectionEqualsBenchmark {
+
+	@Param({ "10", "1000" })
+	public int size;
+
+	private SampleGraph graph;
+	private SampleGraph copy;
+
+	private SampleGraph.Item item;
+	private SampleGraph.Item itemCopy;
+
+	@Setup
+	public void setUp() {
+
+		graph = SampleGraph.create(size);
+		copy = copyOf(graph);
+
+		item = graph.items[0];
+		itemCopy = new BasicCloner().clone(item);
+	}
+
+	@Benchmark
+	public boolean reflectionEqualsGraph() {
+		return EqualsBuilder.reflectionEquals(graph, copy);
+	}
+
+	@Benchmark
+	public boolean reflectionEqualsFlatObject() {
+		return EqualsBuilder.reflectionEquals(item, itemCopy);
+	}
+
+	@Benchmark
+	public int reflectionHashCodeGraph() {
+		return HashCodeBuilder.reflectionHashCode(graph);
+	}
+
+	@Benchmark
+	public int reflectionHashCodeFlatObject() {
+		return HashCodeBuilder.reflectionHashCode(item);
+	}
+
+	private static SampleGraph copyOf(SampleGraph graph) {
+
+		SampleGraph copy = new SampleGraph();
+		copy.id = graph.id;
+		copy.version = graph.version;
+		copy.ratio = graph.ratio;
+		copy.active = graph.active;
+		copy.name = new String(graph.name);
+		copy.amount = new BigDecimal(graph.amount.toString());
+		copy.counts = Arrays.copyOf(graph.counts, graph.counts.length);
+		copy.items = Arrays.copyOf(graph.items, graph.items.length);
+		copy.itemList = new ArrayList<SampleGraph.Item>(graph.itemList);
+		copy.itemsByName = new HashMap<String, SampleGraph.Item>(graph.itemsByName);
+		copy.parent = graph.parent;
+		copy.self = graph.self;
+		return copy;
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.benchmarks.cloning;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A representative object graph used by the cloning and reflection benchmarks. It mixes primitive fields,
+ * immutable JDK types, arrays, collections, shared references and a cycle.
+ */
+public class SampleGraph {
+
+	public long id;
+	public int version;
+	public double ratio;
+	public boolean active;
+
+	public String name;
+	public BigDecimal amount;
+
+	public int[] counts;
+	public Item[] items;
+
+	public List<Item> itemList;
+	public Map<String, Item> itemsByName;
+
+	public SampleGraph parent;
+	public SampleGraph self;
+
+	/**
+	 * Build a graph with the given number of items
+	 * @param size The number of items
+	 * @return A new graph
+	 */
+	public static SampleGraph create(int size) {
+
+		SampleGraph parent = new SampleGraph();
+		parent.id = -1L;
+		parent.name = "parent";
+
+		SampleGraph graph = new SampleGraph();
+		graph.id = 42L;
+		graph.version = 7;
+		graph.ratio = 0.75D;
+		graph.active = true;
+		graph.name = "graph";
+		graph.amount = new BigDecimal("1234.5678");
+		graph.parent = parent;
+		graph.self = graph;
+
+		graph.counts = new int[size];
+		graph.items = new Item[size];
+		graph.itemList = new ArrayList<Item>(size);
+		graph.itemsByName = new HashMap<String, Item>(size * 2);
+
+		for (int i = 0; i < size; i++) {
+
+			Item item = new Item();
+			item.index = i;
+			item.name = "item" + i;
+			item.value = i * 1.5D;
+			item.tags = new String[] { "a" + i, "b" + i };
+
+			graph.counts[i] = i;
+			// Each item is reachable three times so that references must be tracked
+			graph.items[i] = item;
+			graph.itemList.add(item);
+			graph.itemsByName.put(item.name, item);
+		}
+		return graph;
+	}
+
+	/**
+	 * An element of the graph
+	 */
+	public static class Item {
+
+		public int index;
+		public String name;
+		public double value;
+		public String[] tags;
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.benchmarks.lang;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.jadira.lang.io.buffered.ByteArrayBufferedInputStream;
+import org.jadira.lang.io.buffered.BytesBufferedInputStream;
+import org.jadira.lang.io.buffered.ChannelBufferedInputStream;
+import org.jadira.lang.io.buffered.DirectBytesBufferedInputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures reading a stream to its end through the lang.io buffered streams, using {@link BufferedInputStream}
+ * as the baseline. Reads are made a byte at a time, into the start of a caller supplied array and at an offset within it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BufferedInputStreamBenchmark {
+
+	private static final int DATA_SIZE = 1024 * 1024;
+
+	@Param({ "JDK", "BYTE_ARRAY", "BYTES", "DIRECT_BYTES", "CHANNEL" })
+	public String stream;
+
+	@Param({ "8192", "65536" })
+	public int bufferSize;
+
+	@Param({ "256", "4096" })
+	public int readSize;
+
+	private byte[] data;
+
+	private byte[] readBuffer;
+
+	@Setup
+	public void setUp() {
+
+		data = new byte[DATA_SIZE];
+		new Random(DATA_SIZE).nextBytes(data);
+
+		readBuffer = new byte[readSize + 1];
+	}
+
+	@Benchmark
+	public long readBytes() throws IOException {
+
+		long total = 0;
+		InputStream in = newStream();
+		try {
+			int next;
+			while ((next = in.read()) != -1) {
+				total += next;
+			}
+		} finally {
+			in.close();
+		}
+		return total;
+	}
+
+	@Benchmark
+	public long readArray() throws IOException {
+
+		long total = 0;
+		InputStream in = newStream();
+		try {
+			int count;
+			while ((count = in.read(readBuffer, 0, readSize)) != -1) {
+				total += count;
+			}
+		} finally {
+			in.close();
+		}
+		return total;
+	}
+
+	@Benchmark
+	public long readArrayAtOffset() throws IOException {
+
+		long total = 0;
+		InputStream in = newStream();
+		try {
+			int count;
+			while ((count = in.read(readBuffer, 1, readSize)) != -1) {
+				total += count;
+			}
+		} finally {
+			in.close();
+		}
+		return total;
+	}
+
+	private InputStream newStream() {
+
+		InputStream source = new ByteArrayInputStream(data);
+
+		if ("JDK".equals(stream)) {
+			return new BufferedInputStream(source, bufferSize);
+		} else if ("BYTE_ARRAY".equals(stream)) {
+			return new ByteArrayBufferedInputStream(source, bufferSize);
+		} else if ("BYTES".equals(stream)) {
+			return new BytesBufferedInputStream(source, bufferSize);
+		} else if ("DIRECT_BYTES".equals(stream)) {
+			return new DirectBytesBufferedInputStream(source, bufferSize);
+		} else if ("CHANNEL".equals(stream)) {
+			return new ChannelBufferedInputStream(source, bufferSize);
+		}
+		throw new IllegalStateException("Unknown stream: " + stream);
+	}
+}
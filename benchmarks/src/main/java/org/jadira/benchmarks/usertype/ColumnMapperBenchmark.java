@@ -0,0 +1,142 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.benchmarks.usertype;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.jadira.usertype.dateandtime.threeten.columnmapper.DateColumnLocalDateMapper;
+import org.jadira.usertype.dateandtime.threeten.columnmapper.LongColumnInstantMapper;
+import org.jadira.usertype.dateandtime.threeten.columnmapper.StringColumnLocalDateMapper;
+import org.jadira.usertype.dateandtime.threeten.columnmapper.TimestampColumnLocalDateTimeMapper;
+import org.jadira.usertype.dateandtime.threeten.columnmapper.TimestampColumnZonedDateTimeMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the fromNonNullValue / toNonNullValue pairs of a representative set of column mappers,
+ * covering String, Long, Date and Timestamp columns
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColumnMapperBenchmark {
+
+	private StringColumnLocalDateMapper stringColumnLocalDateMapper;
+	private LongColumnInstantMapper longColumnInstantMapper;
+	private DateColumnLocalDateMapper dateColumnLocalDateMapper;
+	private TimestampColumnLocalDateTimeMapper timestampColumnLocalDateTimeMapper;
+	private TimestampColumnZonedDateTimeMapper timestampColumnZonedDateTimeMapper;
+
+	private LocalDate localDate;
+	private Instant instant;
+	private LocalDateTime localDateTime;
+	private ZonedDateTime zonedDateTime;
+
+	private String localDateString;
+	private Long instantLong;
+	private Date localDateDate;
+	private Timestamp localDateTimeTimestamp;
+	private Timestamp zonedDateTimeTimestamp;
+
+	@Setup
+	public void setUp() {
+
+		stringColumnLocalDateMapper = new StringColumnLocalDateMapper();
+		longColumnInstantMapper = new LongColumnInstantMapper();
+		dateColumnLocalDateMapper = new DateColumnLocalDateMapper();
+		timestampColumnLocalDateTimeMapper = new TimestampColumnLocalDateTimeMapper();
+		timestampColumnZonedDateTimeMapper = new TimestampColumnZonedDateTimeMapper(ZoneOffset.UTC);
+
+		localDateTime = LocalDateTime.of(2015, 3, 27, 14, 30, 15, 123456789);
+		localDate = localDateTime.toLocalDate();
+		zonedDateTime = localDateTime.atZone(ZoneOffset.UTC);
+		instant = zonedDateTime.toInstant();
+
+		localDateString = stringColumnLocalDateMapper.toNonNullValue(localDate);
+		instantLong = longColumnInstantMapper.toNonNullValue(instant);
+		localDateDate = dateColumnLocalDateMapper.toNonNullValue(localDate);
+		localDateTimeTimestamp = timestampColumnLocalDateTimeMapper.toNonNullValue(localDateTime);
+		zonedDateTimeTimestamp = timestampColumnZonedDateTimeMapper.toNonNullValue(zonedDateTime);
+	}
+
+	@Benchmark
+	public LocalDate stringColumnLocalDateFromValue() {
+		return stringColumnLocalDateMapper.fromNonNullValue(localDateString);
+	}
+
+	@Benchmark
+	public String stringColumnLocalDateToValue() {
+		return stringColumnLocalDateMapper.toNonNullValue(localDate);
+	}
+
+	@Benchmark
+	public Instant longColumnInstantFromValue() {
+		return longColumnInstantMapper.fromNonNullValue(instantLong);
+	}
+
+	@Benchmark
+	public Long longColumnInstantToValue() {
+		return longColumnInstantMapper.toNonNullValue(instant);
+	}
+
+	@Benchmark
+	public LocalDate dateColumnLocalDateFromValue() {
+		return dateColumnLocalDateMapper.fromNonNullValue(localDateDate);
+	}
+
+	@Benchmark
+	public Date dateColumnLocalDateToValue() {
+		return dateColumnLocalDateMapper.toNonNullValue(localDate);
+	}
+
+	@Benchmark
+	public LocalDateTime timestampColumnLocalDateTimeFromValue() {
+		return timestampColumnLocalDateTimeMapper.fromNonNullValue(localDateTimeTimestamp);
+	}
+
+	@Benchmark
+	public Timestamp timestampColumnLocalDateTimeToValue() {
+		return timestampColumnLocalDateTimeMapper.toNonNullValue(localDateTime);
+	}
+
+	@Benchmark
+	public ZonedDateTime timestampColumnZonedDateTimeFromValue() {
+		return timestampColumnZonedDateTimeMapper.fromNonNullValue(zonedDateTimeTimestamp);
+	}
+
+	@Benchmark
+	public Timestamp timestampColumnZonedDateTimeToValue() {
+		return timestampColumnZonedDateTimeMapper.toNonNullValue(zonedDateTime);
+	}
+}
@@ -39,9 +39,11 @@ import java.util.Set;
 import java.util.TimeZone;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 import javax.enterprise.inject.Typed;
 
@@ -120,10 +122,31 @@ public class BasicBinder implements Binder, RegisterableBinder {
 	private final List<ConverterProvider> converterProviders = new ArrayList<ConverterProvider>();
 	
 	/**
-	 * A map of registered converters
+	 * A map of registered converters, used to enumerate the registered keys. Lookups use {@link #converterIndex}
 	 */
 	private ConcurrentHashMap<ConverterKey<?,?>, Converter<?,?>> registeredConverters = new ConcurrentHashMap<ConverterKey<?,?>, Converter<?,?>>();
 
+	/**
+	 * The registered converters, indexed by input class, output class and qualifier so they can be found without allocating a key
+	 */
+	private final ClassIndexedTable<Converter<?,?>> converterIndex = new ClassIndexedTable<Converter<?,?>>();
+
+	/**
+	 * Marker held in the resolution cache for keys which cannot be resolved to a converter
+	 */
+	private static final Object NO_CONVERTER = new Object();
+	
+	/**
+	 * A cache of converters resolved by searching the runtime class hierarchy, indexed by runtime class, output and qualifier.
+	 * Failed resolutions are also held (as {@link #NO_CONVERTER}). The cache is cleared whenever a new converter is registered.
+	 */
+	private final ClassIndexedTable<Object> resolvedConverters = new ClassIndexedTable<Object>();
+	
+	/**
+	 * Incremented each time a new converter is registered. Used to avoid caching a resolution that raced with a registration.
+	 */
+	private final AtomicLong registrationCount = new AtomicLong();
+
 	/**
 	 * A map of registered converters
 	 */
@@ -488,7 +511,7 @@ public class BasicBinder implements Binder, RegisterableBinder {
 		for (Class<?> nextClass : classesToInspect) {
 			
 			Class<?> loopClass = nextClass;
-			while ((loopClass != Object.class) && (!inspectedClasses.contains(loopClass))) {
+			while ((loopClass != null) && (loopClass != Object.class) && (!inspectedClasses.contains(loopClass))) {
 	
 				attachForAnnotations(loopClass);
 	
@@ -690,8 +713,14 @@ public class BasicBinder implements Binder, RegisterableBinder {
             throw new IllegalArgumentException("Qualifier must not be null");
         }
 
-        Converter<?,?> old = registeredConverters.putIfAbsent(key, converter);
-        if (old != null && (!isSameConverter(old, converter))) {
+        Converter<?,?> old = converterIndex.putIfAbsent(key.getInputClass(), key.getOutputClass(), key.getQualifierAnnotation(), converter);
+        if (old == null) {
+        	registeredConverters.put(key, converter);
+        	
+        	// A new key may change how any previously resolved (or unresolvable) hierarchy search turns out
+        	registrationCount.incrementAndGet();
+        	resolvedConverters.clear();
+        } else if (!isSameConverter(old, converter)) {
         	throw new IllegalStateException("Converter already registered for key: " + key);
         }
     }
@@ -745,22 +774,58 @@ public class BasicBinder implements Binder, RegisterableBinder {
 		}
 		
 		@SuppressWarnings("unchecked")
-		Converter<S, T> conv = (Converter<S, T>) determineConverter(object.getClass(), output, qualifier == null ? DefaultBinding.class : qualifier);
+		Class<S> inputClass = (Class<S>)object.getClass();
+		Class<? extends Annotation> theQualifier = qualifier == null ? DefaultBinding.class : qualifier;
+		
+		Converter<S, T> conv = resolveConverter(inputClass, output, theQualifier);
 		
 		if (conv == null) {
-			@SuppressWarnings("unchecked")
-			Class<S> inputClass = (Class<S>)object.getClass();
-			throw new NoConverterFoundException(new ConverterKey<S,T>(inputClass, output, qualifier == null ? DefaultBinding.class : qualifier));
+			throw new NoConverterFoundException(new ConverterKey<S,T>(inputClass, output, theQualifier));
 		}
 		
 		@SuppressWarnings("unchecked")
 		S myObject = (S)object;
 		return conv.convert(myObject);
 	}
+
+	/**
+	 * Resolve the converter for the given runtime class, searching its hierarchy if needed. The result, including
+	 * a failure to resolve, is cached until the next new converter is registered.
+	 * @param input The runtime input class
+	 * @param output The output class
+	 * @param qualifier The qualifier
+	 * @return The converter, or null if none can be found
+	 */
+	<S, T> Converter<S, T> resolveConverter(Class<S> input, Class<T> output, Class<? extends Annotation> qualifier) {
+		
+		Object cached = resolvedConverters.get(input, output, qualifier);
+		if (cached == null) {
+			
+			long registrationsBefore = registrationCount.get();
+			Converter<S, T> match = determineConverter(input, output, qualifier);
+			
+			resolvedConverters.put(input, output, qualifier, match == null ? NO_CONVERTER : match);
+			
+			// Discard the result if a registration happened during the search (introspection can register converters)
+			if (registrationsBefore != registrationCount.get()) {
+				resolvedConverters.remove(input, output, qualifier);
+			}
+			return match;
+		}
+		
+		if (cached == NO_CONVERTER) {
+			return null;
+		}
+
+		@SuppressWarnings("unchecked")
+		Converter<S, T> converter = (Converter<S, T>) cached;
+		return converter;
+	}
 		
 	private <S, T> Converter<S, T> determineConverter(Class<S> candidateClass, Class<T> output, Class<? extends Annotation> qualifier) {
 		
-		if (!candidateClass.equals(Object.class)) {
+		// Interfaces have no superclass, so the search can end on null as well as Object
+		if (candidateClass != null && !candidateClass.equals(Object.class)) {
 			Converter<S, T> match = findConverter(candidateClass, output, qualifier);
 			if (match != null) {
 				return match;
@@ -792,7 +857,7 @@ public class BasicBinder implements Binder, RegisterableBinder {
 	 * @param object The object to be converted
 	 */
 	public <S, T> T convertTo(Class<S> input, Class<T> output, Object object) {
-		return convertTo(new ConverterKey<S,T>(input, output, DefaultBinding.class), object);
+		return convertTo(input, output, object, DefaultBinding.class);
 	}
 
 	/**
@@ -804,7 +869,20 @@ public class BasicBinder implements Binder, RegisterableBinder {
 	 */
 	public <S, T> T convertTo(Class<S> input, Class<T> output, Object object, Class<? extends Annotation> qualifier) {
 
-		return convertTo(new ConverterKey<S,T>(input, output, qualifier), object);
+		if (object == null) {
+			return null;
+		}
+		
+		Class<? extends Annotation> theQualifier = qualifier == null ? DefaultBinding.class : qualifier;
+		Converter<S, T> conv = findConverter(input, output, theQualifier);
+		
+		if (conv == null) {
+			throw new NoConverterFoundException(new ConverterKey<S,T>(input, output, theQualifier));
+		}
+		
+		@SuppressWarnings("unchecked")
+		S myObject = (S)object;
+		return conv.convert(myObject);
 	}
 
 	/**
@@ -818,7 +896,7 @@ public class BasicBinder implements Binder, RegisterableBinder {
 			return null;
 		}
 		
-		Converter<S, T> conv = findConverter(key.getInputClass(), key.getOutputClass(), key.getQualifierAnnotation() == null ? DefaultBinding.class : key.getQualifierAnnotation());
+		Converter<S, T> conv = findConverter(key);
 		
 		if (conv == null) {
 			throw new NoConverterFoundException(key);
@@ -829,6 +907,108 @@ public class BasicBinder implements Binder, RegisterableBinder {
 		return conv.convert(myObject);
 	}
 	
+    /***********************
+     *                     *
+     * Bulk Conversion API * 
+     *                     *
+     ***********************/
+
+	/**
+	 * {@inheritDoc}
+	 */
+	/* @Override */
+	public <T> List<T> convertAll(Class<T> output, Iterable<?> objects) {
+		return convertAll(output, objects, DefaultBinding.class);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	/* @Override */
+	public <T> List<T> convertAll(Class<T> output, Iterable<?> objects, Class<? extends Annotation> qualifier) {
+		
+		BulkConverter<T> converter = new BulkConverter<T>(this, output, qualifier == null ? DefaultBinding.class : qualifier);
+		return converter.convertIterable(objects);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	/* @Override */
+	public <T> T[] convertAll(Class<T> output, Object[] objects) {
+		return convertAll(output, objects, DefaultBinding.class, null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	/* @Override */
+	public <T> T[] convertAll(Class<T> output, Object[] objects, Class<? extends Annotation> qualifier) {
+		return convertAll(output, objects, qualifier, null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	/* @Override */
+	public <T> T[] convertAll(Class<T> output, Object[] objects, Class<? extends Annotation> qualifier, ForkJoinPool pool) {
+		
+		BulkConverter<T> converter = new BulkConverter<T>(this, output, qualifier == null ? DefaultBinding.class : qualifier);
+		return converter.convertArray(objects, pool);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	/* @Override */
+	public <T> Stream<T> convertAll(Class<T> output, Stream<?> objects) {
+		return convertAll(output, objects, DefaultBinding.class);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	/* @Override */
+	public <T> Stream<T> convertAll(Class<T> output, Stream<?> objects, Class<? extends Annotation> qualifier) {
+		
+		BulkConverter<T> converter = new BulkConverter<T>(this, output, qualifier == null ? DefaultBinding.class : qualifier);
+		return converter.convertStream(objects);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	/* @Override */
+	public <T> T[] convertFromStrings(Class<T> output, String[] objects) {
+		return convertFromStrings(output, objects, DefaultBinding.class, null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	/* @Override */
+	public <T> T[] convertFromStrings(Class<T> output, String[] objects, Class<? extends Annotation> qualifier) {
+		return convertFromStrings(output, objects, qualifier, null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	/* @Override */
+	public <T> T[] convertFromStrings(Class<T> output, String[] objects, Class<? extends Annotation> qualifier, ForkJoinPool pool) {
+		
+		Class<? extends Annotation> theQualifier = qualifier == null ? DefaultBinding.class : qualifier;
+		
+		// Resolve exactly as convertFromString does, once for the whole array
+		Converter<String, T> conv = findConverter(String.class, output, theQualifier);
+		if (conv == null) {
+			throw new NoConverterFoundException(new ConverterKey<String,T>(String.class, output, theQualifier));
+		}
+		
+		BulkConverter<T> converter = BulkConverter.withConverter(this, String.class, conv, output, theQualifier);
+		return converter.convertArray(objects, pool);
+	}
+	
     /*************************
      *                       *
      * Conversion Resolution * 
@@ -865,7 +1045,7 @@ public class BasicBinder implements Binder, RegisterableBinder {
 	 * @param output The output class  
 	 */
 	public <S, T> Converter<S, T> findConverter(Class<S> input, Class<T> output) {
-		return findConverter(new ConverterKey<S,T>(input, output, DefaultBinding.class));
+		return findConverter(input, output, DefaultBinding.class);
 	}
 
 	/**
@@ -982,30 +1162,32 @@ public class BasicBinder implements Binder, RegisterableBinder {
 	 * @param qualifier The qualifier for which the marshaller must be registered   
 	 */
 	public <S, T> Converter<S, T> findConverter(Class<S> source, Class<T> target, Class<? extends Annotation> qualifier) {
-		return findConverter(new ConverterKey<S,T>(source, target, qualifier == null ? DefaultBinding.class : qualifier));
-	}
-	
-	/**
-	 * Resolve a Converter with the given input and output classes. Instances of the input class can be converted into 
-	 * instances of the output class
-	 * @param key The key to look up
-	 */
-	public <S, T> Converter<S, T> findConverter(ConverterKey<S,T> key) {
+		
+		Class<? extends Annotation> theQualifier = qualifier == null ? DefaultBinding.class : qualifier;
 		
 		 // We check once before attempting introspection so we avoid that if possible
 		@SuppressWarnings("unchecked")
-		Converter<S,T> converter = (Converter<S, T>) registeredConverters.get(key);
+		Converter<S,T> converter = (Converter<S, T>) converterIndex.get(source, target, theQualifier);
 		if (converter != null) {
 			return converter;
 		}
 		
 		// Now try introspecting the relevant class
-		registerAnnotatedClasses(key.getInputClass(), key.getOutputClass());
+		registerAnnotatedClasses(source, target);
 
 		@SuppressWarnings("unchecked")
-		Converter<S,T> myConverter = (Converter<S, T>) registeredConverters.get(key);
+		Converter<S,T> myConverter = (Converter<S, T>) converterIndex.get(source, target, theQualifier);
 		return myConverter;
 	}
+	
+	/**
+	 * Resolve a Converter with the given input and output classes. Instances of the input class can be converted into 
+	 * instances of the output class
+	 * @param key The key to look up
+	 */
+	public <S, T> Converter<S, T> findConverter(ConverterKey<S,T> key) {
+		return findConverter(key.getInputClass(), key.getOutputClass(), key.getQualifierAnnotation());
+	}
 
 	/**
 	 * Resolve an UnMarshaller with the given source and target class.
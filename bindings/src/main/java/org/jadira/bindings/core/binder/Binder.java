@@ -15,5 +15,5 @@
  */
 package org.jadira.bindings.core.binder;
 
-public interface Binder extends SearchableBinder, ConversionBinder, StringBinder {
+public interface Binder extends SearchableBinder, ConversionBinder, StringBinder, BulkConversionBinder {
 }
\ No newline at end of file
@@ -0,0 +1,194 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.bindings.core.binder;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.jadira.bindings.core.annotation.DefaultBinding;
+
+/**
+ * Converts many objects in a single call. Null elements are converted to null.
+ * 
+ * The default methods convert each element in turn using {@link #convertTo(Class, Object, Class)} or
+ * {@link #convertFromString(Class, String, Class)}, so existing implementations need not provide them.
+ * {@link BasicBinder} overrides them to remember the converter resolved for the most recent runtime class,
+ * so a run of elements of the same class is converted without resolving the converter again.
+ */
+public interface BulkConversionBinder extends ConversionBinder, StringBinder {
+
+	/**
+	 * Convert each of the given objects to the given target class.
+	 * This method infers the source type for each conversion from the runtime type of the element.
+	 * @param output The target class to convert the objects to
+	 * @param objects The objects to be converted
+	 * @param <T> The Target type
+	 * @return A list holding the results of the conversion, in iteration order
+	 */
+	default <T> List<T> convertAll(Class<T> output, Iterable<?> objects) {
+		return convertAll(output, objects, DefaultBinding.class);
+	}
+
+	/**
+	 * Convert each of the given objects to the given target class.
+	 * This method infers the source type for each conversion from the runtime type of the element.
+	 * @param output The target class to convert the objects to
+	 * @param objects The objects to be converted
+	 * @param qualifier The qualifier for which the binding must be registered
+	 * @param <T> The Target type
+	 * @return A list holding the results of the conversion, in iteration order
+	 */
+	default <T> List<T> convertAll(Class<T> output, Iterable<?> objects, Class<? extends Annotation> qualifier) {
+
+		List<T> result = objects instanceof Collection ? new ArrayList<T>(((Collection<?>) objects).size()) : new ArrayList<T>();
+		for (Object next : objects) {
+			result.add(next == null ? null : this.<Object, T>convertTo(output, next, qualifier));
+		}
+		return result;
+	}
+
+	/**
+	 * Convert each of the given objects to the given target class.
+	 * This method infers the source type for each conversion from the runtime type of the element.
+	 * @param output The target class to convert the objects to
+	 * @param objects The objects to be converted
+	 * @param <T> The Target type
+	 * @return An array of the target class holding the results of the conversion
+	 */
+	default <T> T[] convertAll(Class<T> output, Object[] objects) {
+		return convertAll(output, objects, DefaultBinding.class, null);
+	}
+
+	/**
+	 * Convert each of the given objects to the given target class.
+	 * This method infers the source type for each conversion from the runtime type of the element.
+	 * @param output The target class to convert the objects to
+	 * @param objects The objects to be converted
+	 * @param qualifier The qualifier for which the binding must be registered
+	 * @param <T> The Target type
+	 * @return An array of the target class holding the results of the conversion
+	 */
+	default <T> T[] convertAll(Class<T> output, Object[] objects, Class<? extends Annotation> qualifier) {
+		return convertAll(output, objects, qualifier, null);
+	}
+
+	/**
+	 * Convert each of the given objects to the given target class, splitting large arrays into segments
+	 * which are converted using the given pool.
+	 * This method infers the source type for each conversion from the runtime type of the element.
+	 * @param output The target class to convert the objects to
+	 * @param objects The objects to be converted
+	 * @param qualifier The qualifier for which the binding must be registered
+	 * @param pool The pool to convert with. If null, the conversion runs on the calling thread
+	 * @param <T> The Target type
+	 * @return An array of the target class holding the results of the conversion
+	 */
+	default <T> T[] convertAll(Class<T> output, Object[] objects, Class<? extends Annotation> qualifier, ForkJoinPool pool) {
+
+		@SuppressWarnings("unchecked")
+		final T[] result = (T[]) Array.newInstance(output, objects.length);
+
+		final IntStream indexes = IntStream.range(0, objects.length);
+		if (pool == null) {
+			indexes.forEach(i -> result[i] = objects[i] == null ? null : this.<Object, T>convertTo(output, objects[i], qualifier));
+		} else {
+			// A parallel stream started from within the pool runs its tasks in that pool
+			pool.submit(() -> indexes.parallel().forEach(i -> result[i] = objects[i] == null ? null : this.<Object, T>convertTo(output, objects[i], qualifier))).join();
+		}
+		return result;
+	}
+
+	/**
+	 * Lazily convert each of the given objects to the given target class.
+	 * This method infers the source type for each conversion from the runtime type of the element.
+	 * The returned stream may be made parallel.
+	 * @param output The target class to convert the objects to
+	 * @param objects The objects to be converted
+	 * @param <T> The Target type
+	 * @return A stream of the results of the conversion
+	 */
+	default <T> Stream<T> convertAll(Class<T> output, Stream<?> objects) {
+		return convertAll(output, objects, DefaultBinding.class);
+	}
+
+	/**
+	 * Lazily convert each of the given objects to the given target class.
+	 * This method infers the source type for each conversion from the runtime type of the element.
+	 * The returned stream may be made parallel.
+	 * @param output The target class to convert the objects to
+	 * @param objects The objects to be converted
+	 * @param qualifier The qualifier for which the binding must be registered
+	 * @param <T> The Target type
+	 * @return A stream of the results of the conversion
+	 */
+	default <T> Stream<T> convertAll(Class<T> output, Stream<?> objects, Class<? extends Annotation> qualifier) {
+		return objects.map(next -> next == null ? null : this.<Object, T>convertTo(output, next, qualifier));
+	}
+
+	/**
+	 * Convert each of the given Strings to the given target class
+	 * @param output The target class to convert the Strings to
+	 * @param objects The Strings to be converted
+	 * @param <T> The type of the target class
+	 * @return An array of the target class holding the results of the conversion
+	 */
+	default <T> T[] convertFromStrings(Class<T> output, String[] objects) {
+		return convertFromStrings(output, objects, DefaultBinding.class, null);
+	}
+
+	/**
+	 * Convert each of the given Strings to the given target class
+	 * @param output The target class to convert the Strings to
+	 * @param objects The Strings to be converted
+	 * @param qualifier The qualifier for which the binding must be registered
+	 * @param <T> The type of the target class
+	 * @return An array of the target class holding the results of the conversion
+	 */
+	default <T> T[] convertFromStrings(Class<T> output, String[] objects, Class<? extends Annotation> qualifier) {
+		return convertFromStrings(output, objects, qualifier, null);
+	}
+
+	/**
+	 * Convert each of the given Strings to the given target class, splitting large arrays into segments
+	 * which are converted using the given pool.
+	 * @param output The target class to convert the Strings to
+	 * @param objects The Strings to be converted
+	 * @param qualifier The qualifier for which the binding must be registered
+	 * @param pool The pool to convert with. If null, the conversion runs on the calling thread
+	 * @param <T> The type of the target class
+	 * @return An array of the target class holding the results of the conversion
+	 */
+	default <T> T[] convertFromStrings(Class<T> output, String[] objects, Class<? extends Annotation> qualifier, ForkJoinPool pool) {
+
+		@SuppressWarnings("unchecked")
+		final T[] result = (T[]) Array.newInstance(output, objects.length);
+
+		final IntStream indexes = IntStream.range(0, objects.length);
+		if (pool == null) {
+			indexes.forEach(i -> result[i] = objects[i] == null ? null : convertFromString(output, objects[i], qualifier));
+		} else {
+			// A parallel stream started from within the pool runs its tasks in that pool
+			pool.submit(() -> indexes.parallel().forEach(i -> result[i] = objects[i] == null ? null : convertFromString(output, objects[i], qualifier))).join();
+		}
+		return result;
+	}
+}
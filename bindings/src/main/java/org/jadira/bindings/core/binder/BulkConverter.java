@@ -0,0 +1,225 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.bindings.core.binder;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+
+import org.jadira.bindings.core.api.Converter;
+
+/**
+ * Performs the conversions for a single bulk conversion call on {@link BasicBinder}. Each loop over the input,
+ * and each segment of a large array, keeps its own table of the converter resolved for each runtime class it
+ * meets, so the converter for a class is resolved once per table however the classes are interleaved, and no
+ * state is shared between the threads converting an array. Instances are safe to use from multiple threads.
+ * @param <T> The output type
+ */
+final class BulkConverter<T> {
+
+	/**
+	 * Arrays at or below this length are converted without splitting
+	 */
+	static final int SEGMENT_SIZE = 4096;
+
+	private final BasicBinder binder;
+	private final Class<T> output;
+	private final Class<? extends Annotation> qualifier;
+
+	private final Class<?> initialInput;
+	private final Converter<?, T> initialConverter;
+
+	BulkConverter(BasicBinder binder, Class<T> output, Class<? extends Annotation> qualifier) {
+		this(binder, null, null, output, qualifier);
+	}
+
+	private BulkConverter(BasicBinder binder, Class<?> initialInput, Converter<?, T> initialConverter, Class<T> output, Class<? extends Annotation> qualifier) {
+		this.binder = binder;
+		this.initialInput = initialInput;
+		this.initialConverter = initialConverter;
+		this.output = output;
+		this.qualifier = qualifier;
+	}
+
+	/**
+	 * Creates a new instance which starts with the given converter for the given input class
+	 * @param binder The binder to resolve any other input classes with
+	 * @param input The input class
+	 * @param converter The converter already resolved for the input class
+	 * @param output The output class
+	 * @param qualifier The qualifier
+	 * @param <T> The output type
+	 * @return A new instance
+	 */
+	static <T> BulkConverter<T> withConverter(BasicBinder binder, Class<?> input, Converter<?, T> converter, Class<T> output, Class<? extends Annotation> qualifier) {
+		return new BulkConverter<T>(binder, input, converter, output, qualifier);
+	}
+
+	/**
+	 * Convert each element of an iterable
+	 * @param objects The elements to convert, any of which may be null
+	 * @return A new list of the converted elements
+	 */
+	List<T> convertIterable(Iterable<?> objects) {
+
+		final List<T> result = objects instanceof Collection ? new ArrayList<T>(((Collection<?>) objects).size()) : new ArrayList<T>();
+		final ConverterTable<T> table = new ConverterTable<T>(this);
+
+		Class<?> lastInput = null;
+		Converter<Object, T> lastConverter = null;
+		for (Object next : objects) {
+			if (next == null) {
+				result.add(null);
+				continue;
+			}
+			if (next.getClass() != lastInput) {
+				lastInput = next.getClass();
+				lastConverter = table.get(lastInput);
+			}
+			result.add(lastConverter.convert(next));
+		}
+		return result;
+	}
+
+	/**
+	 * Convert each element of a stream as it is consumed. Each thread consuming the stream keeps its own table.
+	 * @param objects The elements to convert, any of which may be null
+	 * @return A stream of the converted elements
+	 */
+	Stream<T> convertStream(Stream<?> objects) {
+
+		final ThreadLocal<ConverterTable<T>> tables = ThreadLocal.withInitial(() -> new ConverterTable<T>(this));
+		return objects.map(next -> next == null ? null : tables.get().get(next.getClass()).convert(next));
+	}
+
+	/**
+	 * Convert an array
+	 * @param objects The elements to convert
+	 * @param pool The pool used to convert large arrays in segments, or null to convert on the calling thread
+	 * @return A new array of the output type
+	 */
+	T[] convertArray(Object[] objects, ForkJoinPool pool) {
+
+		@SuppressWarnings("unchecked")
+		T[] result = (T[]) Array.newInstance(output, objects.length);
+
+		if (pool == null || objects.length <= SEGMENT_SIZE) {
+			convertRange(objects, result, 0, objects.length);
+		} else {
+			pool.invoke(new ConvertSegmentTask<T>(this, objects, result, 0, objects.length));
+		}
+		return result;
+	}
+
+	private void convertRange(Object[] objects, T[] result, int from, int to) {
+
+		final ConverterTable<T> table = new ConverterTable<T>(this);
+
+		Class<?> lastInput = null;
+		Converter<Object, T> lastConverter = null;
+		for (int i = from; i < to; i++) {
+			final Object next = objects[i];
+			if (next == null) {
+				continue;
+			}
+			if (next.getClass() != lastInput) {
+				lastInput = next.getClass();
+				lastConverter = table.get(lastInput);
+			}
+			result[i] = lastConverter.convert(next);
+		}
+	}
+
+	private Converter<?, T> resolve(Class<?> input) {
+
+		if (input == initialInput) {
+			return initialConverter;
+		}
+
+		Converter<?, T> converter = binder.resolveConverter(input, output, qualifier);
+		if (converter == null) {
+			@SuppressWarnings("unchecked")
+			Class<Object> inputClass = (Class<Object>) input;
+			throw new NoConverterFoundException(new ConverterKey<Object,T>(inputClass, output, qualifier));
+		}
+		return converter;
+	}
+
+	/**
+	 * The converters resolved for each runtime class by one loop. Not safe for use by multiple threads.
+	 */
+	private static final class ConverterTable<T> {
+
+		private final BulkConverter<T> bulkConverter;
+
+		private final Map<Class<?>, Converter<?, T>> converters = new IdentityHashMap<Class<?>, Converter<?, T>>();
+
+		private ConverterTable(BulkConverter<T> bulkConverter) {
+			this.bulkConverter = bulkConverter;
+		}
+
+		private Converter<Object, T> get(Class<?> input) {
+
+			Converter<?, T> converter = converters.get(input);
+			if (converter == null) {
+				converter = bulkConverter.resolve(input);
+				converters.put(input, converter);
+			}
+
+			@SuppressWarnings("unchecked")
+			Converter<Object, T> result = (Converter<Object, T>) converter;
+			return result;
+		}
+	}
+
+	private static final class ConvertSegmentTask<T> extends RecursiveAction {
+
+		private static final long serialVersionUID = 3541851962781407462L;
+
+		private final BulkConverter<T> converter;
+		private final Object[] objects;
+		private final T[] result;
+		private final int from;
+		private final int to;
+
+		private ConvertSegmentTask(BulkConverter<T> converter, Object[] objects, T[] result, int from, int to) {
+			this.converter = converter;
+			this.objects = objects;
+			this.result = result;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+
+			if (to - from <= SEGMENT_SIZE) {
+				converter.convertRange(objects, result, from, to);
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new ConvertSegmentTask<T>(converter, objects, result, from, middle),
+						new ConvertSegmentTask<T>(converter, objects, result, middle, to));
+			}
+		}
+	}
+}
@@ -0,0 +1,205 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.bindings.core.binder;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A table of values indexed by input class, then output class, then qualifier. Each level is looked up
+ * by identity of the class so that a lookup does not need to allocate a composite key such as {@link ConverterKey}.
+ * <p>
+ * The first level is held in a {@link ClassValue} so that it is attached to the input class itself. A value attached
+ * to a class lives as long as the class, so classes loaded by a parent of the loader of this library (for example
+ * String and the other JDK classes) are instead indexed by a map owned by the table. Otherwise the values, and with them
+ * the class loader of the application, would be kept alive by classes that are never unloaded.
+ * <p>
+ * The table is cleared by advancing a generation. Each input class records the generation its values were stored in,
+ * and discards them when it is next accessed in a later generation, so that clearing does not replace the index for
+ * every class.
+ * @param <V> The type of value held
+ */
+final class ClassIndexedTable<V> {
+
+	private static final ClassLoader[] PARENT_LOADERS = parentLoaders(ClassIndexedTable.class.getClassLoader());
+
+	private final AtomicInteger generation = new AtomicInteger();
+
+	private final ClassValue<Outputs<V>> index = new ClassValue<Outputs<V>>() {
+		@Override
+		protected Outputs<V> computeValue(Class<?> type) {
+			return new Outputs<V>(generation.get());
+		}
+	};
+
+	/**
+	 * The first level for input classes loaded by a parent of the loader of this library
+	 */
+	private final ConcurrentMap<Class<?>, Outputs<V>> parentIndex = new ConcurrentHashMap<Class<?>, Outputs<V>>();
+
+	/**
+	 * Retrieve the value for the given classes and qualifier
+	 * @param input The input class
+	 * @param output The output class
+	 * @param qualifier The qualifier
+	 * @return The value, or null if none is held
+	 */
+	V get(Class<?> input, Class<?> output, Class<? extends Annotation> qualifier) {
+
+		ConcurrentMap<Class<? extends Annotation>, V> qualifiers = outputsFor(input).get(output);
+		if (qualifiers == null) {
+			return null;
+		}
+		return qualifiers.get(qualifier);
+	}
+
+	/**
+	 * Store the value for the given classes and qualifier, unless a value is already held
+	 * @param input The input class
+	 * @param output The output class
+	 * @param qualifier The qualifier
+	 * @param value The value to store
+	 * @return The value previously held, or null if the given value was stored
+	 */
+	V putIfAbsent(Class<?> input, Class<?> output, Class<? extends Annotation> qualifier, V value) {
+		return qualifiersFor(input, output).putIfAbsent(qualifier, value);
+	}
+
+	/**
+	 * Store the value for the given classes and qualifier, replacing any existing value
+	 * @param input The input class
+	 * @param output The output class
+	 * @param qualifier The qualifier
+	 * @param value The value to store
+	 */
+	void put(Class<?> input, Class<?> output, Class<? extends Annotation> qualifier, V value) {
+		qualifiersFor(input, output).put(qualifier, value);
+	}
+
+	/**
+	 * Remove any value held for the given classes and qualifier
+	 * @param input The input class
+	 * @param output The output class
+	 * @param qualifier The qualifier
+	 */
+	void remove(Class<?> input, Class<?> output, Class<? extends Annotation> qualifier) {
+
+		ConcurrentMap<Class<? extends Annotation>, V> qualifiers = outputsFor(input).get(output);
+		if (qualifiers != null) {
+			qualifiers.remove(qualifier);
+		}
+	}
+
+	/**
+	 * Discard all values. The values attached to each input class are discarded when the class is next accessed.
+	 */
+	void clear() {
+
+		generation.incrementAndGet();
+		parentIndex.clear();
+	}
+
+	private ConcurrentMap<Class<?>, ConcurrentMap<Class<? extends Annotation>, V>> outputsFor(Class<?> input) {
+
+		Outputs<V> outputs;
+		if (isParentLoader(input.getClassLoader())) {
+			outputs = parentIndex.get(input);
+			if (outputs == null) {
+				outputs = new Outputs<V>(generation.get());
+				Outputs<V> existing = parentIndex.putIfAbsent(input, outputs);
+				if (existing != null) {
+					outputs = existing;
+				}
+			}
+		} else {
+			outputs = index.get(input);
+		}
+		return outputs.valuesFor(generation.get());
+	}
+
+	private ConcurrentMap<Class<? extends Annotation>, V> qualifiersFor(Class<?> input, Class<?> output) {
+
+		ConcurrentMap<Class<?>, ConcurrentMap<Class<? extends Annotation>, V>> outputs = outputsFor(input);
+		ConcurrentMap<Class<? extends Annotation>, V> qualifiers = outputs.get(output);
+		if (qualifiers == null) {
+			qualifiers = new ConcurrentHashMap<Class<? extends Annotation>, V>(4);
+			ConcurrentMap<Class<? extends Annotation>, V> existing = outputs.putIfAbsent(output, qualifiers);
+			if (existing != null) {
+				qualifiers = existing;
+			}
+		}
+		return qualifiers;
+	}
+
+	private static boolean isParentLoader(ClassLoader loader) {
+
+		for (ClassLoader next : PARENT_LOADERS) {
+			if (next == loader) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Lists the parents of the given loader. The bootstrap loader is represented by null.
+	 */
+	private static ClassLoader[] parentLoaders(ClassLoader loader) {
+
+		List<ClassLoader> parents = new ArrayList<ClassLoader>();
+		if (loader != null) {
+			ClassLoader next = loader.getParent();
+			while (next != null) {
+				parents.add(next);
+				next = next.getParent();
+			}
+			parents.add(null);
+		}
+		return parents.toArray(new ClassLoader[parents.size()]);
+	}
+
+	/**
+	 * The values held for an input class, together with the generation in which they were stored
+	 */
+	private static final class Outputs<V> {
+
+		private final ConcurrentMap<Class<?>, ConcurrentMap<Class<? extends Annotation>, V>> values = new ConcurrentHashMap<Class<?>, ConcurrentMap<Class<? extends Annotation>, V>>(4);
+
+		private volatile int generation;
+
+		Outputs(int generation) {
+			this.generation = generation;
+		}
+
+		ConcurrentMap<Class<?>, ConcurrentMap<Class<? extends Annotation>, V>> valuesFor(int current) {
+
+			// A caller that read the generation before a later clear must not move the values back to it
+			if (current - generation > 0) {
+				synchronized (this) {
+					if (current - generation > 0) {
+						values.clear();
+						generation = current;
+					}
+				}
+			}
+			return values;
+		}
+	}
+}
@@ -27,6 +27,7 @@ public class ConverterKey<I,O> {
 	private final Class<I> input;
 	private final Class<O> output;
 	private final Class<? extends Annotation> qualifier;
+	private final int hashCode;
 
 	/**
 	 * Creates a new ConverterKey instance
@@ -38,6 +39,7 @@ public class ConverterKey<I,O> {
 		this.input = input;
 		this.output = output;
 		this.qualifier = qualifier == null ? DefaultBinding.class : qualifier;
+		this.hashCode = (input == null ? 0 : input.hashCode() * 3) + (output == null ? 0 : output.hashCode() * 5) + this.qualifier.hashCode() * 7;
 	}
 	
 	/**
@@ -91,7 +93,7 @@ public class ConverterKey<I,O> {
 	 */
 	@Override
 	public int hashCode() {
-		return getInputClass().hashCode() * 3 + getOutputClass().hashCode() * 5 + getQualifierAnnotation().hashCode() * 7;
+		return hashCode;
 	}
 	
 	/**
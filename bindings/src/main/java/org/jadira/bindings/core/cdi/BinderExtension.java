@@ -17,6 +17,9 @@ package org.jadira.bindings.core.cdi;
 
 import java.lang.annotation.Annotation;
 import java.net.URL;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 
 import javax.enterprise.event.Observes;
 import javax.enterprise.inject.spi.Extension;
@@ -403,4 +406,84 @@ public class BinderExtension implements Extension, Binder, RegisterableBinder {
 			Class<? extends Annotation> qualifier) {
 		return BINDING.convertToString(input, object, qualifier);
 	}
-}
\ No newline at end of file
+
+    /**
+     * {@inheritDoc}
+     */
+    /* @Override */
+	public <T> List<T> convertAll(Class<T> output, Iterable<?> objects) {
+		return BINDING.convertAll(output, objects);
+	}
+
+    /**
+     * {@inheritDoc}
+     */
+    /* @Override */
+	public <T> List<T> convertAll(Class<T> output, Iterable<?> objects, Class<? extends Annotation> qualifier) {
+		return BINDING.convertAll(output, objects, qualifier);
+	}
+
+    /**
+     * {@inheritDoc}
+     */
+    /* @Override */
+	public <T> T[] convertAll(Class<T> output, Object[] objects) {
+		return BINDING.convertAll(output, objects);
+	}
+
+    /**
+     * {@inheritDoc}
+     */
+    /* @Override */
+	public <T> T[] convertAll(Class<T> output, Object[] objects, Class<? extends Annotation> qualifier) {
+		return BINDING.convertAll(output, objects, qualifier);
+	}
+
+    /**
+     * {@inheritDoc}
+     */
+    /* @Override */
+	public <T> T[] convertAll(Class<T> output, Object[] objects, Class<? extends Annotation> qualifier, ForkJoinPool pool) {
+		return BINDING.convertAll(output, objects, qualifier, pool);
+	}
+
+    /**
+     * {@inheritDoc}
+     */
+    /* @Override */
+	public <T> Stream<T> convertAll(Class<T> output, Stream<?> objects) {
+		return BINDING.convertAll(output, objects);
+	}
+
+    /**
+     * {@inheritDoc}
+     */
+    /* @Override */
+	public <T> Stream<T> convertAll(Class<T> output, Stream<?> objects, Class<? extends Annotation> qualifier) {
+		return BINDING.convertAll(output, objects, qualifier);
+	}
+
+    /**
+     * {@inheritDoc}
+     */
+    /* @Override */
+	public <T> T[] convertFromStrings(Class<T> output, String[] objects) {
+		return BINDING.convertFromStrings(output, objects);
+	}
+
+    /**
+     * {@inheritDoc}
+     */
+    /* @Override */
+	public <T> T[] convertFromStrings(Class<T> output, String[] objects, Class<? extends Annotation> qualifier) {
+		return BINDING.convertFromStrings(output, objects, qualifier);
+	}
+
+    /**
+     * {@inheritDoc}
+     */
+    /* @Override */
+	public <T> T[] convertFromStrings(Class<T> output, String[] objects, Class<? extends Annotation> qualifier, ForkJoinPool pool) {
+		return BINDING.convertFromStrings(output, objects, qualifier, pool);
+	}
+}
@@ -15,17 +15,18 @@
  */
 package org.jadira.bindings.core.general.marshaller;
 
-import java.lang.invoke.MethodHandle;
-import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 
 import org.jadira.bindings.core.api.BindingException;
 import org.jadira.bindings.core.api.ToMarshaller;
+import org.jadira.bindings.core.utils.reflection.MethodInvoker;
+import org.jadira.bindings.core.utils.reflection.MethodInvokers;
 
 /**
  * Base class providing capability to perform marshalling of source object type
- * to target. This class uses reflection.
+ * to target. The method is called through a {@link MethodInvoker}, which where possible
+ * is a generated class calling the method directly.
  * <p>
  * The marshal method must either
  * </p>
@@ -48,13 +49,11 @@ import org.jadira.bindings.core.api.ToMarshaller;
  */
 public class MethodToMarshaller<S, T> implements ToMarshaller<S, T> {
 
-	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
-	
     private final Class<S> boundClass;
 
     private final Class<T> targetClass;
     
-    private final MethodHandle marshalHandle;
+    private final MethodInvoker marshalInvoker;
 
     /**
      * Create a new instance
@@ -82,12 +81,7 @@ public class MethodToMarshaller<S, T> implements ToMarshaller<S, T> {
         this.boundClass = boundClass;
         this.targetClass = targetClass;
 
-        try {
-			this.marshalHandle = LOOKUP.unreflect(marshal);
-		} catch (IllegalAccessException e) {
-			throw new IllegalStateException("Method is not accessible" + marshal);
-		}
-
+        this.marshalInvoker = MethodInvokers.forMethod(marshal);
     }
 
 	/**
@@ -97,7 +91,8 @@ public class MethodToMarshaller<S, T> implements ToMarshaller<S, T> {
     public T marshal(S object) {
 
         try {
-        	final T result = (T) marshalHandle.invoke(object);
+        	@SuppressWarnings("unchecked")
+        	final T result = (T) marshalInvoker.invoke(object);
             return result;
         } catch (Throwable ex) {
         	if (ex.getCause() instanceof RuntimeException) {
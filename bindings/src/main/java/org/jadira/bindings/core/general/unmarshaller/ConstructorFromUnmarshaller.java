@@ -16,11 +16,12 @@
 package org.jadira.bindings.core.general.unmarshaller;
 
 import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
 
 import org.jadira.bindings.core.api.BindingException;
 import org.jadira.bindings.core.api.FromUnmarshaller;
+import org.jadira.bindings.core.utils.reflection.MethodInvoker;
+import org.jadira.bindings.core.utils.reflection.MethodInvokers;
 
 /**
  * Unmarshaller supports constructor parameterised by a target object
@@ -29,7 +30,7 @@ import org.jadira.bindings.core.api.FromUnmarshaller;
  */
 public final class ConstructorFromUnmarshaller<S, T> implements FromUnmarshaller<S, T> {
 
-    private final Constructor<S> unmarshal;
+    private final MethodInvoker unmarshalInvoker;
 
     private final Class<S> boundClass;
     
@@ -54,7 +55,7 @@ public final class ConstructorFromUnmarshaller<S, T> implements FromUnmarshaller
         	throw new IllegalStateException("unmarshal constructor must have a single parameter");
         }
         
-        this.unmarshal = unmarshal;
+        this.unmarshalInvoker = MethodInvokers.forConstructor(unmarshal);
         
         @SuppressWarnings("unchecked")
         Class<T> myTarget = (Class<T>)unmarshal.getParameterTypes()[0];
@@ -72,16 +73,12 @@ public final class ConstructorFromUnmarshaller<S, T> implements FromUnmarshaller
     	}
     	
         try {
-            return unmarshal.newInstance(object);
-        } catch (IllegalAccessException ex) {
-            throw new IllegalStateException("Constructor is not accessible");
-        } catch (InstantiationException ex) {
-            throw new IllegalStateException("Constructor is not valid");
-        } catch (InvocationTargetException ex) {
-            if (ex.getCause() instanceof RuntimeException) {
-                throw (RuntimeException) ex.getCause();
-            }
-            throw new BindingException(ex.getMessage(), ex.getCause());
+            return getBoundClass().cast(unmarshalInvoker.invoke(object));
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            // Wrapped as before, when Constructor.newInstance reported it as an InvocationTargetException without a message
+            throw new BindingException(null, ex);
         }
     }
     
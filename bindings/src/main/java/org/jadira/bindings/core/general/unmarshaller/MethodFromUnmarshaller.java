@@ -15,13 +15,13 @@
  */
 package org.jadira.bindings.core.general.unmarshaller;
 
-import java.lang.invoke.MethodHandle;
-import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 
 import org.jadira.bindings.core.api.BindingException;
 import org.jadira.bindings.core.api.FromUnmarshaller;
+import org.jadira.bindings.core.utils.reflection.MethodInvoker;
+import org.jadira.bindings.core.utils.reflection.MethodInvokers;
 
 /**
  * Binding that supports an unmarshal method. The
@@ -35,9 +35,7 @@ import org.jadira.bindings.core.api.FromUnmarshaller;
  */
 public final class MethodFromUnmarshaller<S, T> implements FromUnmarshaller<S, T> {
 
-	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
-	
-    private final MethodHandle unmarshalHandle;
+    private final MethodInvoker unmarshalInvoker;
 
     private final Class<S> boundClass;
 
@@ -62,11 +60,7 @@ public final class MethodFromUnmarshaller<S, T> implements FromUnmarshaller<S, T
             throw new IllegalStateException("unmarshal method must return " + boundClass.getSimpleName());
         }
 
-        try {
-			this.unmarshalHandle = LOOKUP.unreflect(unmarshal);
-		} catch (IllegalAccessException e) {
-			throw new IllegalStateException("Method is not accessible" + unmarshal);
-		}
+        this.unmarshalInvoker = MethodInvokers.forMethod(unmarshal);
         
         @SuppressWarnings("unchecked")
         Class<T> myTarget = (Class<T>)unmarshal.getParameterTypes()[0];
@@ -84,7 +78,7 @@ public final class MethodFromUnmarshaller<S, T> implements FromUnmarshaller<S, T
     	}
     	
         try {
-            return getBoundClass().cast(unmarshalHandle.invoke(object));
+            return getBoundClass().cast(unmarshalInvoker.invoke(object));
         } catch (Throwable ex) {
         	if (ex.getCause() instanceof RuntimeException) {
                 throw (RuntimeException) ex.getCause();
@@ -0,0 +1,31 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.bindings.core.utils.reflection;
+
+/**
+ * Invokes a single argument method or constructor, or an instance method with no arguments.
+ * Instances are obtained from {@link MethodInvokers}.
+ */
+public interface MethodInvoker {
+
+	/**
+	 * Invoke the underlying method or constructor
+	 * @param argument The single argument, or for an instance method, the receiver
+	 * @return The result of the invocation
+	 * @throws Throwable Any exception raised by the underlying method or constructor
+	 */
+	Object invoke(Object argument) throws Throwable;
+}
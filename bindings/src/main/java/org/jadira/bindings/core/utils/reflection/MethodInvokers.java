@@ -0,0 +1,149 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.bindings.core.utils.reflection;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Creates {@link MethodInvoker} instances for methods and constructors used as marshallers and unmarshallers.
+ * <p>
+ * Where possible the invoker is a class spun by {@link LambdaMetafactory} which calls the target directly
+ * (using invokevirtual, invokestatic or new), so the JIT can inline the call into the caller. This requires the
+ * target to be public and its declaring class, parameter and return types to be visible from the class loader of this library.
+ * Otherwise the invoker falls back to calling an exactly typed {@link MethodHandle} via invokeExact.
+ * </p>
+ */
+public final class MethodInvokers {
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+	
+	private static final MethodType INVOKER_FACTORY_TYPE = MethodType.methodType(MethodInvoker.class);
+	
+	private static final MethodType INVOKE_TYPE = MethodType.methodType(Object.class, Object.class);
+	
+	private MethodInvokers() {
+	}
+	
+	/**
+	 * Create an invoker for a static method with a single parameter, or an instance method with no parameters
+	 * @param method The method
+	 * @return A new invoker
+	 * @throws IllegalStateException If the method is not accessible
+	 */
+	public static MethodInvoker forMethod(Method method) {
+		
+		final MethodHandle handle;
+		try {
+			handle = LOOKUP.unreflect(method);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException("Method is not accessible" + method);
+		}
+		
+		boolean linkable = Modifier.isPublic(method.getModifiers())
+				&& isLinkable(method.getDeclaringClass())
+				&& isLinkable(method.getReturnType())
+				&& isLinkable(method.getParameterTypes());
+		
+		return linkable ? spinInvoker(handle) : handleInvoker(handle);
+	}
+	
+	/**
+	 * Create an invoker for a constructor with a single parameter
+	 * @param constructor The constructor
+	 * @return A new invoker
+	 * @throws IllegalStateException If the constructor is not accessible
+	 */
+	public static MethodInvoker forConstructor(Constructor<?> constructor) {
+		
+		final MethodHandle handle;
+		try {
+			handle = LOOKUP.unreflectConstructor(constructor);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException("Constructor is not accessible" + constructor);
+		}
+		
+		boolean linkable = Modifier.isPublic(constructor.getModifiers())
+				&& isLinkable(constructor.getDeclaringClass())
+				&& isLinkable(constructor.getParameterTypes());
+		
+		return linkable ? spinInvoker(handle) : handleInvoker(handle);
+	}
+
+	/**
+	 * Create an invoker which uses the given handle directly. This is the fallback used where a class cannot be spun
+	 * and is exposed for comparison purposes.
+	 * @param handle A handle accepting a single argument and returning a value
+	 * @return A new invoker
+	 */
+	public static MethodInvoker handleInvoker(MethodHandle handle) {
+		
+		final MethodHandle exactHandle = handle.asType(INVOKE_TYPE);
+		return new MethodInvoker() {
+			
+			/* @Override */
+			public Object invoke(Object argument) throws Throwable {
+				return exactHandle.invokeExact(argument);
+			}
+		};
+	}
+
+	private static MethodInvoker spinInvoker(MethodHandle handle) {
+		
+		try {
+			CallSite site = LambdaMetafactory.metafactory(LOOKUP, "invoke", INVOKER_FACTORY_TYPE, INVOKE_TYPE, handle, handle.type().wrap());
+			return (MethodInvoker) site.getTarget().invokeExact();
+		} catch (LambdaConversionException e) {
+			return handleInvoker(handle);
+		} catch (Throwable e) {
+			throw new IllegalStateException("Could not create invoker for " + handle + ": " + e.getMessage(), e);
+		}
+	}
+	
+	private static boolean isLinkable(Class<?>... types) {
+		
+		for (Class<?> next : types) {
+			
+			Class<?> type = next;
+			while (type.isArray()) {
+				type = type.getComponentType();
+			}
+			if (type.isPrimitive()) {
+				continue;
+			}
+			if (!Modifier.isPublic(type.getModifiers())) {
+				return false;
+			}
+			
+			// The spun class resolves referenced types using the class loader of this library
+			try {
+				if (Class.forName(type.getName(), false, MethodInvokers.class.getClassLoader()) != type) {
+					return false;
+				}
+			} catch (ClassNotFoundException e) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -15,8 +15,13 @@
  */
 package org.jadira.bindings.core;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.jadira.bindings.core.annotation.DefaultBinding;
@@ -25,8 +30,12 @@ import org.jadira.bindings.core.api.FromUnmarshaller;
 import org.jadira.bindings.core.api.ToMarshaller;
 import org.jadira.bindings.core.binder.BasicBinder;
 import org.jadira.bindings.core.binder.Binder;
+import org.jadira.bindings.core.binder.BulkConversionBinder;
+import org.jadira.bindings.core.binder.ConverterKey;
+import org.jadira.bindings.core.binder.NoConverterFoundException;
 import org.jadira.bindings.core.general.binding.CompositeBinding;
 import org.jadira.bindings.core.jdk.AtomicBooleanStringBinding;
+import org.jadira.bindings.core.jdk.IntegerStringBinding;
 import org.jadira.bindings.core.test.Narrow;
 import org.jadira.bindings.core.test.SubjectC;
 import org.jadira.bindings.core.test.SubjectD;
@@ -115,4 +124,111 @@ public class BasicBinderTest {
         FromUnmarshaller<AtomicBoolean, String> match2 = BINDER.findUnmarshaller(AtomicBoolean.class, String.class, DefaultBinding.class);
         assertEquals(AtomicBooleanStringBinding.class, match2.getClass());
     }
+
+    @Test
+    public void testUnresolvedConversionIsRetriedAfterRegistration() {
+        
+        BasicBinder binder = new BasicBinder(false);
+        try {
+            binder.convertTo(String.class, Integer.valueOf(10));
+            fail("Expected NoConverterFoundException");
+        } catch (NoConverterFoundException e) {
+            // Expected - the failure is now cached
+        }
+        
+        binder.registerBinding(Integer.class, String.class, new IntegerStringBinding());
+        assertEquals("10", binder.convertTo(String.class, Integer.valueOf(10)));
+    }
+
+    @Test
+    public void testConvertAll() {
+        
+        assertEquals(Arrays.asList("1", null, "2"), BINDER.convertAll(String.class, Arrays.asList(Integer.valueOf(1), null, Long.valueOf(2L))));
+        assertArrayEquals(new String[] { "Test:MARSHALLED_BY_A" }, BINDER.convertAll(String.class, new Object[] { new SubjectC("Test") }));
+    }
+
+    @Test
+    public void testConvertFromStrings() {
+        
+        String[] values = new String[10000];
+        Integer[] expected = new Integer[values.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = String.valueOf(i);
+            expected[i] = Integer.valueOf(i);
+        }
+        
+        assertArrayEquals(expected, BINDER.convertFromStrings(Integer.class, values));
+        assertArrayEquals(expected, BINDER.convertFromStrings(Integer.class, values, DefaultBinding.class, ForkJoinPool.commonPool()));
+    }
+
+    @Test
+    public void testDefaultBulkConversion() {
+
+        BulkConversionBinder binder = new ConversionOnlyBinder();
+
+        assertEquals(Arrays.asList("1", null, "2"), binder.convertAll(String.class, Arrays.asList(Integer.valueOf(1), null, Long.valueOf(2L))));
+        assertArrayEquals(new String[] { "Test:MARSHALLED_BY_A" }, binder.convertAll(String.class, new Object[] { new SubjectC("Test") }));
+        assertArrayEquals(new String[] { "1", "2" }, binder.convertAll(String.class, Arrays.asList(1, 2).stream()).toArray());
+
+        String[] values = new String[1000];
+        Integer[] expected = new Integer[values.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = String.valueOf(i);
+            expected[i] = Integer.valueOf(i);
+        }
+
+        assertArrayEquals(expected, binder.convertFromStrings(Integer.class, values));
+        assertArrayEquals(expected, binder.convertFromStrings(Integer.class, values, DefaultBinding.class, ForkJoinPool.commonPool()));
+        assertArrayEquals(expected, binder.convertAll(Integer.class, values, DefaultBinding.class, ForkJoinPool.commonPool()));
+    }
+
+    /**
+     * A binder that only implements the single conversion methods, relying on the default bulk conversion methods
+     */
+    private static class ConversionOnlyBinder implements BulkConversionBinder {
+
+        public <S, T> T convertTo(Class<T> output, Object object) {
+            return BINDER.convertTo(output, object);
+        }
+
+        public <S, T> T convertTo(Class<T> output, Object object, Class<? extends Annotation> qualifier) {
+            return BINDER.convertTo(output, object, qualifier);
+        }
+
+        public <S, T> T convertTo(Class<S> input, Class<T> output, Object object) {
+            return BINDER.convertTo(input, output, object);
+        }
+
+        public <S, T> T convertTo(Class<S> input, Class<T> output, Object object, Class<? extends Annotation> qualifier) {
+            return BINDER.convertTo(input, output, object, qualifier);
+        }
+
+        public <S, T> T convertTo(ConverterKey<S, T> key, Object object) {
+            return BINDER.convertTo(key, object);
+        }
+
+        public <T> T convertFromString(Class<T> output, String object) {
+            return BINDER.convertFromString(output, object);
+        }
+
+        public <T> T convertFromString(Class<T> output, String object, Class<? extends Annotation> qualifier) {
+            return BINDER.convertFromString(output, object, qualifier);
+        }
+
+        public String convertToString(Object object) {
+            return BINDER.convertToString(object);
+        }
+
+        public String convertToString(Object object, Class<? extends Annotation> qualifier) {
+            return BINDER.convertToString(object, qualifier);
+        }
+
+        public <S> String convertToString(Class<S> input, Object object) {
+            return BINDER.convertToString(input, object);
+        }
+
+        public <S> String convertToString(Class<S> input, Object object, Class<? extends Annotation> qualifier) {
+            return BINDER.convertToString(input, object, qualifier);
+        }
+    }
 }
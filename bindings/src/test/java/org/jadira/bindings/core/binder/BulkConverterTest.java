@@ -0,0 +1,93 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.bindings.core.binder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.jadira.bindings.core.annotation.DefaultBinding;
+import org.jadira.bindings.core.api.Converter;
+import org.junit.Test;
+
+public class BulkConverterTest {
+
+    @Test
+    public void testResolvesOncePerClassWhenInterleaved() {
+
+        final CountingBinder binder = new CountingBinder();
+        final Object[] values = new Object[] { Integer.valueOf(1), Long.valueOf(2L), Integer.valueOf(3), Long.valueOf(4L), null, Integer.valueOf(5) };
+
+        assertArrayEquals(new String[] { "1", "2", "3", "4", null, "5" }, binder.convertAll(String.class, values));
+        assertEquals(2, binder.resolutions.get());
+
+        binder.resolutions.set(0);
+        assertEquals(Arrays.asList("1", "2", "3", "4", null, "5"), binder.convertAll(String.class, Arrays.asList(values)));
+        assertEquals(2, binder.resolutions.get());
+
+        binder.resolutions.set(0);
+        final List<String> streamed = binder.convertAll(String.class, Arrays.stream(values)).collect(Collectors.toList());
+        assertEquals(Arrays.asList("1", "2", "3", "4", null, "5"), streamed);
+        assertEquals(2, binder.resolutions.get());
+    }
+
+    @Test
+    public void testSegmentsResolveIndependently() {
+
+        final CountingBinder binder = new CountingBinder();
+        final Object[] values = new Object[BulkConverter.SEGMENT_SIZE * 4];
+        final String[] expected = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (i % 2 == 0) ? (Object) Integer.valueOf(i) : (Object) Long.valueOf(i);
+            expected[i] = String.valueOf(i);
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertArrayEquals(expected, binder.convertAll(String.class, values, DefaultBinding.class, pool));
+        } finally {
+            pool.shutdown();
+        }
+
+        // Each of the four segments resolves each class at most once
+        assertEquals(new HashSet<Class<?>>(Arrays.<Class<?>>asList(Integer.class, Long.class)), binder.resolved);
+        assertTrue(binder.resolutions.get() <= 8);
+    }
+
+    private static class CountingBinder extends BasicBinder {
+
+        private final AtomicInteger resolutions = new AtomicInteger();
+
+        private final Set<Class<?>> resolved = ConcurrentHashMap.newKeySet();
+
+        @Override
+        <S, T> Converter<S, T> resolveConverter(Class<S> input, Class<T> output, Class<? extends Annotation> qualifier) {
+            resolutions.incrementAndGet();
+            resolved.add(input);
+            return super.resolveConverter(input, output, qualifier);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.bindings.core.binder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.jadira.bindings.core.annotation.DefaultBinding;
+import org.junit.Test;
+
+public class ClassIndexedTableTest {
+
+    @Test
+    public void testClearDiscardsValuesForEachClass() {
+
+        ClassIndexedTable<String> table = new ClassIndexedTable<String>();
+
+        // String is loaded by a parent of this library's loader, the test class by the same loader
+        table.put(String.class, Integer.class, DefaultBinding.class, "jdk");
+        table.put(ClassIndexedTableTest.class, Integer.class, DefaultBinding.class, "application");
+        assertEquals("jdk", table.get(String.class, Integer.class, DefaultBinding.class));
+        assertEquals("application", table.get(ClassIndexedTableTest.class, Integer.class, DefaultBinding.class));
+
+        table.clear();
+        assertNull(table.get(String.class, Integer.class, DefaultBinding.class));
+        assertNull(table.get(ClassIndexedTableTest.class, Integer.class, DefaultBinding.class));
+
+        // Values stored after a clear are kept, including across a further clear of a class not yet accessed
+        table.put(ClassIndexedTableTest.class, Integer.class, DefaultBinding.class, "second");
+        assertEquals("second", table.putIfAbsent(ClassIndexedTableTest.class, Integer.class, DefaultBinding.class, "third"));
+
+        table.clear();
+        table.clear();
+        assertNull(table.putIfAbsent(ClassIndexedTableTest.class, Integer.class, DefaultBinding.class, "fourth"));
+        assertEquals("fourth", table.get(ClassIndexedTableTest.class, Integer.class, DefaultBinding.class));
+    }
+
+    @Test
+    public void testTablesAreIndependent() {
+
+        ClassIndexedTable<String> first = new ClassIndexedTable<String>();
+        ClassIndexedTable<String> second = new ClassIndexedTable<String>();
+
+        first.put(ClassIndexedTableTest.class, Integer.class, DefaultBinding.class, "first");
+        second.put(ClassIndexedTableTest.class, Integer.class, DefaultBinding.class, "second");
+
+        first.clear();
+        assertNull(first.get(ClassIndexedTableTest.class, Integer.class, DefaultBinding.class));
+        assertEquals("second", second.get(ClassIndexedTableTest.class, Integer.class, DefaultBinding.class));
+
+        second.remove(ClassIndexedTableTest.class, Integer.class, DefaultBinding.class);
+        assertNull(second.get(ClassIndexedTableTest.class, Integer.class, DefaultBinding.class));
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.bindings.core.test;
+
+import java.io.IOException;
+
+import org.jadira.bindings.core.annotation.From;
+import org.jadira.bindings.core.annotation.To;
+
+/**
+ * Has public and non-public marshallers, unmarshallers and constructors, each of which raises
+ * an exception for the values "checked" and "runtime"
+ */
+public class SubjectE {
+    
+    private String value;
+
+    public SubjectE(String value) throws IOException {
+        this.value = check(value);
+    }
+    
+    SubjectE(StringBuilder value) throws IOException {
+        this.value = check(value.toString());
+    }
+    
+    public String getValue() {
+        return value;
+    }
+    
+    @To
+    public String marshalMethodA() throws IOException {
+        return check(value) + ":MARSHALLED_BY_A";
+    }
+    
+    @From
+    public static SubjectE unmarshalMethodA(String string) throws IOException {
+        return new SubjectE(string.substring(0, string.lastIndexOf(':')));
+    }
+    
+    @To
+    String marshalMethodB() throws IOException {
+        return check(value) + ":MARSHALLED_BY_B";
+    }
+    
+    @From
+    static SubjectE unmarshalMethodB(String string) throws IOException {
+        return new SubjectE(string.substring(0, string.lastIndexOf(':')));
+    }
+    
+    private static String check(String value) throws IOException {
+        
+        if ("checked".equals(value)) {
+            throw new IOException("Checked exception for " + value);
+        }
+        if ("runtime".equals(value)) {
+            throw new IllegalArgumentException("Runtime exception for " + value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.bindings.core.utils.reflection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+import org.jadira.bindings.core.api.BindingException;
+import org.jadira.bindings.core.general.unmarshaller.ConstructorFromUnmarshaller;
+import org.jadira.bindings.core.test.SubjectE;
+import org.junit.Test;
+
+public class MethodInvokersTest {
+
+    @Test
+    public void testPublicMethodsAreSpun() throws Throwable {
+
+        // Classes spun by LambdaMetafactory are synthetic, unlike the handle invoker
+        MethodInvoker marshal = MethodInvokers.forMethod(SubjectE.class.getMethod("marshalMethodA"));
+        assertTrue(marshal.getClass().isSynthetic());
+        assertEquals("A:MARSHALLED_BY_A", marshal.invoke(new SubjectE("A")));
+
+        MethodInvoker unmarshal = MethodInvokers.forMethod(SubjectE.class.getMethod("unmarshalMethodA", String.class));
+        assertTrue(unmarshal.getClass().isSynthetic());
+        assertEquals("A", ((SubjectE) unmarshal.invoke("A:MARSHALLED_BY_A")).getValue());
+    }
+
+    @Test
+    public void testNonPublicMethodsUseHandle() throws Throwable {
+
+        Method marshalMethod = SubjectE.class.getDeclaredMethod("marshalMethodB");
+        marshalMethod.setAccessible(true);
+        MethodInvoker marshal = MethodInvokers.forMethod(marshalMethod);
+        assertFalse(marshal.getClass().isSynthetic());
+        assertEquals("B:MARSHALLED_BY_B", marshal.invoke(new SubjectE("B")));
+
+        Method unmarshalMethod = SubjectE.class.getDeclaredMethod("unmarshalMethodB", String.class);
+        unmarshalMethod.setAccessible(true);
+        MethodInvoker unmarshal = MethodInvokers.forMethod(unmarshalMethod);
+        assertFalse(unmarshal.getClass().isSynthetic());
+        assertEquals("B", ((SubjectE) unmarshal.invoke("B:MARSHALLED_BY_B")).getValue());
+    }
+
+    @Test
+    public void testConstructors() throws Throwable {
+
+        MethodInvoker spun = MethodInvokers.forConstructor(SubjectE.class.getConstructor(String.class));
+        assertTrue(spun.getClass().isSynthetic());
+        assertEquals("A", ((SubjectE) spun.invoke("A")).getValue());
+
+        Constructor<SubjectE> constructor = SubjectE.class.getDeclaredConstructor(StringBuilder.class);
+        constructor.setAccessible(true);
+        MethodInvoker handle = MethodInvokers.forConstructor(constructor);
+        assertFalse(handle.getClass().isSynthetic());
+        assertEquals("B", ((SubjectE) handle.invoke(new StringBuilder("B"))).getValue());
+    }
+
+    @Test
+    public void testExceptionsAreRaisedUnwrapped() throws NoSuchMethodException {
+
+        MethodInvoker spun = MethodInvokers.forConstructor(SubjectE.class.getConstructor(String.class));
+        Constructor<SubjectE> constructor = SubjectE.class.getDeclaredConstructor(StringBuilder.class);
+        constructor.setAccessible(true);
+        MethodInvoker handle = MethodInvokers.forConstructor(constructor);
+
+        for (String value : new String[] { "checked", "runtime" }) {
+
+            Class<?> expected = value.equals("checked") ? IOException.class : IllegalArgumentException.class;
+            try {
+                spun.invoke(value);
+                fail("Expected an exception for " + value);
+            } catch (Throwable e) {
+                assertSame(expected, e.getClass());
+            }
+            try {
+                handle.invoke(new StringBuilder(value));
+                fail("Expected an exception for " + value);
+            } catch (Throwable e) {
+                assertSame(expected, e.getClass());
+            }
+        }
+    }
+
+    @Test
+    public void testConstructorExceptionsAreWrapped() throws NoSuchMethodException {
+
+        Constructor<SubjectE> publicConstructor = SubjectE.class.getConstructor(String.class);
+        Constructor<SubjectE> constructor = SubjectE.class.getDeclaredConstructor(StringBuilder.class);
+        constructor.setAccessible(true);
+
+        ConstructorFromUnmarshaller<SubjectE, String> spun = new ConstructorFromUnmarshaller<SubjectE, String>(publicConstructor);
+        ConstructorFromUnmarshaller<SubjectE, StringBuilder> handle = new ConstructorFromUnmarshaller<SubjectE, StringBuilder>(constructor);
+
+        // Checked exceptions are wrapped in a BindingException, and runtime exceptions are raised as they are
+        try {
+            spun.unmarshal("checked");
+            fail("Expected a BindingException");
+        } catch (BindingException e) {
+            assertSame(IOException.class, e.getCause().getClass());
+        }
+        try {
+            handle.unmarshal(new StringBuilder("checked"));
+            fail("Expected a BindingException");
+        } catch (BindingException e) {
+            assertSame(IOException.class, e.getCause().getClass());
+        }
+
+        try {
+            spun.unmarshal("runtime");
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Runtime exception for runtime", e.getMessage());
+        }
+        try {
+            handle.unmarshal(new StringBuilder("runtime"));
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Runtime exception for runtime", e.getMessage());
+        }
+    }
+}
@@ -61,7 +61,7 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Comparator;
 
 import org.jadira.reflection.access.AbstractClassAccess;
 import org.jadira.reflection.access.api.ClassAccess;
@@ -82,12 +82,24 @@ import org.objectweb.asm.Type;
  */
 public abstract class AsmClassAccess<C> extends AbstractClassAccess<C> implements ClassAccess<C> {
 
-    private static final ConcurrentHashMap<Class<?>, AsmClassAccess<?>> CLASS_ACCESSES = new ConcurrentHashMap<Class<?>, AsmClassAccess<?>>();
+    private static final ClassValue<AsmClassAccess<?>> CLASS_ACCESSES = new ClassValue<AsmClassAccess<?>>() {
+        @Override
+        protected AsmClassAccess<?> computeValue(Class<?> type) {
+            return create(type);
+        }
+    };
     
 	private static final String CLASS_ACCESS_NM = ClassAccess.class.getName().replace('.', '/');
 
 	private static final String ASM_CLASS_ACCESS_NM = AsmClassAccess.class.getName().replace('.', '/');
     
+	private static final Comparator<Field> FIELD_NAME_ORDER = new Comparator<Field>() {
+		@Override
+		public int compare(Field o1, Field o2) {
+			return o1.getName().compareTo(o2.getName());
+		}
+	};
+
 	private boolean isNonStaticMemberClass;
 		
 	/**
@@ -115,20 +127,24 @@ public abstract class AsmClassAccess<C> extends AbstractClassAccess<C> implement
 	 * @return New AsmClassAccess instance
 	 */
 	public static <C> AsmClassAccess<C> get(Class<C> clazz) {
+		@SuppressWarnings("unchecked")
+		final AsmClassAccess<C> access = (AsmClassAccess<C>) CLASS_ACCESSES.get(clazz);
+		return access;
+	}
+
+	private static <C> AsmClassAccess<C> create(Class<C> clazz) {
+
+		AsmClassAccess<C> access;
 
-	    @SuppressWarnings("unchecked")
-	    AsmClassAccess<C> access = (AsmClassAccess<C>) CLASS_ACCESSES.get(clazz);
-        if (access != null) {
-            return access;
-        }
-        	    
 		Class<?> enclosingType = clazz.getEnclosingClass();
 
 		final boolean isNonStaticMemberClass = determineNonStaticMemberClass(clazz, enclosingType);
 
 		String clazzName = clazz.getName();
 		
-		Field[] fields = ClassUtils.collectInstanceFields(clazz, false, false, true);
+		// The generated accessors switch on the index of the field name within the sorted field names of AbstractClassAccess
+		Field[] fields = ClassUtils.collectDeclaredInstanceFields(clazz);
+		Arrays.sort(fields, FIELD_NAME_ORDER);
 		Method[] methods = ClassUtils.collectMethods(clazz);
 		
 		String accessClassName = constructAccessClassName(clazzName);
@@ -200,8 +216,6 @@ public abstract class AsmClassAccess<C> extends AbstractClassAccess<C> implement
 			
 			access = c.newInstance(clazz);
 			access.isNonStaticMemberClass = isNonStaticMemberClass;
-				        
-			CLASS_ACCESSES.putIfAbsent(clazz, access);
 			
 			return access;
 		} catch (Exception ex) {
@@ -22,7 +22,9 @@ import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A ClassLoader which can be used to load classes from arbitrary byte arrays.
- * Jadira uses this to load classes generated using ASM.
+ * Jadira uses this to load classes generated using ASM. Instances are retained for the life of the
+ * application, together with their parent ClassLoader, so the classes of a ClassLoader for which
+ * accessors have been generated are not unloaded.
  */
 public class AccessClassLoader extends ClassLoader {
 
@@ -31,7 +31,6 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.jadira.reflection.access.AbstractClassAccess;
 import org.jadira.reflection.access.api.ClassAccess;
@@ -50,7 +49,12 @@ import org.objectweb.asm.MethodVisitor;
  */
 public abstract class InvokeDynamicClassAccess<C> extends AbstractClassAccess<C> implements ClassAccess<C> {
 
-    private static final ConcurrentHashMap<Class<?>, InvokeDynamicClassAccess<?>> CLASS_ACCESSES = new ConcurrentHashMap<Class<?>, InvokeDynamicClassAccess<?>>();
+    private static final ClassValue<InvokeDynamicClassAccess<?>> CLASS_ACCESSES = new ClassValue<InvokeDynamicClassAccess<?>>() {
+        @Override
+        protected InvokeDynamicClassAccess<?> computeValue(Class<?> type) {
+            return create(type);
+        }
+    };
     
     private static final String CLASS_ACCESS_NM = ClassAccess.class.getName().replace('.', '/');
 
@@ -83,12 +87,14 @@ public abstract class InvokeDynamicClassAccess<C> extends AbstractClassAccess<C>
 	 * @return New InvokeDynamicClassAccess instance
 	 */
     public static <C> InvokeDynamicClassAccess<C> get(Class<C> clazz) {
-
         @SuppressWarnings("unchecked")
-        InvokeDynamicClassAccess<C> access = (InvokeDynamicClassAccess<C>) CLASS_ACCESSES.get(clazz);
-        if (access != null) {
-            return access;
-        }
+        final InvokeDynamicClassAccess<C> access = (InvokeDynamicClassAccess<C>) CLASS_ACCESSES.get(clazz);
+        return access;
+    }
+
+    private static <C> InvokeDynamicClassAccess<C> create(Class<C> clazz) {
+
+        InvokeDynamicClassAccess<C> access;
         
         Class<?> enclosingType = clazz.getEnclosingClass();
 
@@ -144,7 +150,6 @@ public abstract class InvokeDynamicClassAccess<C> extends AbstractClassAccess<C>
             access = c.newInstance(clazz);
             access.isNonStaticMemberClass = isNonStaticMemberClass;
             
-            CLASS_ACCESSES.putIfAbsent(clazz, access);
             return access;
         } catch (Exception ex) {
             throw new RuntimeException("Error constructing constructor access class: " + accessClassName + "{ " + ex.getMessage() + " }", ex);
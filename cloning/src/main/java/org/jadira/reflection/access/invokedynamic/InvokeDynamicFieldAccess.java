@@ -57,6 +57,12 @@ public class InvokeDynamicFieldAccess<C> implements FieldAccess<C> {
 		
 		setMh = setCallSite.dynamicInvoker();
 	    getMh = getCallSite.dynamicInvoker();
+	    
+	    if (!fieldClass.isPrimitive()) {
+	    	// getValue and putValue invoke exactly using Object for the field type
+	    	setMh = setMh.asType(MethodType.methodType(void.class, Object.class, Object.class));
+	    	getMh = getMh.asType(MethodType.methodType(Object.class, Object.class));
+	    }
 	}
 	
 	@Override
@@ -0,0 +1,422 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.reflection.access.methodhandle;
+
+import static org.objectweb.asm.Opcodes.AALOAD;
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_STATIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.DUP;
+import static org.objectweb.asm.Opcodes.GETSTATIC;
+import static org.objectweb.asm.Opcodes.ICONST_0;
+import static org.objectweb.asm.Opcodes.ICONST_1;
+import static org.objectweb.asm.Opcodes.ILOAD;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.IRETURN;
+import static org.objectweb.asm.Opcodes.PUTSTATIC;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.V1_7;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jadira.reflection.access.api.FieldAccess;
+import org.jadira.reflection.access.classloader.AccessClassLoader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+/**
+ * FieldAccess implementation using MethodHandles obtained from the field. For each field a subclass is
+ * generated (using ASM) which holds the getter and setter handles in static final fields and invokes them
+ * exactly. The JIT treats static final fields as constants, so the handles are inlined into the calling code
+ * and the access costs the same as a direct field access. No use is made of sun.misc.Unsafe.
+ * 
+ * The generated subclass implements the typed methods for the type of the field: getValue and putValue for a
+ * reference, or the matching primitive pair (for example getIntValue and putIntValue) for a primitive. For
+ * primitive fields getValue and putValue are also available, boxing the value. Typed methods for other types
+ * are not supported.
+ * 
+ * The generated classes are defined using the {@link AccessClassLoader} for the declaring class of the field,
+ * and the instances are cached per declaring class, so each field has at most one generated class.
+ * @param <C> The Class containing the Field to be accessed
+ */
+public abstract class MethodHandleFieldAccess<C> implements FieldAccess<C> {
+
+	private static final String METHOD_HANDLE_FIELD_ACCESS_NM = Type.getInternalName(MethodHandleFieldAccess.class);
+
+	private static final String METHOD_HANDLE_NM = Type.getInternalName(MethodHandle.class);
+
+	private static final String METHOD_HANDLE_DESC = Type.getDescriptor(MethodHandle.class);
+
+	private static final String OBJECT_DESC = Type.getDescriptor(Object.class);
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	private static final ClassValue<ConcurrentHashMap<String, MethodHandleFieldAccess<?>>> FIELD_ACCESSES = new ClassValue<ConcurrentHashMap<String, MethodHandleFieldAccess<?>>>() {
+		@Override
+		protected ConcurrentHashMap<String, MethodHandleFieldAccess<?>> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<String, MethodHandleFieldAccess<?>>();
+		}
+	};
+
+	/**
+	 * Handles for the generated class being initialised by the current thread
+	 */
+	private static final ThreadLocal<MethodHandle[]> PENDING_HANDLES = new ThreadLocal<MethodHandle[]>();
+
+	private final Class<C> declaringClass;
+	private final Class<?> fieldClass;
+	private final Field field;
+
+	private final MethodHandle boxingGetter;
+	private final MethodHandle boxingSetter;
+
+	/**
+	 * Constructor, intended for use by generated subclasses
+	 * @param field The Field to be accessed
+	 * @param getter Handle for reading the field, of type (Object)T where T is the field type for primitives or Object otherwise
+	 * @param setter Handle for writing the field, of type (Object,T)void
+	 */
+	@SuppressWarnings("unchecked")
+	protected MethodHandleFieldAccess(Field field, MethodHandle getter, MethodHandle setter) {
+
+		this.declaringClass = (Class<C>) field.getDeclaringClass();
+		this.fieldClass = field.getType();
+		this.field = field;
+
+		this.boxingGetter = getter.asType(MethodType.methodType(Object.class, Object.class));
+		this.boxingSetter = setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+	}
+
+	/**
+	 * Get an instance that can access the given Field. If the FieldAccess for this field
+	 * has not been obtained before, then the specific MethodHandleFieldAccess is created and cached.
+	 * @param f Field to be accessed
+	 * @param <C> The type of class being accessed
+	 * @return MethodHandleFieldAccess instance
+	 */
+	public static <C> MethodHandleFieldAccess<C> get(Field f) {
+
+		final ConcurrentHashMap<String, MethodHandleFieldAccess<?>> accesses = FIELD_ACCESSES.get(f.getDeclaringClass());
+
+		@SuppressWarnings("unchecked")
+		final MethodHandleFieldAccess<C> access = (MethodHandleFieldAccess<C>) accesses.get(f.getName());
+		if (access != null) {
+			return access;
+		}
+
+		final MethodHandleFieldAccess<C> created = create(f);
+		@SuppressWarnings("unchecked")
+		final MethodHandleFieldAccess<C> existing = (MethodHandleFieldAccess<C>) accesses.putIfAbsent(f.getName(), created);
+		return existing == null ? created : existing;
+	}
+
+	private static <C> MethodHandleFieldAccess<C> create(Field f) {
+
+		if (!f.isAccessible()) {
+			f.setAccessible(true);
+		}
+
+		final Class<?> handleType = f.getType().isPrimitive() ? f.getType() : Object.class;
+		final MethodHandle getter;
+		final MethodHandle setter;
+		try {
+			getter = LOOKUP.unreflectGetter(f).asType(MethodType.methodType(handleType, Object.class));
+			setter = LOOKUP.unreflectSetter(f).asType(MethodType.methodType(void.class, Object.class, handleType));
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException("Cannot access field {" + f.getName() + "} of class {" + f.getDeclaringClass().getName() + "}: " + e.getMessage(), e);
+		}
+
+		final String accessClassName = constructAccessClassName(f);
+		final AccessClassLoader loader = AccessClassLoader.get(f.getDeclaringClass());
+
+		Class<?> accessClass;
+		synchronized (loader) {
+			try {
+				accessClass = loader.loadClass(accessClassName);
+			} catch (ClassNotFoundException ignored) {
+				loader.registerClass(accessClassName, generateAccessClass(accessClassName.replace('.', '/'), Type.getType(handleType)));
+				try {
+					accessClass = loader.findClass(accessClassName);
+				} catch (ClassNotFoundException e) {
+					throw new IllegalStateException("AccessClass unexpectedly could not be found", e);
+				}
+			}
+		}
+
+		// Handles for the same field are equivalent, so whichever thread initialises the class may supply them
+		PENDING_HANDLES.set(new MethodHandle[] { getter, setter });
+		try {
+			@SuppressWarnings("unchecked")
+			final MethodHandleFieldAccess<C> access = (MethodHandleFieldAccess<C>) accessClass.getConstructor(Field.class, MethodHandle.class, MethodHandle.class).newInstance(f, getter, setter);
+			return access;
+		} catch (Exception ex) {
+			throw new IllegalStateException("Error constructing field access class: " + accessClassName + "{ " + ex.getMessage() + " }", ex);
+		} finally {
+			PENDING_HANDLES.remove();
+		}
+	}
+
+	/**
+	 * Invoked by the static initialiser of each generated subclass to obtain its handles
+	 * @return The getter and setter handles
+	 */
+	protected static MethodHandle[] takeHandles() {
+		final MethodHandle[] handles = PENDING_HANDLES.get();
+		if (handles == null) {
+			throw new IllegalStateException("No MethodHandles are registered for the current thread");
+		}
+		return handles;
+	}
+
+	private static String constructAccessClassName(Field f) {
+
+		String accessClassName = f.getDeclaringClass().getName() + "$" + MethodHandleFieldAccess.class.getSimpleName() + "$" + f.getName();
+		if (accessClassName.startsWith("java.")) {
+			accessClassName = MethodHandleFieldAccess.class.getSimpleName().toLowerCase() + accessClassName;
+		}
+		return accessClassName;
+	}
+
+	private static byte[] generateAccessClass(String accessClassNm, Type handleType) {
+
+		final ClassWriter cw = new ClassWriter(0);
+		cw.visit(V1_7, ACC_PUBLIC + ACC_FINAL + ACC_SUPER, accessClassNm, null, METHOD_HANDLE_FIELD_ACCESS_NM, null);
+
+		cw.visitField(ACC_PRIVATE + ACC_STATIC + ACC_FINAL, "GETTER", METHOD_HANDLE_DESC, null, null).visitEnd();
+		cw.visitField(ACC_PRIVATE + ACC_STATIC + ACC_FINAL, "SETTER", METHOD_HANDLE_DESC, null, null).visitEnd();
+
+		enhanceForStaticInitializer(cw, accessClassNm);
+		enhanceForConstructor(cw);
+
+		final String suffix = handleType.getSort() == Type.OBJECT ? "" : accessorSuffix(handleType);
+		enhanceForGetValue(cw, accessClassNm, "get" + suffix + "Value", handleType);
+		enhanceForPutValue(cw, accessClassNm, "put" + suffix + "Value", handleType);
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private static void enhanceForStaticInitializer(ClassWriter cw, String accessClassNm) {
+
+		final MethodVisitor mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+		mv.visitCode();
+		mv.visitMethodInsn(INVOKESTATIC, METHOD_HANDLE_FIELD_ACCESS_NM, "takeHandles", "()[" + METHOD_HANDLE_DESC);
+		mv.visitInsn(DUP);
+		mv.visitInsn(ICONST_0);
+		mv.visitInsn(AALOAD);
+		mv.visitFieldInsn(PUTSTATIC, accessClassNm, "GETTER", METHOD_HANDLE_DESC);
+		mv.visitInsn(ICONST_1);
+		mv.visitInsn(AALOAD);
+		mv.visitFieldInsn(PUTSTATIC, accessClassNm, "SETTER", METHOD_HANDLE_DESC);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(3, 0);
+		mv.visitEnd();
+	}
+
+	private static void enhanceForConstructor(ClassWriter cw) {
+
+		final String constructorDesc = "(Ljava/lang/reflect/Field;" + METHOD_HANDLE_DESC + METHOD_HANDLE_DESC + ")V";
+
+		final MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", constructorDesc, null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitVarInsn(ALOAD, 2);
+		mv.visitVarInsn(ALOAD, 3);
+		mv.visitMethodInsn(INVOKESPECIAL, METHOD_HANDLE_FIELD_ACCESS_NM, "<init>", constructorDesc);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(4, 4);
+		mv.visitEnd();
+	}
+
+	private static void enhanceForGetValue(ClassWriter cw, String accessClassNm, String methodName, Type handleType) {
+
+		final String desc = "(" + OBJECT_DESC + ")" + handleType.getDescriptor();
+
+		final MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, methodName, desc, null, null);
+		mv.visitCode();
+		mv.visitFieldInsn(GETSTATIC, accessClassNm, "GETTER", METHOD_HANDLE_DESC);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitMethodInsn(INVOKEVIRTUAL, METHOD_HANDLE_NM, "invokeExact", desc);
+		mv.visitInsn(handleType.getOpcode(IRETURN));
+		mv.visitMaxs(2, 2);
+		mv.visitEnd();
+	}
+
+	private static void enhanceForPutValue(ClassWriter cw, String accessClassNm, String methodName, Type handleType) {
+
+		final String desc = "(" + OBJECT_DESC + handleType.getDescriptor() + ")V";
+
+		final MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, methodName, desc, null, null);
+		mv.visitCode();
+		mv.visitFieldInsn(GETSTATIC, accessClassNm, "SETTER", METHOD_HANDLE_DESC);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitVarInsn(handleType.getOpcode(ILOAD), 2);
+		mv.visitMethodInsn(INVOKEVIRTUAL, METHOD_HANDLE_NM, "invokeExact", desc);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(2 + handleType.getSize(), 2 + handleType.getSize());
+		mv.visitEnd();
+	}
+
+	private static String accessorSuffix(Type type) {
+
+		switch (type.getSort()) {
+		case Type.BOOLEAN:
+			return "Boolean";
+		case Type.BYTE:
+			return "Byte";
+		case Type.CHAR:
+			return "Char";
+		case Type.SHORT:
+			return "Short";
+		case Type.INT:
+			return "Int";
+		case Type.LONG:
+			return "Long";
+		case Type.FLOAT:
+			return "Float";
+		case Type.DOUBLE:
+			return "Double";
+		default:
+			throw new IllegalStateException("Unexpected type: " + type);
+		}
+	}
+
+	@Override
+	public Class<C> declaringClass() {
+		return declaringClass;
+	}
+
+	@Override
+	public Class<?> fieldClass() {
+		return fieldClass;
+	}
+
+	@Override
+	public Field field() {
+		return field;
+	}
+
+	@Override
+	public Object getValue(C parent) {
+		try {
+			return boxingGetter.invokeExact((Object) parent);
+		} catch (Throwable e) {
+			throw new IllegalStateException("Problem accessing {" + field.getName() + "} of object {"
+					+ System.identityHashCode(parent) + "}: " + e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public void putValue(C parent, Object newFieldValue) {
+		try {
+			boxingSetter.invokeExact((Object) parent, newFieldValue);
+		} catch (Throwable e) {
+			throw new IllegalStateException("Problem accessing {" + field.getName() + "} of object {"
+					+ System.identityHashCode(parent) + "}: " + e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public boolean getBooleanValue(C parent) {
+		throw new UnsupportedOperationException("Not supported for this field type");
+	}
+
+	@Override
+	public byte getByteValue(C parent) {
+		throw new UnsupportedOperationException("Not supported for this field type");
+	}
+
+	@Override
+	public char getCharValue(C parent) {
+		throw new UnsupportedOperationException("Not supported for this field type");
+	}
+
+	@Override
+	public short getShortValue(C parent) {
+		throw new UnsupportedOperationException("Not supported for this field type");
+	}
+
+	@Override
+	public int getIntValue(C parent) {
+		throw new UnsupportedOperationException("Not supported for this field type");
+	}
+
+	@Override
+	public long getLongValue(C parent) {
+		throw new UnsupportedOperationException("Not supported for this field type");
+	}
+
+	@Override
+	public float getFloatValue(C parent) {
+		throw new UnsupportedOperationException("Not supported for this field type");
+	}
+
+	@Override
+	public double getDoubleValue(C parent) {
+		throw new UnsupportedOperationException("Not supported for this field type");
+	}
+
+	@Override
+	public void putBooleanValue(C parent, boolean newFieldValue) {
+		throw new UnsupportedOperationException("Not supported for this field type");
+	}
+
+	@Override
+	public void putByteValue(C parent, byte newFieldValue) {
+		throw new UnsupportedOperationException("Not supported for this field type");
+	}
+
+	@Override
+	public void putCharValue(C parent, char newFieldValue) {
+		throw new UnsupportedOperationException("Not supported for this field type");
+	}
+
+	@Override
+	public void putShortValue(C parent, short newFieldValue) {
+		throw new UnsupportedOperationException("Not supported for this field type");
+	}
+
+	@Override
+	public void putIntValue(C parent, int newFieldValue) {
+		throw new UnsupportedOperationException("Not supported for this field type");
+	}
+
+	@Override
+	public void putLongValue(C parent, long newFieldValue) {
+		throw new UnsupportedOperationException("Not supported for this field type");
+	}
+
+	@Override
+	public void putFloatValue(C parent, float newFieldValue) {
+		throw new UnsupportedOperationException("Not supported for this field type");
+	}
+
+	@Override
+	public void putDoubleValue(C parent, double newFieldValue) {
+		throw new UnsupportedOperationException("Not supported for this field type");
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.reflection.access.methodhandle;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.jadira.reflection.access.api.MethodAccess;
+
+/**
+ * MethodAccess implementation using a MethodHandle obtained from the method
+ * @param <C> The Class containing the Method to be accessed
+ */
+public class MethodHandleMethodAccess<C> implements MethodAccess<C> {
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	private final Method method;
+	private final Class<C> declaringClass;
+	private final Class<?> returnType;
+
+	/**
+	 * Handle of type (Object,Object[])Object
+	 */
+	private final MethodHandle handle;
+
+	@SuppressWarnings("unchecked")
+	private MethodHandleMethodAccess(Method m) {
+
+		this.method = m;
+		if (!method.isAccessible()) {
+			method.setAccessible(true);
+		}
+		this.declaringClass = (Class<C>) m.getDeclaringClass();
+		this.returnType = (Class<?>) m.getReturnType();
+
+		MethodHandle methodHandle;
+		try {
+			methodHandle = LOOKUP.unreflect(m).asFixedArity();
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException("Cannot access method {" + m.getName() + "} of class {" + m.getDeclaringClass().getName() + "}: " + e.getMessage(), e);
+		}
+		if (Modifier.isStatic(m.getModifiers())) {
+			methodHandle = MethodHandles.dropArguments(methodHandle, 0, Object.class);
+		}
+		this.handle = methodHandle.asSpreader(Object[].class, m.getParameterTypes().length)
+				.asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+	}
+
+	/**
+	 * Get a new instance that can access the given Method
+	 * @param m Method to be accessed
+	 * @param <C> The type of class declaring the method
+	 * @return New MethodHandleMethodAccess instance
+	 */
+	public static <C> MethodHandleMethodAccess<C> get(Method m) {
+		return new MethodHandleMethodAccess<C>(m);
+	}
+
+	@Override
+	public Class<C> declaringClass() {
+		return declaringClass;
+	}
+
+	@Override
+	public Class<?> returnClass() {
+		return returnType;
+	}
+
+	@Override
+	public Method method() {
+		return method;
+	}
+
+	@Override
+	public Object invoke(C target, Object... args) throws IllegalArgumentException {
+		try {
+			return handle.invokeExact((Object) target, args);
+		} catch (Throwable e) {
+			throw new IllegalArgumentException("Could not invoke: " + e.getMessage(), e);
+		}
+	}
+}
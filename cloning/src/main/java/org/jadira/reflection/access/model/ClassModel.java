@@ -28,9 +28,16 @@ public class ClassModel<C> {
 
 	private static final Class<Annotation> JSR305_IMMUTABLE_ANNOTATION;
 
-    private static final ConcurrentHashMap<String, ClassModel<?>> classModels = new ConcurrentHashMap<String, ClassModel<?>>(16);
-    
-	private static final Object MONITOR = new Object();
+	/**
+	 * Models for each class, keyed by the type of the ClassAccess that introspected it. Holding the models against the class
+	 * itself means that a class loader which is no longer used can still be unloaded.
+	 */
+	private static final ClassValue<ConcurrentHashMap<Class<?>, ClassModel<?>>> CLASS_MODELS = new ClassValue<ConcurrentHashMap<Class<?>, ClassModel<?>>>() {
+		@Override
+		protected ConcurrentHashMap<Class<?>, ClassModel<?>> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<Class<?>, ClassModel<?>>(4);
+		}
+	};
 	
 	static {	
 		Class<Annotation> immutableAnnotation;
@@ -67,26 +74,18 @@ public class ClassModel<C> {
 	@SuppressWarnings("unchecked")
 	public static final <C> ClassModel<C> get(ClassAccess<C> classAccess) {
         
-		Class<?> clazz = classAccess.getType();
-		
-		String classModelKey = (classAccess.getClass().getName() + ":" + clazz.getName());
+		final ConcurrentHashMap<Class<?>, ClassModel<?>> classModels = CLASS_MODELS.get(classAccess.getType());
 		
-		ClassModel<C> classModel = (ClassModel<C>)classModels.get(classModelKey);
+		ClassModel<C> classModel = (ClassModel<C>)classModels.get(classAccess.getClass());
     	if (classModel != null) {       	
         	return classModel;
         }
     	
-    	synchronized(MONITOR) {
-    		classModel = (ClassModel<C>)classModels.get(classModelKey);
-        	if (classModel != null) {       	
-            	return classModel;
-            } else {
-            	classModel = new ClassModel<C>(classAccess);
-            	classModels.put(classModelKey, classModel);
-            	
-            	return classModel;
-            }
-    	}
+    	// Models are built without holding a lock, as building one may build the models for other classes.
+    	// If two threads race, both build a model and the first to be registered is used.
+    	classModel = new ClassModel<C>(classAccess);
+    	final ClassModel<C> existing = (ClassModel<C>)classModels.putIfAbsent(classAccess.getClass(), classModel);
+    	return existing == null ? classModel : existing;
     }
 	
 	private ClassModel(ClassAccess<C> classAccess) {
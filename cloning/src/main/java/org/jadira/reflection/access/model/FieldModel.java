@@ -27,9 +27,15 @@ import org.jadira.reflection.cloning.annotation.Transient;
  */
 public class FieldModel<C> {
 	
-	private static final ConcurrentHashMap<String, FieldModel<?>> fieldModels = new ConcurrentHashMap<String, FieldModel<?>>(100);
-    
-	private static final Object MONITOR = new Object();
+	/**
+	 * Models for the fields declared by each class, keyed by the type of the FieldAccess and then by field name
+	 */
+	private static final ClassValue<ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, FieldModel<?>>>> FIELD_MODELS = new ClassValue<ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, FieldModel<?>>>>() {
+		@Override
+		protected ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, FieldModel<?>>> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, FieldModel<?>>>(4);
+		}
+	};
 	
 	private final FieldAccess<C> fieldAccess;
 	
@@ -77,23 +83,25 @@ public class FieldModel<C> {
     @SuppressWarnings("unchecked")
 	public static final <C> FieldModel<C> get(Field f, FieldAccess<C> fieldAccess) {
 		
-		String fieldModelKey = (fieldAccess.getClass().getSimpleName() + ":" + f.getClass().getName() + "#" + f.getName());		
-		FieldModel<C> fieldModel = (FieldModel<C>)fieldModels.get(fieldModelKey);
+		final ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, FieldModel<?>>> modelsByAccess = FIELD_MODELS.get(f.getDeclaringClass());
+		
+		ConcurrentHashMap<String, FieldModel<?>> fieldModels = modelsByAccess.get(fieldAccess.getClass());
+		if (fieldModels == null) {
+			fieldModels = new ConcurrentHashMap<String, FieldModel<?>>(8);
+			final ConcurrentHashMap<String, FieldModel<?>> existingModels = modelsByAccess.putIfAbsent(fieldAccess.getClass(), fieldModels);
+			if (existingModels != null) {
+				fieldModels = existingModels;
+			}
+		}
+		
+		FieldModel<C> fieldModel = (FieldModel<C>)fieldModels.get(f.getName());
     	if (fieldModel != null) {       	
         	return fieldModel;
         }
     	
-    	synchronized(MONITOR) {
-    		fieldModel = (FieldModel<C>)fieldModels.get(fieldModelKey);
-        	if (fieldModel != null) {       	
-            	return fieldModel;
-            } else {
-            	fieldModel = new FieldModel<C>(f, fieldAccess);
-            	fieldModels.putIfAbsent(fieldModelKey, fieldModel);
-            	
-            	return fieldModel;
-            }
-    	}
+    	fieldModel = new FieldModel<C>(f, fieldAccess);
+    	final FieldModel<C> existing = (FieldModel<C>)fieldModels.putIfAbsent(f.getName(), fieldModel);
+    	return existing == null ? fieldModel : existing;
     }
     
     /**
@@ -0,0 +1,238 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.reflection.access.model;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jadira.reflection.access.api.ClassAccess;
+import org.jadira.reflection.access.api.ClassAccessFactory;
+import org.jadira.reflection.access.api.FieldAccess;
+import org.jadira.reflection.access.api.MethodAccess;
+
+/**
+ * The fields of a class that take part in reflective equals or hashCode, together with the equals() or
+ * hashCode() method of the nearest class in the hierarchy that provides one. Fields that are static, transient
+ * or synthetic (named with '$') are filtered out and the type of each field is resolved when the plan is built,
+ * so comparing or hashing an instance is a flat loop over the remaining accessors.
+ * Plans are computed once per class and {@link ClassAccessFactory}.
+ */
+public final class ReflectionPlan {
+
+	/**
+	 * How the value of a field is read
+	 */
+	public enum FieldKind {
+		BOOLEAN,
+		BYTE,
+		CHAR,
+		SHORT,
+		INT,
+		LONG,
+		FLOAT,
+		DOUBLE,
+		OBJECT
+	}
+
+	private static final ClassValue<ConcurrentHashMap<ClassAccessFactory, ReflectionPlan>> EQUALS_PLANS = new PlanCache();
+	private static final ClassValue<ConcurrentHashMap<ClassAccessFactory, ReflectionPlan>> HASH_CODE_PLANS = new PlanCache();
+
+	private final FieldAccess<Object>[] fields;
+
+	private final FieldKind[] fieldKinds;
+
+	private final MethodAccess<Object> method;
+
+	private ReflectionPlan(FieldAccess<Object>[] fields, FieldKind[] fieldKinds, MethodAccess<Object> method) {
+		this.fields = fields;
+		this.fieldKinds = fieldKinds;
+		this.method = method;
+	}
+
+	/**
+	 * Returns the plan used by reflectionEquals for the given class. If the class does not itself override
+	 * equals(), the plan contains the fields of the class and all of its superclasses, together with the
+	 * equals() method of the nearest superclass that overrides it.
+	 * @param classAccessFactory The factory used to access the class
+	 * @param clazz The class
+	 * @return The ReflectionPlan
+	 */
+	public static ReflectionPlan forEquals(ClassAccessFactory classAccessFactory, Class<?> clazz) {
+
+		final ConcurrentHashMap<ClassAccessFactory, ReflectionPlan> plans = EQUALS_PLANS.get(clazz);
+		ReflectionPlan plan = plans.get(classAccessFactory);
+		if (plan == null) {
+			plan = createEqualsPlan(classAccessFactory.getClassAccess(clazz));
+			plans.putIfAbsent(classAccessFactory, plan);
+		}
+		return plan;
+	}
+
+	/**
+	 * Returns the plan used by reflectionHashCode for the given class. The plan contains the fields of the class
+	 * and of its superclasses up to the nearest one that overrides hashCode(), together with that hashCode() method.
+	 * @param classAccessFactory The factory used to access the class
+	 * @param clazz The class
+	 * @return The ReflectionPlan
+	 */
+	public static ReflectionPlan forHashCode(ClassAccessFactory classAccessFactory, Class<?> clazz) {
+
+		final ConcurrentHashMap<ClassAccessFactory, ReflectionPlan> plans = HASH_CODE_PLANS.get(clazz);
+		ReflectionPlan plan = plans.get(classAccessFactory);
+		if (plan == null) {
+			plan = createHashCodePlan(classAccessFactory.getClassAccess(clazz));
+			plans.putIfAbsent(classAccessFactory, plan);
+		}
+		return plan;
+	}
+
+	private static ReflectionPlan createEqualsPlan(ClassAccess<?> classAccess) {
+
+		final List<FieldAccess<Object>> fields = new ArrayList<FieldAccess<Object>>();
+
+		ClassAccess<?> providingAccess = classAccess;
+		while ((providingAccess.getType() != Object.class) && (!providingAccess.providesEquals())) {
+			providingAccess = providingAccess.getSuperClassAccess();
+		}
+
+		if (providingAccess != classAccess) {
+			for (ClassAccess<?> next = classAccess; next != null; next = next.getSuperClassAccess()) {
+				addFields(next, fields);
+			}
+		}
+
+		final MethodAccess<Object> method;
+		if (providingAccess.getType() != Object.class) {
+			method = getMethodAccess(providingAccess, "equals", Object.class);
+		} else {
+			method = null;
+		}
+		return create(fields, method);
+	}
+
+	private static ReflectionPlan createHashCodePlan(ClassAccess<?> classAccess) {
+
+		final List<FieldAccess<Object>> fields = new ArrayList<FieldAccess<Object>>();
+
+		ClassAccess<?> next = classAccess;
+		while ((next.getType() != Object.class) && (!next.providesHashCode())) {
+			addFields(next, fields);
+			next = next.getSuperClassAccess();
+		}
+
+		final MethodAccess<Object> method;
+		if (next.getType() != Object.class) {
+			method = getMethodAccess(next, "hashCode");
+		} else {
+			method = null;
+		}
+		return create(fields, method);
+	}
+
+	private static void addFields(ClassAccess<?> classAccess, List<FieldAccess<Object>> fields) {
+
+		@SuppressWarnings("unchecked")
+		final FieldAccess<Object>[] declaredFields = (FieldAccess<Object>[]) classAccess.getDeclaredFieldAccessors();
+		for (FieldAccess<Object> f : declaredFields) {
+			if ((f.field().getName().indexOf('$') == -1)
+					&& (!Modifier.isTransient(f.field().getModifiers()))
+					&& (!Modifier.isStatic(f.field().getModifiers()))) {
+				fields.add(f);
+			}
+		}
+	}
+
+	private static MethodAccess<Object> getMethodAccess(ClassAccess<?> classAccess, String name, Class<?>... parameterTypes) {
+
+		try {
+			@SuppressWarnings("unchecked")
+			final MethodAccess<Object> methodAccess = (MethodAccess<Object>) classAccess.getDeclaredMethodAccess(classAccess.getType().getMethod(name, parameterTypes));
+			return methodAccess;
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException("Cannot find " + name + "() method");
+		} catch (SecurityException e) {
+			throw new IllegalStateException("Cannot find " + name + "() method");
+		}
+	}
+
+	private static ReflectionPlan create(List<FieldAccess<Object>> fieldList, MethodAccess<Object> method) {
+
+		@SuppressWarnings("unchecked")
+		final FieldAccess<Object>[] fields = (FieldAccess<Object>[]) fieldList.toArray(new FieldAccess[fieldList.size()]);
+		final FieldKind[] fieldKinds = new FieldKind[fields.length];
+		for (int i = 0; i < fields.length; i++) {
+			fieldKinds[i] = determineFieldKind(fields[i].fieldClass());
+		}
+		return new ReflectionPlan(fields, fieldKinds, method);
+	}
+
+	private static FieldKind determineFieldKind(Class<?> type) {
+
+		if (!type.isPrimitive()) {
+			return FieldKind.OBJECT;
+		} else if (java.lang.Boolean.TYPE == type) {
+			return FieldKind.BOOLEAN;
+		} else if (java.lang.Byte.TYPE == type) {
+			return FieldKind.BYTE;
+		} else if (java.lang.Character.TYPE == type) {
+			return FieldKind.CHAR;
+		} else if (java.lang.Short.TYPE == type) {
+			return FieldKind.SHORT;
+		} else if (java.lang.Integer.TYPE == type) {
+			return FieldKind.INT;
+		} else if (java.lang.Long.TYPE == type) {
+			return FieldKind.LONG;
+		} else if (java.lang.Float.TYPE == type) {
+			return FieldKind.FLOAT;
+		} else {
+			return FieldKind.DOUBLE;
+		}
+	}
+
+	/**
+	 * The fields to be compared or hashed, in the same order as {@link #getFieldKinds()}
+	 * @return The FieldAccess instances. Callers must not modify the array
+	 */
+	public FieldAccess<Object>[] getFields() {
+		return fields;
+	}
+
+	/**
+	 * How each field returned by {@link #getFields()} is read
+	 * @return The FieldKinds. Callers must not modify the array
+	 */
+	public FieldKind[] getFieldKinds() {
+		return fieldKinds;
+	}
+
+	/**
+	 * The equals() or hashCode() method of the nearest class providing one, to be invoked after the fields
+	 * @return The MethodAccess, or null if only the fields are used
+	 */
+	public MethodAccess<Object> getMethod() {
+		return method;
+	}
+
+	private static final class PlanCache extends ClassValue<ConcurrentHashMap<ClassAccessFactory, ReflectionPlan>> {
+
+		@Override
+		protected ConcurrentHashMap<ClassAccessFactory, ReflectionPlan> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<ClassAccessFactory, ReflectionPlan>(4);
+		}
+	}
+}
@@ -17,7 +17,6 @@ package org.jadira.reflection.access.portable;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.jadira.reflection.access.AbstractClassAccess;
 import org.jadira.reflection.access.api.ClassAccess;
@@ -33,7 +32,12 @@ import org.objenesis.ObjenesisStd;
  */
 public class PortableClassAccess<C> extends AbstractClassAccess<C> implements ClassAccess<C> {
 
-    private static final ConcurrentHashMap<Class<?>, PortableClassAccess<?>> CLASS_ACCESSES = new ConcurrentHashMap<Class<?>, PortableClassAccess<?>>();
+    private static final ClassValue<PortableClassAccess<?>> CLASS_ACCESSES = new ClassValue<PortableClassAccess<?>>() {
+        @Override
+        protected PortableClassAccess<?> computeValue(Class<?> type) {
+            return create(type);
+        }
+    };
     
     private static final Objenesis OBJENESIS = new ObjenesisStd();
 		
@@ -55,15 +59,13 @@ public class PortableClassAccess<C> extends AbstractClassAccess<C> implements Cl
 	 * @return New PortableClassAccess instance
 	 */
 	public static <C> PortableClassAccess<C> get(Class<C> clazz) {
+		@SuppressWarnings("unchecked")
+		final PortableClassAccess<C> access = (PortableClassAccess<C>) CLASS_ACCESSES.get(clazz);
+		return access;
+	}
 
-        @SuppressWarnings("unchecked")
-        PortableClassAccess<C> access = (PortableClassAccess<C>) CLASS_ACCESSES.get(clazz);
-        if (access != null) {
-            return access;
-        }
-        access = new PortableClassAccess<C>(clazz);
-        CLASS_ACCESSES.putIfAbsent(clazz, access);
-        return access;
+	private static <C> PortableClassAccess<C> create(Class<C> clazz) {
+		return new PortableClassAccess<C>(clazz);
 	}
 
 	@Override
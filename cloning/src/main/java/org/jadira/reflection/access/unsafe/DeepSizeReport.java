@@ -0,0 +1,117 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.reflection.access.unsafe;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The result of sizing an object graph with a {@link DeepSizer}
+ */
+public final class DeepSizeReport {
+
+	private final long measuredSize;
+
+	private final long estimatedSize;
+
+	private final long objectCount;
+
+	private final boolean budgetExceeded;
+
+	private final Map<Class<?>, Long> instancesByClass;
+
+	private final Map<Class<?>, Long> bytesByClass;
+
+	DeepSizeReport(long measuredSize, long estimatedSize, long objectCount, boolean budgetExceeded, Map<Class<?>, long[]> classSizes) {
+
+		this.measuredSize = measuredSize;
+		this.estimatedSize = estimatedSize;
+		this.objectCount = objectCount;
+		this.budgetExceeded = budgetExceeded;
+
+		if (classSizes == null) {
+			this.instancesByClass = Collections.emptyMap();
+			this.bytesByClass = Collections.emptyMap();
+		} else {
+			final Map<Class<?>, Long> instances = new IdentityHashMap<Class<?>, Long>(classSizes.size());
+			final Map<Class<?>, Long> bytes = new IdentityHashMap<Class<?>, Long>(classSizes.size());
+			for (Map.Entry<Class<?>, long[]> next : classSizes.entrySet()) {
+				instances.put(next.getKey(), Long.valueOf(next.getValue()[0]));
+				bytes.put(next.getKey(), Long.valueOf(next.getValue()[1]));
+			}
+			this.instancesByClass = Collections.unmodifiableMap(instances);
+			this.bytesByClass = Collections.unmodifiableMap(bytes);
+		}
+	}
+
+	/**
+	 * The size of the graph, being the measured size plus the size extrapolated for elements that were not sampled.
+	 * If the budget was exceeded, this is the size reached when sizing stopped.
+	 * @return Size in bytes
+	 */
+	public long getSize() {
+		return measuredSize + estimatedSize;
+	}
+
+	/**
+	 * The total size of the objects that were visited
+	 * @return Size in bytes
+	 */
+	public long getMeasuredSize() {
+		return measuredSize;
+	}
+
+	/**
+	 * The size extrapolated for the elements of sampled arrays that were not visited
+	 * @return Size in bytes, or 0 if no array was sampled
+	 */
+	public long getEstimatedSize() {
+		return estimatedSize;
+	}
+
+	/**
+	 * The number of objects that were visited
+	 * @return The count
+	 */
+	public long getObjectCount() {
+		return objectCount;
+	}
+
+	/**
+	 * Indicates whether sizing stopped early because the budget was exceeded
+	 * @return True if the budget was exceeded
+	 */
+	public boolean isBudgetExceeded() {
+		return budgetExceeded;
+	}
+
+	/**
+	 * The number of visited instances of each class, if a class breakdown was requested
+	 * @return Unmodifiable map of class to instance count
+	 */
+	public Map<Class<?>, Long> getInstancesByClass() {
+		return instancesByClass;
+	}
+
+	/**
+	 * The measured size of the visited instances of each class, if a class breakdown was requested
+	 * @return Unmodifiable map of class to size in bytes
+	 */
+	public Map<Class<?>, Long> getBytesByClass() {
+		return bytesByClass;
+	}
+}
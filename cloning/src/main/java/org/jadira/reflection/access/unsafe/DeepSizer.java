@@ -0,0 +1,427 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.reflection.access.unsafe;
+
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.jadira.reflection.core.identity.IdentityReferenceMap;
+import org.jadira.reflection.core.misc.ClassUtils;
+
+/**
+ * Calculates the deep memory size of an object graph. The graph is visited using an explicit stack, so
+ * deep graphs cannot overflow the call stack, and the shallow size and reference fields of each class are
+ * calculated once and cached.
+ * 
+ * A sizer can be configured to stop once a byte budget is exceeded, which makes it suitable for capping a cache
+ * by its size in memory; to sample the elements of large reference arrays (including those backing ArrayList,
+ * HashMap and similar collections) and extrapolate their size; and to report a breakdown of the measured size by class.
+ * 
+ * Once configured, an instance may be shared between threads.
+ */
+public final class DeepSizer {
+
+	private static final ClassValue<SizeLayout> LAYOUTS = new ClassValue<SizeLayout>() {
+		@Override
+		protected SizeLayout computeValue(Class<?> type) {
+			return new SizeLayout(type);
+		}
+	};
+
+	private static final int DEFAULT_SAMPLING_THRESHOLD = 1024;
+
+	private final UnsafeOperations unsafeOperations;
+
+	private long budget = Long.MAX_VALUE;
+
+	private double samplingRatio = 1.0D;
+
+	private int samplingThreshold = DEFAULT_SAMPLING_THRESHOLD;
+
+	private boolean classBreakdown = false;
+
+	/**
+	 * Creates a new instance which measures the whole graph, without a budget or sampling
+	 */
+	public DeepSizer() {
+		this.unsafeOperations = UnsafeOperations.getUnsafeOperations();
+	}
+
+	/**
+	 * Stop sizing once the size exceeds the given number of bytes
+	 * @param newBudget The budget in bytes
+	 * @return This DeepSizer
+	 */
+	public DeepSizer withBudget(long newBudget) {
+		if (newBudget < 0) {
+			throw new IllegalArgumentException("Budget must not be negative but was: " + newBudget);
+		}
+		this.budget = newBudget;
+		return this;
+	}
+
+	/**
+	 * Visit only this proportion of the elements of reference arrays that are longer than the sampling threshold,
+	 * extrapolating the size of the elements that are not visited.
+	 * 
+	 * Sampled arrays are visited after the rest of the graph. Only the objects reached solely through a single sampled
+	 * element are extrapolated; objects shared between sampled elements, or also reachable from outside the array,
+	 * are counted once. The estimate is therefore biased low where the elements that are not visited share objects
+	 * with each other but not with the sampled elements, and biased high where they reach objects elsewhere in the graph.
+	 * @param newSamplingRatio A ratio greater than 0 and no more than 1. The default, 1, disables sampling
+	 * @return This DeepSizer
+	 */
+	public DeepSizer withSamplingRatio(double newSamplingRatio) {
+		if (!(newSamplingRatio > 0.0D && newSamplingRatio <= 1.0D)) {
+			throw new IllegalArgumentException("Sampling ratio must be greater than 0 and no more than 1 but was: " + newSamplingRatio);
+		}
+		this.samplingRatio = newSamplingRatio;
+		return this;
+	}
+
+	/**
+	 * The length above which a reference array is sampled, when a sampling ratio is set
+	 * @param newSamplingThreshold The threshold. The default is 1024
+	 * @return This DeepSizer
+	 */
+	public DeepSizer withSamplingThreshold(int newSamplingThreshold) {
+		if (newSamplingThreshold < 1) {
+			throw new IllegalArgumentException("Sampling threshold must be at least 1 but was: " + newSamplingThreshold);
+		}
+		this.samplingThreshold = newSamplingThreshold;
+		return this;
+	}
+
+	/**
+	 * If true, the measured size is also broken down by class
+	 * @param newClassBreakdown True if a breakdown by class should be reported
+	 * @return This DeepSizer
+	 */
+	public DeepSizer withClassBreakdown(boolean newClassBreakdown) {
+		this.classBreakdown = newClassBreakdown;
+		return this;
+	}
+
+	/**
+	 * Determines the deep memory size of the given object (object or array), visiting all its references
+	 * @param root The object instance to calculate the deep size for
+	 * @return The DeepSizeReport
+	 */
+	public DeepSizeReport sizeOf(Object root) {
+
+		final IdentityReferenceMap seenObjects = IdentityReferenceMap.acquire();
+		try {
+			return doSizeOf(root, seenObjects);
+		} finally {
+			seenObjects.release();
+		}
+	}
+
+	private DeepSizeReport doSizeOf(Object root, IdentityReferenceMap seenObjects) {
+
+		final Traversal traversal = new Traversal(seenObjects);
+		traversal.push(root, null, 0);
+
+		// Sampled arrays are visited last, so that only what is reachable solely through their elements is extrapolated
+		if (traversal.drain()) {
+			Sample sample;
+			while ((sample = traversal.samples.poll()) != null) {
+				if (!traversal.visit(sample)) {
+					break;
+				}
+			}
+		}
+
+		return new DeepSizeReport(traversal.measuredSize, (long) traversal.estimatedSize, traversal.objectCount, traversal.budgetExceeded, traversal.classSizes);
+	}
+
+	/**
+	 * The state of a single call to {@link DeepSizer#sizeOf(Object)}
+	 */
+	private final class Traversal {
+
+		private final IdentityReferenceMap seenObjects;
+		private final Map<Class<?>, long[]> classSizes = classBreakdown ? new IdentityHashMap<Class<?>, long[]>() : null;
+		private final ArrayDeque<Object> stack = new ArrayDeque<Object>();
+		private final ArrayDeque<Sample> samples = new ArrayDeque<Sample>();
+
+		private long measuredSize;
+		private double estimatedSize;
+		private long objectCount;
+		private boolean budgetExceeded;
+
+		private Traversal(IdentityReferenceMap seenObjects) {
+			this.seenObjects = seenObjects;
+		}
+
+		/**
+		 * Visits the sampled elements of the array one at a time, together with everything first reached through each
+		 * of them, then extrapolates the size of the elements that were not visited
+		 * @return False if the budget was exceeded
+		 */
+		private boolean visit(Sample sample) {
+
+			final Object[] array = sample.array;
+			for (int i = 0, element = 0; i < array.length; i += sample.step, element++) {
+				push(array[i], sample, element);
+				if (!drain()) {
+					return false;
+				}
+			}
+
+			sample.finished = true;
+			estimatedSize = estimatedSize + sample.ownSize * sample.extrapolation;
+			if (isOverBudget()) {
+				budgetExceeded = true;
+				return false;
+			}
+			return true;
+		}
+
+		/**
+		 * Visits the objects on the stack, and those reachable from them, until the stack is empty
+		 * @return False if the budget was exceeded
+		 */
+		private boolean drain() {
+
+			Object next;
+			while ((next = stack.poll()) != null) {
+
+				final Visit visit;
+				if (next instanceof Visit) {
+					visit = (Visit) next;
+					next = visit.object;
+				} else {
+					visit = null;
+				}
+
+				final Class<?> clazz = next.getClass();
+				final Sample sample = visit == null ? null : visit.sample;
+				final int element = visit == null ? 0 : visit.element;
+
+				final long shallowSize;
+				if (clazz.isArray()) {
+					shallowSize = unsafeOperations.shallowSizeOf(next);
+					if (!clazz.getComponentType().isPrimitive()) {
+						pushElements((Object[]) next, sample, element);
+					}
+				} else {
+					final SizeLayout layout = LAYOUTS.get(clazz);
+					shallowSize = layout.shallowSize;
+					final long[] referenceOffsets = layout.referenceOffsets;
+					for (int i = 0; i < referenceOffsets.length; i++) {
+						push(unsafeOperations.getObject(next, referenceOffsets[i]), sample, element);
+					}
+				}
+
+				measuredSize = measuredSize + shallowSize;
+				objectCount++;
+
+				if (visit != null) {
+					visit.size = shallowSize;
+					sample.ownSize = sample.ownSize + shallowSize;
+				}
+
+				if (classSizes != null) {
+					long[] classSize = classSizes.get(clazz);
+					if (classSize == null) {
+						classSize = new long[2];
+						classSizes.put(clazz, classSize);
+					}
+					classSize[0]++;
+					classSize[1] = classSize[1] + shallowSize;
+				}
+
+				if (isOverBudget()) {
+					budgetExceeded = true;
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private boolean isOverBudget() {
+			return measuredSize + estimatedSize > budget;
+		}
+
+		private void pushElements(Object[] array, Sample sample, int element) {
+
+			if (samplingRatio >= 1.0D || array.length <= samplingThreshold) {
+				for (int i = 0; i < array.length; i++) {
+					push(array[i], sample, element);
+				}
+				return;
+			}
+
+			final int step = Math.max(1, (int) Math.round(1.0D / samplingRatio));
+			final int sampled = (array.length + step - 1) / step;
+			samples.add(new Sample(array, step, ((double) array.length / sampled) - 1.0D));
+		}
+
+		/**
+		 * Pushes the object unless it has already been seen. While visiting a sample, the object is recorded against the
+		 * sampled element it was first reached through. An object reached through more than one element, or from
+		 * elsewhere in the graph, is measured once rather than extrapolated.
+		 */
+		private void push(Object object, Sample sample, int element) {
+
+			if (object == null) {
+				return;
+			}
+
+			final Object seen = seenObjects.get(object);
+			if (seen == null) {
+				if (sample == null) {
+					seenObjects.put(object, Boolean.TRUE);
+					stack.push(object);
+				} else {
+					final Visit visit = new Visit(object, sample, element);
+					seenObjects.put(object, visit);
+					stack.push(visit);
+				}
+			} else if (seen instanceof Visit) {
+				final Visit visit = (Visit) seen;
+				if (!visit.shared && (visit.sample != sample || visit.element != element)) {
+					share(visit);
+				}
+			}
+		}
+
+		/**
+		 * Stops extrapolating the size of the visited object, together with everything else first reached through it
+		 */
+		private void share(Visit first) {
+
+			final ArrayDeque<Visit> pending = new ArrayDeque<Visit>();
+			first.shared = true;
+			pending.push(first);
+
+			Visit visit;
+			while ((visit = pending.poll()) != null) {
+
+				if (visit.sample.finished) {
+					estimatedSize = estimatedSize - visit.size * visit.sample.extrapolation;
+				} else {
+					visit.sample.ownSize = visit.sample.ownSize - visit.size;
+				}
+
+				final Object object = visit.object;
+				final Class<?> clazz = object.getClass();
+				if (clazz.isArray()) {
+					if (!clazz.getComponentType().isPrimitive()) {
+						final Object[] array = (Object[]) object;
+						for (int i = 0; i < array.length; i++) {
+							shareReferenced(array[i], visit, pending);
+						}
+					}
+				} else {
+					final long[] referenceOffsets = LAYOUTS.get(clazz).referenceOffsets;
+					for (int i = 0; i < referenceOffsets.length; i++) {
+						shareReferenced(unsafeOperations.getObject(object, referenceOffsets[i]), visit, pending);
+					}
+				}
+			}
+		}
+
+		private void shareReferenced(Object object, Visit from, ArrayDeque<Visit> pending) {
+
+			if (object == null) {
+				return;
+			}
+			final Object seen = seenObjects.get(object);
+			if (seen instanceof Visit) {
+				final Visit visit = (Visit) seen;
+				if (!visit.shared && visit.sample == from.sample && visit.element == from.element) {
+					visit.shared = true;
+					pending.push(visit);
+				}
+			}
+		}
+	}
+
+	/**
+	 * A reference array whose elements are sampled
+	 */
+	private static final class Sample {
+
+		private final Object[] array;
+		private final int step;
+		private final double extrapolation;
+
+		/**
+		 * The size of the objects first reached through a single sampled element
+		 */
+		private long ownSize;
+
+		private boolean finished;
+
+		private Sample(Object[] array, int step, double extrapolation) {
+			this.array = array;
+			this.step = step;
+			this.extrapolation = extrapolation;
+		}
+	}
+
+	/**
+	 * An object first reached through a sampled element
+	 */
+	private static final class Visit {
+
+		private final Object object;
+		private final Sample sample;
+		private final int element;
+
+		private long size;
+		private boolean shared;
+
+		private Visit(Object object, Sample sample, int element) {
+			this.object = object;
+			this.sample = sample;
+			this.element = element;
+		}
+	}
+
+	private static final class SizeLayout {
+
+		private final long shallowSize;
+		private final long[] referenceOffsets;
+
+		private SizeLayout(Class<?> type) {
+
+			final UnsafeOperations unsafeOperations = UnsafeOperations.getUnsafeOperations();
+
+			this.shallowSize = unsafeOperations.shallowSizeOf(type);
+
+			final Field[] fields = ClassUtils.collectInstanceFields(type);
+			int count = 0;
+			for (Field f : fields) {
+				if (!f.getType().isPrimitive()) {
+					count++;
+				}
+			}
+
+			this.referenceOffsets = new long[count];
+			int i = 0;
+			for (Field f : fields) {
+				if (!f.getType().isPrimitive()) {
+					referenceOffsets[i++] = unsafeOperations.getObjectFieldOffset(f);
+				}
+			}
+		}
+	}
+}
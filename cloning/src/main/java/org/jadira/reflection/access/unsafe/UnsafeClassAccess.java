@@ -17,7 +17,6 @@ package org.jadira.reflection.access.unsafe;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.jadira.reflection.access.AbstractClassAccess;
 import org.jadira.reflection.access.api.ClassAccess;
@@ -31,7 +30,12 @@ import org.jadira.reflection.access.invokedynamic.InvokeDynamicMethodAccess;
  */
 public class UnsafeClassAccess<C> extends AbstractClassAccess<C> implements ClassAccess<C> {
 
-    private static final ConcurrentHashMap<Class<?>, UnsafeClassAccess<?>> CLASS_ACCESSES = new ConcurrentHashMap<Class<?>, UnsafeClassAccess<?>>();
+    private static final ClassValue<UnsafeClassAccess<?>> CLASS_ACCESSES = new ClassValue<UnsafeClassAccess<?>>() {
+        @Override
+        protected UnsafeClassAccess<?> computeValue(Class<?> type) {
+            return create(type);
+        }
+    };
     
 	private static final UnsafeOperations UNSAFE_OPERATIONS = UnsafeOperations.getUnsafeOperations();
 
@@ -51,16 +55,13 @@ public class UnsafeClassAccess<C> extends AbstractClassAccess<C> implements Clas
 	 * @return New UnsafeClassAccess instance
 	 */
 	public static <C> UnsafeClassAccess<C> get(Class<C> clazz) {
-        @SuppressWarnings("unchecked")
-        UnsafeClassAccess<C> access = (UnsafeClassAccess<C>) CLASS_ACCESSES.get(clazz);
-        if (access != null) {
-            return access;
-        }
-	    
-        access = new UnsafeClassAccess<C>(clazz);
-        
-        CLASS_ACCESSES.putIfAbsent(clazz, access);
-        return access;
+		@SuppressWarnings("unchecked")
+		final UnsafeClassAccess<C> access = (UnsafeClassAccess<C>) CLASS_ACCESSES.get(clazz);
+		return access;
+	}
+
+	private static <C> UnsafeClassAccess<C> create(Class<C> clazz) {
+		return new UnsafeClassAccess<C>(clazz);
 	}
 	
 	@Override
@@ -24,6 +24,7 @@ import java.util.IdentityHashMap;
 
 import org.jadira.reflection.access.api.ClassAccess;
 import org.jadira.reflection.access.api.FieldAccess;
+import org.jadira.reflection.core.identity.IdentityReferenceMap;
 import org.jadira.reflection.core.misc.ClassUtils;
 
 /**
@@ -269,7 +270,12 @@ public final class UnsafeOperations {
 	 * @return A deep copy of the original object.
 	 */
 	public <T> T deepCopy(final T obj) {
-		return deepCopy(obj, new IdentityHashMap<Object, Object>(10));
+		final IdentityReferenceMap referencesToReuse = IdentityReferenceMap.acquire();
+		try {
+			return deepCopy(obj, referencesToReuse);
+		} finally {
+			referencesToReuse.release();
+		}
 	}
 
 	/**
@@ -282,7 +288,7 @@ public final class UnsafeOperations {
 	 * @param <T> The type being copied
 	 * @return A deep copy of the original object.
 	 */
-	public <T> T deepCopy(final T o, IdentityHashMap<Object, Object> referencesToReuse) {
+	public <T> T deepCopy(final T o, IdentityReferenceMap referencesToReuse) {
 
 		/**
 		 * To avoid unnecessary recursion and potential stackoverflow errors, we use an internal
@@ -381,6 +387,20 @@ public final class UnsafeOperations {
 		}
 	}
 
+	/**
+	 * Performs a deep copy of the object, populating the given IdentityHashMap with the copies made
+	 * @param o The object to perform a deep copy for.
+	 * @param referencesToReuse An identity map of references to reuse - this is further populated as the copy progresses.
+	 * The key is the original object reference - the value is the copied instance for that original.
+	 * @param <T> The type being copied
+	 * @return A deep copy of the original object.
+	 * @deprecated Use {@link #deepCopy(Object, IdentityReferenceMap)}
+	 */
+	@Deprecated
+	public <T> T deepCopy(final T o, IdentityHashMap<Object, Object> referencesToReuse) {
+		return deepCopy(o, new IdentityHashMapReferences(referencesToReuse));
+	}
+
 	/**
 	 * Copies the object of the specified type from the given field offset in the source object 
 	 * to the same location in the copy, visiting the object during the copy so that its fields are also copied
@@ -390,7 +410,12 @@ public final class UnsafeOperations {
 	 * @param offset The offset to copy from
 	 */	
 	public final void deepCopyObjectAtOffset(Object source, Object copy, Class<?> fieldClass, long offset) {
-		deepCopyObjectAtOffset(source, copy, fieldClass, offset, new IdentityHashMap<Object, Object>(100));
+		final IdentityReferenceMap referencesToReuse = IdentityReferenceMap.acquire();
+		try {
+			deepCopyObjectAtOffset(source, copy, fieldClass, offset, referencesToReuse);
+		} finally {
+			referencesToReuse.release();
+		}
 	}
 
 	/**
@@ -403,7 +428,7 @@ public final class UnsafeOperations {
 	 * @param referencesToReuse An identity map of references to reuse - this is further populated as the copy progresses.
 	 * The key is the original object reference - the value is the copied instance for that original.
 	 */	
-	public final void deepCopyObjectAtOffset(Object source, Object copy, Class<?> fieldClass, long offset, IdentityHashMap<Object, Object> referencesToReuse) {
+	public final void deepCopyObjectAtOffset(Object source, Object copy, Class<?> fieldClass, long offset, IdentityReferenceMap referencesToReuse) {
 
 		Object origFieldValue = THE_UNSAFE.getObject(source, offset);
 
@@ -417,6 +442,22 @@ public final class UnsafeOperations {
 		}
 	}
 
+	/**
+	 * Copies the object of the specified type from the given field offset in the source object 
+	 * to the same location in the copy, populating the given IdentityHashMap with the copies made
+	 * @param source The object to copy from
+	 * @param copy The target object
+	 * @param fieldClass The declared type of object at the given offset
+	 * @param offset The offset to copy from
+	 * @param referencesToReuse An identity map of references to reuse - this is further populated as the copy progresses.
+	 * The key is the original object reference - the value is the copied instance for that original.
+	 * @deprecated Use {@link #deepCopyObjectAtOffset(Object, Object, Class, long, IdentityReferenceMap)}
+	 */
+	@Deprecated
+	public final void deepCopyObjectAtOffset(Object source, Object copy, Class<?> fieldClass, long offset, IdentityHashMap<Object, Object> referencesToReuse) {
+		deepCopyObjectAtOffset(source, copy, fieldClass, offset, new IdentityHashMapReferences(referencesToReuse));
+	}
+
 	/**
 	 * Copies the object of the specified type from the given field in the source object 
 	 * to the same field in the copy, visiting the object during the copy so that its fields are also copied
@@ -426,11 +467,26 @@ public final class UnsafeOperations {
 	 * @param referencesToReuse An identity map of references to reuse - this is further populated as the copy progresses.
 	 * The key is the original object reference - the value is the copied instance for that original.
 	 */	
-	public final void deepCopyObjectField(Object source, Object copy, Field field, IdentityHashMap<Object, Object> referencesToReuse) {
+	public final void deepCopyObjectField(Object source, Object copy, Field field, IdentityReferenceMap referencesToReuse) {
 
 		deepCopyObjectAtOffset(source, copy, field.getType(), getObjectFieldOffset(field), referencesToReuse);
 	}
 
+	/**
+	 * Copies the object of the specified type from the given field in the source object 
+	 * to the same field in the copy, populating the given IdentityHashMap with the copies made
+	 * @param source The object to copy from
+	 * @param copy The target object
+	 * @param field Field to be copied
+	 * @param referencesToReuse An identity map of references to reuse - this is further populated as the copy progresses.
+	 * The key is the original object reference - the value is the copied instance for that original.
+	 * @deprecated Use {@link #deepCopyObjectField(Object, Object, Field, IdentityReferenceMap)}
+	 */
+	@Deprecated
+	public final void deepCopyObjectField(Object source, Object copy, Field field, IdentityHashMap<Object, Object> referencesToReuse) {
+		deepCopyObjectField(source, copy, field, new IdentityHashMapReferences(referencesToReuse));
+	}
+
 	/**
 	 * Copies the object of the specified type from the given field in the source object 
 	 * to the same field in the copy, visiting the object during the copy so that its fields are also copied
@@ -440,7 +496,12 @@ public final class UnsafeOperations {
 	 */	
 	public final void deepCopyObjectField(Object obj, Object copy, Field field) {
 
-		deepCopyObjectAtOffset(obj, copy, field.getType(), getObjectFieldOffset(field), new IdentityHashMap<Object, Object>(100));
+		final IdentityReferenceMap referencesToReuse = IdentityReferenceMap.acquire();
+		try {
+			deepCopyObjectAtOffset(obj, copy, field.getType(), getObjectFieldOffset(field), referencesToReuse);
+		} finally {
+			referencesToReuse.release();
+		}
 	}
 
 	/**
@@ -452,7 +513,12 @@ public final class UnsafeOperations {
 	 * @param offset The offset to copy from
 	 */	
 	public final void deepCopyArrayAtOffset(Object source, Object copy, Class<?> fieldClass, long offset) {
-		deepCopyArrayAtOffset(source, copy, fieldClass, offset, new IdentityHashMap<Object, Object>(100));
+		final IdentityReferenceMap referencesToReuse = IdentityReferenceMap.acquire();
+		try {
+			deepCopyArrayAtOffset(source, copy, fieldClass, offset, referencesToReuse);
+		} finally {
+			referencesToReuse.release();
+		}
 	}
 
 	/**
@@ -465,7 +531,7 @@ public final class UnsafeOperations {
 	 * @param referencesToReuse An identity map of references to reuse - this is further populated as the copy progresses.
 	 * The key is the original object reference - the value is the copied instance for that original.
 	 */	
-	public final void deepCopyArrayAtOffset(Object source, Object copy, Class<?> fieldClass, long offset, IdentityHashMap<Object, Object> referencesToReuse) {
+	public final void deepCopyArrayAtOffset(Object source, Object copy, Class<?> fieldClass, long offset, IdentityReferenceMap referencesToReuse) {
 
 		Object origFieldValue = THE_UNSAFE.getObject(source, offset);
 
@@ -479,6 +545,22 @@ public final class UnsafeOperations {
 		}
 	}
 
+	/**
+	 * Copies the array of the specified type from the given field offset in the source object 
+	 * to the same location in the copy, populating the given IdentityHashMap with the copies made
+	 * @param source The object to copy from
+	 * @param copy The target object
+	 * @param fieldClass The declared type of array at the given offset
+	 * @param offset The offset to copy from
+	 * @param referencesToReuse An identity map of references to reuse - this is further populated as the copy progresses.
+	 * The key is the original object reference - the value is the copied instance for that original.
+	 * @deprecated Use {@link #deepCopyArrayAtOffset(Object, Object, Class, long, IdentityReferenceMap)}
+	 */
+	@Deprecated
+	public final void deepCopyArrayAtOffset(Object source, Object copy, Class<?> fieldClass, long offset, IdentityHashMap<Object, Object> referencesToReuse) {
+		deepCopyArrayAtOffset(source, copy, fieldClass, offset, new IdentityHashMapReferences(referencesToReuse));
+	}
+
 	/**
 	 * Copies the array of the specified type from the given field in the source object 
 	 * to the same field in the copy, visiting the array  during the copy so that its contents are also copied
@@ -488,11 +570,26 @@ public final class UnsafeOperations {
 	 * @param referencesToReuse An identity map of references to reuse - this is further populated as the copy progresses.
 	 * The key is the original object reference - the value is the copied instance for that original.
 	 */	
-	public final void deepCopyArrayField(Object obj, Object copy, Field field, IdentityHashMap<Object, Object> referencesToReuse) {
+	public final void deepCopyArrayField(Object obj, Object copy, Field field, IdentityReferenceMap referencesToReuse) {
 
 		deepCopyArrayAtOffset(obj, copy, field.getType(), getObjectFieldOffset(field), referencesToReuse);
 	}
 
+	/**
+	 * Copies the array of the specified type from the given field in the source object 
+	 * to the same field in the copy, populating the given IdentityHashMap with the copies made
+	 * @param obj The object to copy from
+	 * @param copy The target object
+	 * @param field Field to be copied
+	 * @param referencesToReuse An identity map of references to reuse - this is further populated as the copy progresses.
+	 * The key is the original object reference - the value is the copied instance for that original.
+	 * @deprecated Use {@link #deepCopyArrayField(Object, Object, Field, IdentityReferenceMap)}
+	 */
+	@Deprecated
+	public final void deepCopyArrayField(Object obj, Object copy, Field field, IdentityHashMap<Object, Object> referencesToReuse) {
+		deepCopyArrayField(obj, copy, field, new IdentityHashMapReferences(referencesToReuse));
+	}
+
 	/**
 	 * Copies the array of the specified type from the given field in the source object 
 	 * to the same field in the copy, visiting the array  during the copy so that its contents are also copied
@@ -502,7 +599,12 @@ public final class UnsafeOperations {
 	 */	
 	public final void deepCopyArrayField(Object obj, Object copy, Field field) {
 
-		deepCopyArrayAtOffset(obj, copy, field.getType(), getObjectFieldOffset(field), new IdentityHashMap<Object, Object>(100));
+		final IdentityReferenceMap referencesToReuse = IdentityReferenceMap.acquire();
+		try {
+			deepCopyArrayAtOffset(obj, copy, field.getType(), getObjectFieldOffset(field), referencesToReuse);
+		} finally {
+			referencesToReuse.release();
+		}
 	}
 
 	/**
@@ -514,7 +616,7 @@ public final class UnsafeOperations {
 	 * The key is the original object reference - the value is the copied instance for that original.
 	 * @return A deep copy of the original array.
 	 */
-	public final Object deepCopyArray(Object arrayOriginal, IdentityHashMap<Object, Object> visited) {
+	public final Object deepCopyArray(Object arrayOriginal, IdentityReferenceMap visited) {
 
 		if (visited.containsKey(arrayOriginal)) {
 			return visited.get(arrayOriginal);
@@ -567,6 +669,19 @@ public final class UnsafeOperations {
 		return result;
 	}
 
+	/**
+	 * Performs a deep copy of the array, populating the given IdentityHashMap with the copies made
+	 * @param arrayOriginal The array to perform a deep copy for.
+	 * @param visited An identity map of references to reuse - this is further populated as the copy progresses.
+	 * The key is the original object reference - the value is the copied instance for that original.
+	 * @return A deep copy of the original array.
+	 * @deprecated Use {@link #deepCopyArray(Object, IdentityReferenceMap)}
+	 */
+	@Deprecated
+	public final Object deepCopyArray(Object arrayOriginal, IdentityHashMap<Object, Object> visited) {
+		return deepCopyArray(arrayOriginal, new IdentityHashMapReferences(visited));
+	}
+
 	/**
 	 * Determines the shallow memory size of an instance of the given class
 	 * @param clazz The class to calculate the shallow size for
@@ -663,82 +778,13 @@ public final class UnsafeOperations {
 	}
 
 	/**
-	 * Determines the deep memory size of the given object (object or array), visiting all its references
+	 * Determines the deep memory size of the given object (object or array), visiting all its references.
+	 * Use {@link DeepSizer} to size with a budget, sampling or a breakdown by class.
 	 * @param o The object instance to calculate the deep size for
 	 * @return Size in bytes
 	 */
 	public final long deepSizeOf(Object o) {
-
-		IdentityHashMap<Object, Boolean> seenObjects = new IdentityHashMap<Object, Boolean>(10);
-		return doDeepSizeOf(o, seenObjects);
-	}
-
-	private long doDeepSizeOf(Object o, IdentityHashMap<Object, Boolean> seenObjects) {
-
-		if (o == null) {
-			return 0;
-		}
-
-		Class<?> clazz = o.getClass();
-		if (clazz.isPrimitive()) {
-			return getSizeForPrimitive(clazz);
-		}
-
-		seenObjects.put(o, Boolean.TRUE);
-
-		if (clazz.isArray()) {
-
-			long size = doShallowSizeOfArray(o);
-
-			if (!clazz.getComponentType().isPrimitive()) {
-
-				Object[] array = (Object[]) o;
-				for (int i = 0; i < array.length; i++) {
-					Object nextObject = array[i];
-					if (nextObject != null && !seenObjects.containsKey(nextObject)) {
-						size = size + doDeepSizeOf(nextObject, seenObjects);
-					}
-				}
-			}
-
-			return size;
-
-		} else {
-
-			if (clazz == Object.class) {
-				return MIN_SIZE;
-			}
-
-			long size = getSizeOfObjectHeader();
-			long additionalSize = 0;
-
-			Field[] fields = ClassUtils.collectInstanceFields(clazz);
-
-			for (Field f : fields) {
-
-				long objectFieldOffset = getObjectFieldOffset(f);
-
-				Class<?> fieldClass = f.getType();
-				final int fieldSize = fieldClass.isPrimitive() ? getSizeForPrimitive(fieldClass) : getSizeOfObjectHeader();
-				final long offsetPlusSize = objectFieldOffset + fieldSize;
-
-				if (offsetPlusSize > size) {
-					size = offsetPlusSize;
-				}
-
-				if (!fieldClass.isPrimitive()) {
-					Object fieldObject = getObject(o, objectFieldOffset);
-					if (fieldObject != null && !seenObjects.containsKey(fieldObject)) {
-						additionalSize += doDeepSizeOf(fieldObject, seenObjects);
-					}
-				}
-			}
-
-			size = size + SIZE_BYTES_PAGE_FOR_OBJECT_ALIGNMENT - 1L;
-			size = size - (size % SIZE_BYTES_PAGE_FOR_OBJECT_ALIGNMENT);
-
-			return size + additionalSize;
-		}
+		return new DeepSizer().sizeOf(o).getSize();
 	}
 
 	/**
@@ -1089,4 +1135,61 @@ public final class UnsafeOperations {
 			throw new IllegalStateException("Cannot determine size of object header", e);
 		}
 	}
+
+	/**
+	 * Presents an IdentityHashMap supplied to one of the deprecated methods as an IdentityReferenceMap,
+	 * so that the caller's map is populated as the copy progresses
+	 */
+	private static final class IdentityHashMapReferences implements IdentityReferenceMap {
+
+		private final IdentityHashMap<Object, Object> map;
+
+		IdentityHashMapReferences(IdentityHashMap<Object, Object> map) {
+			this.map = map;
+		}
+
+		@Override
+		public Object get(Object key) {
+			return map.get(key);
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return map.containsKey(key);
+		}
+
+		@Override
+		public Object put(Object key, Object value) {
+			return map.put(key, value);
+		}
+
+		@Override
+		public Object putIfAbsent(Object key, Object value) {
+			final Object existing = map.get(key);
+			if (existing == null) {
+				map.put(key, value);
+			}
+			return existing;
+		}
+
+		@Override
+		public int size() {
+			return map.size();
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return map.isEmpty();
+		}
+
+		@Override
+		public void clear() {
+			map.clear();
+		}
+
+		@Override
+		public void release() {
+			// The map belongs to the caller
+		}
+	}
 }
@@ -18,25 +18,32 @@ package org.jadira.reflection.cloning;
 import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.jadira.reflection.cloning.annotation.Immutable;
 import org.jadira.reflection.cloning.annotation.NonCloneable;
 import org.jadira.reflection.cloning.annotation.Transient;
 import org.jadira.reflection.cloning.api.CloneDriver;
 import org.jadira.reflection.cloning.api.CloneImplementor;
+import org.jadira.reflection.cloning.api.CloneListener;
 import org.jadira.reflection.cloning.api.CloneStrategy;
 import org.jadira.reflection.cloning.api.Cloner;
-import org.jadira.reflection.cloning.collection.FastIdentityHashSet;
+import org.jadira.reflection.cloning.api.InstanceSource;
 import org.jadira.reflection.cloning.implementor.AsmCloneStrategy;
 import org.jadira.reflection.cloning.implementor.PortableCloneStrategy;
 import org.jadira.reflection.cloning.implementor.UnsafeCloneStrategy;
@@ -47,6 +54,8 @@ import org.jadira.reflection.cloning.implementor.types.HashMapImplementor;
 import org.jadira.reflection.cloning.implementor.types.HashSetImplementor;
 import org.jadira.reflection.cloning.implementor.types.LinkedListImplementor;
 import org.jadira.reflection.cloning.implementor.types.TreeMapImplementor;
+import org.jadira.reflection.core.identity.ConcurrentIdentityReferenceMap;
+import org.jadira.reflection.core.identity.IdentityReferenceMap;
 import org.jadira.reflection.core.platform.FeatureDetection;
 
 /**
@@ -109,34 +118,52 @@ public class BasicCloner implements Cloner, CloneDriver, CloneImplementor {
 
 	private final CloneStrategy cloneStrategy;
 
-	private Map<Class<?>, CloneImplementor> builtInImplementors = new IdentityHashMap<Class<?>, CloneImplementor>();
-	private Map<Class<?>, CloneImplementor> allImplementors = new IdentityHashMap<Class<?>, CloneImplementor>();
-	private Map<Class<?>, CloneImplementor> annotationImplementors = new IdentityHashMap<Class<?>, CloneImplementor>();
+	/*
+	 * A BasicCloner may be shared by any number of threads. Configuration is held in immutable
+	 * snapshots which the setters replace wholesale, so lookups made while cloning never lock
+	 * and always see a consistent configuration.
+	 */
+
+	// The built in implementors hold no state, so every instance shares them
+	private static final Map<Class<?>, CloneImplementor> BUILT_IN_IMPLEMENTORS = createBuiltInImplementors();
+
+	private volatile Map<Class<?>, CloneImplementor> allImplementors;
+	// These are populated while cloning, possibly by several threads at once
+	private final Map<Class<?>, CloneImplementor> annotationImplementors = new ConcurrentHashMap<Class<?>, CloneImplementor>();
+
+	private final Map<Class<?>, MethodHandle> cloneMethods = new ConcurrentHashMap<Class<?>, MethodHandle>();
+
+	private volatile Set<Class<?>> immutableClasses = Collections.emptySet();
+	private volatile Set<Class<?>> nonCloneableClasses = Collections.emptySet();
 
-	private Map<Class<?>, MethodHandle> cloneMethods = new IdentityHashMap<Class<?>, MethodHandle>();
+	private volatile boolean useCloneable = false;
+	private volatile boolean useCloneImplementors = true;
+	private volatile boolean cloneTransientFields = true;
+	private volatile boolean cloneTransientAnnotatedFields = false;
+	private volatile boolean cloneImmutable = false;
+	private volatile boolean cloneSyntheticFields = false;
 
-	private Set<Class<?>> immutableClasses = new FastIdentityHashSet<Class<?>>();
-	private Set<Class<?>> nonCloneableClasses = new FastIdentityHashSet<Class<?>>();
+	private volatile boolean trackReferences = true;
+	private volatile boolean trackReferencesForFlatClasses;
 
-	private boolean useCloneable = false;
-	private boolean useCloneImplementors = true;
-	private boolean cloneTransientFields = true;
-	private boolean cloneTransientAnnotatedFields = false;
-	private boolean cloneImmutable = false;
-	private boolean cloneSyntheticFields = false;
+	private volatile boolean structuralSharing = false;
 
-	private boolean trackReferences = true;
-	private boolean trackReferencesForFlatClasses;
+	private volatile InstanceSource instanceSource;
+
+	private volatile CloneListener cloneListener;
 	
-	private Map<Class<?>, Object> builtInImmutableInstances = new HashMap<Class<?>, Object>();
-	private IdentityHashMap<Object, Object> allImmutableInstances = new IdentityHashMap<Object, Object>();
-	private Object[] allImmutableInstancesArray;
+	private volatile ConfigurationKey configurationKey;
+
+	// Copy-on-write; there are few immutable instances and they are compared by identity
+	private volatile Object[] immutableInstances = new Object[0];
 
 	/**
 	 * Create a new instance with {@link UnsafeCloneStrategy}, unless it is not available in which
 	 * case {@link PortableCloneStrategy} will be used.
 	 */
 	public BasicCloner() {
+		this.allImplementors = BUILT_IN_IMPLEMENTORS;
+
 		if (FeatureDetection.hasUnsafe()) {
 			this.cloneStrategy = UnsafeCloneStrategy.getInstance();
 		} else {
@@ -151,6 +178,8 @@ public class BasicCloner implements Cloner, CloneDriver, CloneImplementor {
 	 * @param cloneStrategy CloneStrategy to be used
 	 */
 	public BasicCloner(final CloneStrategy cloneStrategy) {
+		this.allImplementors = BUILT_IN_IMPLEMENTORS;
+
 		this.cloneStrategy = cloneStrategy;
 
 		initialize();
@@ -160,22 +189,24 @@ public class BasicCloner implements Cloner, CloneDriver, CloneImplementor {
 	 * Initialise a new instance
 	 */
 	private void initialize() {
-		initializeBuiltInImplementors();
 		initializeBuiltInImmutableInstances();
+		configurationChanged();
 	}
 
 	/**
-	 * Initialise a set of built in CloneImplementors for commonly used JDK types
+	 * Create the set of built in CloneImplementors for commonly used JDK types
+	 * @return An unmodifiable map of the implementors
 	 */
-	private void initializeBuiltInImplementors() {
-		builtInImplementors.put(ArrayList.class, new ArrayListImplementor());
-		builtInImplementors.put(ConcurrentHashMap.class, new ConcurrentHashMapImplementor());
-		builtInImplementors.put(GregorianCalendar.class, new GregorianCalendarImplementor());
-		builtInImplementors.put(HashMap.class, new HashMapImplementor());
-		builtInImplementors.put(HashSet.class, new HashSetImplementor());
-		builtInImplementors.put(LinkedList.class, new LinkedListImplementor());
-		builtInImplementors.put(TreeMap.class, new TreeMapImplementor());
-		allImplementors.putAll(builtInImplementors);
+	private static Map<Class<?>, CloneImplementor> createBuiltInImplementors() {
+		Map<Class<?>, CloneImplementor> implementors = new IdentityHashMap<Class<?>, CloneImplementor>();
+		implementors.put(ArrayList.class, new ArrayListImplementor());
+		implementors.put(ConcurrentHashMap.class, new ConcurrentHashMapImplementor());
+		implementors.put(GregorianCalendar.class, new GregorianCalendarImplementor());
+		implementors.put(HashMap.class, new HashMapImplementor());
+		implementors.put(HashSet.class, new HashSetImplementor());
+		implementors.put(LinkedList.class, new LinkedListImplementor());
+		implementors.put(TreeMap.class, new TreeMapImplementor());
+		return Collections.unmodifiableMap(implementors);
 	}
 
 	private void initializeBuiltInImmutableInstances() {
@@ -183,13 +214,11 @@ public class BasicCloner implements Cloner, CloneDriver, CloneImplementor {
 			Field field = TreeSet.class.getDeclaredField("PRESENT");
 			field.setAccessible(true);
 			Object treeSetPresent = field.get(null);
-			builtInImmutableInstances.put(TreeSet.class, treeSetPresent);
 			putImmutableInstance(treeSetPresent);
 
 			field = HashSet.class.getDeclaredField("PRESENT");
 			field.setAccessible(true);
 			Object hashSetPresent = field.get(null);
-			builtInImmutableInstances.put(HashSet.class, hashSetPresent);
 			putImmutableInstance(hashSetPresent);
 		} catch (final SecurityException e) {
 			throw new IllegalStateException(e);
@@ -204,7 +233,165 @@ public class BasicCloner implements Cloner, CloneDriver, CloneImplementor {
 
 	@Override
 	public <T> T clone(T obj) {
-		return clone(obj, this, trackReferences ? new IdentityHashMap<Object, Object>(10) : null, 0L);
+
+		final CloneListener listener = cloneListener;
+		if (listener == null) {
+			return cloneRoot(obj);
+		}
+
+		final long start = System.nanoTime();
+		final T result = cloneRoot(obj);
+		listener.rootCloned(obj, result, System.nanoTime() - start);
+		return result;
+	}
+
+	/**
+	 * Clones the supplied root object. Subclasses that change how a whole graph is cloned override
+	 * this method rather than {@link #clone(Object)}, so that root clones continue to be reported to
+	 * any {@link CloneListener}.
+	 * @param obj The object
+	 * @param <T> The class of the object to be cloned
+	 * @return A clone of the object
+	 */
+	protected <T> T cloneRoot(T obj) {
+		if (!trackReferences) {
+			return clone(obj, this, null, 0L);
+		}
+
+		final IdentityReferenceMap referencesToReuse = IdentityReferenceMap.acquire();
+		try {
+			return clone(obj, this, referencesToReuse, 0L);
+		} finally {
+			referencesToReuse.release();
+		}
+	}
+
+	/**
+	 * Clones the supplied object into an existing instance of the same class, overwriting each of its
+	 * fields. Objects referenced by the source are cloned in the usual way. This allows a long lived
+	 * instance to be refreshed from a source without allocating a new copy of the source itself.
+	 * @param obj The object
+	 * @param target The instance to overwrite
+	 * @param <T> The class of the object to be cloned
+	 * @return The target
+	 * @throws IllegalArgumentException If the target is not of the same class as the object, or the class
+	 *             is not cloned field by field (for example because it is immutable or has an implementor)
+	 */
+	public <T> T cloneInto(T obj, T target) {
+
+		final CloneListener listener = cloneListener;
+		final long start = listener == null ? 0L : System.nanoTime();
+
+		if (!trackReferences) {
+			cloneStrategy.cloneInto(obj, target, this, null, 0L);
+		} else {
+			final IdentityReferenceMap referencesToReuse = IdentityReferenceMap.acquire();
+			try {
+				cloneStrategy.cloneInto(obj, target, this, referencesToReuse, 0L);
+			} finally {
+				referencesToReuse.release();
+			}
+		}
+
+		if (listener != null) {
+			listener.rootCloned(obj, target, System.nanoTime() - start);
+		}
+		return target;
+	}
+
+	/**
+	 * Clones each of the supplied objects as if they were parts of a single graph. References are tracked
+	 * across all of the roots, so an object reachable from several roots is cloned only once and the copy is
+	 * shared by the clones of each of them, just as it is shared by the originals.
+	 * @param objects The objects to clone, which may include nulls
+	 * @param <T> The class of the objects to be cloned
+	 * @return A fixed size list of the clones, in the same order as the objects
+	 */
+	public <T> List<T> cloneAll(Collection<? extends T> objects) {
+		return cloneAll(objects, false);
+	}
+
+	/**
+	 * Clones each of the supplied objects as if they were parts of a single graph, as described by
+	 * {@link #cloneAll(Collection)}
+	 * @param objects The objects to clone, which may include nulls
+	 * @param <T> The class of the objects to be cloned
+	 * @return The clones, in the same order as the objects
+	 */
+	@SafeVarargs
+	public final <T> List<T> cloneAll(T... objects) {
+		return cloneAll(Arrays.asList(objects), false);
+	}
+
+	/**
+	 * Clones each of the supplied objects as if they were parts of a single graph, as described by
+	 * {@link #cloneAll(Collection)}, optionally dividing the roots among the threads of a ForkJoinPool.
+	 * When cloning in parallel references are tracked in a {@link ConcurrentIdentityReferenceMap}; where
+	 * two threads reach the same object at the same time both may start to copy it, but only the copy
+	 * registered first is used.
+	 * @param objects The objects to clone, which may include nulls
+	 * @param parallel If true, the roots are cloned concurrently using {@link #getBatchForkJoinPool()}
+	 * @param <T> The class of the objects to be cloned
+	 * @return The clones, in the same order as the objects
+	 */
+	public <T> List<T> cloneAll(Collection<? extends T> objects, boolean parallel) {
+
+		@SuppressWarnings("unchecked")
+		final T[] roots = (T[]) objects.toArray();
+
+		if (parallel && roots.length > 1) {
+			final IdentityReferenceMap referencesToReuse = trackReferences ? new ConcurrentIdentityReferenceMap() : null;
+			final ForkJoinPool pool = getBatchForkJoinPool();
+			final int batchSize = Math.max(1, roots.length / (pool.getParallelism() * 4));
+			pool.invoke(new CloneAllTask(this, roots, referencesToReuse, 0, roots.length, batchSize));
+		} else if (!trackReferences) {
+			cloneRoots(roots, null, 0, roots.length);
+		} else {
+			final IdentityReferenceMap referencesToReuse = IdentityReferenceMap.acquire();
+			try {
+				cloneRoots(roots, referencesToReuse, 0, roots.length);
+			} finally {
+				referencesToReuse.release();
+			}
+		}
+		return Arrays.asList(roots);
+	}
+
+	/**
+	 * Replaces each root in the given range with its clone
+	 */
+	private <T> void cloneRoots(T[] roots, IdentityReferenceMap referencesToReuse, int from, int to) {
+
+		final CloneListener listener = cloneListener;
+		for (int i = from; i < to; i++) {
+			if (listener == null) {
+				roots[i] = clone(roots[i], this, referencesToReuse, 0L);
+			} else {
+				final long start = System.nanoTime();
+				final T result = clone(roots[i], this, referencesToReuse, 0L);
+				listener.rootCloned(roots[i], result, System.nanoTime() - start);
+				roots[i] = result;
+			}
+		}
+	}
+
+	/**
+	 * The pool used by {@link #cloneAll(Collection, boolean)} to clone roots in parallel
+	 * @return The common ForkJoinPool
+	 */
+	protected ForkJoinPool getBatchForkJoinPool() {
+		return ForkJoinPool.commonPool();
+	}
+
+	/**
+	 * Returns an instance that is no longer used to the configured {@link InstanceSource} so that it can be
+	 * cloned into later. The instance must not be used after it has been recycled.
+	 * @param instance The instance to recycle
+	 * @return True if the instance was retained, false if there is no InstanceSource or it discarded the instance
+	 */
+	public boolean recycle(Object instance) {
+		final InstanceSource source = instanceSource;
+		return source != null && source.recycle(instance);
 	}
 
 	@Override
@@ -218,7 +405,7 @@ public class BasicCloner implements Cloner, CloneDriver, CloneImplementor {
 	}
 
 	@Override
-	public <T> T clone(T obj, CloneDriver context, IdentityHashMap<Object, Object> referencesToReuse, long stackDepth) {
+	public <T> T clone(T obj, CloneDriver context, IdentityReferenceMap referencesToReuse, long stackDepth) {
 
 		return cloneStrategy.clone(obj, context, referencesToReuse, stackDepth);
 	}
@@ -246,13 +433,18 @@ public class BasicCloner implements Cloner, CloneDriver, CloneImplementor {
 	 * @param implementors The implementors
 	 */
 	public void setImplementors(Map<Class<?>, CloneImplementor> implementors) {
-		// this.implementors = implementors;
-
-		this.allImplementors = new HashMap<Class<?>, CloneImplementor>();
-		allImplementors.putAll(builtInImplementors);
-		allImplementors.putAll(implementors);
+		Map<Class<?>, CloneImplementor> newImplementors = new IdentityHashMap<Class<?>, CloneImplementor>();
+		newImplementors.putAll(BUILT_IN_IMPLEMENTORS);
+		newImplementors.putAll(implementors);
+		this.allImplementors = Collections.unmodifiableMap(newImplementors);
+		configurationChanged();
 	}
 
+	/**
+	 * Returns the classes indicated as immutable. The set is an unmodifiable snapshot, use
+	 * {@link #addImmutableClass(Class)} or {@link #setImmutableClasses(Set)} to change it.
+	 * @return The classes
+	 */
 	@Override
 	public Set<Class<?>> getImmutableClasses() {
 		return immutableClasses;
@@ -262,10 +454,25 @@ public class BasicCloner implements Cloner, CloneDriver, CloneImplementor {
 	 * Indicates classes which are immutable.
 	 * @param immutableClasses Classes which should be treated as immutable
 	 */
-	public void setImmutableClasses(Set<Class<?>> immutableClasses) {
-		this.immutableClasses = immutableClasses;
+	public synchronized void setImmutableClasses(Set<Class<?>> immutableClasses) {
+		this.immutableClasses = snapshot(immutableClasses);
+		configurationChanged();
+	}
+
+	/**
+	 * Indicates a further class which is immutable, in addition to those already given
+	 * @param immutableClass Class which should be treated as immutable
+	 */
+	public synchronized void addImmutableClass(Class<?> immutableClass) {
+		this.immutableClasses = snapshot(immutableClasses, immutableClass);
+		configurationChanged();
 	}
 
+	/**
+	 * Returns the classes indicated as non-cloneable. The set is an unmodifiable snapshot, use
+	 * {@link #addNonCloneableClass(Class)} or {@link #setNonCloneableClasses(Set)} to change it.
+	 * @return The classes
+	 */
 	@Override
 	public Set<Class<?>> getNonCloneableClasses() {
 		return nonCloneableClasses;
@@ -275,8 +482,42 @@ public class BasicCloner implements Cloner, CloneDriver, CloneImplementor {
 	 * Indicates classes that are not Cloneable.
 	 * @param nonCloneableClasses Set of non-cloneable classes
 	 */
-	public void setNonCloneableClasses(Set<Class<?>> nonCloneableClasses) {
-		this.nonCloneableClasses = nonCloneableClasses;
+	public synchronized void setNonCloneableClasses(Set<Class<?>> nonCloneableClasses) {
+		this.nonCloneableClasses = snapshot(nonCloneableClasses);
+		configurationChanged();
+	}
+
+	/**
+	 * Indicates a further class that is not Cloneable, in addition to those already given
+	 * @param nonCloneableClass Class which should not be cloned
+	 */
+	public synchronized void addNonCloneableClass(Class<?> nonCloneableClass) {
+		this.nonCloneableClasses = snapshot(nonCloneableClasses, nonCloneableClass);
+		configurationChanged();
+	}
+
+	/**
+	 * Copies the given classes so that later changes made by the caller are not seen while cloning
+	 * @param classes The classes to copy
+	 * @return An unmodifiable copy
+	 */
+	private static Set<Class<?>> snapshot(Set<Class<?>> classes) {
+		if (classes == null || classes.isEmpty()) {
+			return Collections.emptySet();
+		}
+		return Collections.unmodifiableSet(new HashSet<Class<?>>(classes));
+	}
+
+	/**
+	 * Copies the given classes together with one more
+	 * @param classes The classes to copy
+	 * @param additionalClass The class to add
+	 * @return An unmodifiable copy
+	 */
+	private static Set<Class<?>> snapshot(Set<Class<?>> classes, Class<?> additionalClass) {
+		final Set<Class<?>> copy = new HashSet<Class<?>>(classes);
+		copy.add(additionalClass);
+		return Collections.unmodifiableSet(copy);
 	}
 
 	@Override
@@ -291,6 +532,7 @@ public class BasicCloner implements Cloner, CloneDriver, CloneImplementor {
 	 */
 	public void setUseCloneable(boolean useCloneable) {
 		this.useCloneable = useCloneable;
+		configurationChanged();
 	}
 
 	@Override
@@ -309,6 +551,7 @@ public class BasicCloner implements Cloner, CloneDriver, CloneImplementor {
 	 */
 	public void setCloneTransientFields(boolean cloneTransientFields) {
 		this.cloneTransientFields = cloneTransientFields;
+		configurationChanged();
 	}
 
 	@Override
@@ -322,6 +565,7 @@ public class BasicCloner implements Cloner, CloneDriver, CloneImplementor {
 	 */
 	public void setCloneTransientAnnotatedFields(boolean cloneTransientAnnotatedFields) {
 		this.cloneTransientAnnotatedFields = cloneTransientAnnotatedFields;
+		configurationChanged();
 	}
 
 	@Override
@@ -335,6 +579,7 @@ public class BasicCloner implements Cloner, CloneDriver, CloneImplementor {
 	 */
 	public void setCloneImmutable(boolean cloneImmutable) {
 		this.cloneImmutable = cloneImmutable;
+		configurationChanged();
 	}
 
 	@Override
@@ -353,6 +598,7 @@ public class BasicCloner implements Cloner, CloneDriver, CloneImplementor {
 	 */
 	public void setUseCloneImplementors(boolean useCloneImplementors) {
 		this.useCloneImplementors = useCloneImplementors;
+		configurationChanged();
 	}
 
 	@Override
@@ -366,6 +612,20 @@ public class BasicCloner implements Cloner, CloneDriver, CloneImplementor {
 	 */
 	public void setCloneSyntheticFields(boolean cloneSyntheticFields) {
 		this.cloneSyntheticFields = cloneSyntheticFields;
+		configurationChanged();
+	}
+
+	@Override
+	public Object getConfigurationKey() {
+		return configurationKey;
+	}
+
+	/**
+	 * Replaces the configuration key with one describing the current settings. Any other BasicCloner
+	 * with the same settings has an equal key, so shares the decisions cached by the clone strategy.
+	 */
+	private void configurationChanged() {
+		this.configurationKey = new ConfigurationKey(this);
 	}
 
 	@Override
@@ -381,32 +641,28 @@ public class BasicCloner implements Cloner, CloneDriver, CloneImplementor {
 	@Override
 	public boolean isImmutableInstance(Object instance) {
 		
-		if (allImmutableInstances != null) {
-			for (int i = 0; i < allImmutableInstancesArray.length; i++) {
-				if (allImmutableInstancesArray[i] == instance) {
-					return true;
-				}
+		final Object[] instances = immutableInstances;
+		for (int i = 0; i < instances.length; i++) {
+			if (instances[i] == instance) {
+				return true;
 			}
-			return false;
-		} else {
-			return allImmutableInstances.containsKey(instance);
 		}
+		return false;
 	}
 
 	@Override
-	public void putImmutableInstance(Object instance) {
-		this.allImmutableInstances.put(instance, Boolean.TRUE);
-		Set<Object> keySet = this.allImmutableInstances.keySet();
-		this.allImmutableInstancesArray = new Object[keySet.size()];
+	public synchronized void putImmutableInstance(Object instance) {
 		
-		int i = 0;
-		for (Object next: keySet) {
-			this.allImmutableInstancesArray[i] = next;
-			i++;
-			if (i >= allImmutableInstancesArray.length) {
-				break;
+		final Object[] instances = immutableInstances;
+		for (int i = 0; i < instances.length; i++) {
+			if (instances[i] == instance) {
+				return;
 			}
 		}
+		
+		final Object[] newInstances = Arrays.copyOf(instances, instances.length + 1);
+		newInstances[instances.length] = instance;
+		this.immutableInstances = newInstances;
 	}
 
 	public boolean isTrackReferences() {
@@ -419,6 +675,7 @@ public class BasicCloner implements Cloner, CloneDriver, CloneImplementor {
 	 */
 	public void setTrackReferences(boolean trackReferences) {
 		this.trackReferences = trackReferences;
+		configurationChanged();
 	}
 
 	public boolean isTrackReferencesForFlatClasses() {
@@ -431,5 +688,130 @@ public class BasicCloner implements Cloner, CloneDriver, CloneImplementor {
 	 */
 	public void setTrackReferencesForFlatClasses(boolean trackReferencesForFlatClasses) {
 		this.trackReferencesForFlatClasses = trackReferencesForFlatClasses;
+		configurationChanged();
+	}
+
+	@Override
+	public boolean isStructuralSharing() {
+		return structuralSharing;
+	}
+
+	/**
+	 * If true, classes whose fields are all final and which can only reach immutable objects are detected
+	 * when they are first cloned, and their instances are shared rather than cloned
+	 * @param structuralSharing True if structurally immutable classes should be shared
+	 */
+	public void setStructuralSharing(boolean structuralSharing) {
+		this.structuralSharing = structuralSharing;
+		configurationChanged();
+	}
+
+	@Override
+	public InstanceSource getInstanceSource() {
+		return instanceSource;
+	}
+
+	/**
+	 * Sets the source of instances to clone into, for example a
+	 * {@link org.jadira.reflection.cloning.pool.ThreadLocalInstancePool}. Instances returned to the cloner
+	 * using {@link #recycle(Object)} are then reused by subsequent clones.
+	 * @param instanceSource The InstanceSource, or null to always allocate new instances
+	 */
+	public void setInstanceSource(InstanceSource instanceSource) {
+		this.instanceSource = instanceSource;
+	}
+
+	@Override
+	public CloneListener getCloneListener() {
+		return cloneListener;
+	}
+
+	/**
+	 * Sets a listener to be notified of each object cloned and each root clone completed, such as
+	 * {@link org.jadira.reflection.cloning.metrics.CloneMetrics}. The listener is called by every thread
+	 * using this cloner.
+	 * @param cloneListener The CloneListener, or null to stop observing cloning
+	 */
+	public void setCloneListener(CloneListener cloneListener) {
+		this.cloneListener = cloneListener;
+	}
+
+	/**
+	 * The settings of a BasicCloner that affect how the clone strategy treats each class
+	 */
+	private static final class ConfigurationKey {
+
+		private final Map<Class<?>, CloneImplementor> implementors;
+		private final Set<Class<?>> immutableClasses;
+		private final Set<Class<?>> nonCloneableClasses;
+		private final boolean[] flags;
+		private final int hashCode;
+
+		private ConfigurationKey(BasicCloner cloner) {
+			this.implementors = cloner.allImplementors;
+			this.immutableClasses = cloner.immutableClasses;
+			this.nonCloneableClasses = cloner.nonCloneableClasses;
+			this.flags = new boolean[] { cloner.useCloneable, cloner.useCloneImplementors, cloner.cloneTransientFields,
+					cloner.cloneTransientAnnotatedFields, cloner.cloneImmutable, cloner.cloneSyntheticFields,
+					cloner.trackReferences, cloner.trackReferencesForFlatClasses, cloner.structuralSharing };
+
+			int hash = implementors.hashCode();
+			hash = 31 * hash + immutableClasses.hashCode();
+			hash = 31 * hash + nonCloneableClasses.hashCode();
+			this.hashCode = 31 * hash + Arrays.hashCode(flags);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof ConfigurationKey)) {
+				return false;
+			}
+			final ConfigurationKey that = (ConfigurationKey) obj;
+			return hashCode == that.hashCode
+					&& Arrays.equals(flags, that.flags)
+					&& (implementors == that.implementors || implementors.equals(that.implementors))
+					&& (immutableClasses == that.immutableClasses || immutableClasses.equals(that.immutableClasses))
+					&& (nonCloneableClasses == that.nonCloneableClasses || nonCloneableClasses.equals(that.nonCloneableClasses));
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+
+	private static final class CloneAllTask extends RecursiveAction {
+
+		private static final long serialVersionUID = -2745419637461254218L;
+
+		private final BasicCloner cloner;
+		private final Object[] roots;
+		private final IdentityReferenceMap referencesToReuse;
+		private final int from;
+		private final int to;
+		private final int batchSize;
+
+		private CloneAllTask(BasicCloner cloner, Object[] roots, IdentityReferenceMap referencesToReuse, int from, int to, int batchSize) {
+			this.cloner = cloner;
+			this.roots = roots;
+			this.referencesToReuse = referencesToReuse;
+			this.from = from;
+			this.to = to;
+			this.batchSize = batchSize;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= batchSize) {
+				cloner.cloneRoots(roots, referencesToReuse, from, to);
+			} else {
+				final int middle = (from + to) >>> 1;
+				invokeAll(new CloneAllTask(cloner, roots, referencesToReuse, from, middle, batchSize),
+						new CloneAllTask(cloner, roots, referencesToReuse, middle, to, batchSize));
+			}
+		}
 	}
 }
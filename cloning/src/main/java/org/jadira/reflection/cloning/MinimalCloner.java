@@ -17,15 +17,17 @@ package org.jadira.reflection.cloning;
 
 import java.lang.invoke.MethodHandle;
 import java.util.Collections;
-import java.util.IdentityHashMap;
 import java.util.Set;
 
 import org.jadira.reflection.access.unsafe.UnsafeOperations;
 import org.jadira.reflection.cloning.api.CloneDriver;
 import org.jadira.reflection.cloning.api.CloneImplementor;
+import org.jadira.reflection.cloning.api.CloneListener;
 import org.jadira.reflection.cloning.api.Cloner;
+import org.jadira.reflection.cloning.api.InstanceSource;
 import org.jadira.reflection.cloning.implementor.PortableCloneStrategy;
 import org.jadira.reflection.cloning.implementor.UnsafeCloneStrategy;
+import org.jadira.reflection.core.identity.IdentityReferenceMap;
 import org.objenesis.ObjenesisException;
 
 /**
@@ -48,6 +50,9 @@ public class MinimalCloner implements Cloner, CloneDriver, CloneImplementor {
 
 	private static final UnsafeOperations UNSAFE_OPERATIONS = UnsafeOperations.getUnsafeOperations();
 
+	/** The configuration of MinimalCloner is fixed, so a single key serves all instances */
+	private static final Object CONFIGURATION_KEY = new Object();
+
 	@Override
 	public <T> T newInstance(Class<T> c) {
 		try {
@@ -66,7 +71,7 @@ public class MinimalCloner implements Cloner, CloneDriver, CloneImplementor {
 	}
 
 	@Override
-	public <T> T clone(T obj, CloneDriver context, IdentityHashMap<Object, Object> referencesToReuse, long stackDepth) {
+	public <T> T clone(T obj, CloneDriver context, IdentityReferenceMap referencesToReuse, long stackDepth) {
 
 		T copy = UNSAFE_OPERATIONS.deepCopy(obj, referencesToReuse);
 		return copy;
@@ -139,7 +144,12 @@ public class MinimalCloner implements Cloner, CloneDriver, CloneImplementor {
 
 	@Override
 	public <T> T clone(T obj) {
-		return clone(obj, this, new IdentityHashMap<Object, Object>(), 0L);
+		final IdentityReferenceMap referencesToReuse = IdentityReferenceMap.acquire();
+		try {
+			return clone(obj, this, referencesToReuse, 0L);
+		} finally {
+			referencesToReuse.release();
+		}
 	}
 
 	@Override
@@ -170,6 +180,27 @@ public class MinimalCloner implements Cloner, CloneDriver, CloneImplementor {
 		return false;
 	}
 
+	@Override
+	public boolean isStructuralSharing() {
+		return false;
+	}
+
+	/**
+	 * New instances are always allocated
+	 */
+	@Override
+	public InstanceSource getInstanceSource() {
+		return null;
+	}
+
+	/**
+	 * Cloning cannot be observed
+	 */
+	@Override
+	public CloneListener getCloneListener() {
+		return null;
+	}
+
 	@Override
 	public void putAnnotationImplementor(Class<?> clazz, CloneImplementor implementor) {
 		// No-op
@@ -204,4 +235,9 @@ public class MinimalCloner implements Cloner, CloneDriver, CloneImplementor {
 	public boolean isTrackReferencesForFlatClasses() {
 		return true;
 	}
+
+	@Override
+	public Object getConfigurationKey() {
+		return CONFIGURATION_KEY;
+	}
 }
@@ -0,0 +1,138 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.reflection.cloning;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import org.jadira.reflection.cloning.api.CloneStrategy;
+import org.jadira.reflection.cloning.api.ParallelCloneDriver;
+import org.jadira.reflection.cloning.implementor.types.ArrayListImplementor;
+import org.jadira.reflection.cloning.implementor.types.ConcurrentHashMapImplementor;
+import org.jadira.reflection.cloning.implementor.types.HashMapImplementor;
+import org.jadira.reflection.core.identity.ConcurrentIdentityReferenceMap;
+import org.jadira.reflection.core.identity.IdentityReferenceMap;
+
+/**
+ * A {@link BasicCloner} that divides the cloning of large object graphs among the threads of a
+ * {@link ForkJoinPool}. Object arrays, and the collections handled by {@link ArrayListImplementor},
+ * {@link HashMapImplementor} and {@link ConcurrentHashMapImplementor}, that hold more elements than
+ * the parallel threshold are split into segments which are cloned concurrently.
+ * 
+ * Reference identity is preserved in the same way as for BasicCloner: the threads share a
+ * {@link ConcurrentIdentityReferenceMap} and only one copy of each object is retained. Where two
+ * threads reach the same object at the same time, both may start to copy it, but only the copy
+ * registered first is used. {@link #cloneInto(Object, Object)}, and {@link #cloneAll(java.util.Collection, boolean)}
+ * when not cloning in parallel, track references for a single thread, so they never split.
+ * 
+ * Splitting only pays off for large graphs, for small ones BasicCloner will usually be faster. As with
+ * BasicCloner, the configuration should be completed before the cloner is used.
+ */
+public class ParallelCloner extends BasicCloner implements ParallelCloneDriver {
+
+	private static final int DEFAULT_PARALLEL_THRESHOLD = 1024;
+
+	private final ForkJoinPool forkJoinPool;
+
+	private volatile int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+	/**
+	 * Create a new instance using the common ForkJoinPool, with the default {@link CloneStrategy}
+	 * as described by {@link BasicCloner#BasicCloner()}.
+	 */
+	public ParallelCloner() {
+		this.forkJoinPool = ForkJoinPool.commonPool();
+	}
+
+	/**
+	 * Creates a new instance with the given {@link CloneStrategy}, using the common ForkJoinPool
+	 * @param cloneStrategy CloneStrategy to be used
+	 */
+	public ParallelCloner(final CloneStrategy cloneStrategy) {
+		this(cloneStrategy, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates a new instance with the given {@link CloneStrategy} and ForkJoinPool
+	 * @param cloneStrategy CloneStrategy to be used
+	 * @param forkJoinPool The pool to clone with
+	 */
+	public ParallelCloner(final CloneStrategy cloneStrategy, final ForkJoinPool forkJoinPool) {
+		super(cloneStrategy);
+		this.forkJoinPool = forkJoinPool;
+	}
+
+	@Override
+	protected <T> T cloneRoot(T obj) {
+
+		final IdentityReferenceMap referencesToReuse = isTrackReferences() ? new ConcurrentIdentityReferenceMap() : null;
+
+		if (ForkJoinTask.getPool() == forkJoinPool) {
+			return clone(obj, this, referencesToReuse, 0L);
+		}
+		return forkJoinPool.invoke(new CloneTask<T>(this, obj, referencesToReuse));
+	}
+
+	/**
+	 * Roots cloned in parallel are divided among the threads of this cloner's own pool
+	 */
+	@Override
+	protected ForkJoinPool getBatchForkJoinPool() {
+		return forkJoinPool;
+	}
+
+	@Override
+	public ForkJoinPool getForkJoinPool() {
+		return forkJoinPool;
+	}
+
+	@Override
+	public int getParallelThreshold() {
+		return parallelThreshold;
+	}
+
+	/**
+	 * Sets the number of elements at or below which an array or collection is cloned on a single thread
+	 * @param parallelThreshold The threshold, which must be at least one
+	 */
+	public void setParallelThreshold(int parallelThreshold) {
+		if (parallelThreshold < 1) {
+			throw new IllegalArgumentException("parallelThreshold must be at least one");
+		}
+		this.parallelThreshold = parallelThreshold;
+	}
+
+	private static final class CloneTask<T> extends RecursiveTask<T> {
+
+		private static final long serialVersionUID = 4326542185766153407L;
+
+		private final ParallelCloner cloner;
+		private final T obj;
+		private final IdentityReferenceMap referencesToReuse;
+
+		private CloneTask(ParallelCloner cloner, T obj, IdentityReferenceMap referencesToReuse) {
+			this.cloner = cloner;
+			this.obj = obj;
+			this.referencesToReuse = referencesToReuse;
+		}
+
+		@Override
+		protected T compute() {
+			return cloner.clone(obj, cloner, referencesToReuse, 0L);
+		}
+	}
+}
@@ -147,4 +147,33 @@ public interface CloneDriver extends CloneImplementor {
 	 * @return trackReferences Default is false
 	 */
     boolean isTrackReferencesForFlatClasses();
+
+	/**
+	 * Indicates whether classes should be analysed for structural immutability. When enabled, a class is shared
+	 * rather than cloned if all of its fields are final and every object reachable from them is necessarily
+	 * immutable, so that such subgraphs are not visited at all.
+	 * @return structuralSharing Default is false
+	 */
+    boolean isStructuralSharing();
+
+	/**
+	 * The source of instances to clone into for classes that are cloned field by field
+	 * @return The InstanceSource, or null if a new instance should always be allocated
+	 */
+	InstanceSource getInstanceSource();
+
+	/**
+	 * The listener to notify of each object cloned
+	 * @return The CloneListener, or null if cloning is not being observed
+	 */
+	CloneListener getCloneListener();
+
+	/**
+	 * Identifies the current configuration of this driver. Clone strategies cache the decisions they
+	 * make for each class against this key, comparing keys using equals(). Implementations must return
+	 * a key that is not equal to the previous one whenever any setting that affects cloning is changed.
+	 * Drivers whose keys are equal share the cached decisions, so should clone identically.
+	 * @return The configuration key
+	 */
+	Object getConfigurationKey();
 }
@@ -0,0 +1,47 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.reflection.cloning.api;
+
+/**
+ * Receives notification of the work done by a {@link Cloner}, allowing the cost of cloning to be
+ * attributed to the classes involved. A listener is registered with the {@link CloneDriver} and is
+ * called on the cloning thread for every object visited, so implementations must be cheap and, because
+ * a cloner may be used by several threads at once, thread safe.
+ */
+public interface CloneListener {
+
+	/**
+	 * Called when a copy of an object (or array) has been made
+	 * @param original The object that was cloned
+	 * @param copy The copy
+	 */
+	void objectCloned(Object original, Object copy);
+
+	/**
+	 * Called when an object that has already been cloned within the current clone is reached again, so
+	 * that the existing copy is reused rather than cloning the object a second time
+	 * @param original The object reached again
+	 */
+	void referenceReused(Object original);
+
+	/**
+	 * Called once each root object passed to the {@link Cloner} has been cloned
+	 * @param original The root object, which may be null
+	 * @param copy The copy of the root
+	 * @param elapsedNanos The time taken to clone the whole graph, in nanoseconds
+	 */
+	void rootCloned(Object original, Object copy, long elapsedNanos);
+}
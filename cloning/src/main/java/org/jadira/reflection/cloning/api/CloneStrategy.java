@@ -15,6 +15,8 @@
  */
 package org.jadira.reflection.cloning.api;
 
+import org.jadira.reflection.core.identity.IdentityReferenceMap;
+
 /**
  * A specific kind of {@link CloneImplementor} that is intended for plugging into a {@link Cloner}.
  * CloneStrategies must be capable of working with all available classes, whereas standard
@@ -26,4 +28,21 @@ public interface CloneStrategy extends CloneImplementor {
 	 * @param classes Classes to initialise for
 	 */
 	void initialiseFor(Class<?>... classes);
+
+	/**
+	 * Clones the given object into an existing instance of the same class, overwriting every field of the
+	 * target. Objects referenced from the source are cloned as usual. Only classes that are cloned field by
+	 * field can be cloned into an existing instance.
+	 * @param obj Object to clone
+	 * @param target The instance to overwrite
+	 * @param context The CloneDriver that initiated the request
+	 * @param referencesToReuse Any references for objects already cloned to ensure reference
+	 *            identity is preserved
+	 * @param stackDepth The number of objects already cloned in the current data structure
+	 * @param <T> The type of the object to be cloned
+	 * @return The target
+	 * @throws IllegalArgumentException If the target is not of the same class as the object, or the class is
+	 *             not cloned field by field
+	 */
+	<T> T cloneInto(T obj, T target, CloneDriver context, IdentityReferenceMap referencesToReuse, long stackDepth);
 }
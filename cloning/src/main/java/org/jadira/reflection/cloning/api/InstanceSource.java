@@ -0,0 +1,46 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.reflection.cloning.api;
+
+/**
+ * A source of instances for a {@link CloneStrategy} to clone into. By default strategies allocate a new
+ * instance for every object they copy field by field. Configuring an InstanceSource on the {@link CloneDriver}
+ * allows previously discarded instances to be reused instead, so that repeatedly cloning short lived objects
+ * need not generate garbage.
+ * 
+ * An instance supplied by the source may still hold the state of its previous use. Strategies overwrite every
+ * instance field of an obtained instance, including those that would otherwise keep their default value.
+ * Instances are only requested for classes that are cloned field by field; classes cloned by an implementor,
+ * a clone() method or shared rather than cloned always use their own means of obtaining instances.
+ */
+public interface InstanceSource {
+
+	/**
+	 * Obtain an instance of exactly the given class
+	 * @param clazz The class required
+	 * @param <T> The type of the instance
+	 * @return An instance to be overwritten, or null if the strategy should allocate a new instance
+	 */
+	<T> T obtain(Class<T> clazz);
+
+	/**
+	 * Returns an instance which is no longer in use to the source, making it available to later clones. The
+	 * caller must not use the instance, nor retain any reference to it, afterwards.
+	 * @param instance The instance to recycle
+	 * @return True if the instance was retained by the source, false if it was discarded
+	 */
+	boolean recycle(Object instance);
+}
@@ -0,0 +1,40 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.reflection.cloning.api;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A {@link CloneDriver} whose cloning operations may be divided among the threads of a {@link ForkJoinPool}.
+ * Large arrays and collections encountered while cloning with such a driver are split into segments
+ * which are cloned concurrently. The references map passed to each {@link CloneImplementor} is then
+ * shared between threads.
+ */
+public interface ParallelCloneDriver extends CloneDriver {
+
+	/**
+	 * The pool used to clone segments of large arrays and collections
+	 * @return The ForkJoinPool
+	 */
+	ForkJoinPool getForkJoinPool();
+
+	/**
+	 * The number of elements at or below which an array or collection is cloned on the current thread
+	 * rather than being split
+	 * @return The threshold
+	 */
+	int getParallelThreshold();
+}
@@ -19,19 +19,26 @@ import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Deque;
 import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.jadira.reflection.access.model.ClassModel;
 import org.jadira.reflection.access.model.FieldModel;
-import org.jadira.reflection.access.model.FieldType;
 import org.jadira.reflection.cloning.MinimalCloner;
 import org.jadira.reflection.cloning.api.CloneDriver;
 import org.jadira.reflection.cloning.api.CloneImplementor;
+import org.jadira.reflection.cloning.api.CloneListener;
 import org.jadira.reflection.cloning.api.CloneStrategy;
+import org.jadira.reflection.cloning.api.InstanceSource;
 import org.jadira.reflection.cloning.api.NoCloneImplementor;
+import org.jadira.reflection.core.identity.ConcurrentIdentityReferenceMap;
+import org.jadira.reflection.core.identity.IdentityReferenceMap;
 import org.jadira.reflection.core.misc.ClassUtils;
 
 /**
@@ -42,6 +49,13 @@ public abstract class AbstractCloneStrategy implements CloneStrategy {
 
 	private static final int REFERENCE_STACK_LIMIT = 150;
 
+	private final ClassValue<ClonePlanCache> clonePlans = new ClassValue<ClonePlanCache>() {
+		@Override
+		protected ClonePlanCache computeValue(Class<?> type) {
+			return new ClonePlanCache();
+		}
+	};
+
 	@Override
 	public abstract <T> T newInstance(Class<T> c);
 
@@ -51,7 +65,7 @@ public abstract class AbstractCloneStrategy implements CloneStrategy {
 	}
 
 	@Override
-	public <T> T clone(T obj, CloneDriver context, IdentityHashMap<Object, Object> referencesToReuse, long stackDepth) {
+	public <T> T clone(T obj, CloneDriver context, IdentityReferenceMap referencesToReuse, long stackDepth) {
 
 		/**
 		 * To avoid unnecessary recursion and potential stackoverflow errors, we use an internal
@@ -107,119 +121,373 @@ public abstract class AbstractCloneStrategy implements CloneStrategy {
 		}
 	}
 
-	private Object doCloneStep(Object objectInput, CloneDriver context, IdentityHashMap<Object, Object> referencesToReuse, final Deque<WorkItem> stack, long stackDepth) {
-		Object objectResult;
+	@Override
+	public <T> T cloneInto(T obj, T target, CloneDriver context, IdentityReferenceMap referencesToReuse, long stackDepth) {
+
+		if (obj == null || target == null) {
+			throw new IllegalArgumentException("Cannot clone into or from null");
+		}
+
+		final Class<?> clazz = obj.getClass();
+		if (target.getClass() != clazz) {
+			throw new IllegalArgumentException("Cannot clone instance of " + clazz.getName() + " into instance of " + target.getClass().getName());
+		}
+
+		final ClonePlan plan = getClonePlan(clazz, context);
+		if (plan.getAction() != ClonePlan.Action.FIELDS) {
+			throw new IllegalArgumentException("Instances of " + clazz.getName() + " are not cloned field by field so cannot be cloned into an existing instance");
+		}
+
+		if (obj == target) {
+			return target;
+		}
+
+		if (!plan.isTrackReferences()) {
+			referencesToReuse = null;
+		} else if (referencesToReuse != null) {
+			referencesToReuse.put(obj, target);
+		}
+		handleCloneFields(obj, target, context, plan, referencesToReuse, null, stackDepth + 1);
+
+		final CloneListener listener = context.getCloneListener();
+		if (listener != null) {
+			listener.objectCloned(obj, target);
+		}
+		return target;
+	}
+
+	private Object doCloneStep(Object objectInput, CloneDriver context, IdentityReferenceMap referencesToReuse, final Deque<WorkItem> stack, long stackDepth) {
 
 		@SuppressWarnings("unchecked")
 		final Class<Object> clazz = (Class<Object>) objectInput.getClass();
+		final ClonePlan plan = getClonePlan(clazz, context);
+		final CloneListener listener = context.getCloneListener();
+
+		switch (plan.getAction()) {
+		case SHARE:
+			return objectInput;
+		case ARRAY:
+			if (listener == null) {
+				return handleArray(objectInput, context, referencesToReuse, stackDepth);
+			}
+			return handleArrayWithListener(objectInput, context, referencesToReuse, stackDepth, listener);
+		default:
+			break;
+		}
 
-		if (clazz.isPrimitive() || clazz.isEnum()) {
-			objectResult = objectInput;
-		} else if (clazz.isArray()) {
-			final Object copy = handleArray(objectInput, context, referencesToReuse, stackDepth);
+		if (!plan.isTrackReferences()) {
+			referencesToReuse = null;
+		} else if (referencesToReuse != null) {
+			final Object result = referencesToReuse.get(objectInput);
+			if (result != null) {
+				if (listener != null) {
+					listener.referenceReused(objectInput);
+				}
+				return result;
+			}
+		}
+
+		final Object objectResult;
+
+		switch (plan.getAction()) {
+		case IMPLEMENTOR:
+		case CLONER_METHOD:
+			objectResult = plan.getImplementor().clone(objectInput, context, referencesToReuse, stackDepth);
+			break;
+		case ANNOTATION_IMPLEMENTOR:
+			objectResult = handleCloneImplementor(objectInput, context, referencesToReuse, clazz, plan.getCloneableAnnotation(), stackDepth);
+			break;
+		case CLONEABLE:
+			objectResult = handleCloneableCloneMethod(objectInput, context, referencesToReuse, clazz, plan.getCloneableAnnotation());
+			break;
+		default:
+			final InstanceSource instanceSource = context.getInstanceSource();
+			Object recycled = null;
+			if (instanceSource == null) {
+				// A compiled implementor does not report whether another thread registered its copy first, so
+				// where one might the clone is interpreted instead, for the listener to be told whose copy is used
+				if (stack == null && plan.getImplementor() != null
+						&& (listener == null || !(referencesToReuse instanceof ConcurrentIdentityReferenceMap))) {
+					final Object compiledResult = plan.getImplementor().clone(objectInput, context, referencesToReuse, stackDepth);
+					if (listener != null) {
+						listener.objectCloned(objectInput, compiledResult);
+					}
+					return compiledResult;
+				}
+				objectResult = newInstance(clazz);
+			} else {
+				// Compiled implementors always allocate, and leave reset fields untouched, so are not used here
+				recycled = instanceSource.obtain(clazz);
+				objectResult = recycled == null ? newInstance(clazz) : recycled;
+			}
 			if (referencesToReuse != null) {
-				referencesToReuse.put(objectInput, copy);
+				// When cloning in parallel another thread may have registered a copy first
+				final Object existing = referencesToReuse.putIfAbsent(objectInput, objectResult);
+				if (existing != null) {
+					if (recycled != null) {
+						// The obtained instance was never used, so is returned to the source
+						instanceSource.recycle(recycled);
+					}
+					if (listener != null) {
+						listener.referenceReused(objectInput);
+					}
+					return existing;
+				}
 			}
-			objectResult = copy;
-		} else if (ClassUtils.isJdkImmutable(clazz) || ClassUtils.isWrapper(clazz) || context.getImmutableClasses().contains(clazz) || context.getNonCloneableClasses().contains(clazz)) {
-			objectResult = objectInput;
-		} else {
+			if (listener != null) {
+				listener.objectCloned(objectInput, objectResult);
+			}
+			handleCloneFields(objectInput, objectResult, context, plan, referencesToReuse, stack, stackDepth);
+			return objectResult;
+		}
 
-			final ClassModel<Object> model = getClassModel(clazz);
-			if (model.isFlat()) {
-				referencesToReuse = null;
+		if (referencesToReuse != null) {
+			final Object existing = referencesToReuse.putIfAbsent(objectInput, objectResult);
+			if (existing != null) {
+				if (listener != null) {
+					listener.referenceReused(objectInput);
+				}
+				return existing;
 			}
+		}
 
-			final Object result = referencesToReuse == null ? null : referencesToReuse.get(objectInput);
-			if (result != null) {
-				objectResult = result;
-			} else {
+		if (listener != null) {
+			listener.objectCloned(objectInput, objectResult);
+		}
+		return objectResult;
+	}
+
+	private Object handleArrayWithListener(Object objectInput, CloneDriver context, IdentityReferenceMap referencesToReuse, long stackDepth, CloneListener listener) {
+		return copyArray(objectInput, context, referencesToReuse, stackDepth, listener);
+	}
 
-				final CloneImplementor cloneImplementor;
-				if (context.isUseCloneImplementors()) {
-					cloneImplementor = context.getImplementor(clazz);
+	private void handleCloneFields(Object objectInput, Object objectResult, CloneDriver context, ClonePlan plan, IdentityReferenceMap referencesToReuse, final Deque<WorkItem> stack, long stackDepth) {
+
+		final FieldModel<Object>[] fields = plan.getFields();
+		final ClonePlan.FieldOperation[] fieldOperations = plan.getFieldOperations();
+
+		for (int i = 0; i < fields.length; i++) {
+
+			final FieldModel<Object> f = fields[i];
+
+			switch (fieldOperations[i]) {
+			case COPY_PRIMITIVE:
+				handleClonePrimitiveField(objectInput, objectResult, context, f, referencesToReuse);
+				break;
+			case SHARE:
+				putFieldValue(objectResult, f, getFieldValue(objectInput, f));
+				break;
+			case RESET:
+				handleTransientField(objectResult, f);
+				break;
+			default:
+				if (stack == null) {
+					final Object fieldObject = getFieldValue(objectInput, f);
+					putFieldValue(objectResult, f, clone(fieldObject, context, referencesToReuse, stackDepth));
 				} else {
-					cloneImplementor = context.getBuiltInImplementor(clazz);
+					stack.addFirst(new WorkItem(objectInput, objectResult, f));
 				}
-				if (cloneImplementor != null) {
-					Object copy = cloneImplementor.clone(objectInput, context, referencesToReuse, stackDepth);
-					if (referencesToReuse != null) {
-						referencesToReuse.put(objectInput, copy);
-					}
-					objectResult = copy;
-				} else {
+				break;
+			}
+		}
+	}
 
-					if (model.isDetectedAsImmutable() || model.isNonCloneable()) {
-						objectResult = objectInput;
-					} else {
-
-						final org.jadira.reflection.cloning.annotation.Cloneable cloneableAnnotation = clazz.getAnnotation(org.jadira.reflection.cloning.annotation.Cloneable.class);
-						if (cloneableAnnotation != null && !NoCloneImplementor.class.equals(cloneableAnnotation.implementor())) {
-							final Object copy = handleCloneImplementor(objectInput, context, referencesToReuse, clazz, cloneableAnnotation, stackDepth);
-							if (referencesToReuse != null) {
-								referencesToReuse.put(objectInput, copy);
-							}
-							objectResult = copy;
-						}
-
-						else if (model.getCloneImplementor() != null) {
-							final Object copy = model.getCloneImplementor().clone(objectInput, context, referencesToReuse, stackDepth);
-							if (referencesToReuse != null) {
-								referencesToReuse.put(objectInput, copy);
-							}
-							objectResult = copy;
-						} else if (context.isUseCloneable() && Cloneable.class.isAssignableFrom(clazz)) {
-							final Object copy = handleCloneableCloneMethod(objectInput, context, referencesToReuse, clazz, cloneableAnnotation);
-							if (referencesToReuse != null) {
-								referencesToReuse.put(objectInput, copy);
-							}
-							objectResult = copy;
-						} else {
-
-							objectResult = newInstance(clazz);
-							if (referencesToReuse != null) {
-								referencesToReuse.put(objectInput, objectResult);
-							}
-
-							ClassModel<Object> classModelInHierarchy = model;
-							while (classModelInHierarchy != null) {
-							
-								for (FieldModel<Object> f : classModelInHierarchy.getModelFields()) {
-	
-									if (!context.isCloneTransientFields() && f.isTransientField()) {
-										handleTransientField(objectResult, f);
-									} else if (!context.isCloneTransientAnnotatedFields() && f.isTransientAnnotatedField()) {
-										handleTransientField(objectResult, f);
-									} else {
-										if (stack == null) {
-											handleCloneField(objectInput, objectResult, context, f, referencesToReuse, stackDepth);
-										} else {
-											if (f.getFieldType() == FieldType.PRIMITIVE) {
-												handleClonePrimitiveField(objectInput, objectResult, context, f, referencesToReuse);
-											} else {
-												if (!context.isCloneSyntheticFields() && f.isSynthetic()) {
-													Object fieldObject = getFieldValue(objectInput, f);
-													if (referencesToReuse != null) {
-														referencesToReuse.put(fieldObject, fieldObject);
-													}
-												} else {
-													stack.addFirst(new WorkItem(objectInput, objectResult, f));
-												}
-											}
-										}
-									}
-								}
-								classModelInHierarchy = classModelInHierarchy.getSuperClassModel();
-							}
-						}
-					}
+	/**
+	 * Obtain the plan for cloning instances of the given class with the given driver. Plans are cached
+	 * per class for each configuration of the driver, as identified by {@link CloneDriver#getConfigurationKey()}.
+	 * @param clazz The class to be cloned
+	 * @param context The CloneDriver
+	 * @return The ClonePlan
+	 */
+	protected ClonePlan getClonePlan(Class<?> clazz, CloneDriver context) {
+
+		final ClonePlanCache cache = clonePlans.get(clazz);
+		final Object configurationKey = context.getConfigurationKey();
+
+		ClonePlan plan = cache.get(configurationKey);
+		if (plan == null) {
+			plan = createClonePlan(clazz, context);
+			cache.put(configurationKey, plan);
+		}
+		return plan;
+	}
+
+	private ClonePlan createClonePlan(Class<?> clazz, CloneDriver context) {
+
+		if (clazz.isPrimitive() || clazz.isEnum()) {
+			return new ClonePlan(ClonePlan.Action.SHARE, false, null, null, null, null, null);
+		} else if (clazz.isArray()) {
+			return new ClonePlan(ClonePlan.Action.ARRAY, true, null, null, null, null, null);
+		} else if (isSharedClass(clazz, context)) {
+			return new ClonePlan(ClonePlan.Action.SHARE, false, null, null, null, null, null);
+		}
+
+		@SuppressWarnings("unchecked")
+		final ClassModel<Object> model = (ClassModel<Object>) getClassModel(clazz);
+		final boolean trackReferences = !model.isFlat();
+
+		final CloneImplementor cloneImplementor;
+		if (context.isUseCloneImplementors()) {
+			cloneImplementor = context.getImplementor(clazz);
+		} else {
+			cloneImplementor = context.getBuiltInImplementor(clazz);
+		}
+		if (cloneImplementor != null) {
+			return new ClonePlan(ClonePlan.Action.IMPLEMENTOR, trackReferences, cloneImplementor, null, model, null, null);
+		}
+
+		if (model.isDetectedAsImmutable() || model.isNonCloneable()) {
+			return new ClonePlan(ClonePlan.Action.SHARE, false, null, null, model, null, null);
+		}
+
+		final org.jadira.reflection.cloning.annotation.Cloneable cloneableAnnotation = clazz.getAnnotation(org.jadira.reflection.cloning.annotation.Cloneable.class);
+		if (cloneableAnnotation != null && !NoCloneImplementor.class.equals(cloneableAnnotation.implementor())) {
+			return new ClonePlan(ClonePlan.Action.ANNOTATION_IMPLEMENTOR, trackReferences, null, cloneableAnnotation, model, null, null);
+		} else if (model.getCloneImplementor() != null) {
+			return new ClonePlan(ClonePlan.Action.CLONER_METHOD, trackReferences, model.getCloneImplementor(), cloneableAnnotation, model, null, null);
+		} else if (context.isUseCloneable() && Cloneable.class.isAssignableFrom(clazz)) {
+			return new ClonePlan(ClonePlan.Action.CLONEABLE, trackReferences, null, cloneableAnnotation, model, null, null);
+		}
+
+		if (context.isStructuralSharing() && isStructurallyImmutable(clazz, context, new IdentityHashMap<Class<?>, Boolean>())) {
+			return new ClonePlan(ClonePlan.Action.SHARE, false, null, null, model, null, null);
+		}
+
+		final List<FieldModel<Object>> fields = new ArrayList<FieldModel<Object>>();
+		final List<ClonePlan.FieldOperation> fieldOperations = new ArrayList<ClonePlan.FieldOperation>();
+
+		ClassModel<? super Object> classModelInHierarchy = model;
+		while (classModelInHierarchy != null) {
+			for (FieldModel<Object> f : classModelInHierarchy.getModelFields()) {
+				fields.add(f);
+				fieldOperations.add(determineFieldOperation(f, context));
+			}
+			classModelInHierarchy = classModelInHierarchy.getSuperClassModel();
+		}
+
+		@SuppressWarnings("unchecked")
+		final FieldModel<Object>[] fieldsArray = (FieldModel<Object>[]) fields.toArray(new FieldModel[fields.size()]);
+		final ClonePlan.FieldOperation[] fieldOperationsArray = fieldOperations.toArray(new ClonePlan.FieldOperation[fieldOperations.size()]);
+		final CloneImplementor compiledImplementor = compileClonePlan(clazz, fieldsArray, fieldOperationsArray, trackReferences);
+		return new ClonePlan(ClonePlan.Action.FIELDS, trackReferences, compiledImplementor, cloneableAnnotation, model, fieldsArray, fieldOperationsArray);
+	}
+
+	/**
+	 * Strategies may override this method to compile the field operations of a plan into a single
+	 * {@link CloneImplementor}. The implementor is used instead of interpreting the field operations
+	 * whenever the clone is being performed recursively. It must allocate the copy, register it using
+	 * {@link IdentityReferenceMap#putIfAbsent(Object, Object)} (if trackReferences is true and referencesToReuse
+	 * is not null), returning any copy registered already, and then apply each field operation in turn.
+	 * @param clazz The class being cloned
+	 * @param fields The fields of the class and its superclasses
+	 * @param fieldOperations The operation for each field
+	 * @param trackReferences Whether the clone of the instance should be registered in referencesToReuse
+	 * @return A CloneImplementor, or null if the field operations should be interpreted
+	 */
+	protected CloneImplementor compileClonePlan(Class<?> clazz, FieldModel<Object>[] fields, ClonePlan.FieldOperation[] fieldOperations, boolean trackReferences) {
+		return null;
+	}
+
+	private ClonePlan.FieldOperation determineFieldOperation(FieldModel<Object> f, CloneDriver context) {
+
+		final Class<?> fieldClass = f.getFieldClass();
+
+		if (!context.isCloneTransientFields() && f.isTransientField()) {
+			return ClonePlan.FieldOperation.RESET;
+		} else if (!context.isCloneTransientAnnotatedFields() && f.isTransientAnnotatedField()) {
+			return ClonePlan.FieldOperation.RESET;
+		} else if (fieldClass.isPrimitive()) {
+			return ClonePlan.FieldOperation.COPY_PRIMITIVE;
+		} else if (!context.isCloneSyntheticFields() && f.isSynthetic()) {
+			return ClonePlan.FieldOperation.SHARE;
+		} else if (fieldClass.isEnum() || (Modifier.isFinal(fieldClass.getModifiers()) && isSharedClass(fieldClass, context))) {
+			// Any value held by the field is of exactly this class, so it will be shared whatever its value
+			return ClonePlan.FieldOperation.SHARE;
+		} else if (context.isStructuralSharing() && Modifier.isFinal(fieldClass.getModifiers())
+				&& isStructurallyImmutable(fieldClass, context, new IdentityHashMap<Class<?>, Boolean>())) {
+			return ClonePlan.FieldOperation.SHARE;
+		}
+		return ClonePlan.FieldOperation.CLONE;
+	}
+
+	/**
+	 * Determines whether every instance of the given class is immutable because of its structure: all of its fields
+	 * are final, none of them would be reset by the clone, and every value they can hold is itself of a class that is
+	 * immutable. Classes with a custom means of cloning are never treated as structurally immutable. The analysis
+	 * visits the graph of field types. A class that refers back to one still being analysed assumes that class is
+	 * immutable; if the assumption proves false, so does the result for the class the analysis started from.
+	 * @param clazz The class to analyse
+	 * @param context The CloneDriver
+	 * @param analysed The result for each class analysed so far, or true for those still being analysed
+	 * @return True if instances of the class can be shared
+	 */
+	private boolean isStructurallyImmutable(Class<?> clazz, CloneDriver context, Map<Class<?>, Boolean> analysed) {
+
+		if (clazz.isPrimitive() || clazz.isEnum() || isSharedClass(clazz, context)) {
+			return true;
+		} else if (clazz.isArray() || clazz.isInterface() || Modifier.isAbstract(clazz.getModifiers())) {
+			return false;
+		}
+
+		final Boolean previousResult = analysed.get(clazz);
+		if (previousResult != null) {
+			return previousResult.booleanValue();
+		}
+		analysed.put(clazz, Boolean.TRUE);
+
+		final boolean result = doIsStructurallyImmutable(clazz, context, analysed);
+		analysed.put(clazz, Boolean.valueOf(result));
+		return result;
+	}
+
+	private boolean doIsStructurallyImmutable(Class<?> clazz, CloneDriver context, Map<Class<?>, Boolean> analysed) {
+
+		@SuppressWarnings("unchecked")
+		final ClassModel<Object> model = (ClassModel<Object>) getClassModel(clazz);
+
+		if (model.isDetectedAsImmutable() || model.isNonCloneable()) {
+			return true;
+		}
+		final org.jadira.reflection.cloning.annotation.Cloneable cloneableAnnotation = clazz.getAnnotation(org.jadira.reflection.cloning.annotation.Cloneable.class);
+		if ((context.isUseCloneImplementors() ? context.getImplementor(clazz) : context.getBuiltInImplementor(clazz)) != null
+				|| (cloneableAnnotation != null && !NoCloneImplementor.class.equals(cloneableAnnotation.implementor()))
+				|| model.getCloneImplementor() != null
+				|| (context.isUseCloneable() && Cloneable.class.isAssignableFrom(clazz))) {
+			return false;
+		}
+
+		ClassModel<? super Object> classModelInHierarchy = model;
+		while (classModelInHierarchy != null) {
+			for (FieldModel<Object> f : classModelInHierarchy.getModelFields()) {
+
+				if (!Modifier.isFinal(f.getField().getModifiers())) {
+					return false;
+				}
+
+				final Class<?> fieldClass = f.getFieldClass();
+				if (!context.isCloneTransientFields() && f.isTransientField()) {
+					return false;
+				} else if (!context.isCloneTransientAnnotatedFields() && f.isTransientAnnotatedField()) {
+					return false;
+				} else if (fieldClass.isPrimitive() || fieldClass.isEnum() || (!context.isCloneSyntheticFields() && f.isSynthetic())) {
+					continue;
+				} else if (!Modifier.isFinal(fieldClass.getModifiers()) && !isSharedClass(fieldClass, context)) {
+					// The field may hold an instance of a mutable subclass
+					return false;
+				} else if (!isStructurallyImmutable(fieldClass, context, analysed)) {
+					return false;
 				}
 			}
+			classModelInHierarchy = classModelInHierarchy.getSuperClassModel();
 		}
-		return objectResult;
+		return true;
+	}
+
+	private static boolean isSharedClass(Class<?> clazz, CloneDriver context) {
+		return ClassUtils.isJdkImmutable(clazz) || ClassUtils.isWrapper(clazz) || context.getImmutableClasses().contains(clazz) || context.getNonCloneableClasses().contains(clazz);
 	}
 
-	private <T> T handleCloneImplementor(T obj, CloneDriver context, IdentityHashMap<Object, Object> referencesToReuse, final Class<T> clazz,
+	private <T> T handleCloneImplementor(T obj, CloneDriver context, IdentityReferenceMap referencesToReuse, final Class<T> clazz,
 			org.jadira.reflection.cloning.annotation.Cloneable cloneableAnnotation, long stackDepth) {
 
 		CloneImplementor cloneImplementor = context.getAnnotationImplementor(clazz);
@@ -228,17 +496,13 @@ public abstract class AbstractCloneStrategy implements CloneStrategy {
 			context.putAnnotationImplementor(clazz, cloneImplementor);
 		}
 		if (MinimalCloner.class.equals(cloneImplementor.getClass())) {
-			T copy = cloneImplementor.clone(obj, (MinimalCloner) cloneImplementor, referencesToReuse, stackDepth);
-			referencesToReuse.put(obj, copy);
-			return copy;
+			return cloneImplementor.clone(obj, (MinimalCloner) cloneImplementor, referencesToReuse, stackDepth);
 		} else {
-			T copy = cloneImplementor.clone(obj, context, referencesToReuse, stackDepth);
-			referencesToReuse.put(obj, copy);
-			return copy;
+			return cloneImplementor.clone(obj, context, referencesToReuse, stackDepth);
 		}
 	}
 
-	private <T> T handleCloneableCloneMethod(T obj, CloneDriver context, IdentityHashMap<Object, Object> referencesToReuse, final Class<T> clazz,
+	private <T> T handleCloneableCloneMethod(T obj, CloneDriver context, IdentityReferenceMap referencesToReuse, final Class<T> clazz,
 			org.jadira.reflection.cloning.annotation.Cloneable cloneableAnnotation) {
 
 		MethodHandle handle = context.getCloneMethod(clazz);
@@ -256,9 +520,7 @@ public abstract class AbstractCloneStrategy implements CloneStrategy {
 
 			context.putCloneMethod(clazz, handle);
 		}
-		T copy = performCloneForCloneableMethod(obj, context);
-		referencesToReuse.put(obj, copy);
-		return copy;
+		return performCloneForCloneableMethod(obj, context);
 	}
 
 	/**
@@ -299,13 +561,20 @@ public abstract class AbstractCloneStrategy implements CloneStrategy {
      * @param <T> The type being copied
 	 * @return A clone of the array
 	 */
-	protected <T> T handleArray(T origFieldValue, CloneDriver context, IdentityHashMap<Object, Object> visited, long stackDepth) {
+	protected <T> T handleArray(T origFieldValue, CloneDriver context, IdentityReferenceMap visited, long stackDepth) {
+		return copyArray(origFieldValue, context, visited, stackDepth, null);
+	}
+
+	private <T> T copyArray(T origFieldValue, CloneDriver context, IdentityReferenceMap visited, long stackDepth, CloneListener listener) {
 
 		if (visited != null) {
 			@SuppressWarnings("unchecked")
 			final T castResult = (T) visited.get(origFieldValue);
 
 			if (castResult != null) {
+				if (listener != null) {
+					listener.referenceReused(origFieldValue);
+				}
 				return castResult;
 			}
 		}
@@ -345,18 +614,28 @@ public abstract class AbstractCloneStrategy implements CloneStrategy {
 						array[i] = handleArray(array[i], context, visited, stackDepth);
 					}
 				} else {
-					for (int i = 0; i < array.length; i++) {
-						array[i] = clone(array[i], context, visited, stackDepth);
-					}
+					ParallelCloneSupport.cloneElements(array, array, array.length, this, context, visited, stackDepth);
 				}
 			}
 			result = array;
 		}
 
 		if (visited != null) {
-			visited.put(origFieldValue, result);
+			final Object existing = visited.putIfAbsent(origFieldValue, result);
+			if (existing != null) {
+				// Another thread registered its copy first
+				if (listener != null) {
+					listener.referenceReused(origFieldValue);
+				}
+				@SuppressWarnings("unchecked")
+				final T castExisting = (T) existing;
+				return castExisting;
+			}
 		}
 
+		if (listener != null) {
+			listener.objectCloned(origFieldValue, result);
+		}
 		@SuppressWarnings("unchecked")
 		final T castResult = (T) result;
 		return castResult;
@@ -372,7 +651,7 @@ public abstract class AbstractCloneStrategy implements CloneStrategy {
 	 * @param stackDepth The current depth of the stack - used to switch from recursion to iteration if the stack grows too deep.
      * @param <T> The type containing the field being cloned
 	 */
-	protected <T> void handleCloneField(T obj, T copy, CloneDriver driver, FieldModel<T> f, IdentityHashMap<Object, Object> referencesToReuse, long stackDepth) {
+	protected <T> void handleCloneField(T obj, T copy, CloneDriver driver, FieldModel<T> f, IdentityReferenceMap referencesToReuse, long stackDepth) {
 
 		final Class<?> clazz = f.getFieldClass();
 
@@ -405,7 +684,7 @@ public abstract class AbstractCloneStrategy implements CloneStrategy {
 	 * @param referencesToReuse Used for tracking objects that have already been seen
      * @param <T> The type being copied
 	 */
-	protected abstract <T> void handleClonePrimitiveField(T obj, T copy, CloneDriver driver, FieldModel<T> f, IdentityHashMap<Object, Object> referencesToReuse);
+	protected abstract <T> void handleClonePrimitiveField(T obj, T copy, CloneDriver driver, FieldModel<T> f, IdentityReferenceMap referencesToReuse);
 
 	/**
 	 * Method to retrieve the value of a particular field
@@ -461,6 +740,42 @@ public abstract class AbstractCloneStrategy implements CloneStrategy {
 		}
 	}
 
+	/**
+	 * Holds the plans for a single class. However many drivers use a strategy, they usually share a
+	 * few distinct configurations, so only a few plans are retained. The array is replaced rather than
+	 * modified, so reads do not need to lock.
+	 */
+	private static final class ClonePlanCache {
+
+		private static final int MAX_PLANS = 4;
+
+		private static final Object[] EMPTY = new Object[0];
+
+		/** Alternating configuration keys and plans */
+		private volatile Object[] entries = EMPTY;
+
+		ClonePlan get(Object configurationKey) {
+			final Object[] current = entries;
+			for (int i = 0; i < current.length; i += 2) {
+				final Object key = current[i];
+				if (key == configurationKey || key.equals(configurationKey)) {
+					return (ClonePlan) current[i + 1];
+				}
+			}
+			return null;
+		}
+
+		synchronized void put(Object configurationKey, ClonePlan plan) {
+			final Object[] current = entries;
+			final int retained = Math.min(current.length, (MAX_PLANS - 1) * 2);
+			final Object[] updated = new Object[retained + 2];
+			updated[0] = configurationKey;
+			updated[1] = plan;
+			System.arraycopy(current, 0, updated, 2, retained);
+			entries = updated;
+		}
+	}
+
 	private class WorkItem {
 
 		private final Object source;
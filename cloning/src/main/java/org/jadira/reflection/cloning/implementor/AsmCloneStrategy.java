@@ -16,7 +16,6 @@
 package org.jadira.reflection.cloning.implementor;
 
 import java.lang.reflect.Field;
-import java.util.IdentityHashMap;
 
 import org.jadira.reflection.access.api.ClassAccess;
 import org.jadira.reflection.access.asm.AsmClassAccess;
@@ -24,6 +23,7 @@ import org.jadira.reflection.access.model.ClassModel;
 import org.jadira.reflection.access.model.FieldModel;
 import org.jadira.reflection.cloning.api.CloneDriver;
 import org.jadira.reflection.cloning.api.CloneStrategy;
+import org.jadira.reflection.core.identity.IdentityReferenceMap;
 
 /**
  * A CloneStrategy that uses ASM
@@ -112,7 +112,7 @@ public class AsmCloneStrategy extends AbstractCloneStrategy implements CloneStra
 	}
 
 	@Override
-	protected <T> void handleClonePrimitiveField(T obj, T copy, CloneDriver driver, FieldModel<T> f, IdentityHashMap<Object, Object> referencesToReuse) {
+	protected <T> void handleClonePrimitiveField(T obj, T copy, CloneDriver driver, FieldModel<T> f, IdentityReferenceMap referencesToReuse) {
 
 		Field field = f.getField();
 
@@ -0,0 +1,146 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.reflection.cloning.implementor;
+
+import org.jadira.reflection.access.model.ClassModel;
+import org.jadira.reflection.access.model.FieldModel;
+import org.jadira.reflection.cloning.api.CloneDriver;
+import org.jadira.reflection.cloning.api.CloneImplementor;
+
+/**
+ * The decisions made when cloning instances of one class under one configuration of a {@link CloneDriver}.
+ * A plan is computed once and then executed for every instance of the class that is visited, so that
+ * cloning an object does not need to re-examine the class, its annotations or the driver's configuration.
+ */
+public final class ClonePlan {
+
+	/**
+	 * How an instance of the class is cloned
+	 */
+	public enum Action {
+		/** The instance is returned as is */
+		SHARE,
+		/** The instance is an array and is copied element by element */
+		ARRAY,
+		/** The instance is cloned by the {@link CloneImplementor} registered with the driver */
+		IMPLEMENTOR,
+		/** The instance is cloned by the implementor named by its {@link org.jadira.reflection.cloning.annotation.Cloneable} annotation */
+		ANNOTATION_IMPLEMENTOR,
+		/** The instance is cloned by the method or constructor marked with {@link org.jadira.reflection.cloning.annotation.Cloner} */
+		CLONER_METHOD,
+		/** The instance is cloned by invoking its clone() method */
+		CLONEABLE,
+		/** A new instance is created and each field is processed according to its {@link FieldOperation} */
+		FIELDS
+	}
+
+	/**
+	 * How a single field is processed when the plan's action is {@link Action#FIELDS}
+	 */
+	public enum FieldOperation {
+		/** The primitive value is copied */
+		COPY_PRIMITIVE,
+		/** The reference is copied without cloning the referenced object */
+		SHARE,
+		/** The referenced object is cloned */
+		CLONE,
+		/** The field is left with its default value */
+		RESET
+	}
+
+	private final Action action;
+
+	private final boolean trackReferences;
+
+	private final CloneImplementor implementor;
+
+	private final org.jadira.reflection.cloning.annotation.Cloneable cloneableAnnotation;
+
+	private final ClassModel<Object> classModel;
+
+	private final FieldModel<Object>[] fields;
+
+	private final FieldOperation[] fieldOperations;
+
+	ClonePlan(Action action, boolean trackReferences, CloneImplementor implementor, org.jadira.reflection.cloning.annotation.Cloneable cloneableAnnotation,
+			ClassModel<Object> classModel, FieldModel<Object>[] fields, FieldOperation[] fieldOperations) {
+
+		this.action = action;
+		this.trackReferences = trackReferences;
+		this.implementor = implementor;
+		this.cloneableAnnotation = cloneableAnnotation;
+		this.classModel = classModel;
+		this.fields = fields;
+		this.fieldOperations = fieldOperations;
+	}
+
+	/**
+	 * How an instance of the class is cloned
+	 * @return The Action
+	 */
+	public Action getAction() {
+		return action;
+	}
+
+	/**
+	 * Indicates whether references should be tracked while cloning the instance. This is false for Flat classes.
+	 * @return True if references should be tracked
+	 */
+	public boolean isTrackReferences() {
+		return trackReferences;
+	}
+
+	/**
+	 * The implementor used for {@link Action#IMPLEMENTOR} and {@link Action#CLONER_METHOD}. For {@link Action#FIELDS}
+	 * this is the implementor compiled from the field operations by the strategy, if it supports this.
+	 * @return The CloneImplementor, or null if there is none
+	 */
+	public CloneImplementor getImplementor() {
+		return implementor;
+	}
+
+	/**
+	 * The annotation used for {@link Action#ANNOTATION_IMPLEMENTOR} and {@link Action#CLONEABLE}
+	 * @return The annotation, or null if the class is not annotated
+	 */
+	public org.jadira.reflection.cloning.annotation.Cloneable getCloneableAnnotation() {
+		return cloneableAnnotation;
+	}
+
+	/**
+	 * The model of the class, or null for {@link Action#SHARE} and {@link Action#ARRAY} where no model is needed
+	 * @return The ClassModel
+	 */
+	public ClassModel<Object> getClassModel() {
+		return classModel;
+	}
+
+	/**
+	 * The fields of the class and its superclasses, in the same order as {@link #getFieldOperations()}
+	 * @return The FieldModels. Callers must not modify the array
+	 */
+	public FieldModel<Object>[] getFields() {
+		return fields;
+	}
+
+	/**
+	 * The operation to perform for each field returned by {@link #getFields()}
+	 * @return The FieldOperations. Callers must not modify the array
+	 */
+	public FieldOperation[] getFieldOperations() {
+		return fieldOperations;
+	}
+}
@@ -0,0 +1,61 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.reflection.cloning.implementor;
+
+import org.jadira.reflection.access.unsafe.UnsafeOperations;
+import org.jadira.reflection.cloning.api.CloneImplementor;
+import org.objenesis.ObjenesisException;
+
+/**
+ * Base class for the {@link CloneImplementor} classes generated by {@link CompiledCloneStrategy}.
+ * Each generated subclass clones a single class.
+ */
+public abstract class CompiledCloneImplementor implements CloneImplementor {
+
+	private static final UnsafeOperations UNSAFE_OPERATIONS = UnsafeOperations.getUnsafeOperations();
+
+	private final Class<?> type;
+
+	/**
+	 * Constructor, intended for use by generated subclasses
+	 * @param type The class cloned by this implementor
+	 */
+	protected CompiledCloneImplementor(Class<?> type) {
+		this.type = type;
+	}
+
+	@Override
+	public <T> T newInstance(Class<T> c) {
+		try {
+			return UNSAFE_OPERATIONS.allocateInstance(c);
+		} catch (IllegalStateException e) {
+			throw new ObjenesisException(e.getCause());
+		}
+	}
+
+	@Override
+	public boolean canClone(Class<?> clazz) {
+		return type == clazz;
+	}
+
+	/**
+	 * The class cloned by this implementor
+	 * @return The class
+	 */
+	public Class<?> getType() {
+		return type;
+	}
+}
@@ -0,0 +1,379 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.reflection.cloning.implementor;
+
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_STATIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ACONST_NULL;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ARETURN;
+import static org.objectweb.asm.Opcodes.ASTORE;
+import static org.objectweb.asm.Opcodes.CHECKCAST;
+import static org.objectweb.asm.Opcodes.DUP;
+import static org.objectweb.asm.Opcodes.GETSTATIC;
+import static org.objectweb.asm.Opcodes.ICONST_0;
+import static org.objectweb.asm.Opcodes.ICONST_1;
+import static org.objectweb.asm.Opcodes.IFNULL;
+import static org.objectweb.asm.Opcodes.INVOKEINTERFACE;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.LLOAD;
+import static org.objectweb.asm.Opcodes.PUTSTATIC;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.V1_7;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.jadira.reflection.access.classloader.AccessClassLoader;
+import org.jadira.reflection.access.model.FieldModel;
+import org.jadira.reflection.cloning.api.CloneDriver;
+import org.jadira.reflection.cloning.api.CloneImplementor;
+import org.jadira.reflection.cloning.api.CloneStrategy;
+import org.jadira.reflection.cloning.api.NoCloneImplementor;
+import org.jadira.reflection.core.identity.IdentityReferenceMap;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+/**
+ * A CloneStrategy that uses ASM to generate a {@link CloneImplementor} for each class that is cloned
+ * field by field. The generated clone method is straight-line code: it allocates the copy, copies
+ * each primitive and shared field directly using sun.misc.Unsafe with constant field offsets, and only
+ * calls back into the {@link CloneDriver} for fields whose values must be cloned. Classes annotated
+ * as Flat compile to a plain field-by-field copy without any reference tracking.
+ * 
+ * When a clone becomes deep enough that {@link AbstractCloneStrategy} switches to iteration, or a
+ * class cannot be compiled, the strategy behaves exactly as {@link UnsafeCloneStrategy}. The reason a
+ * class cannot be compiled is logged, using java.util.logging, the first time it happens for the class.
+ */
+public class CompiledCloneStrategy extends UnsafeCloneStrategy implements CloneStrategy {
+
+	private static final String COMPILED_CLONE_IMPLEMENTOR_NM = Type.getInternalName(CompiledCloneImplementor.class);
+
+	private static final String UNSAFE_NM = "sun/misc/Unsafe";
+
+	private static final String UNSAFE_DESC = "L" + UNSAFE_NM + ";";
+
+	private static final String CLONE_DESC = "(Ljava/lang/Object;" + Type.getDescriptor(CloneDriver.class) + Type.getDescriptor(IdentityReferenceMap.class) + "J)Ljava/lang/Object;";
+
+	private static final AtomicInteger GENERATED_CLASS_COUNT = new AtomicInteger();
+
+	/**
+	 * Generated implementors are keyed by the field operations they were compiled for, so that
+	 * reconfiguring a driver only generates a new class if the operations actually change
+	 */
+	private static final ClassValue<ConcurrentHashMap<String, CloneImplementor>> COMPILED_IMPLEMENTORS = new ClassValue<ConcurrentHashMap<String, CloneImplementor>>() {
+		@Override
+		protected ConcurrentHashMap<String, CloneImplementor> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<String, CloneImplementor>();
+		}
+	};
+
+	private static final Logger LOGGER = Logger.getLogger(CompiledCloneStrategy.class.getName());
+
+	/**
+	 * Marks a class that could not be compiled
+	 */
+	private static final CloneImplementor NOT_COMPILABLE = new NoCloneImplementor();
+
+	private static CompiledCloneStrategy instance = new CompiledCloneStrategy();
+
+	/**
+	 * Returns a shared instance of CompiledCloneStrategy
+	 * @return The instance
+	 */
+	public static CompiledCloneStrategy getInstance() {
+		return instance;
+	}
+
+	@Override
+	protected CloneImplementor compileClonePlan(Class<?> clazz, FieldModel<Object>[] fields, ClonePlan.FieldOperation[] fieldOperations, boolean trackReferences) {
+
+		final String key = constructKey(fieldOperations, trackReferences);
+
+		final ConcurrentHashMap<String, CloneImplementor> compiled = COMPILED_IMPLEMENTORS.get(clazz);
+		CloneImplementor implementor = compiled.get(key);
+		if (implementor == null) {
+			try {
+				implementor = generateImplementor(clazz, fields, fieldOperations, trackReferences);
+			} catch (ReflectiveOperationException e) {
+				implementor = notCompilable(clazz, compiled, e);
+			} catch (SecurityException e) {
+				// Thrown if the implementor cannot be defined alongside the class, for example because its package is sealed or signed
+				implementor = notCompilable(clazz, compiled, e);
+			} catch (LinkageError e) {
+				// Thrown if the field offsets cannot be obtained, for example because the JVM does not support them for the class
+				implementor = notCompilable(clazz, compiled, e);
+			}
+			final CloneImplementor existing = compiled.putIfAbsent(key, implementor);
+			if (existing != null) {
+				implementor = existing;
+			}
+		}
+		return implementor == NOT_COMPILABLE ? null : implementor;
+	}
+
+	/**
+	 * Reports why a class could not be compiled, the first time this happens for the class
+	 * @param clazz The class
+	 * @param compiled The implementors compiled for the class so far
+	 * @param cause The failure
+	 * @return The marker for a class that could not be compiled
+	 */
+	private static CloneImplementor notCompilable(Class<?> clazz, ConcurrentHashMap<String, CloneImplementor> compiled, Throwable cause) {
+
+		if (!compiled.containsValue(NOT_COMPILABLE)) {
+			LOGGER.log(Level.WARNING, "Could not compile a clone implementor for " + clazz.getName() + ", its field operations will be interpreted instead", cause);
+		}
+		return NOT_COMPILABLE;
+	}
+
+	private static String constructKey(ClonePlan.FieldOperation[] fieldOperations, boolean trackReferences) {
+
+		final StringBuilder key = new StringBuilder(fieldOperations.length + 1);
+		key.append(trackReferences ? 'T' : 'F');
+		for (ClonePlan.FieldOperation next : fieldOperations) {
+			key.append((char) ('0' + next.ordinal()));
+		}
+		return key.toString();
+	}
+
+	private static CloneImplementor generateImplementor(Class<?> clazz, FieldModel<Object>[] fields, ClonePlan.FieldOperation[] fieldOperations, boolean trackReferences)
+			throws ReflectiveOperationException {
+
+		final String implementorClassName = constructImplementorClassName(clazz.getName());
+		final String implementorClassNm = implementorClassName.replace('.', '/');
+
+		final ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+		cw.visit(V1_7, ACC_PUBLIC + ACC_FINAL + ACC_SUPER, implementorClassNm, null, COMPILED_CLONE_IMPLEMENTOR_NM, null);
+
+		enhanceForStaticFields(cw, fieldOperations);
+		enhanceForStaticInitializer(cw, implementorClassNm, clazz, fields, fieldOperations);
+		enhanceForConstructor(cw);
+		enhanceForClone(cw, implementorClassNm, fields, fieldOperations, trackReferences);
+
+		cw.visitEnd();
+
+		final AccessClassLoader loader = AccessClassLoader.get(clazz);
+		final Class<?> implementorClass;
+		synchronized (loader) {
+			loader.registerClass(implementorClassName, cw.toByteArray());
+			implementorClass = loader.findClass(implementorClassName);
+		}
+		return (CloneImplementor) implementorClass.getConstructor(Class.class).newInstance(clazz);
+	}
+
+	private static String constructImplementorClassName(String clazzName) {
+
+		String implementorClassName = clazzName + CompiledCloneImplementor.class.getSimpleName() + GENERATED_CLASS_COUNT.incrementAndGet();
+		if (implementorClassName.startsWith("java.")) {
+			implementorClassName = CompiledCloneImplementor.class.getSimpleName().toLowerCase() + implementorClassName;
+		}
+		return implementorClassName;
+	}
+
+	private static void enhanceForStaticFields(ClassWriter cw, ClonePlan.FieldOperation[] fieldOperations) {
+
+		FieldVisitor fv = cw.visitField(ACC_PRIVATE + ACC_STATIC + ACC_FINAL, "UNSAFE", UNSAFE_DESC, null, null);
+		fv.visitEnd();
+		fv = cw.visitField(ACC_PRIVATE + ACC_STATIC + ACC_FINAL, "TYPE", "Ljava/lang/Class;", null, null);
+		fv.visitEnd();
+
+		for (int i = 0; i < fieldOperations.length; i++) {
+			if (fieldOperations[i] != ClonePlan.FieldOperation.RESET) {
+				fv = cw.visitField(ACC_PRIVATE + ACC_STATIC + ACC_FINAL, "OFFSET" + i, "J", null, null);
+				fv.visitEnd();
+			}
+		}
+	}
+
+	private static void enhanceForStaticInitializer(ClassWriter cw, String implementorClassNm, Class<?> clazz, FieldModel<Object>[] fields, ClonePlan.FieldOperation[] fieldOperations) {
+
+		final MethodVisitor mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+		mv.visitCode();
+
+		// UNSAFE = (Unsafe) Unsafe.class.getDeclaredField("theUnsafe").setAccessible(true).get(null)
+		mv.visitLdcInsn(Type.getObjectType(UNSAFE_NM));
+		mv.visitLdcInsn("theUnsafe");
+		mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Class", "getDeclaredField", "(Ljava/lang/String;)Ljava/lang/reflect/Field;");
+		mv.visitInsn(DUP);
+		mv.visitInsn(ICONST_1);
+		mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/reflect/Field", "setAccessible", "(Z)V");
+		mv.visitInsn(ACONST_NULL);
+		mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/reflect/Field", "get", "(Ljava/lang/Object;)Ljava/lang/Object;");
+		mv.visitTypeInsn(CHECKCAST, UNSAFE_NM);
+		mv.visitFieldInsn(PUTSTATIC, implementorClassNm, "UNSAFE", UNSAFE_DESC);
+
+		// The cloned class may not be accessible from the generated class, so it is loaded by name
+		visitLoadClass(mv, implementorClassNm, clazz.getName());
+		mv.visitFieldInsn(PUTSTATIC, implementorClassNm, "TYPE", "Ljava/lang/Class;");
+
+		for (int i = 0; i < fieldOperations.length; i++) {
+			if (fieldOperations[i] != ClonePlan.FieldOperation.RESET) {
+				mv.visitFieldInsn(GETSTATIC, implementorClassNm, "UNSAFE", UNSAFE_DESC);
+				visitLoadClass(mv, implementorClassNm, fields[i].getField().getDeclaringClass().getName());
+				mv.visitLdcInsn(fields[i].getField().getName());
+				mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Class", "getDeclaredField", "(Ljava/lang/String;)Ljava/lang/reflect/Field;");
+				mv.visitMethodInsn(INVOKEVIRTUAL, UNSAFE_NM, "objectFieldOffset", "(Ljava/lang/reflect/Field;)J");
+				mv.visitFieldInsn(PUTSTATIC, implementorClassNm, "OFFSET" + i, "J");
+			}
+		}
+
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+	}
+
+	private static void visitLoadClass(MethodVisitor mv, String implementorClassNm, String className) {
+
+		mv.visitLdcInsn(className);
+		mv.visitInsn(ICONST_0);
+		mv.visitLdcInsn(Type.getObjectType(implementorClassNm));
+		mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Class", "getClassLoader", "()Ljava/lang/ClassLoader;");
+		mv.visitMethodInsn(INVOKESTATIC, "java/lang/Class", "forName", "(Ljava/lang/String;ZLjava/lang/ClassLoader;)Ljava/lang/Class;");
+	}
+
+	private static void enhanceForConstructor(ClassWriter cw) {
+
+		final MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "(Ljava/lang/Class;)V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitMethodInsn(INVOKESPECIAL, COMPILED_CLONE_IMPLEMENTOR_NM, "<init>", "(Ljava/lang/Class;)V");
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+	}
+
+	private static void enhanceForClone(ClassWriter cw, String implementorClassNm, FieldModel<Object>[] fields, ClonePlan.FieldOperation[] fieldOperations, boolean trackReferences) {
+
+		// Locals: 0 this, 1 obj, 2 context, 3 referencesToReuse, 4-5 stackDepth, 6 copy, 7 existing copy
+		final MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "clone", CLONE_DESC, null, null);
+		mv.visitCode();
+
+		mv.visitFieldInsn(GETSTATIC, implementorClassNm, "UNSAFE", UNSAFE_DESC);
+		mv.visitFieldInsn(GETSTATIC, implementorClassNm, "TYPE", "Ljava/lang/Class;");
+		mv.visitMethodInsn(INVOKEVIRTUAL, UNSAFE_NM, "allocateInstance", "(Ljava/lang/Class;)Ljava/lang/Object;");
+		mv.visitVarInsn(ASTORE, 6);
+
+		if (trackReferences) {
+			// if (referencesToReuse != null) { existing = referencesToReuse.putIfAbsent(obj, copy); if (existing != null) return existing; }
+			final Label afterTracking = new Label();
+			mv.visitVarInsn(ALOAD, 3);
+			mv.visitJumpInsn(IFNULL, afterTracking);
+			mv.visitVarInsn(ALOAD, 3);
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitVarInsn(ALOAD, 6);
+			mv.visitMethodInsn(INVOKEINTERFACE, Type.getInternalName(IdentityReferenceMap.class), "putIfAbsent", "(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;");
+			mv.visitVarInsn(ASTORE, 7);
+			mv.visitVarInsn(ALOAD, 7);
+			mv.visitJumpInsn(IFNULL, afterTracking);
+			mv.visitVarInsn(ALOAD, 7);
+			mv.visitInsn(ARETURN);
+			mv.visitLabel(afterTracking);
+		}
+
+		for (int i = 0; i < fieldOperations.length; i++) {
+
+			final String offsetName = "OFFSET" + i;
+
+			switch (fieldOperations[i]) {
+			case RESET:
+				// The field keeps the default value it was allocated with
+				break;
+			case COPY_PRIMITIVE:
+				visitCopy(mv, implementorClassNm, offsetName, Type.getType(fields[i].getFieldClass()), false);
+				break;
+			case SHARE:
+				visitCopy(mv, implementorClassNm, offsetName, Type.getType(Object.class), false);
+				break;
+			default:
+				visitCopy(mv, implementorClassNm, offsetName, Type.getType(Object.class), true);
+				break;
+			}
+		}
+
+		mv.visitVarInsn(ALOAD, 6);
+		mv.visitInsn(ARETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+	}
+
+	/**
+	 * Emits UNSAFE.putX(copy, OFFSET, UNSAFE.getX(obj, OFFSET)), passing the value through
+	 * context.clone() first if required
+	 */
+	private static void visitCopy(MethodVisitor mv, String implementorClassNm, String offsetName, Type type, boolean cloneValue) {
+
+		final String accessorSuffix = accessorSuffix(type);
+		final String typeDesc = type.getSort() == Type.OBJECT ? "Ljava/lang/Object;" : type.getDescriptor();
+
+		mv.visitFieldInsn(GETSTATIC, implementorClassNm, "UNSAFE", UNSAFE_DESC);
+		mv.visitVarInsn(ALOAD, 6);
+		mv.visitFieldInsn(GETSTATIC, implementorClassNm, offsetName, "J");
+
+		if (cloneValue) {
+			mv.visitVarInsn(ALOAD, 2);
+		}
+
+		mv.visitFieldInsn(GETSTATIC, implementorClassNm, "UNSAFE", UNSAFE_DESC);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitFieldInsn(GETSTATIC, implementorClassNm, offsetName, "J");
+		mv.visitMethodInsn(INVOKEVIRTUAL, UNSAFE_NM, "get" + accessorSuffix, "(Ljava/lang/Object;J)" + typeDesc);
+
+		if (cloneValue) {
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitVarInsn(ALOAD, 3);
+			mv.visitVarInsn(LLOAD, 4);
+			mv.visitMethodInsn(INVOKEINTERFACE, Type.getInternalName(CloneDriver.class), "clone", CLONE_DESC);
+		}
+
+		mv.visitMethodInsn(INVOKEVIRTUAL, UNSAFE_NM, "put" + accessorSuffix, "(Ljava/lang/Object;J" + typeDesc + ")V");
+	}
+
+	private static String accessorSuffix(Type type) {
+
+		switch (type.getSort()) {
+		case Type.BOOLEAN:
+			return "Boolean";
+		case Type.BYTE:
+			return "Byte";
+		case Type.CHAR:
+			return "Char";
+		case Type.SHORT:
+			return "Short";
+		case Type.INT:
+			return "Int";
+		case Type.LONG:
+			return "Long";
+		case Type.FLOAT:
+			return "Float";
+		case Type.DOUBLE:
+			return "Double";
+		default:
+			return "Object";
+		}
+	}
+}
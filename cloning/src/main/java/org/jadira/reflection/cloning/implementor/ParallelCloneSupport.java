@@ -0,0 +1,118 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.reflection.cloning.implementor;
+
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import org.jadira.reflection.cloning.api.CloneDriver;
+import org.jadira.reflection.cloning.api.CloneImplementor;
+import org.jadira.reflection.cloning.api.ParallelCloneDriver;
+import org.jadira.reflection.core.identity.ConcurrentIdentityReferenceMap;
+import org.jadira.reflection.core.identity.IdentityReferenceMap;
+
+/**
+ * Clones the elements of arrays and collections, dividing the work among the threads of a ForkJoinPool
+ * when the driver is a {@link ParallelCloneDriver}, the clone is already running within its pool, references
+ * are either not tracked or tracked in a {@link ConcurrentIdentityReferenceMap}, and there are more elements
+ * than its threshold. Otherwise the elements are cloned on the calling thread.
+ */
+public final class ParallelCloneSupport {
+
+	private ParallelCloneSupport() {
+	}
+
+	/**
+	 * Clone each element of source into the same index of target
+	 * @param source The elements to clone
+	 * @param target The array to receive the clones, which may be the same as source
+	 * @param length The number of elements to clone, starting at index zero
+	 * @param implementor The implementor used to clone each element
+	 * @param context The CloneDriver
+	 * @param referencesToReuse Used for tracking objects that have already been seen
+	 * @param stackDepth The current depth of the stack
+	 */
+	public static void cloneElements(Object[] source, Object[] target, int length, CloneImplementor implementor, CloneDriver context, IdentityReferenceMap referencesToReuse, long stackDepth) {
+
+		if (isParallel(length, context, referencesToReuse)) {
+			new CloneSegmentTask(source, target, 0, length, ((ParallelCloneDriver) context).getParallelThreshold(), implementor, context, referencesToReuse, stackDepth).invoke();
+		} else {
+			cloneRange(source, target, 0, length, implementor, context, referencesToReuse, stackDepth);
+		}
+	}
+
+	/**
+	 * Indicates whether {@link #cloneElements} would divide the given number of elements among the threads
+	 * of a ForkJoinPool. Callers that would otherwise clone elements directly into their copy only need to
+	 * stage them into an array when this returns true.
+	 * @param length The number of elements to clone
+	 * @param context The CloneDriver
+	 * @param referencesToReuse Used for tracking objects that have already been seen
+	 * @return True if the elements would be cloned in parallel
+	 */
+	public static boolean isParallel(int length, CloneDriver context, IdentityReferenceMap referencesToReuse) {
+
+		return context instanceof ParallelCloneDriver && length > ((ParallelCloneDriver) context).getParallelThreshold()
+				&& ForkJoinTask.getPool() == ((ParallelCloneDriver) context).getForkJoinPool()
+				&& (referencesToReuse == null || referencesToReuse instanceof ConcurrentIdentityReferenceMap);
+	}
+
+	private static void cloneRange(Object[] source, Object[] target, int from, int to, CloneImplementor implementor, CloneDriver context, IdentityReferenceMap referencesToReuse, long stackDepth) {
+
+		for (int i = from; i < to; i++) {
+			target[i] = implementor.clone(source[i], context, referencesToReuse, stackDepth);
+		}
+	}
+
+	private static final class CloneSegmentTask extends RecursiveAction {
+
+		private static final long serialVersionUID = -2297467016451874720L;
+
+		private final Object[] source;
+		private final Object[] target;
+		private final int from;
+		private final int to;
+		private final int threshold;
+		private final CloneImplementor implementor;
+		private final CloneDriver context;
+		private final IdentityReferenceMap referencesToReuse;
+		private final long stackDepth;
+
+		private CloneSegmentTask(Object[] source, Object[] target, int from, int to, int threshold, CloneImplementor implementor, CloneDriver context, IdentityReferenceMap referencesToReuse, long stackDepth) {
+			this.source = source;
+			this.target = target;
+			this.from = from;
+			this.to = to;
+			this.threshold = threshold;
+			this.implementor = implementor;
+			this.context = context;
+			this.referencesToReuse = referencesToReuse;
+			this.stackDepth = stackDepth;
+		}
+
+		@Override
+		protected void compute() {
+
+			if (to - from <= threshold) {
+				cloneRange(source, target, from, to, implementor, context, referencesToReuse, stackDepth);
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new CloneSegmentTask(source, target, from, middle, threshold, implementor, context, referencesToReuse, stackDepth),
+						new CloneSegmentTask(source, target, middle, to, threshold, implementor, context, referencesToReuse, stackDepth));
+			}
+		}
+	}
+}
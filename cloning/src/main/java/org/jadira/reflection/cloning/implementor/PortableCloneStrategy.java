@@ -16,13 +16,13 @@
 package org.jadira.reflection.cloning.implementor;
 
 import java.lang.reflect.Field;
-import java.util.IdentityHashMap;
 
 import org.jadira.reflection.access.model.ClassModel;
 import org.jadira.reflection.access.model.FieldModel;
 import org.jadira.reflection.access.portable.PortableClassAccess;
 import org.jadira.reflection.cloning.api.CloneDriver;
 import org.jadira.reflection.cloning.api.CloneStrategy;
+import org.jadira.reflection.core.identity.IdentityReferenceMap;
 import org.objenesis.Objenesis;
 import org.objenesis.ObjenesisStd;
 
@@ -95,7 +95,7 @@ public class PortableCloneStrategy extends AbstractCloneStrategy implements Clon
 	}
 
 	@Override
-	protected <T> void handleClonePrimitiveField(T obj, T copy, CloneDriver driver, FieldModel<T> f, IdentityHashMap<Object, Object> referencesToReuse) {
+	protected <T> void handleClonePrimitiveField(T obj, T copy, CloneDriver driver, FieldModel<T> f, IdentityReferenceMap referencesToReuse) {
 
 		Field field = f.getField();
 
@@ -15,14 +15,13 @@
  */
 package org.jadira.reflection.cloning.implementor;
 
-import java.util.IdentityHashMap;
-
 import org.jadira.reflection.access.model.ClassModel;
 import org.jadira.reflection.access.model.FieldModel;
 import org.jadira.reflection.access.unsafe.UnsafeClassAccess;
 import org.jadira.reflection.access.unsafe.UnsafeOperations;
 import org.jadira.reflection.cloning.api.CloneDriver;
 import org.jadira.reflection.cloning.api.CloneStrategy;
+import org.jadira.reflection.core.identity.IdentityReferenceMap;
 import org.objenesis.ObjenesisException;
 
 /**
@@ -85,7 +84,7 @@ public class UnsafeCloneStrategy extends AbstractCloneStrategy implements CloneS
 
     @Override
     protected <T> void handleClonePrimitiveField(T obj, T copy, CloneDriver driver, FieldModel<T> f,
-            IdentityHashMap<Object, Object> referencesToReuse) {
+            IdentityReferenceMap referencesToReuse) {
     	
     	Class<?> type = f.getFieldClass();
         if (type.isPrimitive()) {
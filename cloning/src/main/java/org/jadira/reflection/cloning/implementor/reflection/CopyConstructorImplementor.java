@@ -19,10 +19,10 @@ import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Modifier;
-import java.util.IdentityHashMap;
 
 import org.jadira.reflection.cloning.api.CloneDriver;
 import org.jadira.reflection.cloning.api.CloneImplementor;
+import org.jadira.reflection.core.identity.IdentityReferenceMap;
 
 /**
  * A Clone Implementor that uses a copy constructor on the target class to perform the clone.
@@ -64,7 +64,7 @@ public final class CopyConstructorImplementor implements CloneImplementor {
     }
 
 	@Override
-    public <T> T clone(T obj, CloneDriver context, IdentityHashMap<Object, Object> referencesToReuse, long stackDepth) {
+    public <T> T clone(T obj, CloneDriver context, IdentityReferenceMap referencesToReuse, long stackDepth) {
     	
     	if (obj != null && !(boundClass.equals(obj))) {
     		throw new IllegalArgumentException("Supplied object was not instance of class: " + boundClass.getName());
@@ -19,10 +19,10 @@ import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.util.IdentityHashMap;
 
 import org.jadira.reflection.cloning.api.CloneDriver;
 import org.jadira.reflection.cloning.api.CloneImplementor;
+import org.jadira.reflection.core.identity.IdentityReferenceMap;
 
 /**
  * A Clone Implementor that uses a method (e.g. factory method) on the target class to perform the
@@ -65,7 +65,7 @@ public class ReflectionMethodImplementor implements CloneImplementor {
 	}
 
 	@Override
-	public <T> T clone(T obj, CloneDriver context, IdentityHashMap<Object, Object> referencesToReuse, long stackDepth) {
+	public <T> T clone(T obj, CloneDriver context, IdentityReferenceMap referencesToReuse, long stackDepth) {
 
 		try {
 			final T result = (T) marshalHandle.invoke(obj);
@@ -16,10 +16,11 @@
 package org.jadira.reflection.cloning.implementor.types;
 
 import java.util.ArrayList;
-import java.util.IdentityHashMap;
 
 import org.jadira.reflection.cloning.api.CloneDriver;
 import org.jadira.reflection.cloning.api.CloneImplementor;
+import org.jadira.reflection.cloning.implementor.ParallelCloneSupport;
+import org.jadira.reflection.core.identity.IdentityReferenceMap;
 
 /**
  * A Clone Implementor that can handle ArrayList
@@ -28,16 +29,26 @@ public class ArrayListImplementor implements CloneImplementor {
 
     @SuppressWarnings({ "rawtypes", "unchecked" })
     @Override
-    public <T> T clone(T obj, CloneDriver parentContext, IdentityHashMap<Object, Object> referencesToReuse, long stackDepth) {
+    public <T> T clone(T obj, CloneDriver parentContext, IdentityReferenceMap referencesToReuse, long stackDepth) {
 
     	stackDepth++;
     	
         final ArrayList source = (ArrayList)obj;
         
-        final ArrayList copy = new ArrayList();
-        for (final Object o : source) {
-            final Object childCopy = parentContext.clone(o, parentContext, referencesToReuse, stackDepth);
-            copy.add(childCopy);
+        if (!ParallelCloneSupport.isParallel(source.size(), parentContext, referencesToReuse)) {
+            final ArrayList copy = new ArrayList(source.size());
+            for (final Object o : source) {
+                copy.add(parentContext.clone(o, parentContext, referencesToReuse, stackDepth));
+            }
+            return (T) copy;
+        }
+
+        final Object[] elements = source.toArray();
+        ParallelCloneSupport.cloneElements(elements, elements, elements.length, parentContext, parentContext, referencesToReuse, stackDepth);
+
+        final ArrayList copy = new ArrayList(elements.length);
+        for (final Object o : elements) {
+            copy.add(o);
         }
         return (T) copy;
     }
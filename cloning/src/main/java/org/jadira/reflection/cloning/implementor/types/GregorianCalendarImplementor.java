@@ -16,10 +16,10 @@
 package org.jadira.reflection.cloning.implementor.types;
 
 import java.util.GregorianCalendar;
-import java.util.IdentityHashMap;
 
 import org.jadira.reflection.cloning.api.CloneDriver;
 import org.jadira.reflection.cloning.api.CloneImplementor;
+import org.jadira.reflection.core.identity.IdentityReferenceMap;
 
 /**
  * A Clone Implementor that can handle GregorianCalendar
@@ -28,7 +28,7 @@ public class GregorianCalendarImplementor implements CloneImplementor {
     
     @SuppressWarnings("unchecked")
     @Override
-    public <T> T clone(T obj, CloneDriver parentContext, IdentityHashMap<Object, Object> referencesToReuse, long stackDepth) {
+    public <T> T clone(T obj, CloneDriver parentContext, IdentityReferenceMap referencesToReuse, long stackDepth) {
     	
         final GregorianCalendar gc = new GregorianCalendar();
         gc.setTimeInMillis(((GregorianCalendar) obj).getTimeInMillis());
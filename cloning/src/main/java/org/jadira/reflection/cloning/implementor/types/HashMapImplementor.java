@@ -16,11 +16,12 @@
 package org.jadira.reflection.cloning.implementor.types;
 
 import java.util.HashMap;
-import java.util.IdentityHashMap;
 import java.util.Map;
 
 import org.jadira.reflection.cloning.api.CloneDriver;
 import org.jadira.reflection.cloning.api.CloneImplementor;
+import org.jadira.reflection.cloning.implementor.ParallelCloneSupport;
+import org.jadira.reflection.core.identity.IdentityReferenceMap;
 
 /**
  * A Clone Implementor that can handle HashMap
@@ -29,19 +30,38 @@ public class HashMapImplementor implements CloneImplementor {
     
     @SuppressWarnings({ "rawtypes", "unchecked" })
     @Override
-    public <T> T clone(T obj, CloneDriver parentContext, IdentityHashMap<Object, Object> referencesToReuse, long stackDepth) {
+    public <T> T clone(T obj, CloneDriver parentContext, IdentityReferenceMap referencesToReuse, long stackDepth) {
         
     	stackDepth++;
     	
         final HashMap<Object, Object> source = (HashMap) obj;
 
-        final HashMap copy = new HashMap();
-        
+        if (!ParallelCloneSupport.isParallel(source.size() * 2, parentContext, referencesToReuse)) {
+            final HashMap copy = new HashMap(Math.max((int) (source.size() / .75f) + 1, 16));
+            for (final Map.Entry e : source.entrySet()) {
+                final Object key = parentContext.clone(e.getKey(), parentContext, referencesToReuse, stackDepth);
+                final Object value = parentContext.clone(e.getValue(), parentContext, referencesToReuse, stackDepth);
+
+                copy.put(key, value);
+            }
+            return (T) copy;
+        }
+
+        // Keys and values are interleaved so that both can be cloned in a single pass
+        final Object[] entries = new Object[source.size() * 2];
+        int length = 0;
         for (final Map.Entry e : source.entrySet()) {
-            final Object key = parentContext.clone(e.getKey(), parentContext, referencesToReuse, stackDepth);
-            final Object value = parentContext.clone(e.getValue(), parentContext, referencesToReuse, stackDepth);
+            if (length == entries.length) {
+                break;
+            }
+            entries[length++] = e.getKey();
+            entries[length++] = e.getValue();
+        }
+        ParallelCloneSupport.cloneElements(entries, entries, length, parentContext, parentContext, referencesToReuse, stackDepth);
 
-            copy.put(key, value);
+        final HashMap copy = new HashMap(Math.max((int) (length / 2 / .75f) + 1, 16));
+        for (int i = 0; i < length; i += 2) {
+            copy.put(entries[i], entries[i + 1]);
         }
         return (T) copy;
     }
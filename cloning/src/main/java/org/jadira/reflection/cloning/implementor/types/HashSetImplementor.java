@@ -16,10 +16,10 @@
 package org.jadira.reflection.cloning.implementor.types;
 
 import java.util.HashSet;
-import java.util.IdentityHashMap;
 
 import org.jadira.reflection.cloning.api.CloneDriver;
 import org.jadira.reflection.cloning.api.CloneImplementor;
+import org.jadira.reflection.core.identity.IdentityReferenceMap;
 
 /**
  * A Clone Implementor that can handle HashSet
@@ -28,7 +28,7 @@ public class HashSetImplementor implements CloneImplementor {
 
     @SuppressWarnings({ "rawtypes", "unchecked" })
     @Override
-    public <T> T clone(T obj, CloneDriver parentContext, IdentityHashMap<Object, Object> referencesToReuse, long stackDepth) {
+    public <T> T clone(T obj, CloneDriver parentContext, IdentityReferenceMap referencesToReuse, long stackDepth) {
 
     	stackDepth++;
     	
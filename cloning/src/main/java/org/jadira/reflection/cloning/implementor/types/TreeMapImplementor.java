@@ -15,12 +15,12 @@
  */
 package org.jadira.reflection.cloning.implementor.types;
 
-import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.TreeMap;
 
 import org.jadira.reflection.cloning.api.CloneDriver;
 import org.jadira.reflection.cloning.api.CloneImplementor;
+import org.jadira.reflection.core.identity.IdentityReferenceMap;
 
 /**
  * A Clone Implementor that can handle TreeMap
@@ -29,7 +29,7 @@ public class TreeMapImplementor implements CloneImplementor {
 
     @SuppressWarnings({ "rawtypes", "unchecked" })
     @Override
-    public <T> T clone(T obj, CloneDriver parentContext, IdentityHashMap<Object, Object> referencesToReuse, long stackDepth) {
+    public <T> T clone(T obj, CloneDriver parentContext, IdentityReferenceMap referencesToReuse, long stackDepth) {
         
     	stackDepth++;
     	
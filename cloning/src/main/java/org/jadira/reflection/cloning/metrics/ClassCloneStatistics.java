@@ -0,0 +1,92 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.reflection.cloning.metrics;
+
+/**
+ * The counts recorded by {@link CloneMetrics} for a single class, as at the moment they were read
+ */
+public final class ClassCloneStatistics {
+
+	private final Class<?> type;
+	private final long objectsCloned;
+	private final long bytesCloned;
+	private final long referencesReused;
+	private final long rootClones;
+	private final long rootCloneNanos;
+
+	ClassCloneStatistics(Class<?> type, long objectsCloned, long bytesCloned, long referencesReused, long rootClones, long rootCloneNanos) {
+		this.type = type;
+		this.objectsCloned = objectsCloned;
+		this.bytesCloned = bytesCloned;
+		this.referencesReused = referencesReused;
+		this.rootClones = rootClones;
+		this.rootCloneNanos = rootCloneNanos;
+	}
+
+	/**
+	 * The class the statistics relate to
+	 * @return The class
+	 */
+	public Class<?> getType() {
+		return type;
+	}
+
+	/**
+	 * The number of instances of the class that were copied
+	 * @return The number of objects
+	 */
+	public long getObjectsCloned() {
+		return objectsCloned;
+	}
+
+	/**
+	 * The estimated shallow size of the copies made, or zero if sizes cannot be determined
+	 * @return The size in bytes
+	 */
+	public long getBytesCloned() {
+		return bytesCloned;
+	}
+
+	/**
+	 * The number of times an instance of the class already cloned was reached again
+	 * @return The number of references reused
+	 */
+	public long getReferencesReused() {
+		return referencesReused;
+	}
+
+	/**
+	 * The number of clones whose root was an instance of the class
+	 * @return The number of root clones
+	 */
+	public long getRootClones() {
+		return rootClones;
+	}
+
+	/**
+	 * The total time spent cloning graphs whose root was an instance of the class
+	 * @return The time in nanoseconds
+	 */
+	public long getRootCloneNanos() {
+		return rootCloneNanos;
+	}
+
+	@Override
+	public String toString() {
+		return type.getName() + "[objectsCloned=" + objectsCloned + ", bytesCloned=" + bytesCloned + ", referencesReused=" + referencesReused
+				+ ", rootClones=" + rootClones + ", rootCloneNanos=" + rootCloneNanos + "]";
+	}
+}
@@ -0,0 +1,280 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.reflection.cloning.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.lang.ref.WeakReference;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.jadira.reflection.access.unsafe.UnsafeOperations;
+import org.jadira.reflection.cloning.api.CloneListener;
+import org.jadira.reflection.core.platform.FeatureDetection;
+
+/**
+ * A {@link CloneListener} that counts, for each class, the objects cloned, their estimated size, the
+ * references reused and the time spent cloning root objects. The counts are held in {@link LongAdder}s,
+ * which spread contended updates across cells, so that recording adds little overhead even when a
+ * cloner is shared by many threads.
+ * 
+ * The counts identify the classes that dominate the cost of cloning. A class that is cloned often but
+ * never modified is a candidate for {@link org.jadira.reflection.cloning.annotation.Immutable}, while a
+ * class that is cloned often but whose references are never reused is a candidate for
+ * {@link org.jadira.reflection.cloning.annotation.Flat}. The counts can be read with
+ * {@link #getStatistics()}, printed with {@link #dump(int)} or published over JMX with
+ * {@link #registerMBean(String)}.
+ * 
+ * Sizes are the shallow sizes reported by {@link UnsafeOperations}, and are zero where sun.misc.Unsafe
+ * is not available.
+ * 
+ * The counters for each class are held in a {@link ClassValue}, so that they are found without a map lookup.
+ * They are also registered, through weak references, so that they can be enumerated without keeping the
+ * class from being unloaded.
+ */
+public class CloneMetrics implements CloneListener, CloneMetricsMBean {
+
+	private static final UnsafeOperations UNSAFE_OPERATIONS = FeatureDetection.hasUnsafe() ? UnsafeOperations.getUnsafeOperations() : null;
+
+	private final ConcurrentLinkedQueue<WeakReference<ClassCounters>> registry = new ConcurrentLinkedQueue<WeakReference<ClassCounters>>();
+
+	private final ClassValue<ClassCounters> counters = new ClassValue<ClassCounters>() {
+		@Override
+		protected ClassCounters computeValue(Class<?> type) {
+			final ClassCounters classCounters = new ClassCounters(type);
+			registry.add(new WeakReference<ClassCounters>(classCounters));
+			return classCounters;
+		}
+	};
+
+	@Override
+	public void objectCloned(Object original, Object copy) {
+
+		final ClassCounters classCounters = counters.get(copy.getClass());
+		classCounters.objectsCloned.increment();
+		if (classCounters.shallowSize >= 0) {
+			classCounters.bytesCloned.add(classCounters.shallowSize);
+		} else if (UNSAFE_OPERATIONS != null) {
+			classCounters.bytesCloned.add(UNSAFE_OPERATIONS.shallowSizeOf(copy));
+		}
+	}
+
+	@Override
+	public void referenceReused(Object original) {
+		counters.get(original.getClass()).referencesReused.increment();
+	}
+
+	@Override
+	public void rootCloned(Object original, Object copy, long elapsedNanos) {
+
+		if (original == null) {
+			return;
+		}
+
+		final ClassCounters classCounters = counters.get(original.getClass());
+		classCounters.rootClones.increment();
+		classCounters.rootCloneNanos.add(elapsedNanos);
+	}
+
+	/**
+	 * The counters registered for classes that are still loaded. Registrations for classes that have been
+	 * unloaded are discarded.
+	 */
+	private List<ClassCounters> registeredCounters() {
+
+		final List<ClassCounters> result = new ArrayList<ClassCounters>();
+		for (Iterator<WeakReference<ClassCounters>> iter = registry.iterator(); iter.hasNext();) {
+			final ClassCounters next = iter.next().get();
+			if (next == null) {
+				iter.remove();
+			} else {
+				result.add(next);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * The counts recorded for each class so far
+	 * @return The statistics, ordered by the number of bytes cloned, largest first
+	 */
+	public List<ClassCloneStatistics> getStatistics() {
+
+		final List<ClassCloneStatistics> statistics = new ArrayList<ClassCloneStatistics>();
+		for (ClassCounters next : registeredCounters()) {
+			final ClassCloneStatistics classStatistics = next.toStatistics();
+			// Classes which have been reset and not seen since are left out
+			if (classStatistics.getObjectsCloned() != 0L || classStatistics.getReferencesReused() != 0L || classStatistics.getRootClones() != 0L) {
+				statistics.add(classStatistics);
+			}
+		}
+		Collections.sort(statistics, new Comparator<ClassCloneStatistics>() {
+			@Override
+			public int compare(ClassCloneStatistics o1, ClassCloneStatistics o2) {
+				final int result = Long.compare(o2.getBytesCloned(), o1.getBytesCloned());
+				return result != 0 ? result : Long.compare(o2.getObjectsCloned(), o1.getObjectsCloned());
+			}
+		});
+		return statistics;
+	}
+
+	/**
+	 * The counts recorded so far for the given class
+	 * @param type The class
+	 * @return The statistics for the class, which are all zero if none of its instances have been seen
+	 */
+	public ClassCloneStatistics getStatistics(Class<?> type) {
+		return counters.get(type).toStatistics();
+	}
+
+	@Override
+	public long getObjectsCloned() {
+		long total = 0L;
+		for (ClassCounters next : registeredCounters()) {
+			total += next.objectsCloned.sum();
+		}
+		return total;
+	}
+
+	@Override
+	public long getBytesCloned() {
+		long total = 0L;
+		for (ClassCounters next : registeredCounters()) {
+			total += next.bytesCloned.sum();
+		}
+		return total;
+	}
+
+	@Override
+	public long getReferencesReused() {
+		long total = 0L;
+		for (ClassCounters next : registeredCounters()) {
+			total += next.referencesReused.sum();
+		}
+		return total;
+	}
+
+	@Override
+	public long getRootClones() {
+		long total = 0L;
+		for (ClassCounters next : registeredCounters()) {
+			total += next.rootClones.sum();
+		}
+		return total;
+	}
+
+	@Override
+	public long getRootCloneNanos() {
+		long total = 0L;
+		for (ClassCounters next : registeredCounters()) {
+			total += next.rootCloneNanos.sum();
+		}
+		return total;
+	}
+
+	@Override
+	public String dump(int limit) {
+
+		final StringBuilder builder = new StringBuilder();
+		builder.append(String.format("%-60s %14s %16s %14s %12s %16s%n", "class", "objects", "bytes", "reused", "roots", "root nanos"));
+
+		final List<ClassCloneStatistics> statistics = getStatistics();
+		for (int i = 0; i < statistics.size() && i < limit; i++) {
+			final ClassCloneStatistics next = statistics.get(i);
+			builder.append(String.format("%-60s %14d %16d %14d %12d %16d%n", next.getType().getName(), next.getObjectsCloned(), next.getBytesCloned(),
+					next.getReferencesReused(), next.getRootClones(), next.getRootCloneNanos()));
+		}
+		return builder.toString();
+	}
+
+	@Override
+	public void reset() {
+		for (ClassCounters next : registeredCounters()) {
+			next.reset();
+		}
+	}
+
+	/**
+	 * Registers this instance with the platform MBeanServer
+	 * @param name The JMX ObjectName to register under, for example "org.jadira.cloning:type=CloneMetrics"
+	 * @return The ObjectName
+	 * @throws IllegalArgumentException If the name is not a valid ObjectName
+	 * @throws IllegalStateException If the MBean cannot be registered
+	 */
+	public ObjectName registerMBean(String name) {
+
+		final ObjectName objectName;
+		try {
+			objectName = new ObjectName(name);
+		} catch (JMException e) {
+			throw new IllegalArgumentException("Invalid ObjectName: " + name, e);
+		}
+
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+		} catch (JMException e) {
+			throw new IllegalStateException("Cannot register MBean: " + name, e);
+		}
+		return objectName;
+	}
+
+	@Override
+	public String toString() {
+		return dump(Integer.MAX_VALUE);
+	}
+
+	private static final class ClassCounters {
+
+		private final Class<?> type;
+
+		/** The size of every instance of the class, or -1 for arrays whose size varies */
+		private final long shallowSize;
+
+		private final LongAdder objectsCloned = new LongAdder();
+		private final LongAdder bytesCloned = new LongAdder();
+		private final LongAdder referencesReused = new LongAdder();
+		private final LongAdder rootClones = new LongAdder();
+		private final LongAdder rootCloneNanos = new LongAdder();
+
+		private ClassCounters(Class<?> type) {
+			this.type = type;
+			if (type.isArray()) {
+				this.shallowSize = -1L;
+			} else {
+				this.shallowSize = UNSAFE_OPERATIONS == null ? 0L : UNSAFE_OPERATIONS.shallowSizeOf(type);
+			}
+		}
+
+		private void reset() {
+			objectsCloned.reset();
+			bytesCloned.reset();
+			referencesReused.reset();
+			rootClones.reset();
+			rootCloneNanos.reset();
+		}
+
+		private ClassCloneStatistics toStatistics() {
+			return new ClassCloneStatistics(type, objectsCloned.sum(), bytesCloned.sum(), referencesReused.sum(), rootClones.sum(), rootCloneNanos.sum());
+		}
+	}
+}
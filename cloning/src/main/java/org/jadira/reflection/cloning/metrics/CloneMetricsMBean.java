@@ -0,0 +1,64 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.reflection.cloning.metrics;
+
+/**
+ * The JMX management interface of {@link CloneMetrics}
+ */
+public interface CloneMetricsMBean {
+
+	/**
+	 * The number of objects copied, across all classes
+	 * @return The number of objects
+	 */
+	long getObjectsCloned();
+
+	/**
+	 * The estimated shallow size of all of the copies made
+	 * @return The size in bytes
+	 */
+	long getBytesCloned();
+
+	/**
+	 * The number of times an object already cloned was reached again, across all classes
+	 * @return The number of references reused
+	 */
+	long getReferencesReused();
+
+	/**
+	 * The number of root objects cloned
+	 * @return The number of root clones
+	 */
+	long getRootClones();
+
+	/**
+	 * The total time spent cloning root objects
+	 * @return The time in nanoseconds
+	 */
+	long getRootCloneNanos();
+
+	/**
+	 * Describes the classes that account for the most bytes cloned, one per line
+	 * @param limit The maximum number of classes to describe
+	 * @return The description
+	 */
+	String dump(int limit);
+
+	/**
+	 * Discards all of the recorded counts
+	 */
+	void reset();
+}
@@ -0,0 +1,125 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.reflection.cloning.pool;
+
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.jadira.reflection.cloning.api.InstanceSource;
+
+/**
+ * An {@link InstanceSource} that keeps a pool of recycled instances for each class, separately for each
+ * thread. Because a thread only ever sees its own pools no synchronisation is needed, but an instance
+ * recycled on one thread can only be reused by that same thread. This suits the common pattern in which a
+ * thread repeatedly clones values, uses them briefly and then hands them back.
+ * 
+ * The number of instances retained for each class on each thread is bounded; instances recycled once the
+ * pool is full are discarded and left for the garbage collector. Arrays are never pooled.
+ */
+public class ThreadLocalInstancePool implements InstanceSource {
+
+	private static final int DEFAULT_MAXIMUM_POOL_SIZE = 64;
+
+	private final int maximumPoolSize;
+
+	private final ThreadLocal<Map<Class<?>, ArrayDeque<Object>>> pools = new ThreadLocal<Map<Class<?>, ArrayDeque<Object>>>() {
+		@Override
+		protected Map<Class<?>, ArrayDeque<Object>> initialValue() {
+			return new IdentityHashMap<Class<?>, ArrayDeque<Object>>();
+		}
+	};
+
+	/**
+	 * Creates a new instance that retains up to 64 instances of each class on each thread
+	 */
+	public ThreadLocalInstancePool() {
+		this(DEFAULT_MAXIMUM_POOL_SIZE);
+	}
+
+	/**
+	 * Creates a new instance
+	 * @param maximumPoolSize The number of instances of each class to retain on each thread
+	 */
+	public ThreadLocalInstancePool(int maximumPoolSize) {
+		if (maximumPoolSize < 1) {
+			throw new IllegalArgumentException("maximumPoolSize must be at least 1: " + maximumPoolSize);
+		}
+		this.maximumPoolSize = maximumPoolSize;
+	}
+
+	@Override
+	public <T> T obtain(Class<T> clazz) {
+
+		final ArrayDeque<Object> pool = pools.get().get(clazz);
+		if (pool == null) {
+			return null;
+		}
+
+		@SuppressWarnings("unchecked")
+		final T instance = (T) pool.pollFirst();
+		return instance;
+	}
+
+	@Override
+	public boolean recycle(Object instance) {
+
+		if (instance == null) {
+			throw new IllegalArgumentException("Cannot recycle null");
+		}
+
+		final Class<?> clazz = instance.getClass();
+		if (clazz.isArray()) {
+			return false;
+		}
+
+		final Map<Class<?>, ArrayDeque<Object>> threadPools = pools.get();
+		ArrayDeque<Object> pool = threadPools.get(clazz);
+		if (pool == null) {
+			pool = new ArrayDeque<Object>();
+			threadPools.put(clazz, pool);
+		} else if (pool.size() >= maximumPoolSize) {
+			return false;
+		}
+		pool.addFirst(instance);
+		return true;
+	}
+
+	/**
+	 * The number of instances of the given class currently pooled for the calling thread
+	 * @param clazz The class
+	 * @return The number of pooled instances
+	 */
+	public int getPoolSize(Class<?> clazz) {
+		final ArrayDeque<Object> pool = pools.get().get(clazz);
+		return pool == null ? 0 : pool.size();
+	}
+
+	/**
+	 * The number of instances of each class retained for each thread
+	 * @return The maximum pool size
+	 */
+	public int getMaximumPoolSize() {
+		return maximumPoolSize;
+	}
+
+	/**
+	 * Discards all of the instances pooled for the calling thread
+	 */
+	public void clear() {
+		pools.remove();
+	}
+}
@@ -0,0 +1,240 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.reflection.cloning.snapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.jadira.reflection.core.identity.IdentityReferenceMap;
+
+/**
+ * An immutable copy of an object graph held outside the Java heap, in a direct {@link ByteBuffer} or a
+ * memory-mapped file. Each call to {@link #restore()} rebuilds an independent copy of the graph, so a snapshot
+ * can take the place of a master copy that is kept on the heap only to be cloned.
+ * 
+ * The snapshot records a table of the classes in the graph, each with a fingerprint of its field layout, followed by one record per distinct object. Ordinary
+ * objects are recorded field by field at the offsets given by {@link org.jadira.reflection.access.unsafe.UnsafeOperations},
+ * primitive arrays are copied in bulk and references are recorded as the index of the referenced object, so
+ * shared and cyclic references are preserved. Java serialization is not used: no constructors, readObject() or
+ * readResolve() methods are invoked on restore, and all instance fields, including transient ones, are recorded.
+ * Enum constants and Class instances are recorded by name and resolved on restore, so that they keep their identity.
+ * 
+ * Every other object is restored as a new instance, so identity hashcodes change. Hash tables are recorded as they
+ * are, so the tables of HashMap, LinkedHashMap, IdentityHashMap, Hashtable and ConcurrentHashMap (and of HashSet
+ * and LinkedHashSet, which are backed by a HashMap) are rebuilt on restore if any key cannot be found. Other
+ * hash-based structures whose keys use identity hashcodes, including subclasses of these maps, are restored with
+ * their tables unchanged and may not find those keys.
+ * 
+ * A snapshot may be restored by another JVM, for example from a file opened with {@link #map(File)}, only while
+ * each class in it still has the same fields with the same types. If a class has gained, lost or changed the type
+ * of a field since the snapshot was taken, or the JDK lays out one of its own classes differently, the snapshot is
+ * rejected on restore.
+ * 
+ * Classes holding native resources or JVM internal state (such as threads, class loaders or open streams) cannot
+ * meaningfully be recorded. Hidden and lambda classes are rejected. A snapshot is limited to 2GB.
+ * 
+ * Snapshots require sun.misc.Unsafe. They are safe to restore from several threads at once.
+ */
+public final class ObjectGraphSnapshot {
+
+	static final int MAGIC = 0x4A474753;
+
+	static final int VERSION = 2;
+
+	private final ByteBuffer buffer;
+
+	private ObjectGraphSnapshot(ByteBuffer buffer) {
+		this.buffer = buffer;
+	}
+
+	/**
+	 * Records the graph reachable from the given root into a new direct buffer
+	 * @param root The root of the graph, which may be null
+	 * @return A new snapshot
+	 */
+	public static ObjectGraphSnapshot capture(Object root) {
+
+		final IdentityReferenceMap objectIndexes = IdentityReferenceMap.acquire();
+		try {
+			final SnapshotWriter writer = new SnapshotWriter(objectIndexes);
+			final ByteBuffer buffer = ByteBuffer.allocateDirect(checkSize(writer.prepare(root))).order(ByteOrder.nativeOrder());
+
+			writer.write(buffer);
+			buffer.flip();
+			return new ObjectGraphSnapshot(buffer);
+		} finally {
+			objectIndexes.release();
+		}
+	}
+
+	/**
+	 * Records the graph reachable from the given root into the given file, which is memory-mapped. Any existing
+	 * content of the file is replaced.
+	 * @param root The root of the graph, which may be null
+	 * @param file The file to write
+	 * @return A new snapshot, backed by the mapped file
+	 * @throws IOException If the file cannot be written
+	 */
+	public static ObjectGraphSnapshot capture(Object root, File file) throws IOException {
+
+		final IdentityReferenceMap objectIndexes = IdentityReferenceMap.acquire();
+		try {
+			final SnapshotWriter writer = new SnapshotWriter(objectIndexes);
+			final int size = checkSize(writer.prepare(root));
+
+			final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+					StandardOpenOption.READ, StandardOpenOption.WRITE);
+			try {
+				final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+				buffer.order(ByteOrder.nativeOrder());
+
+				writer.write(buffer);
+				buffer.flip();
+				return new ObjectGraphSnapshot(buffer);
+			} finally {
+				channel.close();
+			}
+		} finally {
+			objectIndexes.release();
+		}
+	}
+
+	/**
+	 * Opens a snapshot previously written to the given file, by mapping it read-only
+	 * @param file The file to read
+	 * @return A snapshot backed by the mapped file
+	 * @throws IOException If the file cannot be read
+	 * @throws IllegalArgumentException If the file does not contain a snapshot
+	 */
+	public static ObjectGraphSnapshot map(File file) throws IOException {
+
+		final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			return wrap(channel.map(FileChannel.MapMode.READ_ONLY, 0, checkSize(channel.size())));
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Creates a snapshot over the remaining content of the given buffer, which must have been obtained from
+	 * an existing snapshot (for example by {@link #asReadOnlyBuffer()}). The content is not copied.
+	 * @param buffer The buffer
+	 * @return A snapshot backed by the buffer
+	 * @throws IllegalArgumentException If the buffer does not contain a snapshot
+	 */
+	public static ObjectGraphSnapshot wrap(ByteBuffer buffer) {
+
+		final ByteBuffer content = buffer.slice();
+		if (content.remaining() < 8) {
+			throw new IllegalArgumentException("Buffer does not contain a snapshot");
+		}
+
+		final int magic = content.order(ByteOrder.BIG_ENDIAN).getInt(0);
+		if (magic == Integer.reverseBytes(MAGIC)) {
+			content.order(ByteOrder.LITTLE_ENDIAN);
+		} else if (magic != MAGIC) {
+			throw new IllegalArgumentException("Buffer does not contain a snapshot");
+		}
+
+		if (content.getInt(4) != VERSION) {
+			throw new IllegalArgumentException("Unsupported snapshot version: " + content.getInt(4));
+		}
+		return new ObjectGraphSnapshot(content);
+	}
+
+	private static int checkSize(long size) {
+		if (size > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Snapshot would exceed the maximum size of 2GB: " + size + " bytes");
+		}
+		return (int) size;
+	}
+
+	/**
+	 * Rebuilds a new copy of the graph, resolving classes with the context ClassLoader of the current thread
+	 * @return The root of the new graph
+	 */
+	public Object restore() {
+
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		if (classLoader == null) {
+			classLoader = ObjectGraphSnapshot.class.getClassLoader();
+		}
+		return restore(classLoader);
+	}
+
+	/**
+	 * Rebuilds a new copy of the graph
+	 * @param classLoader The ClassLoader used to resolve the classes in the graph
+	 * @return The root of the new graph
+	 * @throws IllegalStateException If a class cannot be loaded, its layout differs from the one recorded, or the
+	 * snapshot is inconsistent
+	 */
+	public Object restore(ClassLoader classLoader) {
+		return new SnapshotReader(buffer, classLoader).read();
+	}
+
+	/**
+	 * Rebuilds a new copy of the graph, whose root must be of the given type
+	 * @param type The type of the root
+	 * @param <T> The type of the root
+	 * @return The root of the new graph
+	 */
+	public <T> T restore(Class<T> type) {
+		return type.cast(restore());
+	}
+
+	/**
+	 * Writes the snapshot to the given file, replacing any existing content, so that it can later be opened
+	 * using {@link #map(File)}
+	 * @param file The file to write
+	 * @throws IOException If the file cannot be written
+	 */
+	public void writeTo(File file) throws IOException {
+
+		final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.WRITE);
+		try {
+			final ByteBuffer content = buffer.duplicate();
+			while (content.hasRemaining()) {
+				channel.write(content);
+			}
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * The size of the snapshot
+	 * @return Size in bytes
+	 */
+	public int size() {
+		return buffer.limit();
+	}
+
+	/**
+	 * Returns a read-only view of the content of the snapshot
+	 * @return A new read-only ByteBuffer
+	 */
+	public ByteBuffer asReadOnlyBuffer() {
+		return buffer.asReadOnlyBuffer();
+	}
+}
@@ -0,0 +1,263 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.reflection.cloning.snapshot;
+
+import java.lang.reflect.Field;
+
+import org.jadira.reflection.access.unsafe.UnsafeOperations;
+import org.jadira.reflection.core.misc.ClassUtils;
+
+/**
+ * Describes how instances of one class are laid out in a snapshot record. For ordinary classes this is the
+ * offset and type of every instance field of the class and its superclasses, so that records can be written
+ * and read with {@link UnsafeOperations} without further reflection.
+ * 
+ * Each layout has a fingerprint derived from the name and type of every recorded field in layout order (or the
+ * component type of an array, or the constants of an enum). A snapshot records the fingerprint of each class, so
+ * that a snapshot restored by a JVM in which a class has a different layout is rejected rather than misread.
+ */
+final class SnapshotLayout {
+
+	/**
+	 * How instances of the class are recorded
+	 */
+	enum Shape {
+		/** Each instance field is recorded */
+		OBJECT,
+		/** The length is recorded, followed by each element */
+		ARRAY,
+		/** The ordinal of the constant is recorded */
+		ENUM,
+		/** The instance is a Class, and the index of the class it represents is recorded */
+		CLASS
+	}
+
+	/**
+	 * The type of a field or array element, and the number of bytes used to record it
+	 */
+	enum ValueType {
+		BOOLEAN(1),
+		BYTE(1),
+		CHAR(2),
+		SHORT(2),
+		INT(4),
+		LONG(8),
+		FLOAT(4),
+		DOUBLE(8),
+		/** A reference, recorded as the index of the referenced object, or -1 for null */
+		REFERENCE(4);
+
+		private final int size;
+
+		private ValueType(int size) {
+			this.size = size;
+		}
+
+		int getSize() {
+			return size;
+		}
+	}
+
+	private static final long[] NO_OFFSETS = new long[0];
+	private static final ValueType[] NO_VALUE_TYPES = new ValueType[0];
+	private static final Class<?>[] NO_FIELD_TYPES = new Class<?>[0];
+
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private static final ClassValue<SnapshotLayout> LAYOUTS = new ClassValue<SnapshotLayout>() {
+		@Override
+		protected SnapshotLayout computeValue(Class<?> type) {
+			return new SnapshotLayout(type);
+		}
+	};
+
+	private final Class<?> type;
+
+	private final Shape shape;
+
+	private final long[] offsets;
+
+	private final ValueType[] valueTypes;
+
+	private final Class<?>[] fieldTypes;
+
+	private final int recordSize;
+
+	private final long fingerprint;
+
+	private final ValueType componentType;
+
+	private SnapshotLayout(Class<?> type) {
+
+		this.type = type;
+
+		if (type.isArray()) {
+			this.shape = Shape.ARRAY;
+			this.componentType = valueTypeOf(type.getComponentType());
+		} else if (Enum.class.isAssignableFrom(type)) {
+			this.shape = Shape.ENUM;
+			this.componentType = null;
+		} else if (type == Class.class) {
+			this.shape = Shape.CLASS;
+			this.componentType = null;
+		} else {
+			this.shape = Shape.OBJECT;
+			this.componentType = null;
+		}
+
+		final StringBuilder description = new StringBuilder(shape.name());
+
+		if (shape == Shape.OBJECT) {
+
+			final UnsafeOperations unsafeOperations = UnsafeOperations.getUnsafeOperations();
+
+			final Field[] fields = ClassUtils.collectInstanceFields(type);
+			this.offsets = new long[fields.length];
+			this.valueTypes = new ValueType[fields.length];
+			this.fieldTypes = new Class<?>[fields.length];
+
+			int size = 0;
+			for (int i = 0; i < fields.length; i++) {
+				offsets[i] = unsafeOperations.getObjectFieldOffset(fields[i]);
+				fieldTypes[i] = fields[i].getType();
+				valueTypes[i] = valueTypeOf(fieldTypes[i]);
+				size = size + valueTypes[i].getSize();
+				description.append(';').append(fields[i].getDeclaringClass().getName()).append('.').append(fields[i].getName())
+					.append(':').append(fieldTypes[i].getName());
+			}
+			this.recordSize = size;
+		} else {
+			this.offsets = NO_OFFSETS;
+			this.valueTypes = NO_VALUE_TYPES;
+			this.fieldTypes = NO_FIELD_TYPES;
+			this.recordSize = 4;
+
+			if (shape == Shape.ARRAY) {
+				description.append(';').append(type.getComponentType().getName());
+			} else if (shape == Shape.ENUM && type.isEnum()) {
+				// The class of a constant with its own body has no constants, but is recorded as its enum
+				for (Object next : type.getEnumConstants()) {
+					description.append(';').append(((Enum<?>) next).name());
+				}
+			}
+		}
+		this.fingerprint = fingerprintOf(description);
+	}
+
+	/**
+	 * Computes the 64 bit FNV-1a hash of the description
+	 */
+	private static long fingerprintOf(CharSequence description) {
+
+		long hash = FNV_OFFSET_BASIS;
+		for (int i = 0; i < description.length(); i++) {
+			final char next = description.charAt(i);
+			hash = (hash ^ (next & 0xff)) * FNV_PRIME;
+			hash = (hash ^ (next >>> 8)) * FNV_PRIME;
+		}
+		return hash;
+	}
+
+	/**
+	 * Returns the layout for the given class
+	 * @param type The class
+	 * @return The SnapshotLayout
+	 */
+	static SnapshotLayout get(Class<?> type) {
+		return LAYOUTS.get(type);
+	}
+
+	private static ValueType valueTypeOf(Class<?> type) {
+
+		if (!type.isPrimitive()) {
+			return ValueType.REFERENCE;
+		} else if (java.lang.Boolean.TYPE == type) {
+			return ValueType.BOOLEAN;
+		} else if (java.lang.Byte.TYPE == type) {
+			return ValueType.BYTE;
+		} else if (java.lang.Character.TYPE == type) {
+			return ValueType.CHAR;
+		} else if (java.lang.Short.TYPE == type) {
+			return ValueType.SHORT;
+		} else if (java.lang.Integer.TYPE == type) {
+			return ValueType.INT;
+		} else if (java.lang.Long.TYPE == type) {
+			return ValueType.LONG;
+		} else if (java.lang.Float.TYPE == type) {
+			return ValueType.FLOAT;
+		} else {
+			return ValueType.DOUBLE;
+		}
+	}
+
+	Class<?> getType() {
+		return type;
+	}
+
+	Shape getShape() {
+		return shape;
+	}
+
+	/**
+	 * The field offsets, for {@link Shape#OBJECT}
+	 * @return The offsets. Callers must not modify the array
+	 */
+	long[] getOffsets() {
+		return offsets;
+	}
+
+	/**
+	 * The field types, in the same order as {@link #getOffsets()}
+	 * @return The ValueTypes. Callers must not modify the array
+	 */
+	ValueType[] getValueTypes() {
+		return valueTypes;
+	}
+
+	/**
+	 * The declared field types, in the same order as {@link #getOffsets()}
+	 * @return The field types. Callers must not modify the array
+	 */
+	Class<?>[] getFieldTypes() {
+		return fieldTypes;
+	}
+
+	/**
+	 * The fingerprint of the layout, which differs if the recorded fields (or the component type or enum
+	 * constants) differ
+	 * @return The fingerprint
+	 */
+	long getFingerprint() {
+		return fingerprint;
+	}
+
+	/**
+	 * The size of the record following the class index, excluding the elements of an array
+	 * @return Size in bytes
+	 */
+	int getRecordSize() {
+		return recordSize;
+	}
+
+	/**
+	 * The type of the elements, for {@link Shape#ARRAY}
+	 * @return The ValueType
+	 */
+	ValueType getComponentType() {
+		return componentType;
+	}
+}
@@ -0,0 +1,382 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.reflection.cloning.snapshot;
+
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jadira.reflection.access.unsafe.UnsafeOperations;
+import org.jadira.reflection.cloning.snapshot.SnapshotLayout.Shape;
+import org.jadira.reflection.cloning.snapshot.SnapshotLayout.ValueType;
+
+/**
+ * Rebuilds an object graph from a snapshot. Every object is first allocated (without invoking constructors) and
+ * primitive arrays are filled; the fields and reference array elements are then populated, resolving each
+ * recorded index to the instance allocated for it. Finally the hash tables of the JDK maps in the graph are rebuilt
+ * where any of their keys can no longer be found, because its hashcode depends on the identity of an object and so
+ * has changed. Each class is checked against the layout fingerprint recorded for it before any record is read, and
+ * each reference is checked to be within the snapshot and assignable to its field, so that an incompatible snapshot
+ * is rejected rather than written into the fields of the new objects. The source buffer is only read using absolute positions, so a snapshot can be restored by several
+ * threads at once.
+ */
+final class SnapshotReader {
+
+	private static final int CLASS_TABLE_POSITION = 8;
+
+	private final UnsafeOperations unsafeOperations = UnsafeOperations.getUnsafeOperations();
+
+	private final ByteBuffer source;
+
+	private final ClassLoader classLoader;
+
+	private Class<?>[] classes;
+
+	private SnapshotLayout[] layouts;
+
+	private Object[][] enumConstants;
+
+	/**
+	 * Creates a new instance
+	 * @param source The snapshot, with its position at zero and the byte order it was written with
+	 * @param classLoader The ClassLoader used to resolve the classes recorded in the snapshot
+	 */
+	SnapshotReader(ByteBuffer source, ClassLoader classLoader) {
+		this.source = source;
+		this.classLoader = classLoader;
+	}
+
+	/**
+	 * Rebuilds the graph
+	 * @return The root of the graph
+	 */
+	Object read() {
+
+		int position = readClassTable();
+
+		final int count = source.getInt(position);
+		position = position + 4;
+
+		if (count == 0) {
+			return null;
+		}
+
+		final Object[] objects = new Object[count];
+		final int[] positions = new int[count];
+
+		for (int i = 0; i < count; i++) {
+			positions[i] = position;
+			position = allocate(position, objects, i);
+		}
+
+		for (int i = 0; i < count; i++) {
+			populate(positions[i], objects, i);
+		}
+
+		for (int i = 0; i < count; i++) {
+			if (isRehashable(objects[i])) {
+				@SuppressWarnings("unchecked")
+				final Map<Object, Object> map = (Map<Object, Object>) objects[i];
+				rehash(map);
+			}
+		}
+
+		return objects[0];
+	}
+
+	/**
+	 * Indicates whether the object is a map whose hash table can be rebuilt using its own methods. HashSet and
+	 * LinkedHashSet are backed by a HashMap, which is rebuilt in their place.
+	 */
+	private static boolean isRehashable(Object obj) {
+
+		final Class<?> clazz = obj.getClass();
+		return clazz == HashMap.class || clazz == LinkedHashMap.class || clazz == IdentityHashMap.class
+				|| clazz == Hashtable.class || clazz == ConcurrentHashMap.class;
+	}
+
+	/**
+	 * Reinserts the entries of the map, in iteration order, if any key cannot be found in the table as recorded
+	 */
+	private static void rehash(Map<Object, Object> map) {
+
+		boolean stale = false;
+		for (Object key : map.keySet()) {
+			if (!map.containsKey(key)) {
+				stale = true;
+				break;
+			}
+		}
+		if (!stale) {
+			return;
+		}
+
+		final Object[] keys = new Object[map.size()];
+		final Object[] values = new Object[keys.length];
+		int i = 0;
+		for (Map.Entry<Object, Object> next : map.entrySet()) {
+			keys[i] = next.getKey();
+			values[i] = next.getValue();
+			i++;
+		}
+
+		map.clear();
+		for (i = 0; i < keys.length; i++) {
+			map.put(keys[i], values[i]);
+		}
+	}
+
+	private int readClassTable() {
+
+		int position = CLASS_TABLE_POSITION;
+
+		final int count = source.getInt(position);
+		position = position + 4;
+
+		classes = new Class<?>[count];
+		layouts = new SnapshotLayout[count];
+		enumConstants = new Object[count][];
+
+		for (int i = 0; i < count; i++) {
+
+			final int length = source.getInt(position);
+			position = position + 4;
+
+			final byte[] name = new byte[length];
+			final ByteBuffer nameBuffer = source.duplicate();
+			nameBuffer.position(position);
+			nameBuffer.get(name);
+			position = position + length;
+
+			classes[i] = loadClass(new String(name, StandardCharsets.UTF_8));
+			layouts[i] = SnapshotLayout.get(classes[i]);
+
+			final long fingerprint = source.getLong(position);
+			position = position + 8;
+
+			if (fingerprint != layouts[i].getFingerprint()) {
+				throw new IllegalStateException("The fields of class " + classes[i].getName() + " differ from those recorded in the snapshot");
+			}
+		}
+		return position;
+	}
+
+	private Class<?> loadClass(String name) {
+
+		final Class<?> primitive = primitiveClassFor(name);
+		if (primitive != null) {
+			return primitive;
+		}
+
+		try {
+			return Class.forName(name, false, classLoader);
+		} catch (ClassNotFoundException e) {
+			throw new IllegalStateException("Cannot load class recorded in snapshot: " + name, e);
+		}
+	}
+
+	private static Class<?> primitiveClassFor(String name) {
+
+		if ("boolean".equals(name)) {
+			return java.lang.Boolean.TYPE;
+		} else if ("byte".equals(name)) {
+			return java.lang.Byte.TYPE;
+		} else if ("char".equals(name)) {
+			return java.lang.Character.TYPE;
+		} else if ("short".equals(name)) {
+			return java.lang.Short.TYPE;
+		} else if ("int".equals(name)) {
+			return java.lang.Integer.TYPE;
+		} else if ("long".equals(name)) {
+			return java.lang.Long.TYPE;
+		} else if ("float".equals(name)) {
+			return java.lang.Float.TYPE;
+		} else if ("double".equals(name)) {
+			return java.lang.Double.TYPE;
+		} else if ("void".equals(name)) {
+			return java.lang.Void.TYPE;
+		}
+		return null;
+	}
+
+	private SnapshotLayout layoutFor(int classIndex) {
+		return layouts[checkClassIndex(classIndex)];
+	}
+
+	private int checkClassIndex(int classIndex) {
+
+		if (classIndex < 0 || classIndex >= classes.length) {
+			throw new IllegalStateException("Snapshot refers to class " + classIndex + " but records only " + classes.length);
+		}
+		return classIndex;
+	}
+
+	private static Object objectAt(Object[] objects, int reference) {
+
+		if (reference >= objects.length) {
+			throw new IllegalStateException("Snapshot refers to object " + reference + " but records only " + objects.length);
+		}
+		return objects[reference];
+	}
+
+	private int allocate(int position, Object[] objects, int index) {
+
+		final int classIndex = source.getInt(position);
+		position = position + 4;
+
+		final SnapshotLayout layout = layoutFor(classIndex);
+
+		switch (layout.getShape()) {
+			case ENUM:
+				Object[] constants = enumConstants[classIndex];
+				if (constants == null) {
+					constants = classes[classIndex].getEnumConstants();
+					enumConstants[classIndex] = constants;
+				}
+				objects[index] = constants[source.getInt(position)];
+				return position + layout.getRecordSize();
+			case CLASS:
+				objects[index] = classes[checkClassIndex(source.getInt(position))];
+				return position + layout.getRecordSize();
+			case ARRAY:
+				final int length = source.getInt(position);
+				position = position + layout.getRecordSize();
+				objects[index] = readArray(classes[classIndex].getComponentType(), layout.getComponentType(), length, position);
+				return position + (length * layout.getComponentType().getSize());
+			default:
+				objects[index] = unsafeOperations.allocateInstance(classes[classIndex]);
+				return position + layout.getRecordSize();
+		}
+	}
+
+	private Object readArray(Class<?> componentClass, ValueType componentType, int length, int position) {
+
+		final Object array = Array.newInstance(componentClass, length);
+		if (componentType == ValueType.REFERENCE || length == 0) {
+			// Reference elements are populated once every object has been allocated
+			return array;
+		}
+
+		final ByteBuffer elements = source.duplicate().order(source.order());
+		elements.position(position);
+
+		switch (componentType) {
+			case BOOLEAN:
+				final boolean[] booleans = (boolean[]) array;
+				for (int i = 0; i < length; i++) {
+					booleans[i] = elements.get() != 0;
+				}
+				break;
+			case BYTE:
+				elements.get((byte[]) array);
+				break;
+			case CHAR:
+				elements.asCharBuffer().get((char[]) array);
+				break;
+			case SHORT:
+				elements.asShortBuffer().get((short[]) array);
+				break;
+			case INT:
+				elements.asIntBuffer().get((int[]) array);
+				break;
+			case LONG:
+				elements.asLongBuffer().get((long[]) array);
+				break;
+			case FLOAT:
+				elements.asFloatBuffer().get((float[]) array);
+				break;
+			default:
+				elements.asDoubleBuffer().get((double[]) array);
+		}
+		return array;
+	}
+
+	private void populate(int position, Object[] objects, int index) {
+
+		final SnapshotLayout layout = layoutFor(source.getInt(position));
+		position = position + 4;
+
+		if (layout.getShape() == Shape.OBJECT) {
+			populateFields(objects[index], layout, position, objects);
+		} else if (layout.getShape() == Shape.ARRAY && layout.getComponentType() == ValueType.REFERENCE) {
+
+			final Object[] array = (Object[]) objects[index];
+			position = position + layout.getRecordSize();
+			for (int i = 0; i < array.length; i++) {
+				final int element = source.getInt(position);
+				if (element >= 0) {
+					// Storing into the array checks that the element is assignable to its component type
+					array[i] = objectAt(objects, element);
+				}
+				position = position + 4;
+			}
+		}
+	}
+
+	private void populateFields(Object obj, SnapshotLayout layout, int position, Object[] objects) {
+
+		final long[] offsets = layout.getOffsets();
+		final ValueType[] valueTypes = layout.getValueTypes();
+		final Class<?>[] fieldTypes = layout.getFieldTypes();
+
+		for (int i = 0; i < offsets.length; i++) {
+			final long offset = offsets[i];
+			switch (valueTypes[i]) {
+				case BOOLEAN:
+					unsafeOperations.putBoolean(obj, offset, source.get(position) != 0);
+					break;
+				case BYTE:
+					unsafeOperations.putByte(obj, offset, source.get(position));
+					break;
+				case CHAR:
+					unsafeOperations.putChar(obj, offset, source.getChar(position));
+					break;
+				case SHORT:
+					unsafeOperations.putShort(obj, offset, source.getShort(position));
+					break;
+				case INT:
+					unsafeOperations.putInt(obj, offset, source.getInt(position));
+					break;
+				case LONG:
+					unsafeOperations.putLong(obj, offset, source.getLong(position));
+					break;
+				case FLOAT:
+					unsafeOperations.putFloat(obj, offset, source.getFloat(position));
+					break;
+				case DOUBLE:
+					unsafeOperations.putDouble(obj, offset, source.getDouble(position));
+					break;
+				default:
+					final int reference = source.getInt(position);
+					if (reference >= 0) {
+						final Object value = objectAt(objects, reference);
+						if (!fieldTypes[i].isInstance(value)) {
+							throw new IllegalStateException("Snapshot records " + value.getClass().getName() + " for a field of type "
+									+ fieldTypes[i].getName() + " in " + obj.getClass().getName());
+						}
+						unsafeOperations.putObject(obj, offset, value);
+					}
+			}
+			position = position + valueTypes[i].getSize();
+		}
+	}
+}
@@ -0,0 +1,281 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.reflection.cloning.snapshot;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jadira.reflection.access.unsafe.UnsafeOperations;
+import org.jadira.reflection.cloning.snapshot.SnapshotLayout.ValueType;
+import org.jadira.reflection.core.identity.IdentityReferenceMap;
+
+/**
+ * Writes an object graph in the snapshot format. The graph is first visited breadth first, assigning an index to
+ * each distinct object and class and calculating the exact size of the snapshot; the records are then written in
+ * index order, with references recorded as indexes. The class table records the name and the layout fingerprint
+ * of each class, so that a reader whose classes are laid out differently can reject the snapshot. The graph is visited iteratively so deep graphs do not
+ * exhaust the stack.
+ */
+final class SnapshotWriter {
+
+	private static final int HEADER_SIZE = 8;
+
+	private final UnsafeOperations unsafeOperations = UnsafeOperations.getUnsafeOperations();
+
+	private final IdentityReferenceMap objectIndexes;
+
+	private final List<Object> objects = new ArrayList<Object>();
+
+	private final Map<Class<?>, Integer> classIndexes = new IdentityHashMap<Class<?>, Integer>();
+
+	private final List<byte[]> classNames = new ArrayList<byte[]>();
+
+	private final List<Class<?>> classes = new ArrayList<Class<?>>();
+
+	private long size;
+
+	/**
+	 * Creates a new instance
+	 * @param objectIndexes An empty map used to record the index assigned to each object
+	 */
+	SnapshotWriter(IdentityReferenceMap objectIndexes) {
+		this.objectIndexes = objectIndexes;
+	}
+
+	/**
+	 * Visits the graph reachable from the root
+	 * @param root The root of the graph, which may be null
+	 * @return The size of the snapshot in bytes
+	 */
+	long prepare(Object root) {
+
+		indexOf(root);
+
+		long recordsSize = 0;
+		for (int i = 0; i < objects.size(); i++) {
+			recordsSize = recordsSize + visit(objects.get(i));
+		}
+
+		long classTableSize = 4;
+		for (byte[] next : classNames) {
+			classTableSize = classTableSize + 4 + next.length + 8;
+		}
+
+		size = HEADER_SIZE + classTableSize + 4 + recordsSize;
+		return size;
+	}
+
+	/**
+	 * Writes the snapshot prepared by {@link #prepare(Object)}
+	 * @param target The buffer to write to, which must have at least the prepared size remaining
+	 */
+	void write(ByteBuffer target) {
+
+		target.putInt(ObjectGraphSnapshot.MAGIC);
+		target.putInt(ObjectGraphSnapshot.VERSION);
+
+		target.putInt(classNames.size());
+		for (int i = 0; i < classNames.size(); i++) {
+			final byte[] name = classNames.get(i);
+			target.putInt(name.length);
+			target.put(name);
+			target.putLong(SnapshotLayout.get(classes.get(i)).getFingerprint());
+		}
+
+		target.putInt(objects.size());
+		for (int i = 0; i < objects.size(); i++) {
+			writeRecord(objects.get(i), target);
+		}
+	}
+
+	private long visit(Object obj) {
+
+		final SnapshotLayout layout = SnapshotLayout.get(obj.getClass());
+
+		switch (layout.getShape()) {
+			case ENUM:
+				classIndexOf(((Enum<?>) obj).getDeclaringClass());
+				return 4 + layout.getRecordSize();
+			case CLASS:
+				classIndexOf(obj.getClass());
+				classIndexOf((Class<?>) obj);
+				return 4 + layout.getRecordSize();
+			case ARRAY:
+				classIndexOf(obj.getClass());
+				final int length = java.lang.reflect.Array.getLength(obj);
+				if (layout.getComponentType() == ValueType.REFERENCE) {
+					final Object[] array = (Object[]) obj;
+					for (int i = 0; i < length; i++) {
+						indexOf(array[i]);
+					}
+				}
+				return 4 + layout.getRecordSize() + ((long) length * layout.getComponentType().getSize());
+			default:
+				classIndexOf(obj.getClass());
+				final long[] offsets = layout.getOffsets();
+				final ValueType[] valueTypes = layout.getValueTypes();
+				for (int i = 0; i < offsets.length; i++) {
+					if (valueTypes[i] == ValueType.REFERENCE) {
+						indexOf(unsafeOperations.getObject(obj, offsets[i]));
+					}
+				}
+				return 4 + layout.getRecordSize();
+		}
+	}
+
+	private int indexOf(Object obj) {
+
+		if (obj == null) {
+			return -1;
+		}
+
+		Integer index = (Integer) objectIndexes.get(obj);
+		if (index == null) {
+			index = Integer.valueOf(objects.size());
+			objectIndexes.put(obj, index);
+			objects.add(obj);
+		}
+		return index.intValue();
+	}
+
+	private int classIndexOf(Class<?> clazz) {
+
+		Integer index = classIndexes.get(clazz);
+		if (index == null) {
+
+			final String name = clazz.getName();
+			if (name.indexOf('/') != -1) {
+				throw new IllegalArgumentException("Cannot snapshot hidden or lambda class: " + name);
+			}
+
+			index = Integer.valueOf(classNames.size());
+			classIndexes.put(clazz, index);
+			classNames.add(name.getBytes(StandardCharsets.UTF_8));
+			classes.add(clazz);
+		}
+		return index.intValue();
+	}
+
+	private void writeRecord(Object obj, ByteBuffer target) {
+
+		final SnapshotLayout layout = SnapshotLayout.get(obj.getClass());
+
+		switch (layout.getShape()) {
+			case ENUM:
+				target.putInt(classIndexOf(((Enum<?>) obj).getDeclaringClass()));
+				target.putInt(((Enum<?>) obj).ordinal());
+				break;
+			case CLASS:
+				target.putInt(classIndexOf(obj.getClass()));
+				target.putInt(classIndexOf((Class<?>) obj));
+				break;
+			case ARRAY:
+				target.putInt(classIndexOf(obj.getClass()));
+				writeArray(obj, layout.getComponentType(), target);
+				break;
+			default:
+				target.putInt(classIndexOf(obj.getClass()));
+				writeFields(obj, layout, target);
+		}
+	}
+
+	private void writeFields(Object obj, SnapshotLayout layout, ByteBuffer target) {
+
+		final long[] offsets = layout.getOffsets();
+		final ValueType[] valueTypes = layout.getValueTypes();
+
+		for (int i = 0; i < offsets.length; i++) {
+			final long offset = offsets[i];
+			switch (valueTypes[i]) {
+				case BOOLEAN:
+					target.put(unsafeOperations.getBoolean(obj, offset) ? (byte) 1 : (byte) 0);
+					break;
+				case BYTE:
+					target.put(unsafeOperations.getByte(obj, offset));
+					break;
+				case CHAR:
+					target.putChar(unsafeOperations.getChar(obj, offset));
+					break;
+				case SHORT:
+					target.putShort(unsafeOperations.getShort(obj, offset));
+					break;
+				case INT:
+					target.putInt(unsafeOperations.getInt(obj, offset));
+					break;
+				case LONG:
+					target.putLong(unsafeOperations.getLong(obj, offset));
+					break;
+				case FLOAT:
+					target.putFloat(unsafeOperations.getFloat(obj, offset));
+					break;
+				case DOUBLE:
+					target.putDouble(unsafeOperations.getDouble(obj, offset));
+					break;
+				default:
+					target.putInt(indexOf(unsafeOperations.getObject(obj, offset)));
+			}
+		}
+	}
+
+	private void writeArray(Object array, ValueType componentType, ByteBuffer target) {
+
+		final int length = java.lang.reflect.Array.getLength(array);
+		target.putInt(length);
+
+		final int position = target.position();
+
+		switch (componentType) {
+			case BOOLEAN:
+				final boolean[] booleans = (boolean[]) array;
+				for (int i = 0; i < length; i++) {
+					target.put(booleans[i] ? (byte) 1 : (byte) 0);
+				}
+				break;
+			case BYTE:
+				target.put((byte[]) array);
+				break;
+			case CHAR:
+				target.asCharBuffer().put((char[]) array);
+				break;
+			case SHORT:
+				target.asShortBuffer().put((short[]) array);
+				break;
+			case INT:
+				target.asIntBuffer().put((int[]) array);
+				break;
+			case LONG:
+				target.asLongBuffer().put((long[]) array);
+				break;
+			case FLOAT:
+				target.asFloatBuffer().put((float[]) array);
+				break;
+			case DOUBLE:
+				target.asDoubleBuffer().put((double[]) array);
+				break;
+			default:
+				final Object[] objects = (Object[]) array;
+				for (int i = 0; i < length; i++) {
+					target.putInt(indexOf(objects[i]));
+				}
+		}
+
+		target.position(position + (length * componentType.getSize()));
+	}
+}
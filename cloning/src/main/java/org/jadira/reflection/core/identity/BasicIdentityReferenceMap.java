@@ -0,0 +1,294 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.reflection.core.identity;
+
+import java.util.Arrays;
+
+/**
+ * The single threaded {@link IdentityReferenceMap}. Keys are hashed by
+ * {@link System#identityHashCode(Object)}, with collisions resolved by linear probing over a
+ * power of two sized table. No entry objects are allocated.
+ * 
+ * The map records which slots are occupied so that {@link #clear()} costs time proportional to
+ * the number of entries rather than the capacity. This allows a single instance to be reused
+ * for successive traversals: {@link #acquire()} obtains the instance held for the current thread,
+ * which must be handed back using {@link #release()} once the traversal is complete.
+ * 
+ * Null keys are not supported. Instances are not thread safe; {@link ConcurrentIdentityReferenceMap}
+ * may be used where a traversal is shared by several threads.
+ */
+public class BasicIdentityReferenceMap implements IdentityReferenceMap {
+
+	private static final int DEFAULT_CAPACITY = 32;
+
+	/**
+	 * Tables larger than this are discarded on release rather than being retained by the thread
+	 */
+	private static final int MAX_RETAINED_CAPACITY = 1 << 16;
+
+	private static final ThreadLocal<BasicIdentityReferenceMap> POOLED_MAPS = new ThreadLocal<BasicIdentityReferenceMap>() {
+		@Override
+		protected BasicIdentityReferenceMap initialValue() {
+			return new BasicIdentityReferenceMap(true);
+		}
+	};
+
+	private final boolean pooled;
+
+	private boolean inUse;
+
+	private Object[] keys;
+
+	private Object[] values;
+
+	/** The indexes of the occupied slots, in insertion order */
+	private int[] usedSlots;
+
+	private int size;
+
+	private int resizeThreshold;
+
+	/**
+	 * Creates a new, empty instance which is not associated with any thread
+	 */
+	public BasicIdentityReferenceMap() {
+		this(false);
+	}
+
+	/**
+	 * Creates a new, empty instance which is not associated with any thread and has room for
+	 * the given number of entries before it must grow
+	 * @param expectedSize The expected number of entries
+	 */
+	public BasicIdentityReferenceMap(int expectedSize) {
+		this.pooled = false;
+		allocate(capacityFor(expectedSize));
+	}
+
+	private BasicIdentityReferenceMap(boolean pooled) {
+		this.pooled = pooled;
+		allocate(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Obtains an empty map for use by the current thread. If the thread's pooled instance is already in
+	 * use, for example because a traversal has started another traversal, a new instance is returned.
+	 * @return An empty BasicIdentityReferenceMap
+	 */
+	public static BasicIdentityReferenceMap acquire() {
+
+		final BasicIdentityReferenceMap map = POOLED_MAPS.get();
+		if (map.inUse) {
+			return new BasicIdentityReferenceMap();
+		}
+		map.inUse = true;
+		return map;
+	}
+
+	@Override
+	public void release() {
+
+		if (pooled && keys.length > MAX_RETAINED_CAPACITY) {
+			allocate(DEFAULT_CAPACITY);
+			size = 0;
+		} else {
+			clear();
+		}
+		inUse = false;
+	}
+
+	@Override
+	public Object get(Object key) {
+
+		final Object[] myKeys = keys;
+		final int mask = myKeys.length - 1;
+
+		int index = hash(key) & mask;
+		Object next;
+		while ((next = myKeys[index]) != null) {
+			if (next == key) {
+				return values[index];
+			}
+			index = (index + 1) & mask;
+		}
+		return null;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+
+		final Object[] myKeys = keys;
+		final int mask = myKeys.length - 1;
+
+		int index = hash(key) & mask;
+		Object next;
+		while ((next = myKeys[index]) != null) {
+			if (next == key) {
+				return true;
+			}
+			index = (index + 1) & mask;
+		}
+		return false;
+	}
+
+	@Override
+	public Object put(Object key, Object value) {
+
+		if (key == null) {
+			throw new IllegalArgumentException("BasicIdentityReferenceMap does not support null keys");
+		}
+
+		final Object[] myKeys = keys;
+		final int mask = myKeys.length - 1;
+
+		int index = hash(key) & mask;
+		Object next;
+		while ((next = myKeys[index]) != null) {
+			if (next == key) {
+				final Object previous = values[index];
+				values[index] = value;
+				return previous;
+			}
+			index = (index + 1) & mask;
+		}
+
+		myKeys[index] = key;
+		values[index] = value;
+		usedSlots[size] = index;
+		size++;
+
+		if (size >= resizeThreshold) {
+			resize();
+		}
+		return null;
+	}
+
+	@Override
+	public Object putIfAbsent(Object key, Object value) {
+
+		if (key == null) {
+			throw new IllegalArgumentException("BasicIdentityReferenceMap does not support null keys");
+		}
+
+		final Object[] myKeys = keys;
+		final int mask = myKeys.length - 1;
+
+		int index = hash(key) & mask;
+		Object next;
+		while ((next = myKeys[index]) != null) {
+			if (next == key) {
+				return values[index];
+			}
+			index = (index + 1) & mask;
+		}
+
+		myKeys[index] = key;
+		values[index] = value;
+		usedSlots[size] = index;
+		size++;
+
+		if (size >= resizeThreshold) {
+			resize();
+		}
+		return null;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes all entries. Only the occupied slots are visited.
+	 */
+	@Override
+	public void clear() {
+
+		final Object[] myKeys = keys;
+		final Object[] myValues = values;
+		final int[] myUsedSlots = usedSlots;
+
+		if (size > (myKeys.length >>> 2)) {
+			Arrays.fill(myKeys, null);
+			Arrays.fill(myValues, null);
+		} else {
+			for (int i = 0; i < size; i++) {
+				final int index = myUsedSlots[i];
+				myKeys[index] = null;
+				myValues[index] = null;
+			}
+		}
+		size = 0;
+	}
+
+	private void resize() {
+
+		final Object[] oldKeys = keys;
+		final Object[] oldValues = values;
+		final int[] oldUsedSlots = usedSlots;
+		final int oldSize = size;
+
+		allocate(oldKeys.length << 1);
+
+		final Object[] newKeys = keys;
+		final int mask = newKeys.length - 1;
+
+		for (int i = 0; i < oldSize; i++) {
+
+			final int oldIndex = oldUsedSlots[i];
+			final Object key = oldKeys[oldIndex];
+
+			int index = hash(key) & mask;
+			while (newKeys[index] != null) {
+				index = (index + 1) & mask;
+			}
+			newKeys[index] = key;
+			values[index] = oldValues[oldIndex];
+			usedSlots[i] = index;
+		}
+		size = oldSize;
+	}
+
+	private void allocate(int capacity) {
+
+		keys = new Object[capacity];
+		values = new Object[capacity];
+		// The table is kept at most half full
+		resizeThreshold = capacity >>> 1;
+		usedSlots = new int[resizeThreshold];
+	}
+
+	private static int capacityFor(int expectedSize) {
+
+		int capacity = DEFAULT_CAPACITY;
+		while (capacity >>> 1 <= expectedSize && capacity < (1 << 30)) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	private static int hash(Object key) {
+
+		// Spread the identity hash so that consecutive values do not form runs in the table
+		final int h = System.identityHashCode(key) * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
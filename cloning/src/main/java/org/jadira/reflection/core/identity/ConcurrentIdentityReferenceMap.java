@@ -0,0 +1,105 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.reflection.core.identity;
+
+/**
+ * An {@link IdentityReferenceMap} that may be shared by several threads traversing the same object graph.
+ * The keys are divided by identity hash code among a fixed number of segments, each of which is a
+ * {@link BasicIdentityReferenceMap} guarded by its own lock, so that threads working on different parts of the
+ * graph rarely contend.
+ */
+public class ConcurrentIdentityReferenceMap implements IdentityReferenceMap {
+
+	private static final int SEGMENT_SHIFT = 6;
+
+	private final BasicIdentityReferenceMap[] segments = new BasicIdentityReferenceMap[1 << SEGMENT_SHIFT];
+
+	/**
+	 * Creates a new, empty instance
+	 */
+	public ConcurrentIdentityReferenceMap() {
+		for (int i = 0; i < segments.length; i++) {
+			segments[i] = new BasicIdentityReferenceMap();
+		}
+	}
+
+	@Override
+	public Object get(Object key) {
+		final BasicIdentityReferenceMap segment = segmentFor(key);
+		synchronized (segment) {
+			return segment.get(key);
+		}
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		final BasicIdentityReferenceMap segment = segmentFor(key);
+		synchronized (segment) {
+			return segment.containsKey(key);
+		}
+	}
+
+	@Override
+	public Object put(Object key, Object value) {
+		final BasicIdentityReferenceMap segment = segmentFor(key);
+		synchronized (segment) {
+			return segment.put(key, value);
+		}
+	}
+
+	@Override
+	public Object putIfAbsent(Object key, Object value) {
+		final BasicIdentityReferenceMap segment = segmentFor(key);
+		synchronized (segment) {
+			return segment.putIfAbsent(key, value);
+		}
+	}
+
+	@Override
+	public int size() {
+		int size = 0;
+		for (BasicIdentityReferenceMap segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public void clear() {
+		for (BasicIdentityReferenceMap segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	@Override
+	public void release() {
+		clear();
+	}
+
+	private BasicIdentityReferenceMap segmentFor(Object key) {
+		// Use the high bits, the segments themselves index on the low bits
+		return segments[(System.identityHashCode(key) * 0x9E3779B9) >>> (32 - SEGMENT_SHIFT)];
+	}
+}
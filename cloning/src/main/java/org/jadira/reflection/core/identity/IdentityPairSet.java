@@ -0,0 +1,227 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.reflection.core.identity;
+
+import java.util.Arrays;
+
+/**
+ * A set of pairs of object references, compared by identity. This is used to record the pairs of objects that
+ * are being visited while comparing two object graphs. Unlike a map keyed by {@link Tuple}, adding a pair
+ * does not allocate: the two references are stored in parallel arrays using open addressing with linear probing
+ * on a hash of both identity hashcodes. Once it has grown to fit a graph, an instance can be cleared and reused
+ * without further allocation.
+ * 
+ * Instances are not thread-safe.
+ */
+public final class IdentityPairSet {
+
+	private static final int DEFAULT_CAPACITY = 32;
+
+	/**
+	 * Capacity above which a cleared set releases its storage rather than retaining it
+	 */
+	private static final int MAX_RETAINED_CAPACITY = 1 << 16;
+
+	private Object[] lefts;
+	private Object[] rights;
+
+	private int size;
+	private int threshold;
+
+	/**
+	 * Creates a new, empty instance
+	 */
+	public IdentityPairSet() {
+		allocate(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Adds the pair to the set, unless it is already present
+	 * @param left The left reference, which must not be null
+	 * @param right The right reference, which may be null
+	 * @return True if the pair was added, false if it was already present
+	 */
+	public boolean add(Object left, Object right) {
+
+		if (left == null) {
+			throw new IllegalArgumentException("left must not be null");
+		}
+
+		final Object[] ls = lefts;
+		final int mask = ls.length - 1;
+
+		int i = hash(left, right) & mask;
+		Object next;
+		while ((next = ls[i]) != null) {
+			if (next == left && rights[i] == right) {
+				return false;
+			}
+			i = (i + 1) & mask;
+		}
+
+		ls[i] = left;
+		rights[i] = right;
+		if (++size > threshold) {
+			resize(ls.length << 1);
+		}
+		return true;
+	}
+
+	/**
+	 * Indicates whether the pair is present in the set
+	 * @param left The left reference
+	 * @param right The right reference
+	 * @return True if the pair is present
+	 */
+	public boolean contains(Object left, Object right) {
+
+		if (left == null) {
+			return false;
+		}
+
+		final Object[] ls = lefts;
+		final int mask = ls.length - 1;
+
+		int i = hash(left, right) & mask;
+		Object next;
+		while ((next = ls[i]) != null) {
+			if (next == left && rights[i] == right) {
+				return true;
+			}
+			i = (i + 1) & mask;
+		}
+		return false;
+	}
+
+	/**
+	 * Removes the pair from the set, if it is present
+	 * @param left The left reference
+	 * @param right The right reference
+	 * @return True if the pair was removed
+	 */
+	public boolean remove(Object left, Object right) {
+
+		if (left == null) {
+			return false;
+		}
+
+		final Object[] ls = lefts;
+		final int mask = ls.length - 1;
+
+		int i = hash(left, right) & mask;
+		Object next;
+		while ((next = ls[i]) != null) {
+			if (next == left && rights[i] == right) {
+				closeDeletion(i);
+				size--;
+				return true;
+			}
+			i = (i + 1) & mask;
+		}
+		return false;
+	}
+
+	/**
+	 * The number of pairs in the set
+	 * @return The size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Indicates whether the set is empty
+	 * @return True if there are no pairs in the set
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes all pairs from the set. The storage is retained for reuse unless the set has grown very large.
+	 */
+	public void clear() {
+
+		if (lefts.length > MAX_RETAINED_CAPACITY) {
+			allocate(DEFAULT_CAPACITY);
+		} else if (size > 0) {
+			Arrays.fill(lefts, null);
+			Arrays.fill(rights, null);
+		}
+		size = 0;
+	}
+
+	private void allocate(int capacity) {
+		lefts = new Object[capacity];
+		rights = new Object[capacity];
+		threshold = capacity >>> 1;
+	}
+
+	private void resize(int newCapacity) {
+
+		final Object[] oldLefts = lefts;
+		final Object[] oldRights = rights;
+
+		allocate(newCapacity);
+
+		final int mask = newCapacity - 1;
+		for (int j = 0; j < oldLefts.length; j++) {
+			final Object left = oldLefts[j];
+			if (left != null) {
+				int i = hash(left, oldRights[j]) & mask;
+				while (lefts[i] != null) {
+					i = (i + 1) & mask;
+				}
+				lefts[i] = left;
+				rights[i] = oldRights[j];
+			}
+		}
+	}
+
+	/**
+	 * Empties the given slot, moving back any later pairs in the same run that could no longer be found
+	 * @param d The slot to empty
+	 */
+	private void closeDeletion(int d) {
+
+		final Object[] ls = lefts;
+		final Object[] rs = rights;
+		final int mask = ls.length - 1;
+
+		ls[d] = null;
+		rs[d] = null;
+
+		int i = (d + 1) & mask;
+		Object next;
+		while ((next = ls[i]) != null) {
+			final int r = hash(next, rs[i]) & mask;
+			// Move the pair unless its home slot lies cyclically between the gap and its current slot
+			if ((i < r && (r <= d || d <= i)) || (r <= d && d <= i)) {
+				ls[d] = next;
+				rs[d] = rs[i];
+				ls[i] = null;
+				rs[i] = null;
+				d = i;
+			}
+			i = (i + 1) & mask;
+		}
+	}
+
+	private static int hash(Object left, Object right) {
+		int h = (System.identityHashCode(left) * 31 + System.identityHashCode(right)) * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
@@ -0,0 +1,92 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.reflection.core.identity;
+
+/**
+ * An identity map used to track the objects already visited while traversing an object graph, for
+ * example the copies made during a clone. Keys are compared by reference rather than by equals.
+ * 
+ * {@link BasicIdentityReferenceMap} is used by a single thread, and a pooled instance for the current
+ * thread can be obtained using {@link #acquire()}. {@link ConcurrentIdentityReferenceMap} may be used
+ * where a traversal is shared by several threads.
+ */
+public interface IdentityReferenceMap {
+
+	/**
+	 * Obtains an empty single threaded map for use by the current thread, which must be handed back
+	 * using {@link #release()} once the traversal is complete
+	 * @return An empty IdentityReferenceMap
+	 * @see BasicIdentityReferenceMap#acquire()
+	 */
+	static IdentityReferenceMap acquire() {
+		return BasicIdentityReferenceMap.acquire();
+	}
+
+	/**
+	 * Returns the value held for the given key
+	 * @param key The key
+	 * @return The value, or null if there is none
+	 */
+	Object get(Object key);
+
+	/**
+	 * Indicates whether the map holds an entry for the given key
+	 * @param key The key
+	 * @return True if an entry exists
+	 */
+	boolean containsKey(Object key);
+
+	/**
+	 * Associates the value with the given key, replacing any existing value
+	 * @param key The key, which must not be null
+	 * @param value The value
+	 * @return The previous value, or null if there was none
+	 */
+	Object put(Object key, Object value);
+
+	/**
+	 * Associates the value with the given key unless the map already holds a value for the key.
+	 * Where several threads traverse the same graph, this allows exactly one copy of each object to
+	 * be registered.
+	 * @param key The key, which must not be null
+	 * @param value The value
+	 * @return The existing value, or null if the given value was added
+	 */
+	Object putIfAbsent(Object key, Object value);
+
+	/**
+	 * The number of entries in the map
+	 * @return The size
+	 */
+	int size();
+
+	/**
+	 * Indicates whether the map is empty
+	 * @return True if there are no entries
+	 */
+	boolean isEmpty();
+
+	/**
+	 * Removes all entries
+	 */
+	void clear();
+
+	/**
+	 * Clears this map and, if it was obtained from {@link #acquire()}, returns it to its thread. The map
+	 * must not be used after it has been released.
+	 */
+	void release();
+}
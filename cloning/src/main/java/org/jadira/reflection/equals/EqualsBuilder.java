@@ -15,16 +15,14 @@
  */
 package org.jadira.reflection.equals;
 
-import java.lang.reflect.Modifier;
-import java.util.IdentityHashMap;
-
-import org.jadira.reflection.access.api.ClassAccess;
 import org.jadira.reflection.access.api.ClassAccessFactory;
 import org.jadira.reflection.access.api.FieldAccess;
 import org.jadira.reflection.access.api.MethodAccess;
+import org.jadira.reflection.access.model.ReflectionPlan;
+import org.jadira.reflection.access.model.ReflectionPlan.FieldKind;
 import org.jadira.reflection.access.portable.PortableClassAccessFactory;
 import org.jadira.reflection.access.unsafe.UnsafeClassAccessFactory;
-import org.jadira.reflection.core.identity.Tuple;
+import org.jadira.reflection.core.identity.IdentityPairSet;
 import org.jadira.reflection.core.platform.FeatureDetection;
 
 /**
@@ -58,7 +56,10 @@ public class EqualsBuilder {
 		};
 	};
 
-	private IdentityHashMap<Tuple<Object, Object>, Tuple<Object, Object>> seenReferences;
+	/**
+	 * The pairs of objects whose reflective comparison is in progress
+	 */
+	private final IdentityPairSet seenPairs = new IdentityPairSet();
 
 	/**
 	 * If the fields tested are equal. The default value is <code>true</code>.
@@ -70,7 +71,6 @@ public class EqualsBuilder {
 	private ClassAccessFactory classAccessFactory;
 
 	public EqualsBuilder() {
-		seenReferences = new IdentityHashMap<Tuple<Object, Object>, Tuple<Object, Object>>();
 
 		if (FeatureDetection.hasUnsafe()) {
 			this.classAccessFactory = UnsafeClassAccessFactory.get();
@@ -99,6 +99,18 @@ public class EqualsBuilder {
 			return false;
 		}
 
+		final Class<?> testClass = determineTestClass(lhs, rhs);
+		if (testClass == null) {
+			return false;
+		}
+
+		// Comparisons started from equals() methods reached during this comparison share the builder, so a pair
+		// that is already being compared is recognised and cyclic graphs terminate
+		return reflectionBuilder.get().reflectionEquals(lhs, rhs, testClass);
+	}
+
+	private static Class<?> determineTestClass(Object lhs, Object rhs) {
+
 		Class<?> lhsClass = lhs.getClass();
 		Class<?> rhsClass = rhs.getClass();
 
@@ -116,110 +128,89 @@ public class EqualsBuilder {
 				testClass = lhsClass;
 			}
 		} else {
-			return false;
+			testClass = null;
 		}
+		return testClass;
+	}
 
-		EqualsBuilder equalsBuilder = reflectionBuilder.get();
-		// In case we recurse into this method
-		reflectionBuilder.set(null);
-
-		equalsBuilder.reset();
+	private boolean reflectionEquals(Object lhs, Object rhs, Class<?> testClass) {
 
-		ClassAccess<?> classAccess = equalsBuilder.classAccessFactory
-				.getClassAccess(testClass);
+		if (!seenPairs.add(lhs, rhs)) {
+			// The pair is being compared further up the graph, so its outcome is decided there
+			return true;
+		}
 
+		final boolean outerEquals = isEquals;
+		isEquals = true;
 		try {
-			while ((classAccess.getType() != Object.class)
-					&& (!classAccess.providesEquals())) {
-				equalsBuilder.reflectionAppend(lhs, rhs, classAccess);
-				classAccess = classAccess.getSuperClassAccess();
+			final ReflectionPlan plan = ReflectionPlan.forEquals(classAccessFactory, testClass);
+			reflectionAppend(lhs, rhs, plan);
+
+			final MethodAccess<Object> methodAccess = plan.getMethod();
+			if (methodAccess != null && isEquals) {
+				setEquals(((Boolean) methodAccess.invoke(lhs, rhs)).booleanValue());
 			}
+			return isEquals;
 		} catch (IllegalArgumentException e) {
 			return false;
+		} finally {
+			isEquals = outerEquals;
+			// A pair that has been compared already is compared again if it is reached again, as its outcome may
+			// have been discarded, for example by a HashMap probing a bucket
+			seenPairs.remove(lhs, rhs);
 		}
-
-		if (classAccess.getType() != Object.class) {
-
-			final MethodAccess<Object> methodAccess;
-			try {
-				@SuppressWarnings("unchecked")
-				final MethodAccess<Object> myMethodAccess = (MethodAccess<Object>) classAccess.getDeclaredMethodAccess(classAccess.getType().getMethod(
-								"equals", Object.class));
-				methodAccess = myMethodAccess;
-			} catch (NoSuchMethodException e) {
-				throw new IllegalStateException("Cannot find equals() method");
-			} catch (SecurityException e) {
-				throw new IllegalStateException("Cannot find equals() method");
-			}
-			equalsBuilder.setEquals(((Boolean) methodAccess.invoke(lhs, rhs))
-					.booleanValue());
-		}
-
-		final boolean isEqual = equalsBuilder.isEquals();
-		reflectionBuilder.set(equalsBuilder);
-
-		return isEqual;
 	}
 
-	private void reflectionAppend(Object lhs, Object rhs,
-			ClassAccess<?> classAccess) {
-
-		Tuple<Object, Object> t = Tuple.of(lhs, rhs);
-		if (seenReferences.containsKey(t)) {
-			return;
-		}
-		seenReferences.put(t, t);
-
-		@SuppressWarnings("unchecked")
-		ClassAccess<Object> classAccessInHierarchy = (ClassAccess<Object>) classAccess;
-		
-		while (classAccessInHierarchy != null) {
-		
-			FieldAccess<Object>[] fields = (FieldAccess<Object>[]) classAccessInHierarchy.getDeclaredFieldAccessors();
-	
-			for (int i = 0; (i < fields.length) && (isEquals); i++) {
-				FieldAccess<Object> f = fields[i];
-				if ((f.field().getName().indexOf('$') == -1)
-						&& (!Modifier.isTransient(f.field().getModifiers()))
-						&& (!Modifier.isStatic(f.field().getModifiers()))) {
-	
-					Class<?> type = f.fieldClass();
-					if (type.isPrimitive()) {
-						if (java.lang.Boolean.TYPE == type) {
-							append(f.getBooleanValue(lhs), f.getBooleanValue(rhs));
-						} else if (java.lang.Byte.TYPE == type) {
-							append(f.getByteValue(lhs), f.getByteValue(rhs));
-						} else if (java.lang.Character.TYPE == type) {
-							append(f.getCharValue(lhs), f.getCharValue(rhs));
-						} else if (java.lang.Short.TYPE == type) {
-							append(f.getShortValue(lhs), f.getShortValue(rhs));
-						} else if (java.lang.Integer.TYPE == type) {
-							append(f.getIntValue(lhs), f.getIntValue(rhs));
-						} else if (java.lang.Long.TYPE == type) {
-							append(f.getLongValue(lhs), f.getLongValue(rhs));
-						} else if (java.lang.Float.TYPE == type) {
-							append(f.getFloatValue(lhs), f.getFloatValue(rhs));
-						} else if (java.lang.Double.TYPE == type) {
-							append(f.getDoubleValue(lhs), f.getDoubleValue(rhs));
-						}
-					} else {
-						append(f.getValue(lhs), f.getValue(rhs));
-					}
-				}
+	private void reflectionAppend(Object lhs, Object rhs, ReflectionPlan plan) {
+
+		final FieldAccess<Object>[] fields = plan.getFields();
+		final FieldKind[] fieldKinds = plan.getFieldKinds();
+
+		for (int i = 0; (i < fields.length) && (isEquals); i++) {
+			final FieldAccess<Object> f = fields[i];
+			switch (fieldKinds[i]) {
+				case BOOLEAN:
+					append(f.getBooleanValue(lhs), f.getBooleanValue(rhs));
+					break;
+				case BYTE:
+					append(f.getByteValue(lhs), f.getByteValue(rhs));
+					break;
+				case CHAR:
+					append(f.getCharValue(lhs), f.getCharValue(rhs));
+					break;
+				case SHORT:
+					append(f.getShortValue(lhs), f.getShortValue(rhs));
+					break;
+				case INT:
+					append(f.getIntValue(lhs), f.getIntValue(rhs));
+					break;
+				case LONG:
+					append(f.getLongValue(lhs), f.getLongValue(rhs));
+					break;
+				case FLOAT:
+					append(f.getFloatValue(lhs), f.getFloatValue(rhs));
+					break;
+				case DOUBLE:
+					append(f.getDoubleValue(lhs), f.getDoubleValue(rhs));
+					break;
+				default:
+					append(f.getValue(lhs), f.getValue(rhs));
 			}
-			
-			classAccessInHierarchy = classAccessInHierarchy.getSuperClassAccess();
 		}
 	}
 
 	public EqualsBuilder append(Object lhs, Object rhs) {
 
 		preCheckObject(lhs, rhs);
+		if (!isEquals || lhs == rhs) {
+			return this;
+		}
 
 		Class<?> lhsClass = lhs.getClass();
 		if (!lhsClass.isArray()) {
 			if (defaultDeepReflect) {
-				reflectionEquals(lhs, rhs);
+				final Class<?> testClass = determineTestClass(lhs, rhs);
+				this.setEquals(testClass != null && reflectionEquals(lhs, rhs, testClass));
 			} else {
 				this.setEquals(lhs.equals(rhs));
 			}
@@ -496,7 +487,7 @@ public class EqualsBuilder {
 	}
 
 	public void reset() {
-		seenReferences = new IdentityHashMap<Tuple<Object, Object>, Tuple<Object, Object>>();
+		seenPairs.clear();
 		this.isEquals = true;
 	}
 }
@@ -15,13 +15,13 @@
  */
 package org.jadira.reflection.hashcode;
 
-import java.lang.reflect.Modifier;
 import java.util.IdentityHashMap;
 
-import org.jadira.reflection.access.api.ClassAccess;
 import org.jadira.reflection.access.api.ClassAccessFactory;
 import org.jadira.reflection.access.api.FieldAccess;
 import org.jadira.reflection.access.api.MethodAccess;
+import org.jadira.reflection.access.model.ReflectionPlan;
+import org.jadira.reflection.access.model.ReflectionPlan.FieldKind;
 import org.jadira.reflection.access.portable.PortableClassAccessFactory;
 import org.jadira.reflection.access.unsafe.UnsafeClassAccessFactory;
 import org.jadira.reflection.core.platform.FeatureDetection;
@@ -78,71 +78,51 @@ public class HashCodeBuilder {
 
 	private boolean defaultDeepReflect = false;
 
-	private <C> void reflectionAppend(C object) {
+	private void reflectionAppend(Object object) {
 
 		if (seenReferences.containsKey(object)) {
 			return;
 		}
 		seenReferences.put(object, object);
 
-		@SuppressWarnings("unchecked")
-		ClassAccess<? super C> classAccess = (ClassAccess<C>) classAccessFactory
-				.getClassAccess(object.getClass());
-
-		while ((classAccess.getType() != Object.class)
-				&& (!classAccess.providesHashCode())) {
-
-			ClassAccess<? super C> classAccessInHierarchy = classAccess;
-						
-			for (FieldAccess<? super C> fieldAccess : classAccessInHierarchy.getDeclaredFieldAccessors()) {
-
-				if ((fieldAccess.field().getName().indexOf('$') == -1)
-						&& (!Modifier.isTransient(fieldAccess.field().getModifiers()))
-						&& (!Modifier.isStatic(fieldAccess.field().getModifiers()))) {
-				
-					Class<?> type = fieldAccess.fieldClass();
-					
-					if (type.isPrimitive()) {
-						if (java.lang.Boolean.TYPE == type) {
-							append(fieldAccess.getBooleanValue(object));
-						} else if (java.lang.Byte.TYPE == type) {
-							append(fieldAccess.getByteValue(object));
-						} else if (java.lang.Character.TYPE == type) {
-							append(fieldAccess.getCharValue(object));
-						} else if (java.lang.Short.TYPE == type) {
-							append(fieldAccess.getShortValue(object));
-						} else if (java.lang.Integer.TYPE == type) {
-							append(fieldAccess.getIntValue(object));
-						} else if (java.lang.Long.TYPE == type) {
-							append(fieldAccess.getLongValue(object));
-						} else if (java.lang.Float.TYPE == type) {
-							append(fieldAccess.getFloatValue(object));
-						} else if (java.lang.Double.TYPE == type) {
-							append(fieldAccess.getDoubleValue(object));
-						}
-					} else {
-						final Object value = fieldAccess.getValue(object);
-						append(value);
-					}
-				}
+		final ReflectionPlan plan = ReflectionPlan.forHashCode(classAccessFactory, object.getClass());
+		final FieldAccess<Object>[] fields = plan.getFields();
+		final FieldKind[] fieldKinds = plan.getFieldKinds();
+
+		for (int i = 0; i < fields.length; i++) {
+			final FieldAccess<Object> f = fields[i];
+			switch (fieldKinds[i]) {
+				case BOOLEAN:
+					append(f.getBooleanValue(object));
+					break;
+				case BYTE:
+					append(f.getByteValue(object));
+					break;
+				case CHAR:
+					append(f.getCharValue(object));
+					break;
+				case SHORT:
+					append(f.getShortValue(object));
+					break;
+				case INT:
+					append(f.getIntValue(object));
+					break;
+				case LONG:
+					append(f.getLongValue(object));
+					break;
+				case FLOAT:
+					append(f.getFloatValue(object));
+					break;
+				case DOUBLE:
+					append(f.getDoubleValue(object));
+					break;
+				default:
+					append(f.getValue(object));
 			}
-
-			classAccessInHierarchy = classAccessInHierarchy.getSuperClassAccess();
 		}
-		if (classAccess.getType() != Object.class) {
-
-			final MethodAccess<Object> methodAccess;
-			try {
-				@SuppressWarnings("unchecked")
-				final MethodAccess<Object> myMethodAccess = (MethodAccess<Object>) classAccess
-						.getDeclaredMethodAccess(classAccess.getType().getMethod(
-								"hashCode"));
-				methodAccess = myMethodAccess;
-			} catch (NoSuchMethodException e) {
-				throw new IllegalStateException("Cannot find hashCode() method");
-			} catch (SecurityException e) {
-				throw new IllegalStateException("Cannot find hashCode() method");
-			}
+
+		final MethodAccess<Object> methodAccess = plan.getMethod();
+		if (methodAccess != null) {
 			append(((Integer) (methodAccess.invoke(object))).intValue());
 		}
 	}
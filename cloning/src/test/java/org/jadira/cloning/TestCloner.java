@@ -1,16 +1,33 @@
  package org.jadira.cloning;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import javax.xml.datatype.DatatypeConfigurationException;
 import javax.xml.datatype.DatatypeFactory;
@@ -18,21 +35,41 @@ import javax.xml.datatype.XMLGregorianCalendar;
 
 import org.jadira.cloning.data.DeepCopyHolder;
 import org.jadira.cloning.data.ExampleEnum;
+import org.jadira.cloning.data.FlagHolder;
 import org.jadira.cloning.data.IdHolder;
+import org.jadira.cloning.data.Item;
+import org.jadira.cloning.data.ItemsHolder;
+import org.jadira.cloning.data.Money;
+import org.jadira.cloning.data.MutableReference;
+import org.jadira.cloning.data.Price;
 import org.jadira.cloning.data.ReferencesHolder;
+import org.jadira.reflection.access.methodhandle.MethodHandleFieldAccess;
 import org.jadira.reflection.access.unsafe.UnsafeOperations;
 import org.jadira.reflection.cloning.BasicCloner;
 import org.jadira.reflection.cloning.MinimalCloner;
+import org.jadira.reflection.cloning.ParallelCloner;
+import org.jadira.reflection.cloning.api.CloneListener;
 import org.jadira.reflection.cloning.api.Cloner;
 import org.jadira.reflection.cloning.implementor.AsmCloneStrategy;
+import org.jadira.reflection.cloning.implementor.CompiledCloneStrategy;
 import org.jadira.reflection.cloning.implementor.InvokeDynamicCloneStrategy;
+import org.jadira.reflection.cloning.implementor.MethodHandleCloneStrategy;
+import org.jadira.reflection.cloning.implementor.ParallelCloneSupport;
 import org.jadira.reflection.cloning.implementor.PortableCloneStrategy;
+import org.jadira.reflection.cloning.implementor.UnsafeCloneStrategy;
+import org.jadira.reflection.cloning.metrics.CloneMetrics;
+import org.jadira.reflection.cloning.pool.ThreadLocalInstancePool;
+import org.jadira.reflection.core.identity.BasicIdentityReferenceMap;
+import org.jadira.reflection.core.identity.ConcurrentIdentityReferenceMap;
+import org.jadira.reflection.core.identity.IdentityReferenceMap;
+import org.jadira.reflection.equals.EqualsBuilder;
+import org.jadira.reflection.hashcode.HashCodeBuilder;
 import org.junit.Assert;
 import org.junit.Test;
 
 public class TestCloner {
 
-	private static final Cloner[] CLONERS = new Cloner[] { new BasicCloner(), new BasicCloner(new InvokeDynamicCloneStrategy()), new BasicCloner(new AsmCloneStrategy()), new BasicCloner(new PortableCloneStrategy()), new MinimalCloner() };
+	private static final Cloner[] CLONERS = new Cloner[] { new BasicCloner(), new BasicCloner(new InvokeDynamicCloneStrategy()), new BasicCloner(new AsmCloneStrategy()), new BasicCloner(new PortableCloneStrategy()), new BasicCloner(new CompiledCloneStrategy()), new BasicCloner(new MethodHandleCloneStrategy()), new ParallelCloner(), new MinimalCloner() };
 
 	/**
 	 * Test that verifies that JDK types are handled correctly
@@ -229,6 +266,721 @@ public class TestCloner {
 		assertEquals(5, clonedLinkedList.size());
 	}
 	
+	/**
+	 * Test that a reflective hashcode can be computed for a class without its own hashCode() and is stable for a copy
+	 */
+	@Test
+	public void testReflectionHashCode() {
+
+		final FlagHolder flagHolder = new FlagHolder();
+		flagHolder.flag = true;
+		flagHolder.id = "outer";
+		flagHolder.value = new IdHolder();
+		flagHolder.value.setId("inner");
+
+		final FlagHolder clone = new BasicCloner().clone(flagHolder);
+		assertEquals(HashCodeBuilder.reflectionHashCode(flagHolder), HashCodeBuilder.reflectionHashCode(clone));
+	}
+
+	/**
+	 * Test that a field sharing its name with a field of another class is copied using its own model
+	 */
+	@Test
+	public void testFieldNamesSharedAcrossClasses() {
+
+		for (int i = 0; i < CLONERS.length; i++) {
+			doTestFieldNamesSharedAcrossClasses(CLONERS[i]);
+		}
+	}
+
+	public void doTestFieldNamesSharedAcrossClasses(Cloner cloner) {
+
+		final IdHolder idHolder = new IdHolder();
+		idHolder.setId("inner");
+		assertEquals("inner", cloner.clone(idHolder).getId());
+
+		final FlagHolder flagHolder = new FlagHolder();
+		flagHolder.id = "outer";
+
+		final FlagHolder clone = cloner.clone(flagHolder);
+		assertNotSame(flagHolder, clone);
+		assertEquals("outer", clone.id);
+	}
+
+	/**
+	 * Test that the invokedynamic accessors copy a field whose declared type is a class other than Object
+	 */
+	@Test
+	public void testInvokeDynamicTypedReferenceField() {
+
+		final Cloner cloner = new BasicCloner(new InvokeDynamicCloneStrategy());
+
+		final IdHolder idHolder = new IdHolder();
+		idHolder.setId("inner");
+		final FlagHolder flagHolder = new FlagHolder();
+		flagHolder.value = idHolder;
+
+		final FlagHolder clone = cloner.clone(flagHolder);
+		assertNotSame(flagHolder, clone);
+		assertNotSame(idHolder, clone.value);
+		assertEquals("inner", clone.value.getId());
+	}
+
+	/**
+	 * Test that the MethodHandle accessor generated for a field is shared by later requests for that field
+	 */
+	@Test
+	public void testMethodHandleFieldAccessShared() throws NoSuchFieldException {
+
+		final MethodHandleFieldAccess<IdHolder> access = MethodHandleFieldAccess.get(IdHolder.class.getDeclaredField("id"));
+		assertSame(access, MethodHandleFieldAccess.get(IdHolder.class.getDeclaredField("id")));
+
+		final IdHolder idHolder = new IdHolder();
+		access.putValue(idHolder, "EURUSD");
+		assertEquals("EURUSD", idHolder.getId());
+		assertEquals(IdHolder.class.getName() + "$MethodHandleFieldAccess$id", access.getClass().getName());
+	}
+
+	/**
+	 * Test that the ASM accessors copy every field of a class whose fields are not declared in name order
+	 */
+	@Test
+	public void testAsmFieldsNotDeclaredInNameOrder() {
+
+		final Cloner cloner = new BasicCloner(new AsmCloneStrategy());
+
+		final FlagHolder flagHolder = new FlagHolder();
+		flagHolder.flag = true;
+		flagHolder.id = "outer";
+		flagHolder.amount = 12.5D;
+
+		final FlagHolder clone = cloner.clone(flagHolder);
+		assertNotSame(flagHolder, clone);
+		assertTrue(clone.flag);
+		assertEquals("outer", clone.id);
+		assertEquals(12.5D, clone.amount, 0.0D);
+		assertNull(clone.value);
+	}
+
+	/**
+	 * Test that cloneAll and cloneInto called by a thread of the cloner's own pool clone on that thread alone,
+	 * as the reference map they use is not safe for the segments of large arrays to be cloned concurrently
+	 */
+	@Test
+	public void testParallelClonerCalledWithinItsPool() throws Exception {
+
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			final ParallelCloner cloner = new ParallelCloner(new UnsafeCloneStrategy(), pool);
+			cloner.setParallelThreshold(16);
+
+			final Set<Thread> cloningThreads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+			cloner.setCloneListener(new CloneListener() {
+				@Override
+				public void objectCloned(Object original, Object copy) {
+					cloningThreads.add(Thread.currentThread());
+				}
+
+				@Override
+				public void referenceReused(Object original) {
+				}
+
+				@Override
+				public void rootCloned(Object original, Object copy, long elapsedNanos) {
+				}
+			});
+
+			final IdHolder[] shared = new IdHolder[10];
+			for (int i = 0; i < shared.length; i++) {
+				shared[i] = new IdHolder();
+				shared[i].setId("id" + i);
+			}
+			final ReferencesHolder[] holders = new ReferencesHolder[5000];
+			for (int i = 0; i < holders.length; i++) {
+				holders[i] = new ReferencesHolder();
+				holders[i].ref1 = shared[i % shared.length];
+			}
+
+			final List<Object> clones = pool.submit(new Callable<List<Object>>() {
+				@Override
+				public List<Object> call() {
+					return cloner.cloneAll(Collections.<Object>singletonList(holders), false);
+				}
+			}).get();
+			assertEquals(1, cloningThreads.size());
+			cloningThreads.clear();
+
+			final ReferencesHolder root = new ReferencesHolder();
+			root.ref1 = holders;
+			final ReferencesHolder target = pool.submit(new Callable<ReferencesHolder>() {
+				@Override
+				public ReferencesHolder call() {
+					return cloner.cloneInto(root, new ReferencesHolder());
+				}
+			}).get();
+			assertEquals(1, cloningThreads.size());
+
+			for (ReferencesHolder[] next : new ReferencesHolder[][] { (ReferencesHolder[]) clones.get(0), (ReferencesHolder[]) target.ref1 }) {
+				for (int i = 0; i < holders.length; i++) {
+					assertNotSame(holders[i], next[i]);
+					assertSame(next[i % shared.length].ref1, next[i].ref1);
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Test that references shared between the segments of a large array and list are still shared after a parallel clone
+	 */
+	@Test
+	public void testParallelReferencesWiring() {
+
+		final ParallelCloner cloner = new ParallelCloner();
+		cloner.setParallelThreshold(16);
+
+		final IdHolder[] shared = new IdHolder[10];
+		for (int i = 0; i < shared.length; i++) {
+			shared[i] = new IdHolder();
+			shared[i].setId("id" + i);
+		}
+
+		final ReferencesHolder[] holders = new ReferencesHolder[5000];
+		final List<ReferencesHolder> holderList = new ArrayList<ReferencesHolder>();
+		for (int i = 0; i < holders.length; i++) {
+			holders[i] = new ReferencesHolder();
+			holders[i].ref1 = shared[i % shared.length];
+			holderList.add(holders[i]);
+		}
+		for (int i = 0; i < holders.length; i++) {
+			holders[i].ref2 = holders[(i + 1) % holders.length];
+		}
+
+		final Object[] graph = new Object[] { holders, holderList };
+		final Object[] clone = cloner.clone(graph);
+
+		final ReferencesHolder[] clonedHolders = (ReferencesHolder[]) clone[0];
+		@SuppressWarnings("unchecked")
+		final List<ReferencesHolder> clonedList = (List<ReferencesHolder>) clone[1];
+
+		assertEquals(holders.length, clonedList.size());
+		for (int i = 0; i < holders.length; i++) {
+			assertNotSame(holders[i], clonedHolders[i]);
+			assertSame(clonedHolders[i], clonedList.get(i));
+			assertSame(clonedHolders[(i + 1) % holders.length], clonedHolders[i].ref2);
+			assertSame(clonedHolders[i % shared.length].ref1, clonedHolders[i].ref1);
+			assertEquals("id" + (i % shared.length), ((IdHolder) clonedHolders[i].ref1).getId());
+		}
+	}
+
+	/**
+	 * Test that elements are only staged for a parallel clone by a ParallelCloner running within its own pool,
+	 * with a concurrent reference map, above its threshold, and that lists and maps cloned either way are equal
+	 */
+	@Test
+	public void testParallelCloneOnlyWithinPool() throws Exception {
+
+		final ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			final ParallelCloner cloner = new ParallelCloner(new UnsafeCloneStrategy(), pool);
+			cloner.setParallelThreshold(16);
+
+			assertFalse(ParallelCloneSupport.isParallel(100, new BasicCloner(), null));
+			assertFalse(ParallelCloneSupport.isParallel(100, cloner, null));
+
+			final boolean[] withinPool = pool.submit(new Callable<boolean[]>() {
+				@Override
+				public boolean[] call() {
+					return new boolean[] { ParallelCloneSupport.isParallel(100, cloner, null),
+							ParallelCloneSupport.isParallel(100, cloner, new ConcurrentIdentityReferenceMap()),
+							ParallelCloneSupport.isParallel(100, cloner, new BasicIdentityReferenceMap()),
+							ParallelCloneSupport.isParallel(16, cloner, null) };
+				}
+			}).get();
+			assertTrue(withinPool[0]);
+			assertTrue(withinPool[1]);
+			assertFalse(withinPool[2]);
+			assertFalse(withinPool[3]);
+
+			final List<IdHolder> list = new ArrayList<IdHolder>();
+			final Map<String, IdHolder> map = new HashMap<String, IdHolder>();
+			final Map<String, IdHolder> concurrentMap = new ConcurrentHashMap<String, IdHolder>();
+			for (int i = 0; i < 100; i++) {
+				final IdHolder holder = new IdHolder();
+				holder.setId("id" + i);
+				list.add(holder);
+				map.put("id" + i, holder);
+				concurrentMap.put("id" + i, holder);
+			}
+			final Object[] graph = new Object[] { list, map, concurrentMap };
+
+			final Object[] inPool = pool.submit(new Callable<Object[]>() {
+				@Override
+				public Object[] call() {
+					return cloner.clone(graph);
+				}
+			}).get();
+			for (Object[] next : new Object[][] { new BasicCloner().clone(graph), inPool }) {
+				assertEquals(list, next[0]);
+				assertEquals(map, next[1]);
+				assertEquals(concurrentMap, next[2]);
+				assertNotSame(list.get(0), ((List<?>) next[0]).get(0));
+				assertSame(((List<?>) next[0]).get(7), ((Map<?, ?>) next[1]).get("id7"));
+				assertSame(((List<?>) next[0]).get(7), ((Map<?, ?>) next[2]).get("id7"));
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Test that changing the configuration of a cloner after it has been used takes effect
+	 */
+	@Test
+	public void testReconfigureAfterClone() {
+
+		final BasicCloner cloner = new BasicCloner();
+
+		final FlagHolder flagHolder = new FlagHolder();
+		flagHolder.id = "outer";
+		flagHolder.value = new IdHolder();
+		flagHolder.value.setId("inner");
+
+		assertNotSame(flagHolder.value, cloner.clone(flagHolder).value);
+
+		final Set<Class<?>> immutableClasses = new HashSet<Class<?>>();
+		immutableClasses.add(IdHolder.class);
+		cloner.setImmutableClasses(immutableClasses);
+
+		assertSame(flagHolder.value, cloner.clone(flagHolder).value);
+	}
+
+	@Test
+	public void testCloneInto() {
+
+		final IdHolder id = new IdHolder();
+		id.setId("EURUSD");
+
+		final ReferencesHolder source = new ReferencesHolder();
+		source.ref1 = id;
+		source.ref2 = id;
+		source.ref3 = "1.0842";
+
+		final ReferencesHolder target = new ReferencesHolder();
+		target.ref4 = "stale";
+
+		final BasicCloner cloner = new BasicCloner();
+		assertSame(target, cloner.cloneInto(source, target));
+		assertNotSame(id, target.ref1);
+		assertEquals(id, target.ref1);
+		assertSame(target.ref1, target.ref2);
+		assertEquals("1.0842", target.ref3);
+		assertEquals(null, target.ref4);
+
+		cloner.setStructuralSharing(true);
+		try {
+			cloner.cloneInto(new Money("GBP", 1L), new Money("USD", 2L));
+			fail("Shared instances cannot be cloned into");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+	}
+
+	@Test
+	public void testInstanceSource() {
+
+		final ThreadLocalInstancePool pool = new ThreadLocalInstancePool(1);
+
+		final BasicCloner cloner = new BasicCloner(new CompiledCloneStrategy());
+		cloner.setInstanceSource(pool);
+
+		final IdHolder id = new IdHolder();
+		id.setId("EURUSD");
+		final ReferencesHolder source = new ReferencesHolder();
+		source.ref1 = id;
+
+		final ReferencesHolder recycled = new ReferencesHolder();
+		recycled.ref2 = "stale";
+		assertTrue(cloner.recycle(recycled));
+		assertFalse(cloner.recycle(new ReferencesHolder()));
+		assertEquals(1, pool.getPoolSize(ReferencesHolder.class));
+
+		final ReferencesHolder clone = cloner.clone(source);
+		assertSame(recycled, clone);
+		assertEquals(id, clone.ref1);
+		assertNotSame(id, clone.ref1);
+		assertEquals(null, clone.ref2);
+		assertEquals(0, pool.getPoolSize(ReferencesHolder.class));
+
+		assertNotSame(recycled, cloner.clone(source));
+	}
+
+	/**
+	 * Test that an instance obtained from the source is returned to it when another copy is registered first
+	 */
+	@Test
+	public void testInstanceSourceWhenCopyRegisteredFirst() {
+
+		final ThreadLocalInstancePool pool = new ThreadLocalInstancePool(1);
+
+		final BasicCloner cloner = new BasicCloner(new CompiledCloneStrategy());
+		cloner.setInstanceSource(pool);
+		assertTrue(cloner.recycle(new ReferencesHolder()));
+
+		final ReferencesHolder source = new ReferencesHolder();
+		final ReferencesHolder registered = new ReferencesHolder();
+
+		// Finds no copy when first asked, as if another thread registers its copy in the meantime
+		final IdentityReferenceMap referencesToReuse = new BasicIdentityReferenceMap() {
+			@Override
+			public Object get(Object key) {
+				return null;
+			}
+		};
+		referencesToReuse.put(source, registered);
+
+		assertSame(registered, cloner.clone(source, cloner, referencesToReuse, 0L));
+		assertEquals(1, pool.getPoolSize(ReferencesHolder.class));
+	}
+
+	@Test
+	public void testListenerWhenCopyRegisteredFirst() {
+
+		final List<Object> notified = new ArrayList<Object>();
+		final BasicCloner cloner = new BasicCloner();
+		cloner.setCloneListener(new CloneListener() {
+			@Override
+			public void objectCloned(Object original, Object copy) {
+				notified.add("cloned");
+			}
+			@Override
+			public void referenceReused(Object original) {
+				notified.add("reused");
+			}
+			@Override
+			public void rootCloned(Object original, Object copy, long elapsedNanos) {
+			}
+		});
+
+		final ArrayList<String> list = new ArrayList<String>();
+		final ArrayList<String> registeredList = new ArrayList<String>();
+		final int[] array = new int[] { 1 };
+		final int[] registeredArray = new int[] { 1 };
+
+		// Finds no copy when first asked, as if another thread registers its copy in the meantime
+		final IdentityReferenceMap referencesToReuse = new BasicIdentityReferenceMap() {
+			@Override
+			public Object get(Object key) {
+				return null;
+			}
+		};
+		referencesToReuse.put(list, registeredList);
+		referencesToReuse.put(array, registeredArray);
+
+		assertSame(registeredList, cloner.clone(list, cloner, referencesToReuse, 0L));
+		assertSame(registeredArray, cloner.clone(array, cloner, referencesToReuse, 0L));
+		assertEquals(Arrays.<Object>asList("reused", "reused"), notified);
+	}
+
+	@Test
+	public void testCloneMetrics() {
+
+		final IdHolder id = new IdHolder();
+		id.setId("EURUSD");
+
+		final ReferencesHolder holder = new ReferencesHolder();
+		holder.ref1 = id;
+		holder.ref2 = id;
+		holder.ref3 = new Object[] { id };
+		holder.ref4 = "shared";
+
+		final CloneMetrics metrics = new CloneMetrics();
+		final BasicCloner cloner = new BasicCloner();
+		cloner.setCloneListener(metrics);
+
+		cloner.clone(holder);
+		cloner.clone(holder);
+
+		assertEquals(2L, metrics.getStatistics(ReferencesHolder.class).getObjectsCloned());
+		assertEquals(2L, metrics.getStatistics(ReferencesHolder.class).getRootClones());
+		assertEquals(2L, metrics.getStatistics(IdHolder.class).getObjectsCloned());
+		assertEquals(4L, metrics.getStatistics(IdHolder.class).getReferencesReused());
+		assertEquals(2L, metrics.getStatistics(Object[].class).getObjectsCloned());
+		assertEquals(0L, metrics.getStatistics(String.class).getObjectsCloned());
+		assertEquals(6L, metrics.getObjectsCloned());
+		assertEquals(2L, metrics.getRootClones());
+		assertTrue(metrics.getBytesCloned() > 0L);
+		assertTrue(metrics.dump(10).contains(IdHolder.class.getName()));
+
+		metrics.reset();
+		assertEquals(0L, metrics.getObjectsCloned());
+		assertTrue(metrics.getStatistics().isEmpty());
+
+		// Counting resumes with the same counters
+		cloner.clone(id);
+		assertEquals(1L, metrics.getObjectsCloned());
+		assertEquals(1, metrics.getStatistics().size());
+		assertEquals(IdHolder.class, metrics.getStatistics().get(0).getType());
+	}
+
+	@Test
+	public void testCloneAll() {
+
+		final IdHolder referenceData = new IdHolder();
+		referenceData.setId("EURUSD");
+
+		final List<ReferencesHolder> aggregates = new ArrayList<ReferencesHolder>();
+		for (int i = 0; i < 1000; i++) {
+			final ReferencesHolder next = new ReferencesHolder();
+			next.ref1 = referenceData;
+			next.ref2 = Integer.valueOf(i);
+			aggregates.add(next);
+		}
+		aggregates.add(null);
+
+		for (BasicCloner cloner : new BasicCloner[] { new BasicCloner(), new ParallelCloner() }) {
+			for (boolean parallel : new boolean[] { false, true }) {
+
+				final List<ReferencesHolder> clones = cloner.cloneAll(aggregates, parallel);
+				assertEquals(aggregates.size(), clones.size());
+				assertEquals(null, clones.get(1000));
+
+				final Object clonedReferenceData = clones.get(0).ref1;
+				assertNotSame(referenceData, clonedReferenceData);
+				assertEquals(referenceData, clonedReferenceData);
+				for (int i = 0; i < 1000; i++) {
+					assertNotSame(aggregates.get(i), clones.get(i));
+					assertSame(clonedReferenceData, clones.get(i).ref1);
+					assertEquals(Integer.valueOf(i), clones.get(i).ref2);
+				}
+			}
+		}
+
+		final List<IdHolder> clones = new BasicCloner().cloneAll(referenceData, referenceData);
+		assertSame(clones.get(0), clones.get(1));
+	}
+
+	@Test
+	public void testStructuralSharing() {
+
+		final Price price = new Price(new Money("GBP", 100L), ExampleEnum.B, new Price(new Money("GBP", 90L), ExampleEnum.A, null));
+		final MutableReference mutableReference = new MutableReference(new IdHolder());
+
+		final ReferencesHolder holder = new ReferencesHolder();
+		holder.ref1 = price;
+		holder.ref2 = mutableReference;
+
+		final BasicCloner cloner = new BasicCloner();
+
+		ReferencesHolder clone = cloner.clone(holder);
+		assertNotSame(price, clone.ref1);
+		assertNotSame(mutableReference, clone.ref2);
+
+		cloner.setStructuralSharing(true);
+
+		clone = cloner.clone(holder);
+		assertNotSame(holder, clone);
+		assertSame(price, clone.ref1);
+		assertNotSame(mutableReference, clone.ref2);
+		assertNotSame(mutableReference.getValue(), ((MutableReference) clone.ref2).getValue());
+
+		final BasicCloner compiledCloner = new BasicCloner(new CompiledCloneStrategy());
+		compiledCloner.setStructuralSharing(true);
+		assertSame(price, compiledCloner.clone(holder).ref1);
+	}
+
+	@Test
+	public void testImmutableClassesAreCopied() {
+
+		final BasicCloner cloner = new BasicCloner();
+
+		final FlagHolder flagHolder = new FlagHolder();
+		flagHolder.value = new IdHolder();
+
+		final Set<Class<?>> immutableClasses = new HashSet<Class<?>>();
+		cloner.setImmutableClasses(immutableClasses);
+		immutableClasses.add(IdHolder.class);
+
+		assertNotSame(flagHolder.value, cloner.clone(flagHolder).value);
+	}
+
+	@Test
+	public void testAddImmutableAndNonCloneableClasses() {
+
+		final BasicCloner cloner = new BasicCloner();
+
+		final FlagHolder flagHolder = new FlagHolder();
+		flagHolder.value = new IdHolder();
+		assertNotSame(flagHolder.value, cloner.clone(flagHolder).value);
+
+		cloner.addImmutableClass(IdHolder.class);
+		assertTrue(cloner.getImmutableClasses().contains(IdHolder.class));
+		assertSame(flagHolder.value, cloner.clone(flagHolder).value);
+
+		cloner.addNonCloneableClass(FlagHolder.class);
+		assertTrue(cloner.getNonCloneableClasses().contains(FlagHolder.class));
+		assertSame(flagHolder, cloner.clone(flagHolder));
+		assertTrue(cloner.getImmutableClasses().contains(IdHolder.class));
+
+		try {
+			cloner.getImmutableClasses().add(Price.class);
+			fail("The immutable classes should not be modifiable");
+		} catch (UnsupportedOperationException e) {
+			// Expected
+		}
+	}
+
+	@Test
+	public void testClonersShareEqualConfigurations() {
+
+		final BasicCloner[] cloners = new BasicCloner[8];
+		for (int i = 0; i < cloners.length; i++) {
+			cloners[i] = new BasicCloner();
+		}
+		assertEquals(cloners[0].getConfigurationKey(), cloners[7].getConfigurationKey());
+
+		final Set<Class<?>> immutableClasses = new HashSet<Class<?>>();
+		immutableClasses.add(IdHolder.class);
+		cloners[7].setImmutableClasses(immutableClasses);
+		assertFalse(cloners[0].getConfigurationKey().equals(cloners[7].getConfigurationKey()));
+
+		final FlagHolder flagHolder = new FlagHolder();
+		flagHolder.value = new IdHolder();
+		for (int i = 0; i < cloners.length - 1; i++) {
+			assertNotSame(flagHolder.value, cloners[i].clone(flagHolder).value);
+		}
+		assertSame(flagHolder.value, cloners[7].clone(flagHolder).value);
+
+		cloners[7].setImmutableClasses(new HashSet<Class<?>>());
+		assertEquals(cloners[0].getConfigurationKey(), cloners[7].getConfigurationKey());
+		assertNotSame(flagHolder.value, cloners[7].clone(flagHolder).value);
+	}
+
+	@Test
+	public void testSharedBetweenThreads() throws Exception {
+
+		final BasicCloner cloner = new BasicCloner();
+
+		final List<FlagHolder> input = new ArrayList<FlagHolder>();
+		for (int i = 0; i < 100; i++) {
+			final FlagHolder flagHolder = new FlagHolder();
+			flagHolder.id = "outer" + i;
+			flagHolder.value = new IdHolder();
+			flagHolder.value.setId("inner" + i);
+			input.add(flagHolder);
+		}
+
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final List<Future<Void>> results = new ArrayList<Future<Void>>();
+			for (int t = 0; t < 4; t++) {
+				results.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() {
+						for (int n = 0; n < 200; n++) {
+							final List<FlagHolder> clone = cloner.clone(input);
+							for (int i = 0; i < input.size(); i++) {
+								assertEquals(input.get(i).id, clone.get(i).id);
+								assertEquals(input.get(i).value.getId(), clone.get(i).value.getId());
+							}
+						}
+						return null;
+					}
+				}));
+			}
+
+			for (int n = 0; n < 200; n++) {
+				cloner.putImmutableInstance(new Object());
+				cloner.setCloneTransientFields(n % 2 == 0);
+			}
+
+			for (Future<Void> next : results) {
+				next.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Test that reflective equality compares each field of a class without its own equals()
+	 */
+	@Test
+	public void testReflectionEquals() {
+
+		final FlagHolder flagHolder = new FlagHolder();
+		flagHolder.flag = true;
+		flagHolder.id = "outer";
+		flagHolder.value = new IdHolder();
+		flagHolder.value.setId("inner");
+		flagHolder.amount = 1.5D;
+
+		final FlagHolder clone = new BasicCloner().clone(flagHolder);
+		assertTrue(EqualsBuilder.reflectionEquals(flagHolder, clone));
+
+		clone.amount = 2.5D;
+		assertFalse(EqualsBuilder.reflectionEquals(flagHolder, clone));
+
+		clone.amount = 1.5D;
+		clone.value.setId("other");
+		assertFalse(EqualsBuilder.reflectionEquals(flagHolder, clone));
+		assertTrue(EqualsBuilder.reflectionEquals(flagHolder.value, flagHolder.value));
+	}
+
+	/**
+	 * Test that a pair found unequal by an equals() call whose result was discarded, here while probing
+	 * a HashMap bucket, is still unequal when compared again
+	 */
+	@Test
+	public void testReflectionEqualsPairComparedAgain() {
+
+		final Item first = new Item();
+		first.data = new ReferencesHolder();
+		first.data.ref1 = "first";
+		final Item second = new Item();
+		second.data = new ReferencesHolder();
+		second.data.ref1 = "second";
+
+		final ItemsHolder lhs = new ItemsHolder();
+		lhs.map = new HashMap<Item, String>();
+		lhs.map.put(first, "first");
+		lhs.map.put(second, "second");
+		lhs.primary = second;
+
+		final ItemsHolder rhs = new ItemsHolder();
+		rhs.map = new HashMap<Item, String>(lhs.map);
+		rhs.primary = first;
+
+		assertFalse(EqualsBuilder.reflectionEquals(lhs, rhs));
+
+		rhs.primary = second;
+		assertTrue(EqualsBuilder.reflectionEquals(lhs, rhs));
+	}
+
+	/**
+	 * Test that deep reflective equality terminates for cyclic graphs and still detects differences
+	 */
+	@Test
+	public void testReflectionEqualsCyclicGraph() {
+
+		final ReferencesHolder[] holders = new ReferencesHolder[1000];
+		for (int i = 0; i < holders.length; i++) {
+			holders[i] = new ReferencesHolder();
+			holders[i].ref2 = Integer.valueOf(i);
+		}
+		for (int i = 0; i < holders.length; i++) {
+			holders[i].ref1 = holders[(i + 1) % holders.length];
+		}
+
+		final ReferencesHolder[] clone = new BasicCloner().clone(holders);
+
+		assertTrue(new EqualsBuilder().withDefaultDeepReflect(true).append(holders[0], clone[0]).isEquals());
+
+		clone[500].ref2 = Integer.valueOf(-1);
+		assertFalse(new EqualsBuilder().withDefaultDeepReflect(true).append(holders[0], clone[0]).isEquals());
+	}
+
 	@Test
     public void testBasicWithPortable() throws DatatypeConfigurationException {
 
@@ -285,6 +1037,27 @@ public class TestCloner {
         Assert.assertNotSame(source.xmlCalendar, dest.xmlCalendar);
     }
 	
+	@Test
+	@SuppressWarnings("deprecation")
+	public void testUnsafeOperationsWithIdentityHashMap() {
+
+		DeepCopyHolder source = new DeepCopyHolder();
+		source.value = new IdHolder();
+		source.value.setId("A Sample Value to Copy");
+
+		// The deprecated overload still populates the caller's map with the copies made
+		IdentityHashMap<Object, Object> referencesToReuse = new IdentityHashMap<Object, Object>();
+		DeepCopyHolder dest = UnsafeOperations.getUnsafeOperations().deepCopy(source, referencesToReuse);
+
+		Assert.assertNotSame(source.value, dest.value);
+		Assert.assertSame(dest, referencesToReuse.get(source));
+		Assert.assertSame(dest.value, referencesToReuse.get(source.value));
+
+		// Copies already in the map are reused
+		DeepCopyHolder again = UnsafeOperations.getUnsafeOperations().deepCopy(source, referencesToReuse);
+		Assert.assertSame(dest, again);
+	}
+	
 	@Test
     public void testMinimal() throws DatatypeConfigurationException {
 
@@ -0,0 +1,123 @@
+package org.jadira.cloning;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.jadira.cloning.data.IdHolder;
+import org.jadira.reflection.access.unsafe.DeepSizeReport;
+import org.jadira.reflection.access.unsafe.DeepSizer;
+import org.jadira.reflection.access.unsafe.UnsafeOperations;
+import org.junit.Test;
+
+public class TestDeepSizer {
+
+	@Test
+	public void testDeepGraph() {
+
+		final List<Integer> list = new LinkedList<Integer>();
+		for (int i = 0; i < 200000; i++) {
+			list.add(Integer.valueOf(i));
+		}
+
+		final DeepSizeReport report = new DeepSizer().sizeOf(list);
+		assertFalse(report.isBudgetExceeded());
+		assertEquals(0L, report.getEstimatedSize());
+		assertTrue(report.getObjectCount() > 200000L);
+		assertEquals(UnsafeOperations.getUnsafeOperations().deepSizeOf(list), report.getSize());
+	}
+
+	@Test
+	public void testBudget() {
+
+		final List<IdHolder> list = createHolders(10000);
+
+		final long fullSize = new DeepSizer().sizeOf(list).getSize();
+
+		final DeepSizeReport report = new DeepSizer().withBudget(4096L).sizeOf(list);
+		assertTrue(report.isBudgetExceeded());
+		assertTrue(report.getSize() > 4096L);
+		assertTrue(report.getSize() < fullSize);
+
+		assertFalse(new DeepSizer().withBudget(fullSize).sizeOf(list).isBudgetExceeded());
+	}
+
+	@Test
+	public void testSampling() {
+
+		final List<IdHolder> list = createHolders(100000);
+
+		final DeepSizeReport full = new DeepSizer().sizeOf(list);
+		final DeepSizeReport sampled = new DeepSizer().withSamplingRatio(0.1D).sizeOf(list);
+
+		assertTrue(sampled.getEstimatedSize() > 0L);
+		assertTrue(sampled.getObjectCount() < full.getObjectCount() / 5);
+		assertTrue(Math.abs(sampled.getSize() - full.getSize()) < full.getSize() / 20);
+	}
+
+	@Test
+	public void testSamplingCountsSharedObjectsOnce() {
+
+		// Every element refers to the same large object, which must not be extrapolated
+		final String shared = new String(new char[100000]);
+		final List<IdHolder> list = createHolders(10000);
+		for (IdHolder next : list) {
+			next.setId(shared);
+		}
+
+		final DeepSizeReport full = new DeepSizer().sizeOf(list);
+		final DeepSizeReport sampled = new DeepSizer().withSamplingRatio(0.1D).sizeOf(list);
+
+		assertTrue(sampled.getObjectCount() < full.getObjectCount() / 5);
+		assertTrue(Math.abs(sampled.getSize() - full.getSize()) < full.getSize() / 20);
+	}
+
+	@Test
+	public void testSamplingCountsObjectsReachableElsewhereOnce() {
+
+		// The large object is reached through a sampled element, but also from outside the sampled array
+		final String shared = new String(new char[100000]);
+		final List<IdHolder> list = createHolders(10000);
+		list.get(0).setId(shared);
+		final Object[] root = new Object[] { new Object[] { shared }, list };
+
+		final DeepSizeReport full = new DeepSizer().sizeOf(root);
+		final DeepSizeReport sampled = new DeepSizer().withSamplingRatio(0.1D).sizeOf(root);
+
+		assertTrue(sampled.getObjectCount() < full.getObjectCount() / 5);
+		assertTrue(Math.abs(sampled.getSize() - full.getSize()) < full.getSize() / 20);
+	}
+
+	@Test
+	public void testClassBreakdown() {
+
+		final List<IdHolder> list = createHolders(100);
+
+		final DeepSizeReport report = new DeepSizer().withClassBreakdown(true).sizeOf(list);
+
+		assertEquals(Long.valueOf(100L), report.getInstancesByClass().get(IdHolder.class));
+		assertEquals(Long.valueOf(1L), report.getInstancesByClass().get(ArrayList.class));
+		assertEquals(Long.valueOf(100L * UnsafeOperations.getUnsafeOperations().shallowSizeOf(IdHolder.class)), report.getBytesByClass().get(IdHolder.class));
+
+		long total = 0;
+		for (Long next : report.getBytesByClass().values()) {
+			total = total + next.longValue();
+		}
+		assertEquals(report.getMeasuredSize(), total);
+	}
+
+	private static List<IdHolder> createHolders(int count) {
+
+		final List<IdHolder> list = new ArrayList<IdHolder>();
+		for (int i = 0; i < count; i++) {
+			final IdHolder holder = new IdHolder();
+			holder.setId("id" + i);
+			list.add(holder);
+		}
+		return list;
+	}
+}
@@ -0,0 +1,79 @@
+package org.jadira.cloning;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.jadira.reflection.core.identity.IdentityPairSet;
+import org.junit.Test;
+
+public class TestIdentityPairSet {
+
+	@Test
+	public void testAddByIdentity() {
+
+		final IdentityPairSet set = new IdentityPairSet();
+
+		final String left = new String("left");
+		final String right = new String("right");
+
+		assertTrue(set.add(left, right));
+		assertFalse(set.add(left, right));
+		assertTrue(set.contains(left, right));
+
+		assertFalse(set.contains(right, left));
+		assertFalse(set.contains(new String("left"), right));
+		assertTrue(set.add(left, null));
+		assertEquals(2, set.size());
+	}
+
+	@Test
+	public void testGrowAndClear() {
+
+		final IdentityPairSet set = new IdentityPairSet();
+
+		final Object[] lefts = new Object[10000];
+		final Object[] rights = new Object[10000];
+		for (int i = 0; i < lefts.length; i++) {
+			lefts[i] = new Object();
+			rights[i] = new Object();
+			assertTrue(set.add(lefts[i], rights[i]));
+		}
+		assertEquals(10000, set.size());
+
+		for (int i = 0; i < lefts.length; i++) {
+			assertTrue(set.contains(lefts[i], rights[i]));
+			assertFalse(set.contains(lefts[i], lefts[i]));
+		}
+
+		set.clear();
+		assertTrue(set.isEmpty());
+		assertFalse(set.contains(lefts[0], rights[0]));
+		assertTrue(set.add(lefts[0], rights[0]));
+	}
+
+	@Test
+	public void testRemove() {
+
+		final IdentityPairSet set = new IdentityPairSet();
+
+		final Object[] lefts = new Object[10000];
+		final Object right = new Object();
+		for (int i = 0; i < lefts.length; i++) {
+			lefts[i] = new Object();
+			assertTrue(set.add(lefts[i], right));
+		}
+
+		for (int i = 0; i < lefts.length; i += 2) {
+			assertTrue(set.remove(lefts[i], right));
+		}
+		assertFalse(set.remove(lefts[0], right));
+		assertFalse(set.remove(lefts[1], null));
+		assertEquals(5000, set.size());
+
+		for (int i = 0; i < lefts.length; i++) {
+			assertEquals(i % 2 == 1, set.contains(lefts[i], right));
+		}
+		assertTrue(set.add(lefts[0], right));
+	}
+}
@@ -0,0 +1,113 @@
+package org.jadira.cloning;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.jadira.reflection.core.identity.BasicIdentityReferenceMap;
+import org.jadira.reflection.core.identity.ConcurrentIdentityReferenceMap;
+import org.jadira.reflection.core.identity.IdentityReferenceMap;
+import org.junit.Test;
+
+public class TestIdentityReferenceMap {
+
+	@Test
+	public void testPutAndGetByIdentity() {
+
+		final IdentityReferenceMap map = new BasicIdentityReferenceMap();
+
+		final String key = new String("key");
+		final String equalKey = new String("key");
+		final Object value = new Object();
+
+		assertNull(map.put(key, value));
+		assertSame(value, map.get(key));
+		assertTrue(map.containsKey(key));
+		assertNull(map.get(equalKey));
+		assertFalse(map.containsKey(equalKey));
+
+		final Object replacement = new Object();
+		assertSame(value, map.put(key, replacement));
+		assertSame(replacement, map.get(key));
+		assertEquals(1, map.size());
+	}
+
+	@Test
+	public void testGrowAndClear() {
+
+		final IdentityReferenceMap map = new BasicIdentityReferenceMap();
+
+		final Object[] keys = new Object[10000];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = new Object();
+			map.put(keys[i], Integer.valueOf(i));
+		}
+
+		assertEquals(keys.length, map.size());
+		for (int i = 0; i < keys.length; i++) {
+			assertEquals(Integer.valueOf(i), map.get(keys[i]));
+		}
+
+		map.clear();
+
+		assertTrue(map.isEmpty());
+		for (int i = 0; i < keys.length; i++) {
+			assertFalse(map.containsKey(keys[i]));
+		}
+	}
+
+	@Test
+	public void testAcquireAndRelease() {
+
+		final IdentityReferenceMap map = IdentityReferenceMap.acquire();
+		map.put(this, this);
+
+		// The pooled map is in use so a nested traversal gets its own map
+		final IdentityReferenceMap nested = IdentityReferenceMap.acquire();
+		assertNotSame(map, nested);
+		assertTrue(nested.isEmpty());
+		nested.release();
+
+		map.release();
+
+		final IdentityReferenceMap reused = IdentityReferenceMap.acquire();
+		assertSame(map, reused);
+		assertTrue(reused.isEmpty());
+		reused.release();
+	}
+
+	@Test
+	public void testConcurrentPutIfAbsent() throws InterruptedException {
+
+		final IdentityReferenceMap map = new ConcurrentIdentityReferenceMap();
+		final Object[] keys = new Object[1000];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = new Object();
+		}
+
+		final Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					for (Object key : keys) {
+						map.putIfAbsent(key, new Object());
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(keys.length, map.size());
+		for (Object key : keys) {
+			final Object value = map.get(key);
+			assertSame(value, map.putIfAbsent(key, new Object()));
+		}
+	}
+}
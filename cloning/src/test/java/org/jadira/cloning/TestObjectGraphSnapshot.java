@@ -0,0 +1,254 @@
+package org.jadira.cloning;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jadira.cloning.data.ExampleEnum;
+import org.jadira.cloning.data.FlagHolder;
+import org.jadira.cloning.data.IdHolder;
+import org.jadira.cloning.data.IdRecord;
+import org.jadira.cloning.data.MutableReference;
+import org.jadira.cloning.data.ReferencesHolder;
+import org.jadira.reflection.cloning.snapshot.ObjectGraphSnapshot;
+import org.junit.Test;
+
+public class TestObjectGraphSnapshot {
+
+	@Test
+	public void testRestoreObjectGraph() {
+
+		final IdHolder shared = new IdHolder();
+		shared.setId("shared");
+
+		final FlagHolder flagHolder = new FlagHolder();
+		flagHolder.flag = true;
+		flagHolder.id = "outer";
+		flagHolder.value = shared;
+		flagHolder.amount = 12.5D;
+
+		final ReferencesHolder holder = new ReferencesHolder();
+		holder.ref1 = flagHolder;
+		holder.ref2 = shared;
+		holder.ref3 = new Object[] { ExampleEnum.C, String.class, new int[] { 1, 2, 3 }, new long[] { 4L, 5L }, new Date(1000L), null };
+		holder.ref4 = holder;
+
+		final ObjectGraphSnapshot snapshot = ObjectGraphSnapshot.capture(holder);
+		final ReferencesHolder restored = snapshot.restore(ReferencesHolder.class);
+
+		assertNotSame(holder, restored);
+		assertSame(restored, restored.ref4);
+
+		final FlagHolder restoredFlagHolder = (FlagHolder) restored.ref1;
+		assertNotSame(flagHolder, restoredFlagHolder);
+		assertEquals(true, restoredFlagHolder.flag);
+		assertEquals("outer", restoredFlagHolder.id);
+		assertEquals(12.5D, restoredFlagHolder.amount, 0D);
+		assertSame(restoredFlagHolder.value, restored.ref2);
+		assertEquals("shared", restoredFlagHolder.value.getId());
+
+		final Object[] array = (Object[]) restored.ref3;
+		assertSame(ExampleEnum.C, array[0]);
+		assertSame(String.class, array[1]);
+		assertArrayEquals(new int[] { 1, 2, 3 }, (int[]) array[2]);
+		assertArrayEquals(new long[] { 4L, 5L }, (long[]) array[3]);
+		assertEquals(new Date(1000L), array[4]);
+		assertNull(array[5]);
+
+		assertNotSame(restored, snapshot.restore());
+	}
+
+	@Test
+	public void testRestoreIdentityHashedKeys() {
+
+		final Object[] keys = new Object[100];
+		final Map<Object, Object> map = new HashMap<Object, Object>();
+		final Set<Object> set = new HashSet<Object>();
+		final Map<Object, Object> identityMap = new IdentityHashMap<Object, Object>();
+		final Map<Object, Object> concurrentMap = new ConcurrentHashMap<Object, Object>();
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = new ReferencesHolder();
+			map.put(keys[i], Integer.valueOf(i));
+			set.add(keys[i]);
+			identityMap.put(keys[i], Integer.valueOf(i));
+			concurrentMap.put(keys[i], Integer.valueOf(i));
+		}
+
+		final Object[] graph = new Object[] { keys, map, set, identityMap, concurrentMap };
+		final Object[] restored = (Object[]) ObjectGraphSnapshot.capture(graph).restore();
+
+		final Object[] restoredKeys = (Object[]) restored[0];
+		@SuppressWarnings("unchecked")
+		final Map<Object, Object> restoredMap = (Map<Object, Object>) restored[1];
+		@SuppressWarnings("unchecked")
+		final Set<Object> restoredSet = (Set<Object>) restored[2];
+		@SuppressWarnings("unchecked")
+		final Map<Object, Object> restoredIdentityMap = (Map<Object, Object>) restored[3];
+		@SuppressWarnings("unchecked")
+		final Map<Object, Object> restoredConcurrentMap = (Map<Object, Object>) restored[4];
+
+		for (int i = 0; i < keys.length; i++) {
+			assertNotSame(keys[i], restoredKeys[i]);
+			assertEquals(Integer.valueOf(i), restoredMap.get(restoredKeys[i]));
+			assertTrue(restoredSet.contains(restoredKeys[i]));
+			assertEquals(Integer.valueOf(i), restoredIdentityMap.get(restoredKeys[i]));
+			assertEquals(Integer.valueOf(i), restoredConcurrentMap.get(restoredKeys[i]));
+		}
+		assertEquals(keys.length, restoredMap.size());
+		assertEquals(keys.length, restoredSet.size());
+	}
+
+	@Test
+	public void testRestoreCollections() {
+
+		final List<Object> list = new ArrayList<Object>();
+		final Map<String, Object> map = new HashMap<String, Object>();
+		for (int i = 0; i < 10000; i++) {
+			list.add(Integer.valueOf(i));
+			map.put("key" + i, list);
+		}
+
+		@SuppressWarnings("unchecked")
+		final Map<String, Object> restored = (Map<String, Object>) ObjectGraphSnapshot.capture(map).restore();
+
+		assertEquals(map.size(), restored.size());
+		final Object restoredList = restored.get("key0");
+		assertEquals(list, restoredList);
+		assertNotSame(list, restoredList);
+		assertSame(restoredList, restored.get("key9999"));
+	}
+
+	@Test
+	public void testNullRoot() {
+		assertNull(ObjectGraphSnapshot.capture(null).restore());
+	}
+
+	@Test
+	public void testRestoreRejectsChangedClass() {
+
+		final IdHolder idHolder = new IdHolder();
+		idHolder.setId("changed");
+
+		// IdRecord stands for IdHolder after its id field has changed from a String to an int
+		final ByteBuffer content = copyOf(ObjectGraphSnapshot.capture(idHolder));
+		final byte[] recorded = IdHolder.class.getName().getBytes(StandardCharsets.UTF_8);
+		final byte[] changed = IdRecord.class.getName().getBytes(StandardCharsets.UTF_8);
+		final int position = recordedClassName(content, recorded);
+		for (int i = 0; i < changed.length; i++) {
+			content.put(position + i, changed[i]);
+		}
+
+		try {
+			ObjectGraphSnapshot.wrap(content).restore();
+			fail("Restored a snapshot of a class whose fields have changed");
+		} catch (IllegalStateException e) {
+			assertTrue(e.getMessage().contains(IdRecord.class.getName()));
+		}
+	}
+
+	@Test
+	public void testRestoreRejectsInvalidReferences() {
+
+		final IdHolder idHolder = new IdHolder();
+		idHolder.setId("referenced");
+
+		final ByteBuffer content = copyOf(ObjectGraphSnapshot.capture(new MutableReference(idHolder)));
+		final int valuePosition = firstRecordPosition(content) + 4;
+		assertEquals(1, content.getInt(valuePosition));
+
+		// Object 2 is the id String of the IdHolder
+		content.putInt(valuePosition, 2);
+		try {
+			ObjectGraphSnapshot.wrap(content).restore();
+			fail("Restored a String into a field of type IdHolder");
+		} catch (IllegalStateException e) {
+			assertTrue(e.getMessage().contains(String.class.getName()));
+		}
+
+		content.putInt(valuePosition, 99);
+		try {
+			ObjectGraphSnapshot.wrap(content).restore();
+			fail("Restored a reference to an object that is not recorded");
+		} catch (IllegalStateException e) {
+			assertTrue(e.getMessage().contains("99"));
+		}
+	}
+
+	private static ByteBuffer copyOf(ObjectGraphSnapshot snapshot) {
+
+		final ByteBuffer content = ByteBuffer.allocate(snapshot.size());
+		content.put(snapshot.asReadOnlyBuffer());
+		content.flip();
+		return content.order(ByteOrder.nativeOrder());
+	}
+
+	private static int recordedClassName(ByteBuffer content, byte[] name) {
+
+		int position = 12;
+		for (int i = content.getInt(8); i > 0; i--) {
+			final int length = content.getInt(position);
+			final byte[] next = new byte[length];
+			for (int j = 0; j < length; j++) {
+				next[j] = content.get(position + 4 + j);
+			}
+			if (Arrays.equals(name, next)) {
+				return position + 4;
+			}
+			position = position + 4 + length + 8;
+		}
+		throw new IllegalArgumentException("Class is not recorded: " + new String(name, StandardCharsets.UTF_8));
+	}
+
+	private static int firstRecordPosition(ByteBuffer content) {
+
+		int position = 12;
+		for (int i = content.getInt(8); i > 0; i--) {
+			position = position + 4 + content.getInt(position) + 8;
+		}
+		return position + 4;
+	}
+
+	@Test
+	public void testMappedFile() throws Exception {
+
+		final IdHolder idHolder = new IdHolder();
+		idHolder.setId("mapped");
+
+		final File file = File.createTempFile("snapshot", ".bin");
+		try {
+			final ObjectGraphSnapshot snapshot = ObjectGraphSnapshot.capture(idHolder, file);
+			assertEquals("mapped", snapshot.restore(IdHolder.class).getId());
+			assertEquals(snapshot.size(), file.length());
+
+			final File copy = File.createTempFile("snapshot", ".bin");
+			try {
+				snapshot.writeTo(copy);
+				assertEquals("mapped", ObjectGraphSnapshot.map(copy).restore(IdHolder.class).getId());
+				assertEquals("mapped", ObjectGraphSnapshot.wrap(snapshot.asReadOnlyBuffer()).restore(IdHolder.class).getId());
+			} finally {
+				copy.delete();
+			}
+		} finally {
+			file.delete();
+		}
+	}
+}
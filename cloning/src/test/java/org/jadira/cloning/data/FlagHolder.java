@@ -0,0 +1,9 @@
+package org.jadira.cloning.data;
+
+public class FlagHolder {
+
+	public boolean flag;
+	public String id;
+	public IdHolder value;
+	public double amount;
+}
@@ -0,0 +1,6 @@
+package org.jadira.cloning.data;
+
+public class IdRecord {
+
+	public int id;
+}
@@ -0,0 +1,19 @@
+package org.jadira.cloning.data;
+
+import org.jadira.reflection.equals.EqualsBuilder;
+
+public class Item {
+
+	public ReferencesHolder data;
+
+	@Override
+	public boolean equals(Object that) {
+		return that instanceof Item && EqualsBuilder.reflectionEquals(data, ((Item) that).data);
+	}
+
+	@Override
+	public int hashCode() {
+		// Every item shares a bucket, so looking one up compares it with the others
+		return 0;
+	}
+}
@@ -0,0 +1,9 @@
+package org.jadira.cloning.data;
+
+import java.util.Map;
+
+public class ItemsHolder {
+
+	public Map<Item, String> map;
+	public Item primary;
+}
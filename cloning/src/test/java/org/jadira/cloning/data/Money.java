@@ -0,0 +1,20 @@
+package org.jadira.cloning.data;
+
+public final class Money {
+
+	private final String currency;
+	private final long amount;
+
+	public Money(String currency, long amount) {
+		this.currency = currency;
+		this.amount = amount;
+	}
+
+	public String getCurrency() {
+		return currency;
+	}
+
+	public long getAmount() {
+		return amount;
+	}
+}
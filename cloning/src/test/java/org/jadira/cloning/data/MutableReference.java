@@ -0,0 +1,14 @@
+package org.jadira.cloning.data;
+
+public final class MutableReference {
+
+	private final IdHolder value;
+
+	public MutableReference(IdHolder value) {
+		this.value = value;
+	}
+
+	public IdHolder getValue() {
+		return value;
+	}
+}
@@ -0,0 +1,26 @@
+package org.jadira.cloning.data;
+
+public final class Price {
+
+	private final Money money;
+	private final ExampleEnum band;
+	private final Price previous;
+
+	public Price(Money money, ExampleEnum band, Price previous) {
+		this.money = money;
+		this.band = band;
+		this.previous = previous;
+	}
+
+	public Money getMoney() {
+		return money;
+	}
+
+	public ExampleEnum getBand() {
+		return band;
+	}
+
+	public Price getPrevious() {
+		return previous;
+	}
+}
@@ -99,7 +99,7 @@ public abstract class AbstractBufferedInputStream extends FilterInputStream {
 
         count = pos;
 
-        int n = getInputStreamIfOpen().read(toArray(), pos, limit() - pos);
+        int n = readFrom(getInputStreamIfOpen(), pos, limit() - pos);
 
         if (n > 0) {
             count = n + pos;
@@ -156,17 +156,7 @@ public abstract class AbstractBufferedInputStream extends FilterInputStream {
 
         int countSize = (avail < length) ? avail : length;
 
-        if (offset == 0) {
-
-            get(b, pos, countSize);
-
-        } else {
-
-            byte[] bc = new byte[countSize];
-            get(bc, pos, countSize);
-            System.arraycopy(bc, 0, b, offset, countSize);
-
-        }
+        get(pos, b, offset, countSize);
 
         pos += countSize;
         return countSize;
@@ -323,10 +313,14 @@ public abstract class AbstractBufferedInputStream extends FilterInputStream {
     protected abstract void compact(int markpos, int size);
 
     /**
-     * Return the bytes in the buffer as a byte array
-     * @return The bytes
+     * Reads bytes from the given stream into the buffer
+     * @param in The stream to read from
+     * @param position The position within the buffer of the first byte to be read
+     * @param length The maximum number of bytes to read
+     * @return The number of bytes read, or -1 if the end of the stream was reached
+     * @throws IOException Indicates a problem reading from the stream
      */
-    protected abstract byte[] toArray();
+    protected abstract int readFrom(InputStream in, int position, int length) throws IOException;
 
     /**
      * Enlarge the buffer to the new size, retaining the position
@@ -343,20 +337,21 @@ public abstract class AbstractBufferedInputStream extends FilterInputStream {
     protected abstract int limit();
 
     /**
-     * Reads four bytes (an int) from the given offset
-     * @param position The offset
-     * @return An int
-     * @throws IOException Indicates a problem reading the int
+     * Reads the byte at the given position in the buffer
+     * @param position The position
+     * @return The byte, widened to an int
+     * @throws IOException Indicates a problem reading the byte
      */
     protected abstract int getInt(int position) throws IOException;
 
     /**
-     * Retrieve the given number of bytes from the stream
+     * Copies bytes from the buffer into the given array
+     * @param position The position within the buffer of the first byte to be copied
      * @param b The array into which bytes will be written
-     * @param pos The offset within the array of the first byte to be written
-     * @param cnt The maximum number of bytes to be written to the given array
+     * @param off The offset within the array of the first byte to be written
+     * @param len The number of bytes to be copied
      */
-    protected abstract void get(byte[] b, int pos, int cnt);
+    protected abstract void get(int position, byte[] b, int off, int len);
 
     /**
      * Performs any necessary cleaning of the buffer and releasing of resources.
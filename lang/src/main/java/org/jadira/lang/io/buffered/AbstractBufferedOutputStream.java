@@ -55,7 +55,7 @@ public abstract class AbstractBufferedOutputStream extends FilterOutputStream {
     private void flushBuffer() throws IOException {
 
         if (count > 0) {
-            out.write(bytes(), 0, count);
+            writeTo(out, count);
             count = 0;
         }
     }
@@ -69,7 +69,7 @@ public abstract class AbstractBufferedOutputStream extends FilterOutputStream {
             flushBuffer();
         }
 
-        put((byte) b);
+        put(count++, (byte) b);
     }
 
     /**
@@ -110,20 +110,23 @@ public abstract class AbstractBufferedOutputStream extends FilterOutputStream {
     }
 
     /**
-     * Return the bytes in the buffer as a byte array
-     * @return The bytes
+     * Writes the bytes held in the buffer to the given stream
+     * @param out The stream to write to
+     * @param count The number of bytes held in the buffer
+     * @throws IOException Indicates a problem writing to the stream
      */
-    protected abstract byte[] bytes();
+    protected abstract void writeTo(OutputStream out, int count) throws IOException;
 
     /**
      * Put a single byte into the buffer
+     * @param position The position within the buffer to write the byte to
      * @param b The byte
      */
-    protected abstract void put(byte b);
+    protected abstract void put(int position, byte b);
 
     /**
      * Puts bytes into the buffer
-     * @param count The number of bytes already written into the buffer
+     * @param count The number of bytes already written into the buffer, which is the position the first byte is written to
      * @param b The byte array with the bytes to put
      * @param off Offset to write from in the bytes, b
      * @param len The number of bytes to write
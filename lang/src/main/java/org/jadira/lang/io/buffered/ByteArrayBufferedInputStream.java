@@ -58,8 +58,8 @@ public class ByteArrayBufferedInputStream extends AbstractBufferedInputStream {
     }
 
     @Override
-    protected byte[] toArray() {
-        return buf;
+    protected int readFrom(InputStream in, int position, int length) throws IOException {
+        return in.read(buf, position, length);
     }
 
     @Override
@@ -93,8 +93,8 @@ public class ByteArrayBufferedInputStream extends AbstractBufferedInputStream {
     }
 
     @Override
-    protected void get(byte[] b, int pos, int cnt) {
-        System.arraycopy(buf, pos, b, 0, cnt);
+    protected void get(int position, byte[] b, int off, int len) {
+        System.arraycopy(buf, position, b, off, len);
     }
 
     @Override
@@ -15,6 +15,7 @@
  */
 package org.jadira.lang.io.buffered;
 
+import java.io.IOException;
 import java.io.OutputStream;
 
 /**
@@ -48,13 +49,13 @@ public class ByteArrayBufferedOutputStream extends AbstractBufferedOutputStream
     }
 
     @Override
-    protected byte[] bytes() {
-        return buf;
+    protected void writeTo(OutputStream out, int count) throws IOException {
+        out.write(buf, 0, count);
     }
 
     @Override
-    protected void put(byte b) {
-        put(b);
+    protected void put(int position, byte b) {
+        buf[position] = b;
     }
 
     @Override
@@ -85,8 +85,8 @@ public class BytesBufferedInputStream extends AbstractBufferedInputStream {
     }
 
     @Override
-    protected byte[] toArray() {
-        return buf.array();
+    protected int readFrom(InputStream in, int position, int length) throws IOException {
+        return in.read(buf.array(), buf.arrayOffset() + position, length);
     }
 
     @Override
@@ -96,7 +96,8 @@ public class BytesBufferedInputStream extends AbstractBufferedInputStream {
             newSize = getMarkLimit();
         }
 
-        ByteBuffer nbuf = ByteBuffer.allocateDirect(newSize);
+        ByteBuffer nbuf = ByteBuffer.allocate(newSize);
+        nbuf.order(buf.order());
 
         buf.rewind();
         nbuf.put(buf);
@@ -117,12 +118,13 @@ public class BytesBufferedInputStream extends AbstractBufferedInputStream {
     @Override
     protected int getInt(int position) throws IOException {
         assertBufferOpen();
-        return buf.getInt(position);
+        return buf.get(position);
     }
 
     @Override
-    protected void get(byte[] b, int pos, int cnt) {
-        buf.get(b, pos, cnt);
+    protected void get(int position, byte[] b, int off, int len) {
+        buf.position(position);
+        buf.get(b, off, len);
     }
 
     @Override
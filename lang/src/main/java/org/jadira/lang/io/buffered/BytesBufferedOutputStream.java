@@ -15,6 +15,7 @@
  */
 package org.jadira.lang.io.buffered;
 
+import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -74,24 +75,19 @@ public class BytesBufferedOutputStream extends AbstractBufferedOutputStream {
     }
 
     @Override
-    protected byte[] bytes() {
-        return buf.array();
+    protected void writeTo(OutputStream out, int count) throws IOException {
+        out.write(buf.array(), buf.arrayOffset(), count);
     }
 
     @Override
-    protected void put(byte b) {
-        put(b);
+    protected void put(int position, byte b) {
+        buf.put(position, b);
     }
 
     @Override
     protected void put(int count, byte[] b, int off, int len) {
-        if (off == 0) {
-            buf.put(b, count, len);
-        } else {
-            byte[] bc = new byte[len];
-            System.arraycopy(b, off, bc, 0, len);
-            buf.put(bc, count, len);
-        }
+        buf.position(count);
+        buf.put(b, off, len);
     }
 
     @Override
@@ -0,0 +1,399 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.lang.io.buffered;
+
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * A buffered InputStream that reads from a {@link ReadableByteChannel} into a NIO DirectByteBuffer. The buffer is filled by
+ * the channel directly and reads are served from it using {@link ByteBuffer#get()}, so no intermediate array is used on the
+ * heap. For a {@link java.nio.channels.FileChannel} this means the file is copied once, from the operating system into the
+ * buffer.
+ * 
+ * As well as the InputStream methods, values can be read using {@link #readShort()}, {@link #readInt()}, {@link #readLong()},
+ * {@link #readFloat()} and {@link #readDouble()}. These decode the value in place within the buffer using the configured
+ * {@link ByteOrder}, which is big endian unless configured otherwise.
+ * 
+ * The buffer is borrowed from a {@link DirectBufferPool} and returned to it when the stream is closed.
+ * Mark and reset are not supported. Like {@link java.io.BufferedInputStream}, instances are not intended to be shared between threads.
+ */
+public class ChannelBufferedInputStream extends InputStream {
+
+    /** The default buffer size in bytes */
+    public static final int DEFAULT_BUFFER_SIZE = 65536;
+
+    private static final int LONG_BYTES = 8;
+
+    private final DirectBufferPool pool;
+
+    private ReadableByteChannel channel;
+
+    /**
+     * The buffer is always held ready for reading: its position is the next byte to be read and its limit is the end of the
+     * bytes read from the channel
+     */
+    private ByteBuffer buf;
+
+    private boolean endOfStream;
+
+    /**
+     * Creates a new instance with the default buffer size
+     * @param channel ReadableByteChannel to be read
+     */
+    public ChannelBufferedInputStream(ReadableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a new instance with the given buffer size in bytes.
+     * @param channel ReadableByteChannel to be read
+     * @param size The size of the buffer in bytes, which must allow for at least one long
+     */
+    public ChannelBufferedInputStream(ReadableByteChannel channel, int size) {
+        this(channel, size, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Creates a new instance with the given buffer size in bytes.
+     * @param channel ReadableByteChannel to be read
+     * @param size The size of the buffer in bytes, which must allow for at least one long
+     * @param byteOrder The byte order used by the typed read methods
+     */
+    public ChannelBufferedInputStream(ReadableByteChannel channel, int size, ByteOrder byteOrder) {
+        this(channel, size, byteOrder, DirectBufferPool.getDefault());
+    }
+
+    /**
+     * Creates a new instance with the given buffer size in bytes, borrowing the buffer from the given pool.
+     * @param channel ReadableByteChannel to be read
+     * @param size The size of the buffer in bytes, which must allow for at least one long
+     * @param byteOrder The byte order used by the typed read methods
+     * @param pool The pool that provides the buffer
+     */
+    public ChannelBufferedInputStream(ReadableByteChannel channel, int size, ByteOrder byteOrder, DirectBufferPool pool) {
+
+        if (channel == null) {
+            throw new IllegalArgumentException("Channel may not be null");
+        }
+        if (size < LONG_BYTES) {
+            throw new IllegalArgumentException("Buffer size may not be less than " + LONG_BYTES);
+        }
+
+        this.channel = channel;
+        this.pool = pool;
+        this.buf = pool.acquire(size);
+        buf.order(byteOrder);
+        buf.limit(0);
+    }
+
+    /**
+     * Creates a new instance with the default buffer size that reads from the given stream. A {@link FileInputStream}
+     * is read through its {@link java.nio.channels.FileChannel}; other streams are adapted using {@link Channels#newChannel(InputStream)}.
+     * @param in InputStream to be wrapped
+     */
+    public ChannelBufferedInputStream(InputStream in) {
+        this(in, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a new instance with the given buffer size that reads from the given stream, as described by
+     * {@link #ChannelBufferedInputStream(InputStream)}
+     * @param in InputStream to be wrapped
+     * @param size The size of the buffer in bytes, which must allow for at least one long
+     */
+    public ChannelBufferedInputStream(InputStream in, int size) {
+        this(in, size, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Creates a new instance with the given buffer size that reads from the given stream, as described by
+     * {@link #ChannelBufferedInputStream(InputStream)}
+     * @param in InputStream to be wrapped
+     * @param size The size of the buffer in bytes, which must allow for at least one long
+     * @param byteOrder The byte order used by the typed read methods
+     */
+    public ChannelBufferedInputStream(InputStream in, int size, ByteOrder byteOrder) {
+        this(toChannel(in), size, byteOrder);
+    }
+
+    private static ReadableByteChannel toChannel(InputStream in) {
+
+        if (in == null) {
+            throw new IllegalArgumentException("InputStream may not be null");
+        }
+        if (in instanceof FileInputStream) {
+            return ((FileInputStream) in).getChannel();
+        }
+        return Channels.newChannel(in);
+    }
+
+    /**
+     * Ensures at least the given number of bytes are buffered, unless the end of the stream is reached first
+     * @param required The number of bytes required, no more than the capacity of the buffer
+     * @return The number of bytes buffered
+     * @throws IOException Indicates a problem reading from the channel
+     */
+    private int fill(int required) throws IOException {
+
+        assertOpen();
+
+        if (buf.remaining() >= required || endOfStream) {
+            return buf.remaining();
+        }
+
+        buf.compact();
+        try {
+            while (buf.position() < required) {
+                if (channel.read(buf) < 0) {
+                    endOfStream = true;
+                    break;
+                }
+            }
+        } finally {
+            buf.flip();
+        }
+        return buf.remaining();
+    }
+
+    private void ensure(int required) throws IOException {
+
+        assertOpen();
+
+        if (buf.remaining() < required && fill(required) < required) {
+            throw new EOFException("End of stream reached with " + buf.remaining() + " bytes remaining, but " + required + " were required");
+        }
+    }
+
+    private void assertOpen() throws IOException {
+        if (buf == null) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+
+        assertOpen();
+
+        if (!buf.hasRemaining() && fill(1) == 0) {
+            return -1;
+        }
+        return buf.get() & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+
+        assertOpen();
+
+        if ((off | len | (off + len) | (b.length - (off + len))) < 0) {
+            throw new IndexOutOfBoundsException();
+        } else if (len == 0) {
+            return 0;
+        }
+
+        int n = 0;
+        while (n < len) {
+
+            int available = buf.remaining();
+            if (available == 0) {
+                if (n > 0 && channelAvailable() <= 0) {
+                    // Return what has been read rather than block for more
+                    break;
+                }
+                available = fill(1);
+                if (available == 0) {
+                    break;
+                }
+            }
+
+            final int count = Math.min(available, len - n);
+            buf.get(b, off + n, count);
+            n += count;
+        }
+        return n == 0 ? -1 : n;
+    }
+
+    /**
+     * Reads a short in the configured byte order
+     * @return The short
+     * @throws EOFException If the end of the stream is reached before all of the bytes are read
+     * @throws IOException Indicates a problem reading from the channel
+     */
+    public short readShort() throws IOException {
+        ensure(2);
+        return buf.getShort();
+    }
+
+    /**
+     * Reads an int in the configured byte order
+     * @return The int
+     * @throws EOFException If the end of the stream is reached before all of the bytes are read
+     * @throws IOException Indicates a problem reading from the channel
+     */
+    public int readInt() throws IOException {
+        ensure(4);
+        return buf.getInt();
+    }
+
+    /**
+     * Reads a long in the configured byte order
+     * @return The long
+     * @throws EOFException If the end of the stream is reached before all of the bytes are read
+     * @throws IOException Indicates a problem reading from the channel
+     */
+    public long readLong() throws IOException {
+        ensure(LONG_BYTES);
+        return buf.getLong();
+    }
+
+    /**
+     * Reads a float in the configured byte order
+     * @return The float
+     * @throws EOFException If the end of the stream is reached before all of the bytes are read
+     * @throws IOException Indicates a problem reading from the channel
+     */
+    public float readFloat() throws IOException {
+        ensure(4);
+        return buf.getFloat();
+    }
+
+    /**
+     * Reads a double in the configured byte order
+     * @return The double
+     * @throws EOFException If the end of the stream is reached before all of the bytes are read
+     * @throws IOException Indicates a problem reading from the channel
+     */
+    public double readDouble() throws IOException {
+        ensure(LONG_BYTES);
+        return buf.getDouble();
+    }
+
+    /**
+     * Reads exactly the given number of bytes into the array
+     * @param b The array into which bytes will be written
+     * @param off The offset within the array of the first byte to be written
+     * @param len The number of bytes to read
+     * @throws EOFException If the end of the stream is reached before all of the bytes are read
+     * @throws IOException Indicates a problem reading from the channel
+     */
+    public void readFully(byte[] b, int off, int len) throws IOException {
+
+        int n = 0;
+        while (n < len) {
+            final int count = read(b, off + n, len - n);
+            if (count < 0) {
+                throw new EOFException("End of stream reached after " + n + " of " + len + " bytes");
+            }
+            n += count;
+        }
+    }
+
+    /**
+     * The byte order used by the typed read methods
+     * @return The ByteOrder
+     */
+    public ByteOrder order() {
+        return buf == null ? null : buf.order();
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+
+        assertOpen();
+
+        if (n <= 0) {
+            return 0;
+        }
+
+        final int buffered = buf.remaining();
+        if (n <= buffered) {
+            buf.position(buf.position() + (int) n);
+            return n;
+        }
+
+        buf.position(buf.limit());
+        long skipped = buffered;
+
+        if (channel instanceof SeekableByteChannel) {
+            final SeekableByteChannel seekable = (SeekableByteChannel) channel;
+            final long position = seekable.position();
+            final long toSkip = Math.min(n - skipped, Math.max(0L, seekable.size() - position));
+            seekable.position(position + toSkip);
+            return skipped + toSkip;
+        }
+
+        while (skipped < n) {
+            final int available = fill(1);
+            if (available == 0) {
+                break;
+            }
+            final int count = (int) Math.min(available, n - skipped);
+            buf.position(buf.position() + count);
+            skipped += count;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+
+        assertOpen();
+
+        final long available = buf.remaining() + channelAvailable();
+        return available > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) available;
+    }
+
+    private long channelAvailable() throws IOException {
+        if (endOfStream) {
+            return 0;
+        }
+        if (channel instanceof SeekableByteChannel) {
+            final SeekableByteChannel seekable = (SeekableByteChannel) channel;
+            return Math.max(0L, seekable.size() - seekable.position());
+        }
+        return 0;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        if (buf == null) {
+            return;
+        }
+
+        try {
+            channel.close();
+        } finally {
+            pool.release(buf);
+            buf = null;
+            channel = null;
+        }
+    }
+}
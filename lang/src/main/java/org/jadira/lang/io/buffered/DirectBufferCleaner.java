@@ -0,0 +1,113 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.lang.io.buffered;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+/**
+ * Releases the native memory held by a direct or mapped {@link ByteBuffer} immediately, rather than when the buffer is garbage
+ * collected. On Java 9 and later this uses Unsafe.invokeCleaner(ByteBuffer), which the JDK provides for this purpose; on Java 8
+ * the buffer's own cleaner is invoked. Both are located reflectively so that no JDK internal types are needed to compile or load
+ * this class. Where neither is available, cleaning does nothing and the memory is released by the garbage collector.
+ * 
+ * A buffer must not be used after it has been cleaned, and neither may any view (slice or duplicate) of it.
+ */
+public final class DirectBufferCleaner {
+
+    private static final MethodHandle CLEANER = findCleaner();
+
+    private DirectBufferCleaner() {
+    }
+
+    private static MethodHandle findCleaner() {
+
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            MethodHandle invokeCleaner = lookup.findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class));
+
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+
+            return invokeCleaner.bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException e) {
+            // Not Java 9 or later, try the Java 8 mechanism
+        } catch (RuntimeException e) {
+            // Not accessible, try the Java 8 mechanism
+        }
+
+        try {
+            Method cleanerMethod = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+            Method cleanMethod = Class.forName("sun.misc.Cleaner").getMethod("clean");
+
+            MethodHandle cleaner = lookup.unreflect(cleanerMethod).asType(MethodType.methodType(Object.class, ByteBuffer.class));
+            MethodHandle clean = lookup.unreflect(cleanMethod).asType(MethodType.methodType(void.class, Object.class));
+
+            // Skip buffers that have no cleaner of their own, which are views of another buffer
+            MethodHandle ifCleaner = MethodHandles.guardWithTest(
+                    lookup.findStatic(DirectBufferCleaner.class, "isNotNull", MethodType.methodType(boolean.class, Object.class)),
+                    clean,
+                    MethodHandles.dropArguments(MethodHandles.constant(Object.class, null).asType(MethodType.methodType(void.class)), 0, Object.class));
+
+            return MethodHandles.filterArguments(ifCleaner, 0, cleaner);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static boolean isNotNull(Object obj) {
+        return obj != null;
+    }
+
+    /**
+     * Indicates whether buffers can be cleaned on this JVM. If false, {@link #clean(ByteBuffer)} has no effect
+     * @return True if buffers can be cleaned
+     */
+    public static boolean isSupported() {
+        return CLEANER != null;
+    }
+
+    /**
+     * Releases the memory held by the given buffer. Heap buffers and null are ignored.
+     * @param buf The buffer to clean
+     */
+    public static void clean(ByteBuffer buf) {
+
+        if (buf == null || !buf.isDirect() || CLEANER == null) {
+            return;
+        }
+
+        try {
+            CLEANER.invokeExact(buf);
+        } catch (IllegalArgumentException e) {
+            // A slice or duplicate, whose memory belongs to another buffer
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not clean buffer: " + e.getMessage(), e);
+        }
+    }
+}
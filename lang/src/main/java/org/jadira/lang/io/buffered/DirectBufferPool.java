@@ -0,0 +1,256 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.lang.io.buffered;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread safe pool of direct {@link ByteBuffer}s. Allocating direct memory is slow compared to allocating on the heap, and
+ * repeatedly allocating and freeing it fragments native memory, so the direct buffered streams borrow their buffers from a pool
+ * and return them when they are closed.
+ * 
+ * Buffers are pooled in size classes that are powers of two between the minimum and maximum sizes, and a request is served
+ * with a buffer of the smallest class that can hold it. A buffer may therefore have a larger capacity than was requested.
+ * Requests above the maximum size are allocated directly and freed when released. Each size class retains a limited number
+ * of buffers; buffers released beyond that are freed using {@link DirectBufferCleaner}.
+ * 
+ * Hits, misses and discards are counted so that the pool's sizing can be tuned.
+ */
+public final class DirectBufferPool {
+
+    /** The default smallest size class in bytes */
+    public static final int DEFAULT_MINIMUM_SIZE = 4096;
+
+    /** The default largest size class in bytes */
+    public static final int DEFAULT_MAXIMUM_SIZE = 4 * 1024 * 1024;
+
+    /** The default number of buffers retained by each size class */
+    public static final int DEFAULT_BUFFERS_PER_SIZE = 32;
+
+    private static final DirectBufferPool DEFAULT_POOL = new DirectBufferPool();
+
+    private final int minimumShift;
+
+    private final int maximumShift;
+
+    private final int buffersPerSize;
+
+    private final Queue<ByteBuffer>[] pools;
+
+    private final AtomicInteger[] pooledCounts;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder discards = new LongAdder();
+
+    /**
+     * Creates a pool with the default sizes
+     */
+    public DirectBufferPool() {
+        this(DEFAULT_MINIMUM_SIZE, DEFAULT_MAXIMUM_SIZE, DEFAULT_BUFFERS_PER_SIZE);
+    }
+
+    /**
+     * Creates a pool with the given sizes
+     * @param minimumSize The smallest size class in bytes. This is rounded up to a power of two
+     * @param maximumSize The largest size class in bytes. This is rounded up to a power of two
+     * @param buffersPerSize The number of buffers retained by each size class
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public DirectBufferPool(int minimumSize, int maximumSize, int buffersPerSize) {
+
+        if (minimumSize <= 0) {
+            throw new IllegalArgumentException("Minimum size may not be less than or equal to zero");
+        }
+        if (maximumSize < minimumSize) {
+            throw new IllegalArgumentException("Maximum size may not be less than the minimum size");
+        }
+        if (maximumSize > (1 << 30)) {
+            throw new IllegalArgumentException("Maximum size may not be greater than 1GB");
+        }
+        if (buffersPerSize < 0) {
+            throw new IllegalArgumentException("Buffers per size may not be negative");
+        }
+
+        this.minimumShift = shiftFor(minimumSize);
+        this.maximumShift = shiftFor(maximumSize);
+        this.buffersPerSize = buffersPerSize;
+
+        final int sizeClasses = maximumShift - minimumShift + 1;
+        this.pools = new Queue[sizeClasses];
+        this.pooledCounts = new AtomicInteger[sizeClasses];
+        for (int i = 0; i < sizeClasses; i++) {
+            pools[i] = new ConcurrentLinkedQueue<ByteBuffer>();
+            pooledCounts[i] = new AtomicInteger();
+        }
+    }
+
+    /**
+     * Returns the pool shared by the buffered streams by default
+     * @return The default DirectBufferPool
+     */
+    public static DirectBufferPool getDefault() {
+        return DEFAULT_POOL;
+    }
+
+    private static int shiftFor(int size) {
+        return size <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(size - 1);
+    }
+
+    /**
+     * Borrows a direct buffer with at least the given capacity. The buffer is cleared and big endian.
+     * @param size The required capacity in bytes
+     * @return The ByteBuffer, which should be given back using {@link #release(ByteBuffer)}
+     */
+    public ByteBuffer acquire(int size) {
+
+        if (size <= 0) {
+            throw new IllegalArgumentException("Buffer size may not be less than or equal to zero");
+        }
+
+        final int shift = Math.max(shiftFor(size), minimumShift);
+        if (shift > maximumShift) {
+            misses.increment();
+            return ByteBuffer.allocateDirect(size);
+        }
+
+        final int index = shift - minimumShift;
+        final ByteBuffer buf = pools[index].poll();
+        if (buf == null) {
+            misses.increment();
+            return ByteBuffer.allocateDirect(1 << shift);
+        }
+
+        pooledCounts[index].decrementAndGet();
+        hits.increment();
+
+        buf.clear();
+        buf.order(ByteOrder.BIG_ENDIAN);
+        return buf;
+    }
+
+    /**
+     * Gives back a buffer borrowed from this pool. The caller must not use the buffer, or any view of it, afterwards.
+     * @param buf The ByteBuffer to release. Null is ignored
+     */
+    public void release(ByteBuffer buf) {
+
+        if (buf == null) {
+            return;
+        }
+        if (!buf.isDirect()) {
+            throw new IllegalArgumentException("Only direct buffers may be released to the pool");
+        }
+
+        final int capacity = buf.capacity();
+        final int shift = shiftFor(capacity);
+        if (capacity != (1 << shift) || shift < minimumShift || shift > maximumShift) {
+            // Not one of the pool's size classes
+            DirectBufferCleaner.clean(buf);
+            return;
+        }
+
+        final int index = shift - minimumShift;
+        if (pooledCounts[index].incrementAndGet() > buffersPerSize) {
+            pooledCounts[index].decrementAndGet();
+            discards.increment();
+            DirectBufferCleaner.clean(buf);
+            return;
+        }
+
+        pools[index].offer(buf);
+    }
+
+    /**
+     * Frees all of the buffers currently held by the pool
+     */
+    public void clear() {
+
+        for (int i = 0; i < pools.length; i++) {
+            ByteBuffer buf;
+            while ((buf = pools[i].poll()) != null) {
+                pooledCounts[i].decrementAndGet();
+                DirectBufferCleaner.clean(buf);
+            }
+        }
+    }
+
+    /**
+     * The number of requests served with a pooled buffer
+     * @return The number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * The number of requests that needed a new buffer to be allocated
+     * @return The number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * The number of released buffers that were freed because their size class was already full
+     * @return The number of discards
+     */
+    public long getDiscards() {
+        return discards.sum();
+    }
+
+    /**
+     * The number of buffers currently held by the pool
+     * @return The number of buffers
+     */
+    public int getPooledBuffers() {
+
+        int count = 0;
+        for (AtomicInteger next : pooledCounts) {
+            count += next.get();
+        }
+        return count;
+    }
+
+    /**
+     * The total capacity of the buffers currently held by the pool
+     * @return The size in bytes
+     */
+    public long getPooledBytes() {
+
+        long bytes = 0;
+        for (int i = 0; i < pooledCounts.length; i++) {
+            bytes += ((long) pooledCounts[i].get()) << (minimumShift + i);
+        }
+        return bytes;
+    }
+
+    /**
+     * Sets the hit, miss and discard counts back to zero
+     */
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        discards.reset();
+    }
+}
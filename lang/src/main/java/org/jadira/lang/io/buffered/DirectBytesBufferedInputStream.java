@@ -15,18 +15,30 @@
  */
 package org.jadira.lang.io.buffered;
 
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 
 /**
  * A BufferedInputStream where the buffer is provided by a NIO DirectByteBuffer. Use this class as an alternative to {@link java.io.BufferedInputStream}
+ * The buffer is borrowed from a {@link DirectBufferPool} and returned to it when the stream is closed, so its capacity may be larger than the requested size.
  */
 public class DirectBytesBufferedInputStream extends AbstractBufferedInputStream {
 
+    private final DirectBufferPool pool;
+
     private ByteBuffer buf;
 
+    /**
+     * The buffer is filled through a channel so that no byte array is needed. A FileInputStream's own channel
+     * is used; other streams are adapted by {@link Channels#newChannel(InputStream)}.
+     */
+    private final ReadableByteChannel channel;
+
     /**
      * Create a new instance with the default buffer size
      * @param in InputStream to be wrapped
@@ -43,8 +55,7 @@ public class DirectBytesBufferedInputStream extends AbstractBufferedInputStream
      * @see java.io.BufferedInputStream#BufferedInputStream(InputStream, int)
      */
     public DirectBytesBufferedInputStream(InputStream in, int size) {
-        super(in, size);
-        buf = ByteBuffer.allocateDirect(size);
+        this(in, size, ByteOrder.BIG_ENDIAN, DirectBufferPool.getDefault());
     }
 
     /**
@@ -67,8 +78,23 @@ public class DirectBytesBufferedInputStream extends AbstractBufferedInputStream
      * @see java.io.BufferedInputStream#BufferedInputStream(InputStream, int)
      */
     public DirectBytesBufferedInputStream(InputStream in, int size, ByteOrder byteOrder) {
-        this(in, size);
+        this(in, size, byteOrder, DirectBufferPool.getDefault());
+    }
+
+    /**
+     * Creates a new instance with the given buffer size in bytes, borrowing the buffer from the given pool.
+     * @param in InputStream to be wrapped
+     * @param size The size of the buffer in bytes
+     * @param byteOrder Explicitly configure the byte order to be used.
+     * @param pool The pool that provides the buffer
+     * @see java.io.BufferedInputStream#BufferedInputStream(InputStream, int)
+     */
+    public DirectBytesBufferedInputStream(InputStream in, int size, ByteOrder byteOrder, DirectBufferPool pool) {
+        super(in, size);
+        this.pool = pool;
+        buf = pool.acquire(size);
         buf.order(byteOrder);
+        channel = (in instanceof FileInputStream) ? ((FileInputStream) in).getChannel() : Channels.newChannel(in);
     }
 
     @Override
@@ -85,8 +111,15 @@ public class DirectBytesBufferedInputStream extends AbstractBufferedInputStream
     }
 
     @Override
-    protected byte[] toArray() {
-        return buf.array();
+    protected int readFrom(InputStream in, int position, int length) throws IOException {
+
+        buf.limit(position + length);
+        buf.position(position);
+        try {
+            return channel.read(buf);
+        } finally {
+            buf.limit(buf.capacity());
+        }
     }
 
     @Override
@@ -96,17 +129,18 @@ public class DirectBytesBufferedInputStream extends AbstractBufferedInputStream
             newSize = getMarkLimit();
         }
 
-        ByteBuffer nbuf = ByteBuffer.allocateDirect(newSize);
+        if (buf == null) {
+            throw new IOException("Stream closed");
+        }
+
+        ByteBuffer nbuf = pool.acquire(newSize);
+        nbuf.order(buf.order());
 
         buf.rewind();
         nbuf.put(buf);
         nbuf.position(position);
 
-        if (buf == null) {
-            throw new IOException("Stream closed");
-        }
-
-        doClean(buf);
+        pool.release(buf);
         buf = nbuf;
     }
 
@@ -118,12 +152,13 @@ public class DirectBytesBufferedInputStream extends AbstractBufferedInputStream
     @Override
     protected int getInt(int position) throws IOException {
         assertBufferOpen();
-        return buf.getInt(position);
+        return buf.get(position);
     }
 
     @Override
-    protected void get(byte[] b, int pos, int cnt) {
-        buf.get(b, pos, cnt);
+    protected void get(int position, byte[] b, int off, int len) {
+        buf.position(position);
+        buf.get(b, off, len);
     }
 
     @Override
@@ -133,22 +168,8 @@ public class DirectBytesBufferedInputStream extends AbstractBufferedInputStream
             return;
         }
 
-        doClean(buf);
+        pool.release(buf);
 
         buf = null;
     }
-
-    @SuppressWarnings("restriction")
-    private void doClean(ByteBuffer buf) {
-
-        if (buf == null) {
-            return;
-        }
-
-        sun.misc.Cleaner cleaner = ((sun.nio.ch.DirectBuffer) buf).cleaner();
-
-        if (cleaner != null) {
-            cleaner.clean();
-        }
-    }
 }
@@ -15,17 +15,30 @@
  */
 package org.jadira.lang.io.buffered;
 
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * A BufferedOutputStream where the buffer is provided by a NIO DirectByteBuffer. Use this class as an alternative to {@link java.io.BufferedOutputStream}
+ * The buffer is borrowed from a {@link DirectBufferPool} and returned to it when the stream is closed, so its capacity may be larger than the requested size.
  */
 public class DirectBytesBufferedOutputStream extends AbstractBufferedOutputStream {
 
+    private final DirectBufferPool pool;
+
     private ByteBuffer buf;
 
+    /**
+     * The buffer is written through a channel so that no byte array is needed. A FileOutputStream's own channel
+     * is used; other streams are adapted by {@link Channels#newChannel(OutputStream)}.
+     */
+    private final WritableByteChannel channel;
+
     /**
      * Creates a new instance with the default buffer size
      * @param out OutputStream to be decorated
@@ -42,11 +55,7 @@ public class DirectBytesBufferedOutputStream extends AbstractBufferedOutputStrea
      * @see java.io.BufferedOutputStream#BufferedOutputStream(OutputStream, int)
      */
     public DirectBytesBufferedOutputStream(OutputStream out, int size) {
-        super(out);
-        if (size <= 0) {
-            throw new IllegalArgumentException("Buffer size may not be less than or equal to zero");
-        }
-        buf = ByteBuffer.allocateDirect(size);
+        this(out, size, ByteOrder.BIG_ENDIAN, DirectBufferPool.getDefault());
     }
 
     /**
@@ -69,29 +78,51 @@ public class DirectBytesBufferedOutputStream extends AbstractBufferedOutputStrea
      * @see java.io.BufferedOutputStream#BufferedOutputStream(OutputStream, int)
      */
     public DirectBytesBufferedOutputStream(OutputStream out, int size, ByteOrder byteOrder) {
-        this(out, size);
+        this(out, size, byteOrder, DirectBufferPool.getDefault());
+    }
+
+    /**
+     * Creates a new instance with the given buffer size in bytes, borrowing the buffer from the given pool.
+     * @param out OutputStream to be decorated
+     * @param size The size of the buffer in bytes
+     * @param byteOrder Indicates the byte order to be used.
+     * @param pool The pool that provides the buffer
+     * @see java.io.BufferedOutputStream#BufferedOutputStream(OutputStream, int)
+     */
+    public DirectBytesBufferedOutputStream(OutputStream out, int size, ByteOrder byteOrder, DirectBufferPool pool) {
+        super(out);
+        if (size <= 0) {
+            throw new IllegalArgumentException("Buffer size may not be less than or equal to zero");
+        }
+        this.pool = pool;
+        buf = pool.acquire(size);
         buf.order(byteOrder);
+        channel = (out instanceof FileOutputStream) ? ((FileOutputStream) out).getChannel() : Channels.newChannel(out);
     }
 
     @Override
-    protected byte[] bytes() {
-        return buf.array();
+    protected void writeTo(OutputStream out, int count) throws IOException {
+
+        buf.position(0);
+        buf.limit(count);
+        try {
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+        } finally {
+            buf.clear();
+        }
     }
 
     @Override
-    protected void put(byte b) {
-        put(b);
+    protected void put(int position, byte b) {
+        buf.put(position, b);
     }
 
     @Override
     protected void put(int count, byte[] b, int off, int len) {
-        if (off == 0) {
-            buf.put(b, count, len);
-        } else {
-            byte[] bc = new byte[len];
-            System.arraycopy(b, off, bc, 0, len);
-            buf.put(bc, count, len);
-        }
+        buf.position(count);
+        buf.put(b, off, len);
     }
 
     @Override
@@ -99,7 +130,6 @@ public class DirectBytesBufferedOutputStream extends AbstractBufferedOutputStrea
         return buf.limit();
     }
 
-    @SuppressWarnings("restriction")
     @Override
     protected void clean() {
 
@@ -107,10 +137,8 @@ public class DirectBytesBufferedOutputStream extends AbstractBufferedOutputStrea
             return;
         }
 
-        sun.misc.Cleaner cleaner = ((sun.nio.ch.DirectBuffer) buf).cleaner();
+        pool.release(buf);
 
-        if (cleaner != null) {
-            cleaner.clean();
-        }
+        buf = null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,337 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.lang.io.buffered;
+
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * A BufferedOutputStream that flushes with a gathering write ({@link GatheringByteChannel#write(ByteBuffer[], int, int)}), so
+ * that buffered bytes and large payloads reach the channel in a single operation without being copied together first. Use this
+ * class as an alternative to {@link BytesBufferedOutputStream} where the output consists of many records made of a small header
+ * and a larger payload.
+ * 
+ * Writes smaller than the direct write threshold are copied into a direct buffer borrowed from a {@link DirectBufferPool}.
+ * A byte array at or above the threshold is not copied: it is written along with the buffered bytes straight away, since the
+ * caller may reuse the array once write returns. A {@link ByteBuffer} at or above the threshold passed to {@link #write(ByteBuffer)}
+ * is queued without copying and written at the next flush, so it must not be modified until then.
+ * 
+ * A FileOutputStream is written through its {@link java.nio.channels.FileChannel}. Other streams are adapted using
+ * {@link Channels#newChannel(OutputStream)}, which does not support gathering writes, so each buffer is then written in turn.
+ * Channels should be in blocking mode. Like {@link java.io.BufferedOutputStream}, instances are not intended to be shared
+ * between threads.
+ */
+public class GatheringBufferedOutputStream extends FilterOutputStream {
+
+    /** The default buffer size in bytes */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /** The maximum number of buffers written by one gathering write */
+    private static final int MAXIMUM_QUEUED_BUFFERS = 64;
+
+    private final DirectBufferPool pool;
+
+    private final WritableByteChannel channel;
+
+    private final int directWriteThreshold;
+
+    /**
+     * The buffer holding copied bytes. Bytes from stagedStart to its position have not yet been added to the queue
+     */
+    private ByteBuffer buf;
+
+    private int stagedStart;
+
+    private final ByteBuffer[] queue = new ByteBuffer[MAXIMUM_QUEUED_BUFFERS];
+
+    private int queued;
+
+    private long queuedBytes;
+
+    /**
+     * Creates a new instance with the default buffer size
+     * @param out OutputStream to be decorated
+     * @see java.io.BufferedOutputStream#BufferedOutputStream(OutputStream)
+     */
+    public GatheringBufferedOutputStream(OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a new instance with the given buffer size in bytes. Writes of at least half the buffer size are not copied.
+     * @param out OutputStream to be decorated
+     * @param size The size of the buffer in bytes
+     * @see java.io.BufferedOutputStream#BufferedOutputStream(OutputStream, int)
+     */
+    public GatheringBufferedOutputStream(OutputStream out, int size) {
+        this(out, size, Math.max(1, size / 2), DirectBufferPool.getDefault());
+    }
+
+    /**
+     * Creates a new instance with the given buffer size in bytes, borrowing the buffer from the given pool.
+     * @param out OutputStream to be decorated
+     * @param size The size of the buffer in bytes
+     * @param directWriteThreshold Writes of at least this many bytes are not copied into the buffer. May not be greater than the size
+     * @param pool The pool that provides the buffer
+     */
+    public GatheringBufferedOutputStream(OutputStream out, int size, int directWriteThreshold, DirectBufferPool pool) {
+        this(out, toChannel(out), size, directWriteThreshold, pool);
+    }
+
+    /**
+     * Creates a new instance with the default buffer size that writes to the given channel
+     * @param channel GatheringByteChannel to be written to
+     */
+    public GatheringBufferedOutputStream(GatheringByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a new instance with the given buffer size in bytes that writes to the given channel. Writes of at least half the
+     * buffer size are not copied.
+     * @param channel GatheringByteChannel to be written to
+     * @param size The size of the buffer in bytes
+     */
+    public GatheringBufferedOutputStream(GatheringByteChannel channel, int size) {
+        this(channel, size, Math.max(1, size / 2), DirectBufferPool.getDefault());
+    }
+
+    /**
+     * Creates a new instance with the given buffer size in bytes that writes to the given channel, borrowing the buffer from the given pool.
+     * @param channel GatheringByteChannel to be written to
+     * @param size The size of the buffer in bytes
+     * @param directWriteThreshold Writes of at least this many bytes are not copied into the buffer. May not be greater than the size
+     * @param pool The pool that provides the buffer
+     */
+    public GatheringBufferedOutputStream(GatheringByteChannel channel, int size, int directWriteThreshold, DirectBufferPool pool) {
+        this(null, channel, size, directWriteThreshold, pool);
+
+        if (channel == null) {
+            throw new IllegalArgumentException("Channel may not be null");
+        }
+    }
+
+    private GatheringBufferedOutputStream(OutputStream out, WritableByteChannel channel, int size, int directWriteThreshold, DirectBufferPool pool) {
+        super(out);
+
+        if (size <= 0) {
+            throw new IllegalArgumentException("Buffer size may not be less than or equal to zero");
+        }
+        if (directWriteThreshold <= 0) {
+            throw new IllegalArgumentException("Direct write threshold may not be less than or equal to zero");
+        }
+        if (directWriteThreshold > size) {
+            throw new IllegalArgumentException("Direct write threshold may not be greater than the buffer size");
+        }
+
+        this.channel = channel;
+        this.directWriteThreshold = directWriteThreshold;
+        this.pool = pool;
+        this.buf = pool.acquire(size);
+    }
+
+    private static WritableByteChannel toChannel(OutputStream out) {
+
+        if (out == null) {
+            throw new IllegalArgumentException("OutputStream may not be null");
+        }
+        if (out instanceof FileOutputStream) {
+            return ((FileOutputStream) out).getChannel();
+        }
+        return Channels.newChannel(out);
+    }
+
+    private void assertOpen() throws IOException {
+        if (buf == null) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    /**
+     * Adds the bytes copied into the buffer since the last call to the queue
+     */
+    private void queueStaged() {
+
+        final int position = buf.position();
+        if (position > stagedStart) {
+
+            final ByteBuffer staged = buf.duplicate();
+            staged.position(stagedStart);
+            staged.limit(position);
+            queue[queued++] = staged;
+            queuedBytes += position - stagedStart;
+
+            stagedStart = position;
+        }
+    }
+
+    /**
+     * Adds a buffer to the queue, after any bytes already copied into the buffer
+     */
+    private void queue(ByteBuffer src) throws IOException {
+
+        // Leave room for the staged bytes and the new buffer, and for any bytes staged after it to be queued by the flush
+        if (queued + 3 > MAXIMUM_QUEUED_BUFFERS) {
+            flushBuffer();
+        }
+
+        queueStaged();
+        queue[queued++] = src;
+        queuedBytes += src.remaining();
+    }
+
+    private void flushBuffer() throws IOException {
+
+        queueStaged();
+
+        try {
+            if (channel instanceof GatheringByteChannel) {
+
+                final GatheringByteChannel gatheringChannel = (GatheringByteChannel) channel;
+
+                int first = 0;
+                long remaining = queuedBytes;
+                while (remaining > 0) {
+                    remaining -= gatheringChannel.write(queue, first, queued - first);
+                    while (first < queued && !queue[first].hasRemaining()) {
+                        first++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < queued; i++) {
+                    while (queue[i].hasRemaining()) {
+                        channel.write(queue[i]);
+                    }
+                }
+            }
+        } finally {
+            Arrays.fill(queue, 0, queued, null);
+            queued = 0;
+            queuedBytes = 0;
+
+            buf.clear();
+            stagedStart = 0;
+        }
+    }
+
+    /**
+     * @see java.io.BufferedOutputStream#write(int)
+     */
+    @Override
+    public void write(int b) throws IOException {
+
+        assertOpen();
+
+        if (!buf.hasRemaining()) {
+            flushBuffer();
+        }
+        buf.put((byte) b);
+    }
+
+    /**
+     * Writes bytes from the array. When len is at least the direct write threshold, the bytes are written along with any
+     * buffered bytes before this method returns, without being copied.
+     * @see java.io.BufferedOutputStream#write(byte[], int, int)
+     */
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+
+        assertOpen();
+
+        if ((off | len | (off + len) | (b.length - (off + len))) < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        if (len >= directWriteThreshold) {
+            queue(ByteBuffer.wrap(b, off, len));
+            flushBuffer();
+            return;
+        }
+
+        if (len > buf.remaining()) {
+            flushBuffer();
+        }
+        buf.put(b, off, len);
+    }
+
+    /**
+     * Writes the remaining bytes of the given buffer, advancing its position to its limit. When at least the direct write threshold
+     * of bytes remain, they are not copied but queued and written by the next flush, so the buffer's content must not be changed
+     * until {@link #flush()} or {@link #close()} is called.
+     * @param src The ByteBuffer to write
+     * @throws IOException Indicates a problem writing to the channel
+     */
+    public void write(ByteBuffer src) throws IOException {
+
+        assertOpen();
+
+        final int len = src.remaining();
+        if (len >= directWriteThreshold) {
+            queue(src.slice());
+            src.position(src.limit());
+            return;
+        }
+
+        if (len > buf.remaining()) {
+            flushBuffer();
+        }
+        buf.put(src);
+    }
+
+    /**
+     * @see java.io.BufferedOutputStream#flush
+     */
+    @Override
+    public void flush() throws IOException {
+
+        assertOpen();
+
+        flushBuffer();
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        if (buf == null) {
+            return;
+        }
+
+        try {
+            flush();
+        } finally {
+            try {
+                if (out != null) {
+                    out.close();
+                } else {
+                    channel.close();
+                }
+            } finally {
+                pool.release(buf);
+                buf = null;
+            }
+        }
+    }
+}
@@ -16,6 +16,7 @@
 package org.jadira.lang.io.core;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
@@ -23,6 +24,7 @@ import java.net.URL;
 
 import javax.xml.transform.sax.SAXSource;
 
+import org.jadira.lang.io.io2nio.MappedFileInputStream;
 import org.springframework.core.io.InputStreamSource;
 import org.springframework.core.io.Resource;
 import org.xml.sax.InputSource;
@@ -116,6 +118,19 @@ public class ResourceInputSource extends InputSource {
         doSetFile(file);
     }
 
+    /**
+     * Creates a ResourceInputSource for the given {@link File}, opening a byte stream for it. When memoryMapped is true the
+     * file is read using a {@link MappedFileInputStream}, which is typically faster for large files, including those over 2GB.
+     * Otherwise a {@link FileInputStream} is used.
+     * @param file The file to be parsed
+     * @param memoryMapped If true, the file will be memory mapped
+     * @throws IOException Indicates a problem opening the file
+     */
+    public ResourceInputSource(File file, boolean memoryMapped) throws IOException {
+        doSetFile(file);
+        setByteStream(memoryMapped ? new MappedFileInputStream(file) : new FileInputStream(file));
+    }
+
     private void doSetFile(File file) {
         this.file = file;
     }
@@ -0,0 +1,289 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.lang.io.io2nio;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import org.jadira.lang.io.buffered.DirectBufferCleaner;
+
+/**
+ * An InputStream that reads a file by memory mapping it. The file is mapped one segment at a time, so files larger than the
+ * 2GB that a single {@link MappedByteBuffer} can address are supported, and at most one segment is mapped at any time. Each
+ * segment is unmapped as soon as the stream moves beyond it and the last one is unmapped when the stream is closed, rather
+ * than when the buffer happens to be garbage collected.
+ * 
+ * Like {@link ByteBufferBackedInputStream} the stream can be positioned and supports mark and reset, but positions are longs.
+ * Instances are not safe for use by multiple threads.
+ */
+public class MappedFileInputStream extends InputStream {
+
+    /** The default segment size in bytes */
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 28;
+
+    private FileChannel channel;
+
+    private final long length;
+
+    private final int segmentSize;
+
+    private MappedByteBuffer segment;
+
+    private long segmentStart;
+
+    private long position;
+
+    private long mark = -1;
+
+    private int readlimit = -1;
+
+    /**
+     * Creates a new instance for the given file with the default segment size
+     * @param file The file to be read
+     * @throws IOException Indicates a problem opening the file
+     */
+    public MappedFileInputStream(File file) throws IOException {
+        this(file, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Creates a new instance for the given file
+     * @param file The file to be read
+     * @param segmentSize The number of bytes of the file mapped at one time
+     * @throws IOException Indicates a problem opening the file
+     */
+    public MappedFileInputStream(File file, int segmentSize) throws IOException {
+
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("Segment size may not be less than or equal to zero");
+        }
+
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            this.channel = raf.getChannel();
+            this.length = channel.size();
+        } catch (IOException e) {
+            closeAfterFailure(raf);
+            throw e;
+        } catch (RuntimeException e) {
+            closeAfterFailure(raf);
+            throw e;
+        }
+        this.segmentSize = segmentSize;
+    }
+
+    private static void closeAfterFailure(RandomAccessFile raf) {
+        try {
+            raf.close();
+        } catch (IOException ignored) {
+            // The original failure is reported instead
+        }
+    }
+
+    private void assertOpen() throws IOException {
+        if (channel == null) {
+            throw new IOException("MappedFileInputStream was already closed");
+        }
+    }
+
+    /**
+     * Returns the segment containing the current position, mapping it if necessary
+     * @return The segment, positioned at the current position, or null at the end of the file
+     */
+    private MappedByteBuffer currentSegment() throws IOException {
+
+        if (position >= length) {
+            return null;
+        }
+
+        if (segment == null || position < segmentStart || position >= segmentStart + segment.limit()) {
+
+            DirectBufferCleaner.clean(segment);
+            segment = null;
+
+            segmentStart = position - (position % segmentSize);
+            segment = channel.map(MapMode.READ_ONLY, segmentStart, Math.min(segmentSize, length - segmentStart));
+        }
+
+        segment.position((int) (position - segmentStart));
+        return segment;
+    }
+
+    @Override
+    public int read() throws IOException {
+
+        assertOpen();
+
+        MappedByteBuffer buf = currentSegment();
+        if (buf == null) {
+            return -1;
+        }
+
+        final int res = buf.get() & 0xFF;
+        position++;
+        invalidateMark();
+
+        return res;
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+
+        assertOpen();
+
+        if ((off | len | (off + len) | (bytes.length - (off + len))) < 0) {
+            throw new IndexOutOfBoundsException();
+        } else if (len == 0) {
+            return 0;
+        }
+
+        int n = 0;
+        MappedByteBuffer buf;
+        while (n < len && (buf = currentSegment()) != null) {
+
+            final int count = Math.min(len - n, buf.remaining());
+            buf.get(bytes, off + n, count);
+            position += count;
+            n += count;
+        }
+
+        if (n == 0) {
+            return -1;
+        }
+
+        invalidateMark();
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+
+        assertOpen();
+
+        if (n <= 0) {
+            return 0;
+        }
+
+        final long skipped = Math.min(n, length - position);
+        position += skipped;
+
+        invalidateMark();
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+
+        assertOpen();
+
+        final long available = length - position;
+        return available > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) available;
+    }
+
+    /**
+     * Returns the length of the file
+     * @return The length in bytes
+     */
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Returns the position within the file of the next byte to be read
+     * @return The position
+     */
+    public long position() {
+        return position;
+    }
+
+    /**
+     * Moves the stream to the given position within the file
+     * @param position The new position, which may not be greater than the length of the file
+     * @throws IOException Indicates the stream was closed
+     */
+    public void position(long position) throws IOException {
+
+        assertOpen();
+
+        if (position < 0 || position > length) {
+            throw new IllegalArgumentException("Position must be between 0 and " + length + ": " + position);
+        }
+
+        this.position = position;
+        invalidateMark();
+    }
+
+    /**
+     * Returns the stream to the start of the file
+     * @throws IOException Indicates the stream was closed
+     */
+    public void rewind() throws IOException {
+        position(0);
+    }
+
+    private void invalidateMark() {
+        if (mark >= 0 && readlimit >= 0) {
+            if (position > (mark + readlimit)) {
+                mark = -1;
+                readlimit = -1;
+            }
+        }
+    }
+
+    @Override
+    public void mark(int readlimit) {
+
+        mark = position;
+        this.readlimit = readlimit;
+    }
+
+    @Override
+    public void reset() throws IOException {
+
+        assertOpen();
+
+        if (mark < 0) {
+            throw new IOException("Attempted to call reset() but mark was not valid");
+        }
+        position = mark;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        if (channel == null) {
+            return;
+        }
+
+        try {
+            channel.close();
+        } finally {
+            DirectBufferCleaner.clean(segment);
+            segment = null;
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.lang.io.io2nio;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import org.jadira.lang.io.buffered.DirectBufferCleaner;
+
+/**
+ * Reads values at arbitrary positions within a file by memory mapping it. The file is divided into segments that are mapped
+ * when first read, so files larger than the 2GB that a single {@link MappedByteBuffer} can address are supported. Values that
+ * span two segments are assembled from their bytes. All of the segments are unmapped when the reader is closed.
+ * 
+ * Use {@link MappedFileInputStream} instead to read a file sequentially. Instances are not safe for use by multiple threads.
+ */
+public class MappedFileReader implements Closeable {
+
+    private FileChannel channel;
+
+    private final long length;
+
+    private final int segmentSize;
+
+    private final ByteOrder byteOrder;
+
+    private MappedByteBuffer[] segments;
+
+    /**
+     * Creates a new instance for the given file with the default segment size and big endian byte order
+     * @param file The file to be read
+     * @throws IOException Indicates a problem opening the file
+     */
+    public MappedFileReader(File file) throws IOException {
+        this(file, MappedFileInputStream.DEFAULT_SEGMENT_SIZE, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Creates a new instance for the given file
+     * @param file The file to be read
+     * @param segmentSize The number of bytes of the file mapped by each segment
+     * @param byteOrder The byte order used to read values
+     * @throws IOException Indicates a problem opening the file
+     */
+    public MappedFileReader(File file, int segmentSize, ByteOrder byteOrder) throws IOException {
+
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("Segment size may not be less than or equal to zero");
+        }
+
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            this.channel = raf.getChannel();
+            this.length = channel.size();
+            this.segments = new MappedByteBuffer[(int) ((length + segmentSize - 1) / segmentSize)];
+        } catch (IOException e) {
+            closeAfterFailure(raf);
+            throw e;
+        } catch (RuntimeException e) {
+            closeAfterFailure(raf);
+            throw e;
+        }
+        this.segmentSize = segmentSize;
+        this.byteOrder = byteOrder;
+    }
+
+    private static void closeAfterFailure(RandomAccessFile raf) {
+        try {
+            raf.close();
+        } catch (IOException ignored) {
+            // The original failure is reported instead
+        }
+    }
+
+    private MappedByteBuffer segment(int index) throws IOException {
+
+        if (channel == null) {
+            throw new IOException("MappedFileReader was already closed");
+        }
+
+        MappedByteBuffer segment = segments[index];
+        if (segment == null) {
+
+            final long start = (long) index * segmentSize;
+            segment = channel.map(MapMode.READ_ONLY, start, Math.min(segmentSize, length - start));
+            segment.order(byteOrder);
+            segments[index] = segment;
+        }
+        return segment;
+    }
+
+    private void checkBounds(long position, int size) throws IOException {
+
+        if (position < 0) {
+            throw new IllegalArgumentException("Position may not be negative: " + position);
+        }
+        if (position + size > length) {
+            throw new EOFException("Reading " + size + " bytes at " + position + " would pass the end of the file at " + length);
+        }
+    }
+
+    /**
+     * Returns the length of the file
+     * @return The length in bytes
+     */
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Returns the byte order used to read values
+     * @return The ByteOrder
+     */
+    public ByteOrder order() {
+        return byteOrder;
+    }
+
+    /**
+     * Reads the byte at the given position
+     * @param position The position within the file
+     * @return The byte
+     * @throws IOException Indicates the position is beyond the end of the file or the reader was closed
+     */
+    public byte get(long position) throws IOException {
+
+        checkBounds(position, 1);
+        return segment((int) (position / segmentSize)).get((int) (position % segmentSize));
+    }
+
+    /**
+     * Copies bytes starting at the given position into the array
+     * @param position The position within the file of the first byte
+     * @param b The array into which bytes will be written
+     * @param off The offset within the array of the first byte to be written
+     * @param len The number of bytes to copy
+     * @throws IOException Indicates the bytes extend beyond the end of the file or the reader was closed
+     */
+    public void get(long position, byte[] b, int off, int len) throws IOException {
+
+        if ((off | len | (off + len) | (b.length - (off + len))) < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        checkBounds(position, len);
+
+        int n = 0;
+        while (n < len) {
+
+            final long current = position + n;
+            final MappedByteBuffer segment = segment((int) (current / segmentSize));
+            final int offset = (int) (current % segmentSize);
+            final int count = Math.min(len - n, segment.limit() - offset);
+
+            segment.position(offset);
+            segment.get(b, off + n, count);
+            n += count;
+        }
+    }
+
+    /**
+     * Reads a short at the given position
+     * @param position The position within the file
+     * @return The short
+     * @throws IOException Indicates the value extends beyond the end of the file or the reader was closed
+     */
+    public short getShort(long position) throws IOException {
+
+        checkBounds(position, 2);
+
+        final MappedByteBuffer segment = segment((int) (position / segmentSize));
+        final int offset = (int) (position % segmentSize);
+        if (offset + 2 <= segment.limit()) {
+            return segment.getShort(offset);
+        }
+        return (short) assemble(position, 2);
+    }
+
+    /**
+     * Reads an int at the given position
+     * @param position The position within the file
+     * @return The int
+     * @throws IOException Indicates the value extends beyond the end of the file or the reader was closed
+     */
+    public int getInt(long position) throws IOException {
+
+        checkBounds(position, 4);
+
+        final MappedByteBuffer segment = segment((int) (position / segmentSize));
+        final int offset = (int) (position % segmentSize);
+        if (offset + 4 <= segment.limit()) {
+            return segment.getInt(offset);
+        }
+        return (int) assemble(position, 4);
+    }
+
+    /**
+     * Reads a long at the given position
+     * @param position The position within the file
+     * @return The long
+     * @throws IOException Indicates the value extends beyond the end of the file or the reader was closed
+     */
+    public long getLong(long position) throws IOException {
+
+        checkBounds(position, 8);
+
+        final MappedByteBuffer segment = segment((int) (position / segmentSize));
+        final int offset = (int) (position % segmentSize);
+        if (offset + 8 <= segment.limit()) {
+            return segment.getLong(offset);
+        }
+        return assemble(position, 8);
+    }
+
+    /**
+     * Reads a float at the given position
+     * @param position The position within the file
+     * @return The float
+     * @throws IOException Indicates the value extends beyond the end of the file or the reader was closed
+     */
+    public float getFloat(long position) throws IOException {
+        return Float.intBitsToFloat(getInt(position));
+    }
+
+    /**
+     * Reads a double at the given position
+     * @param position The position within the file
+     * @return The double
+     * @throws IOException Indicates the value extends beyond the end of the file or the reader was closed
+     */
+    public double getDouble(long position) throws IOException {
+        return Double.longBitsToDouble(getLong(position));
+    }
+
+    /**
+     * Assembles a value that spans two segments from its bytes
+     */
+    private long assemble(long position, int size) throws IOException {
+
+        long value = 0;
+        if (byteOrder == ByteOrder.BIG_ENDIAN) {
+            for (int i = 0; i < size; i++) {
+                value = (value << 8) | (get(position + i) & 0xFFL);
+            }
+        } else {
+            for (int i = size - 1; i >= 0; i--) {
+                value = (value << 8) | (get(position + i) & 0xFFL);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        if (channel == null) {
+            return;
+        }
+
+        try {
+            channel.close();
+        } finally {
+            for (int i = 0; i < segments.length; i++) {
+                DirectBufferCleaner.clean(segments[i]);
+                segments[i] = null;
+            }
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.lang.io.buffered;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class BufferedStreamsTest {
+
+    private static final int BUFFER_SIZE = 16;
+
+    private static final byte[] DATA = new byte[1000];
+
+    static {
+        for (int i = 0; i < DATA.length; i++) {
+            DATA[i] = (byte) (i * 31);
+        }
+    }
+
+    /**
+     * The buffered output and input streams, paired by the kind of buffer they use
+     */
+    private enum StreamPair {
+
+        BYTE_ARRAY {
+            @Override
+            OutputStream output(OutputStream out) {
+                return new ByteArrayBufferedOutputStream(out, BUFFER_SIZE);
+            }
+
+            @Override
+            InputStream input(InputStream in) {
+                return new ByteArrayBufferedInputStream(in, BUFFER_SIZE);
+            }
+        },
+        BYTES {
+            @Override
+            OutputStream output(OutputStream out) {
+                return new BytesBufferedOutputStream(out, BUFFER_SIZE);
+            }
+
+            @Override
+            InputStream input(InputStream in) {
+                return new BytesBufferedInputStream(in, BUFFER_SIZE);
+            }
+        },
+        DIRECT_BYTES {
+            @Override
+            OutputStream output(OutputStream out) {
+                return new DirectBytesBufferedOutputStream(out, BUFFER_SIZE);
+            }
+
+            @Override
+            InputStream input(InputStream in) {
+                return new DirectBytesBufferedInputStream(in, BUFFER_SIZE);
+            }
+        },
+        CHANNEL {
+            @Override
+            OutputStream output(OutputStream out) {
+                return new GatheringBufferedOutputStream(out, BUFFER_SIZE);
+            }
+
+            @Override
+            InputStream input(InputStream in) {
+                return new ChannelBufferedInputStream(in, BUFFER_SIZE);
+            }
+        };
+
+        abstract OutputStream output(OutputStream out);
+
+        abstract InputStream input(InputStream in);
+    }
+
+    @Test
+    public void testWriteRoundTrip() throws IOException {
+
+        for (StreamPair pair : StreamPair.values()) {
+
+            ByteArrayOutputStream sink = new ByteArrayOutputStream();
+            OutputStream out = pair.output(sink);
+            try {
+                // Single bytes, then ranges at an offset, crossing the end of the buffer both ways
+                for (int i = 0; i < 100; i++) {
+                    out.write(DATA[i]);
+                }
+                for (int i = 100; i < DATA.length; i += 7) {
+                    out.write(DATA, i, Math.min(7, DATA.length - i));
+                }
+            } finally {
+                out.close();
+            }
+            assertArrayEquals(pair.name(), DATA, sink.toByteArray());
+
+            assertArrayEquals(pair.name(), DATA, readAtOffset(pair.input(new ByteArrayInputStream(sink.toByteArray())), 3, 7));
+        }
+    }
+
+    @Test
+    public void testReadAtOffset() throws IOException {
+
+        for (StreamPair pair : StreamPair.values()) {
+            for (int len : new int[] { 1, 5, BUFFER_SIZE - 1, BUFFER_SIZE + 3, 100 }) {
+                assertArrayEquals(pair.name() + " " + len, DATA, readAtOffset(pair.input(new ByteArrayInputStream(DATA)), 5, len));
+            }
+        }
+    }
+
+    @Test
+    public void testResizeWithMarkAndReset() throws IOException {
+
+        for (StreamPair pair : StreamPair.values()) {
+
+            InputStream in = pair.input(new ByteArrayInputStream(DATA));
+            if (pair == StreamPair.CHANNEL) {
+                assertFalse(in.markSupported());
+                in.close();
+                continue;
+            }
+            assertTrue(in.markSupported());
+            try {
+                byte[] read = new byte[DATA.length];
+                for (int i = 0; i < 10; i++) {
+                    read[i] = (byte) in.read();
+                }
+
+                // Reading beyond the buffer with a mark set grows the buffer
+                in.mark(200);
+                for (int i = 10; i < 150; i++) {
+                    read[i] = (byte) in.read();
+                }
+                assertArrayEquals(pair.name(), Arrays.copyOfRange(DATA, 10, 150), Arrays.copyOfRange(read, 10, 150));
+
+                in.reset();
+                byte[] reread = readAtOffset(in, 1, 9);
+                assertArrayEquals(pair.name(), Arrays.copyOfRange(DATA, 10, DATA.length), reread);
+            } finally {
+                in.close();
+            }
+        }
+    }
+
+    /**
+     * Reads the stream to its end, each read placing up to len bytes at the given offset in a larger array
+     */
+    private static byte[] readAtOffset(InputStream in, int off, int len) throws IOException {
+
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        byte[] b = new byte[off + len + 1];
+        try {
+            int count;
+            while ((count = in.read(b, off, len)) != -1) {
+                assertTrue(count > 0 && count <= len);
+                assertEquals(0, b[off - 1]);
+                assertEquals(0, b[off + len]);
+                result.write(b, off, count);
+            }
+        } finally {
+            in.close();
+        }
+        return result.toByteArray();
+    }
+}
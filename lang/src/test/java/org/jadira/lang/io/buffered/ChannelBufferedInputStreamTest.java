@@ -0,0 +1,239 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.lang.io.buffered;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+import org.junit.Test;
+
+public class ChannelBufferedInputStreamTest {
+
+    private static final int BUFFER_SIZE = 16;
+
+    private static final byte[] DATA = new byte[256];
+
+    static {
+        for (int i = 0; i < DATA.length; i++) {
+            DATA[i] = (byte) (i * 37 + 11);
+        }
+    }
+
+    @Test
+    public void testTypedReadsAcrossRefill() throws IOException {
+
+        for (ByteOrder order : new ByteOrder[] { ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN }) {
+
+            ByteBuffer expected = ByteBuffer.wrap(DATA).order(order);
+
+            // The channel gives up three bytes at a time, so each typed read starts with fewer bytes buffered than it needs
+            // and the refill has to read the channel more than once
+            ChannelBufferedInputStream in = new ChannelBufferedInputStream(new ChunkedChannel(DATA, 3), BUFFER_SIZE, order, DirectBufferPool.getDefault());
+            try {
+                byte[] skipped = new byte[BUFFER_SIZE - 2];
+                in.readFully(skipped, 0, skipped.length);
+
+                assertEquals(order.toString(), expected.getInt(BUFFER_SIZE - 2), in.readInt());
+                assertEquals(order.toString(), (byte) DATA[BUFFER_SIZE + 2], (byte) in.read());
+
+                in.readFully(new byte[8], 0, 8);
+                assertEquals(order.toString(), expected.getLong(BUFFER_SIZE + 11), in.readLong());
+                assertEquals(order.toString(), expected.getShort(BUFFER_SIZE + 19), in.readShort());
+            } finally {
+                in.close();
+            }
+        }
+    }
+
+    @Test
+    public void testShortFinalValue() throws IOException {
+
+        ChannelBufferedInputStream in = new ChannelBufferedInputStream(new ByteArrayInputStream(DATA, 0, BUFFER_SIZE + 6), BUFFER_SIZE);
+        try {
+            in.readLong();
+            in.readLong();
+            try {
+                in.readLong();
+                fail("Expected an EOFException for a long with only 6 bytes remaining");
+            } catch (EOFException e) {
+            }
+            // The bytes that were available can still be read
+            assertEquals(ByteBuffer.wrap(DATA).getInt(BUFFER_SIZE), in.readInt());
+            try {
+                in.readInt();
+                fail("Expected an EOFException for an int with only 2 bytes remaining");
+            } catch (EOFException e) {
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    @Test
+    public void testSkipOnSeekableChannel() throws IOException {
+
+        File file = writeTempFile(DATA);
+        try {
+            RandomAccessFile raf = new RandomAccessFile(file, "r");
+            ChannelBufferedInputStream in = new ChannelBufferedInputStream(raf.getChannel(), BUFFER_SIZE);
+            try {
+                assertEquals(DATA[0], (byte) in.read());
+                assertEquals(DATA.length - 1, in.available());
+
+                // Skips the rest of the buffer, then seeks the channel
+                assertEquals(100, in.skip(100));
+                assertEquals(DATA.length - 101, in.available());
+                assertEquals(DATA[101], (byte) in.read());
+
+                assertEquals(DATA.length - 102, in.skip(1000));
+                assertEquals(0, in.available());
+                assertEquals(-1, in.read());
+            } finally {
+                in.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testReadReturnsWhenChannelHasNothingAvailable() throws IOException {
+
+        byte[] b = new byte[100];
+
+        // Nothing is known to be available from a channel that is not seekable, so once the bytes from a single read of the
+        // channel are copied, read returns rather than blocking for more
+        ChannelBufferedInputStream in = new ChannelBufferedInputStream(new ChunkedChannel(DATA, 5), BUFFER_SIZE);
+        try {
+            assertEquals(5, in.read(b, 3, 50));
+            assertEquals(DATA[0], b[3]);
+            assertEquals(DATA[4], b[7]);
+            assertEquals(5, in.read(b, 3, 50));
+            assertEquals(DATA[5], b[3]);
+        } finally {
+            in.close();
+        }
+
+        // A seekable channel reports what remains, so the read continues
+        File file = writeTempFile(DATA);
+        try {
+            RandomAccessFile raf = new RandomAccessFile(file, "r");
+            in = new ChannelBufferedInputStream(raf.getChannel(), BUFFER_SIZE);
+            try {
+                assertEquals(50, in.read(b, 3, 50));
+                assertEquals(DATA[49], b[52]);
+            } finally {
+                in.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testClosedStream() throws IOException {
+
+        ChannelBufferedInputStream in = new ChannelBufferedInputStream(new ByteArrayInputStream(DATA), BUFFER_SIZE);
+        assertEquals(DATA[0], (byte) in.read());
+        in.close();
+        in.close();
+
+        try {
+            in.read();
+            fail("Expected read() to fail once closed");
+        } catch (IOException e) {
+        }
+        try {
+            in.read(new byte[4], 0, 4);
+            fail("Expected read(byte[], int, int) to fail once closed");
+        } catch (IOException e) {
+        }
+        try {
+            in.readInt();
+            fail("Expected readInt() to fail once closed");
+        } catch (IOException e) {
+        }
+        try {
+            in.skip(1);
+            fail("Expected skip() to fail once closed");
+        } catch (IOException e) {
+        }
+        try {
+            in.available();
+            fail("Expected available() to fail once closed");
+        } catch (IOException e) {
+        }
+    }
+
+    private static File writeTempFile(byte[] data) throws IOException {
+
+        File file = File.createTempFile("channel", ".dat");
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(data);
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    /**
+     * A channel that is not seekable and reads no more than the given number of bytes at a time
+     */
+    private static final class ChunkedChannel implements ReadableByteChannel {
+
+        private final ReadableByteChannel delegate;
+        private final int chunkSize;
+
+        private ChunkedChannel(byte[] data, int chunkSize) {
+            this.delegate = Channels.newChannel(new ByteArrayInputStream(data));
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+
+            int limit = dst.limit();
+            dst.limit(Math.min(limit, dst.position() + chunkSize));
+            try {
+                return delegate.read(dst);
+            } finally {
+                dst.limit(limit);
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return delegate.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.lang.io.buffered;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+public class DirectBufferCleanerTest {
+
+    @Test
+    public void testSupported() {
+
+        // The JDKs the module is built with allow buffers to be cleaned
+        assertTrue(DirectBufferCleaner.isSupported());
+    }
+
+    @Test
+    public void testCleanIgnoresHeapBuffersAndViews() {
+
+        DirectBufferCleaner.clean(null);
+
+        ByteBuffer heap = ByteBuffer.allocate(16);
+        DirectBufferCleaner.clean(heap);
+        heap.put(0, (byte) 1);
+        assertEquals(1, heap.get(0));
+
+        // A slice shares the memory of its parent, which must be left usable
+        ByteBuffer direct = ByteBuffer.allocateDirect(16);
+        DirectBufferCleaner.clean(direct.slice());
+        DirectBufferCleaner.clean(direct.duplicate());
+        direct.put(0, (byte) 2);
+        assertEquals(2, direct.get(0));
+
+        DirectBufferCleaner.clean(direct);
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.lang.io.buffered;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Test;
+
+public class DirectBufferPoolTest {
+
+    @Test
+    public void testSizeClasses() {
+
+        // Rounded up to 128 and 1024
+        DirectBufferPool pool = new DirectBufferPool(100, 1000, 4);
+
+        assertEquals(128, pool.acquire(1).capacity());
+        assertEquals(128, pool.acquire(128).capacity());
+        assertEquals(256, pool.acquire(129).capacity());
+        assertEquals(1024, pool.acquire(513).capacity());
+
+        // Larger than the largest size class, so allocated at the size asked for
+        ByteBuffer large = pool.acquire(1025);
+        assertEquals(1025, large.capacity());
+        assertTrue(large.isDirect());
+
+        try {
+            pool.acquire(0);
+            fail("Expected a size of zero to be rejected");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void testStatistics() {
+
+        DirectBufferPool pool = new DirectBufferPool(64, 256, 1);
+
+        ByteBuffer first = pool.acquire(100);
+        assertEquals(0, pool.getHits());
+        assertEquals(1, pool.getMisses());
+
+        first.order(ByteOrder.LITTLE_ENDIAN);
+        first.position(10);
+        pool.release(first);
+        assertEquals(1, pool.getPooledBuffers());
+        assertEquals(128, pool.getPooledBytes());
+
+        // The same size class is served from the pool, reset for use
+        ByteBuffer second = pool.acquire(65);
+        assertSame(first, second);
+        assertEquals(0, second.position());
+        assertEquals(128, second.limit());
+        assertEquals(ByteOrder.BIG_ENDIAN, second.order());
+        assertEquals(1, pool.getHits());
+        assertEquals(0, pool.getPooledBuffers());
+
+        ByteBuffer third = pool.acquire(128);
+        assertEquals(2, pool.getMisses());
+
+        // Only one buffer is retained for each size class
+        pool.release(second);
+        pool.release(third);
+        assertEquals(1, pool.getDiscards());
+        assertEquals(1, pool.getPooledBuffers());
+
+        pool.resetStatistics();
+        assertEquals(0, pool.getHits());
+        assertEquals(0, pool.getMisses());
+        assertEquals(0, pool.getDiscards());
+
+        pool.clear();
+        assertEquals(0, pool.getPooledBuffers());
+        assertEquals(0, pool.getPooledBytes());
+    }
+
+    @Test
+    public void testForeignBuffers() {
+
+        DirectBufferPool pool = new DirectBufferPool(64, 256, 4);
+
+        try {
+            pool.release(ByteBuffer.allocate(128));
+            fail("Expected a heap buffer to be rejected");
+        } catch (IllegalArgumentException e) {
+        }
+
+        // Not one of the size classes, so freed rather than pooled
+        pool.release(ByteBuffer.allocateDirect(100));
+        pool.release(ByteBuffer.allocateDirect(32));
+        pool.release(ByteBuffer.allocateDirect(512));
+        pool.release(null);
+
+        assertEquals(0, pool.getPooledBuffers());
+        assertEquals(0, pool.getDiscards());
+    }
+
+    @Test
+    public void testStreamResizeUsesPool() throws IOException {
+
+        byte[] data = new byte[300];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+
+        DirectBufferPool pool = new DirectBufferPool(64, 1024, 4);
+        InputStream in = new DirectBytesBufferedInputStream(new ByteArrayInputStream(data), 64, ByteOrder.BIG_ENDIAN, pool);
+        try {
+            assertEquals(1, pool.getMisses());
+
+            // Reading 200 bytes with a mark set grows the buffer from 64 to 128 and then 256 bytes
+            in.mark(500);
+            byte[] b = new byte[200];
+            for (int i = 0; i < b.length; i++) {
+                b[i] = (byte) in.read();
+            }
+            assertEquals(3, pool.getMisses());
+            assertEquals(2, pool.getPooledBuffers());
+            assertEquals(64 + 128, pool.getPooledBytes());
+
+            in.reset();
+            byte[] reread = new byte[200];
+            for (int i = 0; i < reread.length; i++) {
+                reread[i] = (byte) in.read();
+            }
+            assertArrayEquals(b, reread);
+        } finally {
+            in.close();
+        }
+
+        assertEquals(3, pool.getPooledBuffers());
+        assertEquals(64 + 128 + 256, pool.getPooledBytes());
+
+        // A second stream borrows the buffer the first one started with
+        in = new DirectBytesBufferedInputStream(new ByteArrayInputStream(data), 64, ByteOrder.BIG_ENDIAN, pool);
+        in.close();
+        assertEquals(1, pool.getHits());
+        assertEquals(3, pool.getMisses());
+    }
+}
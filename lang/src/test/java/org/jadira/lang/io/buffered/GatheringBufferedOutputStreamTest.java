@@ -0,0 +1,226 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.lang.io.buffered;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class GatheringBufferedOutputStreamTest {
+
+    private static final int BUFFER_SIZE = 64;
+
+    private static final int THRESHOLD = 16;
+
+    @Test
+    public void testQueueFlushesWhenFull() throws IOException {
+
+        RecordingChannel channel = new RecordingChannel();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+
+        GatheringBufferedOutputStream out = new GatheringBufferedOutputStream(channel, BUFFER_SIZE, THRESHOLD, DirectBufferPool.getDefault());
+        try {
+            // Each large buffer is queued behind the byte copied before it, taking two places in the queue
+            for (int i = 0; i < 100; i++) {
+                out.write(i);
+                expected.write(i);
+
+                byte[] large = bytes(i, THRESHOLD);
+                out.write(ByteBuffer.wrap(large));
+                expected.write(large);
+            }
+
+            assertTrue(channel.writes.size() > 0);
+            for (int buffers : channel.writes) {
+                assertTrue(buffers <= 64);
+            }
+        } finally {
+            out.close();
+        }
+
+        assertArrayEquals(expected.toByteArray(), channel.written.toByteArray());
+    }
+
+    @Test
+    public void testMixedWritesToFile() throws IOException {
+
+        File file = File.createTempFile("gathering", ".dat");
+        try {
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+
+            // A FileOutputStream is written through its FileChannel with gathering writes
+            GatheringBufferedOutputStream out = new GatheringBufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE, THRESHOLD, DirectBufferPool.getDefault());
+            try {
+                writeMixed(out, expected);
+            } finally {
+                out.close();
+            }
+
+            ByteArrayOutputStream written = new ByteArrayOutputStream();
+            InputStream in = new FileInputStream(file);
+            try {
+                int b;
+                while ((b = in.read()) != -1) {
+                    written.write(b);
+                }
+            } finally {
+                in.close();
+            }
+            assertArrayEquals(expected.toByteArray(), written.toByteArray());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testMixedWritesToStream() throws IOException {
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+
+        // Other streams are written one buffer at a time
+        GatheringBufferedOutputStream out = new GatheringBufferedOutputStream(written, BUFFER_SIZE, THRESHOLD, DirectBufferPool.getDefault());
+        try {
+            writeMixed(out, expected);
+        } finally {
+            out.close();
+        }
+        assertArrayEquals(expected.toByteArray(), written.toByteArray());
+    }
+
+    @Test
+    public void testInvalidThreshold() {
+
+        for (int threshold : new int[] { 0, BUFFER_SIZE + 1 }) {
+            try {
+                new GatheringBufferedOutputStream(new ByteArrayOutputStream(), BUFFER_SIZE, threshold, DirectBufferPool.getDefault());
+                fail("Expected a threshold of " + threshold + " to be rejected");
+            } catch (IllegalArgumentException e) {
+            }
+        }
+
+        // The threshold may be the whole buffer
+        new GatheringBufferedOutputStream(new ByteArrayOutputStream(), BUFFER_SIZE, BUFFER_SIZE, DirectBufferPool.getDefault());
+    }
+
+    /**
+     * Writes arrays and heap and direct buffers, both smaller and larger than the threshold and the buffer, with single
+     * bytes and flushes between them
+     */
+    private static void writeMixed(GatheringBufferedOutputStream out, ByteArrayOutputStream expected) throws IOException {
+
+        int[] lengths = { 1, THRESHOLD - 1, THRESHOLD, 5, BUFFER_SIZE - 3, BUFFER_SIZE * 3, 2, THRESHOLD * 2, 7 };
+
+        int seed = 0;
+        for (int round = 0; round < 4; round++) {
+            for (int len : lengths) {
+
+                byte[] b = bytes(seed++, len + 2);
+                switch (seed % 3) {
+                case 0:
+                    out.write(b, 1, len);
+                    break;
+                case 1:
+                    ByteBuffer heap = ByteBuffer.wrap(b, 1, len);
+                    out.write(heap);
+                    assertEquals(0, heap.remaining());
+                    break;
+                default:
+                    ByteBuffer direct = ByteBuffer.allocateDirect(len);
+                    direct.put(b, 1, len);
+                    direct.flip();
+                    out.write(direct);
+                    break;
+                }
+                expected.write(b, 1, len);
+
+                out.write(seed);
+                expected.write(seed);
+            }
+            out.flush();
+        }
+    }
+
+    private static byte[] bytes(int seed, int len) {
+
+        byte[] b = new byte[len];
+        for (int i = 0; i < len; i++) {
+            b[i] = (byte) (seed * 31 + i);
+        }
+        return b;
+    }
+
+    /**
+     * A gathering channel that records the number of buffers passed to each write, and writes no more than 50 bytes at a time
+     */
+    private static final class RecordingChannel implements GatheringByteChannel {
+
+        private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+
+        private final List<Integer> writes = new ArrayList<Integer>();
+
+        private boolean open = true;
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+
+            writes.add(length);
+
+            long count = 0;
+            for (int i = offset; i < offset + length && count < 50; i++) {
+                while (srcs[i].hasRemaining() && count < 50) {
+                    written.write(srcs[i].get());
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs) throws IOException {
+            return write(srcs, 0, srcs.length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return (int) write(new ByteBuffer[] { src }, 0, 1);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() throws IOException {
+            open = false;
+        }
+    }
+}
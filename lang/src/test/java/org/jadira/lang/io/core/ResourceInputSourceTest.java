@@ -0,0 +1,72 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.lang.io.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.jadira.lang.io.io2nio.MappedFileInputStream;
+import org.junit.Test;
+
+public class ResourceInputSourceTest {
+
+    private static final byte[] DATA = "<root><child/></root>".getBytes();
+
+    @Test
+    public void testFileWithByteStream() throws IOException {
+
+        File file = File.createTempFile("resource", ".xml");
+        try {
+            FileOutputStream out = new FileOutputStream(file);
+            try {
+                out.write(DATA);
+            } finally {
+                out.close();
+            }
+
+            for (boolean memoryMapped : new boolean[] { true, false }) {
+
+                ResourceInputSource source = new ResourceInputSource(file, memoryMapped);
+                InputStream in = source.getByteStream();
+                try {
+                    assertSame(file, source.getFile());
+                    assertEquals(file.getName(), source.getFileName());
+                    assertTrue(memoryMapped ? in instanceof MappedFileInputStream : in instanceof FileInputStream);
+
+                    ByteArrayOutputStream result = new ByteArrayOutputStream();
+                    int b;
+                    while ((b = in.read()) != -1) {
+                        result.write(b);
+                    }
+                    assertArrayEquals(DATA, result.toByteArray());
+                } finally {
+                    in.close();
+                }
+            }
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.lang.io.io2nio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class MappedFileInputStreamTest {
+
+    /** Small enough that reads span several segments */
+    private static final int SEGMENT_SIZE = 7;
+
+    private static final byte[] DATA = new byte[100];
+
+    static {
+        for (int i = 0; i < DATA.length; i++) {
+            DATA[i] = (byte) (i * 53 + 7);
+        }
+    }
+
+    @Test
+    public void testReadAcrossSegments() throws IOException {
+
+        File file = writeTempFile(DATA);
+        try {
+            for (int len : new int[] { 1, 3, SEGMENT_SIZE, SEGMENT_SIZE * 2 + 1, DATA.length }) {
+
+                MappedFileInputStream in = new MappedFileInputStream(file, SEGMENT_SIZE);
+                try {
+                    ByteArrayOutputStream result = new ByteArrayOutputStream();
+                    byte[] b = new byte[len + 2];
+                    int count;
+                    while ((count = in.read(b, 2, len)) != -1) {
+                        result.write(b, 2, count);
+                    }
+                    assertArrayEquals("Reading " + len, DATA, result.toByteArray());
+                    assertEquals(-1, in.read());
+                    assertEquals(0, in.available());
+                } finally {
+                    in.close();
+                }
+            }
+
+            MappedFileInputStream in = new MappedFileInputStream(file, SEGMENT_SIZE);
+            try {
+                for (int i = 0; i < DATA.length; i++) {
+                    assertEquals(DATA[i], (byte) in.read());
+                }
+                assertEquals(-1, in.read());
+            } finally {
+                in.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testResetIntoUnmappedSegment() throws IOException {
+
+        File file = writeTempFile(DATA);
+        try {
+            MappedFileInputStream in = new MappedFileInputStream(file, SEGMENT_SIZE);
+            try {
+                in.skip(3);
+                in.mark(50);
+
+                // Moves several segments on, so that the marked segment is no longer mapped
+                byte[] b = new byte[30];
+                assertEquals(30, in.read(b, 0, 30));
+                assertArrayEquals(Arrays.copyOfRange(DATA, 3, 33), b);
+
+                in.reset();
+                assertEquals(3, in.position());
+                assertEquals(DATA[3], (byte) in.read());
+                assertEquals(30, in.read(b, 0, 30));
+                assertArrayEquals(Arrays.copyOfRange(DATA, 4, 34), b);
+
+                // Moving back by position also maps the earlier segment again
+                in.position(SEGMENT_SIZE - 1);
+                assertEquals(2, in.read(b, 0, 2));
+                assertEquals(DATA[SEGMENT_SIZE - 1], b[0]);
+                assertEquals(DATA[SEGMENT_SIZE], b[1]);
+
+                // Reading past the read limit invalidates the mark
+                in.mark(5);
+                in.skip(6);
+                try {
+                    in.reset();
+                    fail("Expected reset() to fail once the read limit was passed");
+                } catch (IOException e) {
+                }
+            } finally {
+                in.close();
+            }
+
+            try {
+                in.read();
+                fail("Expected an IOException once closed");
+            } catch (IOException e) {
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static File writeTempFile(byte[] data) throws IOException {
+
+        File file = File.createTempFile("mapped", ".dat");
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(data);
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ *  Copyright 2015 Chris Pheby
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.jadira.lang.io.io2nio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class MappedFileReaderTest {
+
+    /** Small enough that most values span two segments */
+    private static final int SEGMENT_SIZE = 7;
+
+    private static final byte[] DATA = new byte[100];
+
+    static {
+        for (int i = 0; i < DATA.length; i++) {
+            DATA[i] = (byte) (i * 53 + 7);
+        }
+    }
+
+    @Test
+    public void testValuesAtEveryPosition() throws IOException {
+
+        File file = writeTempFile(DATA);
+        try {
+            for (ByteOrder order : new ByteOrder[] { ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN }) {
+
+                ByteBuffer expected = ByteBuffer.wrap(DATA).order(order);
+                MappedFileReader reader = new MappedFileReader(file, SEGMENT_SIZE, order);
+                try {
+                    assertEquals(DATA.length, reader.length());
+                    assertEquals(order, reader.order());
+
+                    for (int position = 0; position < DATA.length; position++) {
+                        String message = order + " at " + position;
+                        assertEquals(message, DATA[position], reader.get(position));
+                        if (position + 2 <= DATA.length) {
+                            assertEquals(message, expected.getShort(position), reader.getShort(position));
+                        }
+                        if (position + 4 <= DATA.length) {
+                            assertEquals(message, expected.getInt(position), reader.getInt(position));
+                            assertEquals(message, expected.getFloat(position), reader.getFloat(position), 0.0d);
+                        }
+                        if (position + 8 <= DATA.length) {
+                            assertEquals(message, expected.getLong(position), reader.getLong(position));
+                            assertEquals(message, expected.getDouble(position), reader.getDouble(position), 0.0d);
+                        }
+                    }
+                } finally {
+                    reader.close();
+                }
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testBulkGetAcrossSegments() throws IOException {
+
+        File file = writeTempFile(DATA);
+        try {
+            MappedFileReader reader = new MappedFileReader(file, SEGMENT_SIZE, ByteOrder.BIG_ENDIAN);
+            try {
+                for (int position : new int[] { 0, 5, 6, 7, 13, 50 }) {
+                    for (int len : new int[] { 1, 2, SEGMENT_SIZE, SEGMENT_SIZE * 3 + 1, DATA.length - position }) {
+                        if (position + len > DATA.length) {
+                            continue;
+                        }
+                        byte[] b = new byte[len + 4];
+                        reader.get(position, b, 3, len);
+                        String message = position + " for " + len;
+                        assertArrayEquals(message, Arrays.copyOfRange(DATA, position, position + len), Arrays.copyOfRange(b, 3, 3 + len));
+                        assertEquals(message, 0, b[2]);
+                        assertEquals(message, 0, b[3 + len]);
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testReadsPastTheEnd() throws IOException {
+
+        File file = writeTempFile(DATA);
+        try {
+            MappedFileReader reader = new MappedFileReader(file, SEGMENT_SIZE, ByteOrder.BIG_ENDIAN);
+            try {
+                try {
+                    reader.getLong(DATA.length - 7);
+                    fail("Expected an EOFException for a long that passes the end of the file");
+                } catch (EOFException e) {
+                }
+                try {
+                    reader.get(DATA.length - 2, new byte[4], 0, 4);
+                    fail("Expected an EOFException for bytes that pass the end of the file");
+                } catch (EOFException e) {
+                }
+            } finally {
+                reader.close();
+            }
+
+            try {
+                reader.getInt(0);
+                fail("Expected an IOException once closed");
+            } catch (IOException e) {
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static File writeTempFile(byte[] data) throws IOException {
+
+        File file = File.createTempFile("mapped", ".dat");
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(data);
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+}